@@ -0,0 +1,60 @@
+package com.example.benchmarks;
+
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.SolarSystemODE;
+import com.example.utilities.solvers.ODEFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * The O(n^2) force kernel: one evaluation of the n-body derivative, boxed and primitive.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GravityBenchmark {
+
+    @Param({"3", "12", "50", "200"})
+    public int bodies;
+
+    private double[] y;
+    private double[] dydt;
+    private BiFunction<Double, double[], double[]> boxed;
+    private ODEFunction primitive;
+
+    @Setup
+    public void setUp() {
+        List<CelestialBody> system = Systems.bodies(bodies);
+        y = Systems.state(system);
+        dydt = new double[y.length];
+        boxed = SolarSystemODE.generateODE(system);
+        primitive = SolarSystemODE.generateODEFunction(system);
+    }
+
+    @Benchmark
+    public double[] generateODE() {
+        return boxed.apply(0.0, y);
+    }
+
+    @Benchmark
+    public double[] generateODEFunction() {
+        primitive.evaluate(0.0, y, dydt);
+        return dydt;
+    }
+}
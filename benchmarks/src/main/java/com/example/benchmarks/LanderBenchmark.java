@@ -0,0 +1,101 @@
+package com.example.benchmarks;
+
+import com.example.lander.CombinedController;
+import com.example.lander.FeedbackController;
+import com.example.lander.LanderODE;
+import com.example.lander.OpenLoopController;
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.Ship.SpaceShip;
+import com.example.utilities.Vector3D;
+import com.example.utilities.physics_utilities.SolarSystemFactory;
+import com.example.utilities.titanAtmosphere.AtmosphericForce;
+import com.example.utilities.titanAtmosphere.TerrainGenerator.PlanetHeightGrid;
+import com.example.utilities.titanAtmosphere.TerrainGenerator.PlanetSurfaceGrid;
+import com.example.utilities.titanAtmosphere.TerrainGenerator.PlanetWindGrid;
+import com.example.utilities.titanAtmosphere.TitanEnvironment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The descent model: one evaluation of the lander's derivative and the drag force alone, on flat
+ * or Perlin terrain and wind, inside and above the atmosphere (where drag returns early).
+ * Same constants as {@link com.example.lander.LanderSimulator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanderBenchmark {
+
+    private static final double DRAG_COEFF = 0.001;
+    private static final double MAX_ATMOS_HEIGHT = 70.0;
+    private static final double LANDER_MASS = 50000.0;
+
+    @Param({"flat", "perlin"})
+    public String terrain;
+
+    /** Height above the surface in km; the atmosphere ends at 70. */
+    @Param({"10", "300"})
+    public double altitude;
+
+    private LanderODE lander;
+    private AtmosphericForce drag;
+    private SpaceShip ship;
+    private double[] state;
+    private final double[] derivatives = new double[6];
+
+    @Setup
+    public void setUp() {
+        TitanEnvironment environment = environment("perlin".equals(terrain));
+        lander = new LanderODE(new CombinedController(new OpenLoopController(32.85, 49.29), new FeedbackController()),
+                environment, DRAG_COEFF, MAX_ATMOS_HEIGHT, LANDER_MASS);
+        drag = new AtmosphericForce(environment, DRAG_COEFF, MAX_ATMOS_HEIGHT);
+        ship = new SpaceShip("Lander", 0.0, new Vector3D(0.58, -1.67, 0.0), LANDER_MASS, 0.0,
+                new Vector3D(3.2, altitude, 0.0));
+        state = new double[]{3.2, altitude, 0.58, -1.67, 0.01, 0.0};
+    }
+
+    private static TitanEnvironment environment(boolean perlin) {
+        CelestialBody titan = null;
+        for (CelestialBody body : SolarSystemFactory.loadFromTable()) {
+            if (body.getName().equals("Titan")) {
+                titan = body;
+                break;
+            }
+        }
+        PlanetHeightGrid heightGrid = new PlanetHeightGrid(new PlanetSurfaceGrid(titan, 1.0));
+        PlanetWindGrid windGrid = new PlanetWindGrid(new PlanetSurfaceGrid(titan, 1.0));
+        if (perlin) {
+            heightGrid.generatePerlinTerrain(0.05, 1.0, 7);
+            windGrid.generatePerlinWind(0.05, 0.001, 7);
+        } else {
+            heightGrid.generateFlatTerrain(0.0);
+            windGrid.generateConstantWind(new Vector3D(0.0001, 0, 0));
+        }
+        return new TitanEnvironment(heightGrid, windGrid);
+    }
+
+    @Benchmark
+    public double[] landerODE() {
+        lander.evaluate(0.0, state, derivatives);
+        return derivatives;
+    }
+
+    @Benchmark
+    public Vector3D atmosphericForce() {
+        return drag.compute(ship);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.benchmarks;
+
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.physics_utilities.PhysicsEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One step of {@link PhysicsEngine} in each of its modes. The bodies keep moving from one call to
+ * the next, as in the GUI, so the modes that cache accelerations between steps get to use them.
+ * An opening angle above 0 switches to the Barnes–Hut tree, which only pays off with thousands
+ * of bodies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhysicsEngineBenchmark {
+
+    private static final double STEP = 60.0;
+
+    @Param({"3", "12", "50", "200", "10000"})
+    public int bodies;
+
+    @Param({"RK4", "VELOCITY_VERLET", "YOSHIDA4", "WISDOM_HOLMAN"})
+    public PhysicsEngine.Mode mode;
+
+    @Param({"0", "0.5"})
+    public double openingAngle;
+
+    private PhysicsEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new PhysicsEngine(mode, openingAngle);
+        for (CelestialBody body : Systems.copy(Systems.bodies(bodies))) {
+            engine.addBody(body);
+        }
+    }
+
+    @Benchmark
+    public PhysicsEngine step() {
+        engine.step(STEP);
+        return engine;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.benchmarks;
+
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.SolarSystemODE;
+import com.example.utilities.solvers.EulerSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.RKF45Solver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * The integrators on the n-body system, through the BiFunction API the older callers use and
+ * through the primitive ODEFunction API, so the cost of the boxing layer shows up next to the
+ * cost of the method itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    /** One minute steps, about what the GA and the hill climber use. */
+    private static final double STEP = 60.0;
+    private static final int STEPS = 100;
+
+    @Param({"3", "12", "50", "200"})
+    public int bodies;
+
+    private double[] y0;
+    private double[] y;
+    private double[] yOut;
+    private BiFunction<Double, double[], double[]> boxed;
+    private ODEFunction primitive;
+    private final EulerSolver euler = new EulerSolver();
+    private final RK4Solver rk4 = new RK4Solver();
+    private final RKF45Solver rkf45 = new RKF45Solver();
+
+    @Setup
+    public void setUp() {
+        List<CelestialBody> system = Systems.bodies(bodies);
+        y0 = Systems.state(system);
+        y = y0.clone();
+        yOut = new double[y0.length];
+        boxed = SolarSystemODE.generateODE(system);
+        primitive = SolarSystemODE.generateODEFunction(system);
+    }
+
+    @Benchmark
+    public double[][] eulerSolve() {
+        return euler.solve(boxed, 0.0, y0, STEP, STEPS, null);
+    }
+
+    @Benchmark
+    public double[] eulerIntegrate() {
+        return euler.integrate(primitive, 0.0, y0, STEP, STEPS, null, null);
+    }
+
+    @Benchmark
+    public double[] rk4SolveStep() {
+        return rk4.solveStep(boxed, 0.0, y, STEP);
+    }
+
+    @Benchmark
+    public double[] rk4Step() {
+        rk4.step(primitive, 0.0, y, STEP, yOut);
+        return yOut;
+    }
+
+    @Benchmark
+    public double[][] rkf45Solve() {
+        return rkf45.solve(boxed, 0.0, y0, STEP, STEPS, null);
+    }
+
+    @Benchmark
+    public double[] rkf45Integrate() {
+        return rkf45.integrate(primitive, 0.0, y0, STEP, STEPS, null, null);
+    }
+}
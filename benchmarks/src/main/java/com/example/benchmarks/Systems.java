@@ -0,0 +1,66 @@
+package com.example.benchmarks;
+
+import com.example.Constants;
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.Vector3D;
+import com.example.utilities.physics_utilities.SolarSystemFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test systems of any size for the benchmarks.
+ */
+final class Systems {
+
+    private Systems() {
+    }
+
+    /**
+     * The first bodies of {@link SolarSystemFactory#loadFromTable()}, topped up with asteroids on
+     * circular orbits around the Sun when more are asked for. Seeded, so every fork and every run
+     * integrates the same system.
+     */
+    static List<CelestialBody> bodies(int count) {
+        List<CelestialBody> table = SolarSystemFactory.loadFromTable();
+        List<CelestialBody> bodies = new ArrayList<>(table.subList(0, Math.min(count, table.size())));
+        double gmSun = Constants.G * table.get(0).getMass();
+        Random random = new Random(42);
+        while (bodies.size() < count) {
+            double radius = 1.5e8 + 4.0e9 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            double speed = Math.sqrt(gmSun / radius);
+            bodies.add(new CelestialBody("Asteroid " + bodies.size(), 1e15 * (1 + random.nextDouble()),
+                    new Vector3D(radius * Math.cos(angle), radius * Math.sin(angle), 1e6 * random.nextGaussian()),
+                    new Vector3D(-speed * Math.sin(angle), speed * Math.cos(angle), 0.0)));
+        }
+        return bodies;
+    }
+
+    /** [x, y, z, vx, vy, vz] per body, the layout of {@link com.example.utilities.SolarSystemODE}. */
+    static double[] state(List<CelestialBody> bodies) {
+        double[] y = new double[6 * bodies.size()];
+        for (int i = 0; i < bodies.size(); i++) {
+            CelestialBody body = bodies.get(i);
+            y[6 * i] = body.getPosition().x;
+            y[6 * i + 1] = body.getPosition().y;
+            y[6 * i + 2] = body.getPosition().z;
+            y[6 * i + 3] = body.getVelocity().x;
+            y[6 * i + 4] = body.getVelocity().y;
+            y[6 * i + 5] = body.getVelocity().z;
+        }
+        return y;
+    }
+
+    /** Copies so that a benchmark that moves the bodies does not move those of another. */
+    static List<CelestialBody> copy(List<CelestialBody> bodies) {
+        List<CelestialBody> copies = new ArrayList<>(bodies.size());
+        for (CelestialBody body : bodies) {
+            copies.add(new CelestialBody(body.getName(), body.getMass(),
+                    new Vector3D(body.getPosition().x, body.getPosition().y, body.getPosition().z),
+                    new Vector3D(body.getVelocity().x, body.getVelocity().y, body.getVelocity().z)));
+        }
+        return copies;
+    }
+}
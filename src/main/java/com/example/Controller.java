@@ -1,4 +1,5 @@
 package com.example;
+import com.example.ode_gui.SolverJobService;
 import com.example.ode_gui.plotter;
 import com.example.utilities.solvers.*;
 import javafx.beans.binding.DoubleBinding;
@@ -10,6 +11,7 @@ import javafx.scene.chart.LineChart;
 
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
 
@@ -110,6 +112,11 @@ public class Controller {
 
     private ToggleGroup toggleGroup;
 
+    private final SolverJobService jobs = new SolverJobService();
+    private SolverJobService.Job currentJob;
+    // counters of the current job, filled on the worker and read once it has finished
+    private SolverStats jobStats;
+
     @FXML
     public void initialize() {
         toggleGroup = new ToggleGroup();
@@ -162,34 +169,54 @@ public class Controller {
             }
 
             // * cool radiobuttons to choose from higher dimension and first dimension can be applied by the user.
-            double[][] result;
+            ODESolver solver;
             if (eulerMethodRadio.isSelected()) {
                 System.out.println("You're using Euler Method");
-                EulerSolver euler = new EulerSolver();
-                result = euler.solve(odeFunction::apply, x0, initialState, stepSize, steps, null);
+                solver = new EulerSolver();
             } else {
                 System.out.println("You're using Runge-Kutta 4 Method");
-                RK4Solver rk4 = new RK4Solver();
-                result = rk4.solve(odeFunction, x0, initialState, stepSize, steps, null);
+                solver = new RK4Solver();
             }
 
-            // * the part below is responsible for displaying the results in the viewlist
+            // * the part below is responsible for displaying the results in the viewlist, they come in while the solver runs
             StringBuilder output = new StringBuilder("t"); // t is our initial.
             for (String var : variables) {
                 output.append("\t").append(var);
             }
-            output.append("\n");
-
-            Platform.runLater(() -> {
-                resultListView.getItems().clear();
-                resultListView.getItems().add(output.toString());
+            String header = output.toString();
+            resultListView.getItems().setAll(header);
 
-                for (double[] row : result) {
-                    StringBuilder rowText = new StringBuilder("t = " + row[0]);
-                    for (int i = 1; i < row.length; i++) {
-                        rowText.append(", ").append(variables[i - 1]).append(" = ").append(row[i]);
+            startJob(solver, odeFunction, x0, initialState, stepSize, steps, new SolverJobService.Listener() {
+                @Override
+                public void onRows(double[] rows) {
+                    int stride = variables.length + 1;
+                    List<String> lines = new ArrayList<>(rows.length / stride);
+                    for (int row = 0; row < rows.length; row += stride) {
+                        StringBuilder rowText = new StringBuilder("t = " + rows[row]);
+                        for (int i = 1; i < stride; i++) {
+                            rowText.append(", ").append(variables[i - 1]).append(" = ").append(rows[row + i]);
+                        }
+                        lines.add(rowText.toString());
                     }
-                    resultListView.getItems().add(rowText.toString());
+                    resultListView.getItems().addAll(lines);
+                }
+
+                @Override
+                public void onProgress(SolverJobService.Progress progress) {
+                    // * the header line doubles as the progress display
+                    resultListView.getItems().set(0, header + "    [" + progress + "]");
+                }
+
+                @Override
+                public void onFinished(TrajectoryRecorder trajectory) {
+                    currentJob = null;
+                    resultListView.getItems().set(0, header + "    [" + jobStats.summary() + "]");
+                }
+
+                @Override
+                public void onFailed(Throwable error) {
+                    currentJob = null;
+                    fightError("Unknown error?" + error.getMessage());
                 }
             });
 
@@ -203,6 +230,19 @@ public class Controller {
         }
     }
 
+    /**
+     * Runs the solver on a worker thread so the window stays responsive; starting a new job cancels the running one.
+     */
+    private void startJob(ODESolver solver, BiFunction<Double, double[], double[]> odeFunction, double x0,
+                          double[] initialState, double stepSize, int steps, SolverJobService.Listener listener) {
+        if (currentJob != null) {
+            currentJob.cancel();
+        }
+        jobStats = new SolverStats();
+        solver.setStats(jobStats);
+        currentJob = jobs.solve(solver, ODEFunction.of(odeFunction), x0, initialState, stepSize, steps, listener);
+    }
+
     private void fightError(String message) {
         System.err.println(message);
         Platform.runLater(() -> {
@@ -244,20 +284,29 @@ public class Controller {
                 initialState[i - 1] = Double.parseDouble(initialValues[i].trim());
             }
 
-            RK4Solver rk4 = new RK4Solver();
-            double[][] solution = rk4.solve(odeFunction, x0, initialState, stepSize, steps, null);
+            startJob(new RK4Solver(), odeFunction, x0, initialState, stepSize, steps, new SolverJobService.Listener() {
+                @Override
+                public void onFinished(TrajectoryRecorder trajectory) {
+                    currentJob = null;
+                    LineChart<Number, Number> chart = plotter.plotSolution(trajectory, variables, "Euler Method", "t", "y(t)");
 
-            LineChart<Number, Number> chart = plotter.plotSolution(solution, "Euler Method", "t", "y(t)");
+                    // * make a new popup window (Stage) to display the chart
+                    Stage chartStage = new Stage();
+                    chartStage.setTitle("ODE Visualization");
 
-            // * make a new popup window (Stage) to display the chart
-            Stage chartStage = new Stage();
-            chartStage.setTitle("ODE Visualization");
 
+                    Scene chartScene = new Scene(new Group(chart), 600, 400);
+                    chartStage.setScene(chartScene);
 
-            Scene chartScene = new Scene(new Group(chart), 600, 400);
-            chartStage.setScene(chartScene);
+                    chartStage.show();
+                }
 
-            chartStage.show();
+                @Override
+                public void onFailed(Throwable error) {
+                    currentJob = null;
+                    fightError("UKNOWN ERROR?!: " + error.getMessage());
+                }
+            });
 
         } catch (NumberFormatException ex) {
             fightError("??invalid input, Make sure to enter valid numbers.??");
@@ -272,101 +321,126 @@ public class Controller {
      *
      */
     public void compareSolverAccuracy() {
-        try {
-            double[] stepSizes = { 0.2, 0.1, 0.05, 0.025, 0.0125 };
-            double x0   = 0.0;
-            double tEnd = 1.0;
-            double[] y0 = { 1.0 };
-            BiFunction<Double, double[], double[]> ode = (t, y) -> new double[]{ -y[0] };
-            double exactAtEnd = Math.exp(-tEnd);
-
-            ODESolver[] solvers = {
-                    new EulerSolver(),
-                    new RK4Solver(),
-                    new RKF45Solver()
-            };
-            String[] solverId = { "Euler", "RK4", "RKF45" };
-
-
-            NumberAxis xAxis = new NumberAxis(-2.0, -0.6, 0.4);
-            xAxis.setLabel("Step size h");
-
-            xAxis.setMinorTickVisible(true);
-            xAxis.setMinorTickCount(15);
-
-            xAxis.setTickLabelFormatter(new StringConverter<Number>() {
-                @Override public String toString(Number object) {
-                    double h = Math.pow(10, object.doubleValue());
-                    return String.format("%.1e", h);
-                }
-                @Override public Number fromString(String string) { return null; }
-            });
+        double[] stepSizes = { 0.2, 0.1, 0.05, 0.025, 0.0125 };
+        String[] solverId = { "Euler", "RK4", "RKF45" };
+
+        // * every (solver, h) cell runs on its own worker with its own solver, solvers are not thread-safe
+        List<CompletableFuture<Double>> cells = new ArrayList<>();
+        for (int s = 0; s < solverId.length; s++) {
+            for (double h : stepSizes) {
+                int solver = s;
+                cells.add(jobs.submit(() -> accuracyError(solver, h)));
+            }
+        }
 
-            NumberAxis yAxis = new NumberAxis();
-            yAxis.setLabel("Error");
-            yAxis.setAutoRanging(true);
-            yAxis.setTickLabelFormatter(new StringConverter<Number>() {
-                @Override
-                public String toString(Number object) {
-                    double errValue = Math.pow(10, object.doubleValue());
-                    return String.format("%.1e", errValue);
-                }
-                @Override
-                public Number fromString(String string) {
-                    return null;
-                }
-            });
+        CompletableFuture.allOf(cells.toArray(new CompletableFuture<?>[0])).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                fightError("Error during log-log comparison: " + error.getMessage());
+                error.printStackTrace();
+                return;
+            }
+            try {
+                showAccuracyChart(solverId, stepSizes, cells);
+            } catch (Exception e) {
+                fightError("Error during log-log comparison: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, jobs.getUiExecutor());
+    }
 
-            LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
-            chart.setTitle("Solver Accuracy (log–log)");
-            chart.setCreateSymbols(true);
-
-            for (int s = 0; s < solvers.length; s++) {
-                double[] logHs = new double[stepSizes.length];
-                double[] logEs = new double[stepSizes.length];
-
-                XYChart.Series<Number, Number> series = new XYChart.Series<>();
-                series.setName(solverId[s]);
-
-                for (int i = 0; i < stepSizes.length; i++) {
-                    double h = stepSizes[i];
-                    int steps = (int) ((tEnd - x0) / h);
-
-                    double[][] result = solvers[s].solve(
-                            ode,
-                            x0,
-                            Arrays.copyOf(y0, y0.length),
-                            h,
-                            steps,
-                            null
-                    );
-                    double err = Math.abs(result[result.length - 1][1] - exactAtEnd);
-
-                    double lx = Math.log10(h);
-                    double ly = Math.log10(err);
-                    logHs[i] = lx;
-                    logEs[i] = ly;
-
-                    series.getData().add(new XYChart.Data<>(lx, ly));
-                }
+    private static double accuracyError(int solver, double h) {
+        double x0   = 0.0;
+        double tEnd = 1.0;
+        double[] y0 = { 1.0 };
+        BiFunction<Double, double[], double[]> ode = (t, y) -> new double[]{ -y[0] };
+        double exactAtEnd = Math.exp(-tEnd);
+
+        if (solver == 2) {
+            // adaptive: the step count is not known in advance, so integrate exactly to tEnd
+            double[] end = new RKF45Solver().integrateTo(ODEFunction.of(ode), x0, Arrays.copyOf(y0, y0.length),
+                    tEnd, h, Integer.MAX_VALUE, null, null);
+            return Math.abs(end[1] - exactAtEnd);
+        }
+
+        ODESolver[] solvers = {
+                new EulerSolver(),
+                new RK4Solver()
+        };
+        int steps = (int) ((tEnd - x0) / h);
+
+        double[][] result = solvers[solver].solve(
+                ode,
+                x0,
+                Arrays.copyOf(y0, y0.length),
+                h,
+                steps,
+                null
+        );
+        return Math.abs(result[result.length - 1][1] - exactAtEnd);
+    }
 
-                double slope = fitSlope(logHs, logEs);
-                series.setName(
-                        solverId[s] + String.format(" (slope ≈ %.2f)", slope)
-                );
+    private void showAccuracyChart(String[] solverId, double[] stepSizes, List<CompletableFuture<Double>> cells) {
+        NumberAxis xAxis = new NumberAxis(-2.0, -0.6, 0.4);
+        xAxis.setLabel("Step size h");
 
-                chart.getData().add(series);
+        xAxis.setMinorTickVisible(true);
+        xAxis.setMinorTickCount(15);
+
+        xAxis.setTickLabelFormatter(new StringConverter<Number>() {
+            @Override public String toString(Number object) {
+                double h = Math.pow(10, object.doubleValue());
+                return String.format("%.1e", h);
+            }
+            @Override public Number fromString(String string) { return null; }
+        });
+
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Error");
+        yAxis.setAutoRanging(true);
+        yAxis.setTickLabelFormatter(new StringConverter<Number>() {
+            @Override
+            public String toString(Number object) {
+                double errValue = Math.pow(10, object.doubleValue());
+                return String.format("%.1e", errValue);
             }
+            @Override
+            public Number fromString(String string) {
+                return null;
+            }
+        });
+
+        LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+        chart.setTitle("Solver Accuracy (log–log)");
+        chart.setCreateSymbols(true);
 
-            Stage stage = new Stage();
-            stage.setTitle("Solver Error Comparison");
-            stage.setScene(new Scene(new Group(chart), 800, 600));
-            stage.show();
+        for (int s = 0; s < solverId.length; s++) {
+            double[] logHs = new double[stepSizes.length];
+            double[] logEs = new double[stepSizes.length];
 
-        } catch (Exception e) {
-            fightError("Error during log-log comparison: " + e.getMessage());
-            e.printStackTrace();
+            XYChart.Series<Number, Number> series = new XYChart.Series<>();
+            series.setName(solverId[s]);
+
+            for (int i = 0; i < stepSizes.length; i++) {
+                double lx = Math.log10(stepSizes[i]);
+                double ly = Math.log10(cells.get(s * stepSizes.length + i).join());
+                logHs[i] = lx;
+                logEs[i] = ly;
+
+                series.getData().add(new XYChart.Data<>(lx, ly));
+            }
+
+            double slope = fitSlope(logHs, logEs);
+            series.setName(
+                    solverId[s] + String.format(" (slope ≈ %.2f)", slope)
+            );
+
+            chart.getData().add(series);
         }
+
+        Stage stage = new Stage();
+        stage.setTitle("Solver Error Comparison");
+        stage.setScene(new Scene(new Group(chart), 800, 600));
+        stage.show();
     }
 
     private static double fitSlope(double[] xs, double[] ys) {
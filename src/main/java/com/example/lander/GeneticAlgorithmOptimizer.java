@@ -111,11 +111,9 @@ public class GeneticAlgorithmOptimizer {
         Controller feedback = new FeedbackController();
         Controller combined = new CombinedController(openLoop, feedback);
         
-        double[][] trajectory = LanderSimulator.simulateCombined(
+        double[] finalState = LanderSimulator.simulateCombinedFinalState(
             INITIAL_STATE.clone(), TIME_STEP, MAX_STEPS, WIND_SPEED, LANDER_MASS, combined
         );
-        
-        double[] finalState = trajectory[trajectory.length - 1];
         ind.landingState = finalState;
         
         double posX = finalState[1];
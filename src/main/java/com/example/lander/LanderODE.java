@@ -1,19 +1,22 @@
 package com.example.lander;
 
-import java.util.function.BiFunction;
-
 import com.example.utilities.Ship.SpaceShip;
 import com.example.utilities.Vector3D;
+import com.example.utilities.solvers.ODEFunction;
 import com.example.utilities.titanAtmosphere.AtmosphericForce;
 import com.example.utilities.titanAtmosphere.TitanEnvironment;
 
-public class LanderODE implements BiFunction<Double, double[], double[]> {
+public class LanderODE implements ODEFunction {
     private static final double G_TITAN = 1.352e-3;
 
     private final Controller controller;
     private final AtmosphericForce dragModel;
     private final SpaceShip tempShip;
 
+    // reused for every evaluation instead of allocating two vectors per call
+    private final Vector3D shipPosition = new Vector3D();
+    private final Vector3D shipVelocity = new Vector3D();
+
     public LanderODE(Controller controller, TitanEnvironment environment, double dragCoefficient, double maxAtmosphere, double massKg) {
         this.controller = controller;
         this.tempShip = new SpaceShip("Noah Ark",0.0, new Vector3D(0, 0, 0), massKg,0.0, new Vector3D(0, 0, 0));
@@ -21,7 +24,7 @@ public class LanderODE implements BiFunction<Double, double[], double[]> {
     }
 
     @Override
-    public double[] apply(Double time, double[] state) {
+    public void evaluate(double time, double[] state, double[] derivatives) {
         double horizontalPosition = state[0];
         double altitude = state[1];
         double horizontalVelocity = state[2];
@@ -29,8 +32,12 @@ public class LanderODE implements BiFunction<Double, double[], double[]> {
         double tiltAngle = state[4];
         double tiltRate = state[5];
 
-        tempShip.setPosition(new Vector3D(horizontalPosition, altitude, 0));
-        tempShip.setVelocity(new Vector3D(horizontalVelocity, verticalVelocity, 0));
+        shipPosition.x = horizontalPosition;
+        shipPosition.y = altitude;
+        shipVelocity.x = horizontalVelocity;
+        shipVelocity.y = verticalVelocity;
+        tempShip.setPosition(shipPosition);
+        tempShip.setVelocity(shipVelocity);
         Vector3D dragForce = dragModel.compute(tempShip);
         double mass = tempShip.getMass();
 
@@ -40,7 +47,6 @@ public class LanderODE implements BiFunction<Double, double[], double[]> {
         double thrust = controller.getU(time, state);
         double torque = controller.getV(time, state);
 
-        double[] derivatives = new double[6];
         derivatives[0] = horizontalVelocity;
         derivatives[1] = verticalVelocity;
         derivatives[2] = thrust * Math.sin(tiltAngle) + dragAccelerationX;
@@ -53,6 +59,5 @@ public class LanderODE implements BiFunction<Double, double[], double[]> {
 
         derivatives[4] = tiltRate;
         derivatives[5] = torque;
-        return derivatives;
     }
 }
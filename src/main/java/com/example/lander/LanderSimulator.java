@@ -4,7 +4,10 @@ import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import com.example.utilities.Vector3D;
+import com.example.utilities.solvers.EventDetector;
 import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.StepSink;
+import com.example.utilities.solvers.TrajectoryRecorder;
 import com.example.utilities.titanAtmosphere.TerrainGenerator.PlanetHeightGrid;
 import com.example.utilities.titanAtmosphere.TerrainGenerator.PlanetWindGrid;
 import com.example.utilities.titanAtmosphere.TitanEnvironment;
@@ -31,16 +34,48 @@ public class LanderSimulator {
         return new TitanEnvironment(heightGrid, windGrid);
     }
 
+    // touchdown is located exactly, so no safety margin above the ground is needed any more
+    private static final double LANDING_ALTITUDE = 0.0;
+
+    // only still needed for a lander that starts on the ground, touchdown itself is an event
+    private static final BiFunction<Double, double[], Boolean> STOP_IF_LANDED = (time, state) -> state[1] <= LANDING_ALTITUDE;
+
     public static double[][] simulateCombined(
         double[] initialState, double timeStep, int maxSteps, 
         double windSpeed, double landerMass, Controller controller
+    ) {
+        TrajectoryRecorder recorder = new TrajectoryRecorder(initialState.length);
+        simulate(initialState, timeStep, maxSteps, windSpeed, landerMass, controller, recorder);
+        return recorder.toMatrix();
+    }
+
+    /**
+     * Runs the same simulation as {@link #simulateCombined} but keeps only the last state,
+     * so memory does not depend on maxSteps. Used by the optimizer, which only scores the landing.
+     *
+     * @return the final row [time, posX, posY, velX, velY, tilt, tiltRate]
+     */
+    public static double[] simulateCombinedFinalState(
+        double[] initialState, double timeStep, int maxSteps,
+        double windSpeed, double landerMass, Controller controller
+    ) {
+        return simulate(initialState, timeStep, maxSteps, windSpeed, landerMass, controller, null);
+    }
+
+    private static double[] simulate(
+        double[] initialState, double timeStep, int maxSteps,
+        double windSpeed, double landerMass, Controller controller, StepSink sink
     ) {
         TitanEnvironment environment = buildEnvironment(windSpeed);
         LanderODE odeFunction = new LanderODE(controller, environment, DRAG_COEFF, MAX_ATMOS_HEIGHT, landerMass);
         RK4Solver solver = new RK4Solver();
-        BiFunction<Double, double[], Boolean> stopIfLanded = (time, state) -> state[1] <= 0.0002;
-        
-        return solver.solve(odeFunction, 0.0, initialState, timeStep, maxSteps, stopIfLanded);
+
+        // located on the step's interpolant, so the last row is the touchdown itself and not
+        // the first step that ended below the landing altitude
+        EventDetector touchdown = new EventDetector(
+            (time, state) -> state[1] - LANDING_ALTITUDE, EventDetector.Direction.FALLING, true);
+
+        return solver.integrate(odeFunction, 0.0, initialState, timeStep, maxSteps, STOP_IF_LANDED, sink, touchdown);
     }
 
     public static void main(String[] args) {
@@ -1,5 +1,6 @@
 package com.example.ode_gui;
 
+import com.example.Constants;
 import com.example.utilities.solvers.*;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -18,8 +19,12 @@ import javafx.util.StringConverter;
 import javafx.scene.image.ImageView;
 
 import javafx.scene.layout.AnchorPane;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 public class ControllerBeta {
 
@@ -28,19 +33,31 @@ public class ControllerBeta {
     @FXML private TextField initialConditionsInput;
     @FXML private TextArea equationInput;
     @FXML private TextField variablesInput;
-    @FXML private ListView<String> resultListView;
+    @FXML private TableView<Integer> resultTable;
+    @FXML private TextField jumpToTimeInput;
     @FXML private Button ODEvisualize;
     @FXML private Pane chartContainer;
     @FXML private Button solveButton;
     @FXML private RadioButton rk4MethodRadio;
     @FXML private RadioButton eulerMethodRadio;
     @FXML private RadioButton rkf45MethodRadio;
+    @FXML private RadioButton autoMethodRadio;
+    @FXML private TextField sweepInput;
+    @FXML private TextField sweepOutputInput;
+    @FXML private Button sweepButton;
 
     @FXML private ImageView closeIcon;
     @FXML private ImageView minimizeIcon;
     @FXML private AnchorPane rootPane;
 
     private ToggleGroup toggleGroup;
+    private Label statusLabel;
+    private ResultTableModel results;
+    private final SolverJobService jobs = new SolverJobService();
+    private SolverJobService.Job currentJob;
+    // counters of the current job, filled on the worker and read once it has finished
+    private SolverStats jobStats;
+    private ParameterSweep currentSweep;
     private double xOffset = 0;
     private double yOffset = 0;
 
@@ -63,15 +80,26 @@ public class ControllerBeta {
         eulerMethodRadio.setToggleGroup(toggleGroup);
         rk4MethodRadio.setToggleGroup(toggleGroup);
         rkf45MethodRadio.setToggleGroup(toggleGroup);
+        autoMethodRadio.setToggleGroup(toggleGroup);
 
         eulerMethodRadio.setSelected(true);
 
         eulerMethodRadio.setOnAction(event -> System.out.println("Euler method selected"));
         rk4MethodRadio.setOnAction(event -> System.out.println("Runge-Kutta 4 selected"));
         rkf45MethodRadio.setOnAction(event -> System.out.println("RKF45 method selected"));
+        autoMethodRadio.setOnAction(event -> System.out.println("Automatic stiff/non-stiff method selected"));
 
         solveButton.setOnAction(e -> solveODE());
         ODEvisualize.setOnAction(e -> visualizeODE());
+
+        results = new ResultTableModel(resultTable);
+        jumpToTimeInput.setOnAction(e -> jumpToTime());
+
+        // progress of the running job, below the tabs
+        statusLabel = new Label();
+        AnchorPane.setLeftAnchor(statusLabel, 10.0);
+        AnchorPane.setBottomAnchor(statusLabel, 14.0);
+        rootPane.getChildren().add(statusLabel);
     }
 
     @FXML
@@ -92,6 +120,7 @@ public class ControllerBeta {
         int steps;
         double[] initialState;
         String[] variables;
+        String[] equations;
         BiFunction<Double, double[], double[]> odeFunction;
     }
 
@@ -128,30 +157,98 @@ public class ControllerBeta {
         input.steps = steps;
         input.initialState = initialState;
         input.variables = variables;
+        input.equations = equations;
         input.odeFunction = odeFunction;
         return input;
     }
 
+    private ODESolver selectedSolver(ODEInput input) {
+        return selectedSolvers(input).get();
+    }
+
+    /** Creates solvers of the selected method for the input's equations; safe to call from worker threads. */
+    private Supplier<ODESolver> selectedSolvers(ODEInput input) {
+        if (eulerMethodRadio.isSelected()) {
+            return EulerSolver::new;
+        } else if (rk4MethodRadio.isSelected()) {
+            return RK4Solver::new;
+        } else if (rkf45MethodRadio.isSelected()) {
+            return RKF45Solver::new;
+        } else if (autoMethodRadio.isSelected()) {
+            // Dormand-Prince until the equations turn stiff, then Rosenbrock with the exact Jacobian
+            // the compiled Jacobian is cached and stateless, the finite difference fallback is not,
+            // so every solver asks again; compiling once here reports parse errors on the UI thread
+            String[] equations = input.equations;
+            String[] variables = input.variables;
+            EquationCompiler.compileJacobian(equations, variables);
+            return () -> new StiffnessSwitchingSolver(EquationCompiler.compileJacobian(equations, variables),
+                    Constants.TOLERANCE, Constants.TOLERANCE);
+        }
+        throw new IllegalStateException("No solver method selected.");
+    }
+
+    /**
+     * Starts the solver in the background; a job that is still running is cancelled first.
+     */
+    private void startJob(ODEInput input, SolverJobService.Listener listener) {
+        cancelJob();
+        ODESolver solver = selectedSolver(input);
+        jobStats = new SolverStats();
+        solver.setStats(jobStats);
+        solveButton.setText("Cancel");
+        currentJob = jobs.solve(solver, ODEFunction.of(input.odeFunction), input.x0, input.initialState,
+                input.stepSize, input.steps, listener);
+    }
+
+    private void cancelJob() {
+        if (currentJob != null && !currentJob.isDone()) {
+            currentJob.cancel();
+        }
+        currentJob = null;
+        solveButton.setText("Solve");
+    }
+
+    private void jobEnded(String status) {
+        currentJob = null;
+        solveButton.setText("Solve");
+        statusLabel.setText(status);
+    }
+
     @FXML
     public void solveODE() {
+        // while a job runs the solve button cancels it
+        if (currentJob != null) {
+            cancelJob();
+            statusLabel.setText("Cancelled.");
+            return;
+        }
         try {
             ODEInput input = parseInput();
-            double[][] result;
-
-            if (eulerMethodRadio.isSelected()) {
-                EulerSolver euler = new EulerSolver();
-                result = euler.solve(input.odeFunction::apply, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else if (rk4MethodRadio.isSelected()) {
-                RK4Solver rk4 = new RK4Solver();
-                result = rk4.solve(input.odeFunction, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else if (rkf45MethodRadio.isSelected()) {
-                RKF45Solver rkf45 = new RKF45Solver();
-                result = rkf45.solve(input.odeFunction, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else {
-                throw new IllegalStateException("No solver method selected.");
-            }
+            results.reset(input.variables);
+
+            startJob(input, new SolverJobService.Listener() {
+                @Override
+                public void onRows(double[] rows) {
+                    results.append(rows);
+                }
+
+                @Override
+                public void onProgress(SolverJobService.Progress progress) {
+                    statusLabel.setText(progress.toString());
+                }
+
+                @Override
+                public void onFinished(TrajectoryRecorder trajectory) {
+                    results.adopt(trajectory);
+                    jobEnded("Done: " + jobStats.summary());
+                }
 
-            displayResults(result, input.variables);
+                @Override
+                public void onFailed(Throwable error) {
+                    jobEnded("");
+                    fightError("Error while solving: " + error.getMessage());
+                }
+            });
         } catch (NumberFormatException ex) {
             fightError("Invalid input. Please enter valid numbers.");
         } catch (IllegalArgumentException ex) {
@@ -162,54 +259,104 @@ public class ControllerBeta {
         }
     }
 
-    private void displayResults(double[][] result, String[] variables) {
-        StringBuilder output = new StringBuilder("t");
-        for (String var : variables) {
-            output.append("\t").append(var);
-        }
-
-        Platform.runLater(() -> {
-            resultListView.getItems().clear();
-            resultListView.getItems().add(output.toString());
-
-            for (double[] row : result) {
-                StringBuilder rowText = new StringBuilder("t = " + row[0]);
-                for (int i = 1; i < row.length; i++) {
-                    rowText.append(", ").append(variables[i - 1]).append(" = ").append(row[i]);
-                }
-                resultListView.getItems().add(rowText.toString());
+    /**
+     * Scrolls the results to the row closest to the time typed into the jump field.
+     */
+    @FXML
+    public void jumpToTime() {
+        try {
+            double t = Double.parseDouble(jumpToTimeInput.getText().trim());
+            if (results.jumpTo(t) < 0) {
+                statusLabel.setText("No results to jump in.");
             }
-        });
+        } catch (NumberFormatException ex) {
+            statusLabel.setText("Invalid time to jump to.");
+        }
     }
 
     @FXML
     public void visualizeODE() {
         try {
             ODEInput input = parseInput();
-            double[][] solution;
-
-            if (eulerMethodRadio.isSelected()) {
-                EulerSolver euler = new EulerSolver();
-                solution = euler.solve(input.odeFunction, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else if (rk4MethodRadio.isSelected()) {
-                RK4Solver rk4 = new RK4Solver();
-                solution = rk4.solve(input.odeFunction, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else if (rkf45MethodRadio.isSelected()) {
-                RKF45Solver rkf45 = new RKF45Solver();
-                solution = rkf45.solve(input.odeFunction, input.x0, input.initialState, input.stepSize, input.steps, null);
-            } else {
-                throw new IllegalStateException("No solver method selected.");
-            }
 
-            // Assuming plotter is your utility class instance, you might need to instantiate or inject it
-            LineChart<Number, Number> chart = plotter.plotSolution(solution, "ODE Visualization", "t", "y(t)");
+            startJob(input, new SolverJobService.Listener() {
+                @Override
+                public void onProgress(SolverJobService.Progress progress) {
+                    statusLabel.setText(progress.toString());
+                }
+
+                @Override
+                public void onFinished(TrajectoryRecorder trajectory) {
+                    jobEnded("Done: " + jobStats.summary());
+
+                    LineChart<Number, Number> chart = plotter.plotSolution(trajectory, input.variables, "ODE Visualization", "t", "y(t)");
+
+                    Stage chartStage = new Stage();
+                    chartStage.setTitle("ODE Visualization");
+                    Scene chartScene = new Scene(new Group(chart), 600, 400);
+                    chartStage.setScene(chartScene);
+                    chartStage.show();
+                }
 
-            Stage chartStage = new Stage();
-            chartStage.setTitle("ODE Visualization");
-            Scene chartScene = new Scene(new Group(chart), 600, 400);
-            chartStage.setScene(chartScene);
-            chartStage.show();
+                @Override
+                public void onFailed(Throwable error) {
+                    jobEnded("");
+                    fightError("Error while solving: " + error.getMessage());
+                }
+            });
+        } catch (NumberFormatException ex) {
+            fightError("Invalid input. Please enter valid numbers.");
+        } catch (IllegalArgumentException ex) {
+            fightError(ex.getMessage());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            fightError("Unknown error: " + ex.getMessage());
+        }
+    }
 
+    /**
+     * Solves the system for every initial value on the grid typed into the sweep field, on all
+     * workers, and plots the chosen output. Clicking again while it runs cancels the sweep.
+     */
+    @FXML
+    public void runSweep() {
+        if (currentSweep != null) {
+            currentSweep.cancel();
+            return;
+        }
+        try {
+            ODEInput input = parseInput();
+            // the compiled equations are stateless; the exp4j fallback is not, so every point asks again
+            String[] equations = input.equations;
+            String[] variables = input.variables;
+            ParameterSweep sweep = ParameterSweep.parse(sweepInput.getText(), sweepOutputInput.getText(), variables,
+                    selectedSolvers(input), () -> EquationCompiler.compile(equations, variables),
+                    input.x0, input.initialState, input.stepSize, input.steps);
+
+            currentSweep = sweep;
+            sweepButton.setText("Cancel");
+            int total = sweep.getPoints();
+            int reportEvery = Math.max(1, total / 100);
+            sweep.run(jobs, () -> {
+                int done = sweep.getCompletedPoints();
+                if (done % reportEvery == 0) {
+                    jobs.getUiExecutor().execute(() -> statusLabel.setText("Sweep: " + done + " / " + total + " points"));
+                }
+            }).whenCompleteAsync((values, error) -> {
+                currentSweep = null;
+                sweepButton.setText("Sweep");
+                if (error != null) {
+                    statusLabel.setText("");
+                    fightError("Error during sweep: " + error.getMessage());
+                    return;
+                }
+                statusLabel.setText(sweep.isCancelled() ? "Sweep cancelled." : "Sweep done: " + total + " points.");
+                String title = sweepOutputInput.getText().trim() + " over " + sweepInput.getText().trim();
+                Stage stage = new Stage();
+                stage.setTitle("Parameter Sweep");
+                stage.setScene(new Scene(new Group(plotter.plotSweep(sweep, values, title))));
+                stage.show();
+            }, jobs.getUiExecutor());
         } catch (NumberFormatException ex) {
             fightError("Invalid input. Please enter valid numbers.");
         } catch (IllegalArgumentException ex) {
@@ -223,127 +370,150 @@ public class ControllerBeta {
     private void fightError(String message) {
         System.err.println(message);
         Platform.runLater(() -> {
-            resultListView.getItems().clear();
-            resultListView.getItems().add(message);
+            results.showMessage(message);
         });
     }
 
+    /**
+     * Every solver x step size cell of the comparison runs as its own background task, each with
+     * its own solver instance; the chart is built once all of them are done.
+     */
     public void compareSolverAccuracy() {
-        try {
-            double[] stepSizes = { 0.2, 0.1, 0.05, 0.025, 0.0125 };
-            double x0   = 0.0;
-            double tEnd = 1.0;
-            double[] y0 = { 1.0 };
-            BiFunction<Double, double[], double[]> ode = (t, y) -> new double[]{ -y[0] };
-            double exactAtEnd = Math.exp(-tEnd);
-
-            ODESolver[] solvers = {
-                    new EulerSolver(),
-                    new RK4Solver(),
-                    new RKF45Solver(),    // adaptive
-                    null                  // placeholder for fixed‐step RKF5
-            };
-            String[] solverId = {
-                    "Euler",
-                    "RK4",
-                    "RKF45 (adaptive)",
-                    "RKF45 (fixed-h)"
-            };
-
-            NumberAxis xAxis = new NumberAxis(-2.0, -0.6, 0.4);
-            xAxis.setLabel("Step size h");
-
-            xAxis.setMinorTickVisible(true);
-            xAxis.setMinorTickCount(15);
-
-            xAxis.setTickLabelFormatter(new StringConverter<Number>() {
-                @Override public String toString(Number object) {
-                    double h = Math.pow(10, object.doubleValue());
-                    return String.format("%.1e", h);
-                }
-                @Override public Number fromString(String string) { return null; }
-            });
+        double[] stepSizes = { 0.2, 0.1, 0.05, 0.025, 0.0125 };
+        String[] solverId = {
+                "Euler",
+                "RK4",
+                "RKF45 (adaptive)",
+                "RKF45 (fixed-h)"
+        };
+
+        List<CompletableFuture<Double>> cells = new ArrayList<>();
+        for (int s = 0; s < solverId.length; s++) {
+            for (double h : stepSizes) {
+                int solver = s;
+                cells.add(jobs.submit(() -> accuracyError(solver, h)));
+            }
+        }
 
-            NumberAxis yAxis = new NumberAxis();
-            yAxis.setLabel("Error");
-            yAxis.setAutoRanging(true);
-            yAxis.setTickLabelFormatter(new StringConverter<Number>() {
-                @Override
-                public String toString(Number object) {
-                    double errValue = Math.pow(10, object.doubleValue());
-                    return String.format("%.1e", errValue);
-                }
-                @Override
-                public Number fromString(String string) {
-                    return null;
-                }
-            });
+        CompletableFuture.allOf(cells.toArray(new CompletableFuture<?>[0])).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                fightError("Error during log-log comparison: " + error.getMessage());
+                error.printStackTrace();
+                return;
+            }
+            try {
+                showAccuracyChart(solverId, stepSizes, cells);
+            } catch (Exception e) {
+                fightError("Error during log-log comparison: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, jobs.getUiExecutor());
+    }
 
-            LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
-            chart.setTitle("Solver Accuracy (log–log)");
-            chart.setCreateSymbols(true);
-
-            for (int s = 0; s < solverId.length; s++) {
-                XYChart.Series<Number,Number> series = new XYChart.Series<>();
-                series.setName(solverId[s]);
-
-                double[] logHs = new double[stepSizes.length];
-                double[] logEs = new double[stepSizes.length];
-
-                for (int i = 0; i < stepSizes.length; i++) {
-                    double h = stepSizes[i];
-                    int steps = (int)((tEnd - x0)/h);
-
-                    double err;
-                    if (s == 3) {
-                        // --- RKF45 fixed-h experiment ---
-                        RKF45Solver rkf = new RKF45Solver();
-                        double t = x0;
-                        double[] y = Arrays.copyOf(y0, y0.length);
-
-                        for (int k = 0; k < steps; k++) {
-                            // call your single‐step 5th‐order method
-                            y = rkf.solveStep(ode, t, y, h);
-                            t += h;
-                        }
-                        err = Math.abs(y[0] - exactAtEnd);
-                    }
-                    else {
-                        // --- Other solvers experiment ---
-                        double[][] out = solvers[s].solve(
-                                ode,
-                                x0,
-                                Arrays.copyOf(y0, y0.length),
-                                h,
-                                steps,
-                                null
-                        );
-                        err = Math.abs(out[out.length-1][1] - exactAtEnd);
-                    }
-
-                    double lx = Math.log10(h);
-                    double ly = Math.log10(err);
-                    logHs[i] = lx;
-                    logEs[i] = ly;
-                    series.getData().add(new XYChart.Data<>(lx, ly));
-                }
+    /** Error at t = 1 of y' = -y, y(0) = 1 for one solver and step size. */
+    private static double accuracyError(int solver, double h) {
+        double x0   = 0.0;
+        double tEnd = 1.0;
+        double[] y0 = { 1.0 };
+        BiFunction<Double, double[], double[]> ode = (t, y) -> new double[]{ -y[0] };
+        double exactAtEnd = Math.exp(-tEnd);
+        int steps = (int)((tEnd - x0)/h);
+
+        if (solver == 3) {
+            // --- RKF45 fixed-h experiment ---
+            double t = x0;
+            double[] y = Arrays.copyOf(y0, y0.length);
+
+            for (int k = 0; k < steps; k++) {
+                // call your single‐step 5th‐order method
+                y = RKF45Solver.solveStep(ode, t, y, h);
+                t += h;
+            }
+            return Math.abs(y[0] - exactAtEnd);
+        }
+
+        if (solver == 2) {
+            // adaptive: the step count is not known in advance, so integrate exactly to tEnd
+            double[] end = new RKF45Solver().integrateTo(ODEFunction.of(ode), x0, Arrays.copyOf(y0, y0.length),
+                    tEnd, h, Integer.MAX_VALUE, null, null);
+            return Math.abs(end[1] - exactAtEnd);
+        }
+
+        // --- Other solvers experiment ---
+        ODESolver[] solvers = {
+                new EulerSolver(),
+                new RK4Solver()
+        };
+        double[][] out = solvers[solver].solve(
+                ode,
+                x0,
+                Arrays.copyOf(y0, y0.length),
+                h,
+                steps,
+                null
+        );
+        return Math.abs(out[out.length-1][1] - exactAtEnd);
+    }
 
-                double slope = fitSlope(logHs, logEs);
-                series.setName(
-                        solverId[s] + String.format(" (slope ≈ %.2f)", slope)
-                );
-                chart.getData().add(series);
+    private void showAccuracyChart(String[] solverId, double[] stepSizes, List<CompletableFuture<Double>> cells) {
+        NumberAxis xAxis = new NumberAxis(-2.0, -0.6, 0.4);
+        xAxis.setLabel("Step size h");
+
+        xAxis.setMinorTickVisible(true);
+        xAxis.setMinorTickCount(15);
+
+        xAxis.setTickLabelFormatter(new StringConverter<Number>() {
+            @Override public String toString(Number object) {
+                double h = Math.pow(10, object.doubleValue());
+                return String.format("%.1e", h);
+            }
+            @Override public Number fromString(String string) { return null; }
+        });
+
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel("Error");
+        yAxis.setAutoRanging(true);
+        yAxis.setTickLabelFormatter(new StringConverter<Number>() {
+            @Override
+            public String toString(Number object) {
+                double errValue = Math.pow(10, object.doubleValue());
+                return String.format("%.1e", errValue);
+            }
+            @Override
+            public Number fromString(String string) {
+                return null;
             }
+        });
+
+        LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+        chart.setTitle("Solver Accuracy (log–log)");
+        chart.setCreateSymbols(true);
+
+        for (int s = 0; s < solverId.length; s++) {
+            XYChart.Series<Number,Number> series = new XYChart.Series<>();
 
-            Stage stage = new Stage();
-            stage.setTitle("Solver Error Comparison");
-            stage.setScene(new Scene(new Group(chart), 550, 400));
-            stage.show();
+            double[] logHs = new double[stepSizes.length];
+            double[] logEs = new double[stepSizes.length];
 
-        } catch (Exception e) {
-            fightError("Error during log-log comparison: " + e.getMessage());
-            e.printStackTrace();
+            for (int i = 0; i < stepSizes.length; i++) {
+                double lx = Math.log10(stepSizes[i]);
+                double ly = Math.log10(cells.get(s * stepSizes.length + i).join());
+                logHs[i] = lx;
+                logEs[i] = ly;
+                series.getData().add(new XYChart.Data<>(lx, ly));
+            }
+
+            double slope = fitSlope(logHs, logEs);
+            series.setName(
+                    solverId[s] + String.format(" (slope ≈ %.2f)", slope)
+            );
+            chart.getData().add(series);
         }
+
+        Stage stage = new Stage();
+        stage.setTitle("Solver Error Comparison");
+        stage.setScene(new Scene(new Group(chart), 550, 400));
+        stage.show();
     }
 
     private static double fitSlope(double[] xs, double[] ys) {
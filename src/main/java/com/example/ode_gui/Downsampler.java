@@ -0,0 +1,85 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.TrajectoryRecorder;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013) of one state component
+ * against time.
+ *
+ * The rows are split into equally sized buckets; from each bucket the point is kept that forms
+ * the largest triangle with the point kept from the previous bucket and the average of the next
+ * bucket. Peaks and the overall shape survive, which plain decimation does not guarantee, and
+ * it runs in one pass over the range.
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Picks at most {@code threshold} rows of [from, to), always including the first and last.
+     *
+     * @param trajectory rows [t, y0, y1, ...] with increasing t
+     * @param component  state component to keep the shape of
+     * @param threshold  number of points wanted, e.g. the plot width in pixels
+     * @return the row indices to plot, in increasing order
+     */
+    public static int[] largestTriangleThreeBuckets(TrajectoryRecorder trajectory, int component,
+                                                    int from, int to, int threshold) {
+        int n = to - from;
+        if (n <= 0) {
+            return new int[0];
+        }
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        int count = 0;
+        // the first and last row are kept, the rest is split into threshold - 2 buckets
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = from;
+        sampled[count++] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // average of the next bucket, the last row for the last bucket
+            int averageStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int averageEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+            double averageX = 0.0;
+            double averageY = 0.0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += trajectory.getTime(j);
+                averageY += trajectory.get(j, component);
+            }
+            int averageLength = averageEnd - averageStart;
+            averageX /= averageLength;
+            averageY /= averageLength;
+
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+            double ax = trajectory.getTime(a);
+            double ay = trajectory.get(a, component);
+
+            double maxArea = -1.0;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                // twice the triangle area; the factor does not change the maximum
+                double area = Math.abs((ax - averageX) * (trajectory.get(j, component) - ay)
+                        - (ax - trajectory.getTime(j)) * (averageY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[count++] = next;
+            a = next;
+        }
+
+        sampled[count] = to - 1;
+        return sampled;
+    }
+}
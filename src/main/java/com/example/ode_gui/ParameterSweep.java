@@ -0,0 +1,231 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODESolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Integrates one system for every point of a grid of initial values and reduces each run to a
+ * single number, e.g. the final or the largest value of one variable.
+ *
+ * One or two {@link Axis axes} each vary the initial value of a state variable. A constant of the
+ * equations can be swept the same way by making it a state variable whose equation is 0. Every
+ * grid point is a separate task on a {@link SolverJobService}, so the sweep uses all its workers;
+ * the outputs are reduced while integrating and no trajectory is kept.
+ */
+public class ParameterSweep {
+
+    /** What a run is reduced to. */
+    public enum Output {
+        FINAL, MAX, MIN;
+
+        /**
+         * Parses {@code final(x)}, {@code max(x)} or {@code min(x)}.
+         *
+         * @return the output, the variable index is written to component[0]
+         */
+        static Output parse(String text, String[] variables, int[] component) {
+            String spec = text.trim();
+            int open = spec.indexOf('(');
+            if (open < 0 || !spec.endsWith(")")) {
+                throw new IllegalArgumentException("Sweep output must look like max(x), min(x) or final(x): " + text);
+            }
+            Output output;
+            try {
+                output = valueOf(spec.substring(0, open).trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Sweep output must be max, min or final: " + text);
+            }
+            component[0] = indexOf(spec.substring(open + 1, spec.length() - 1).trim(), variables);
+            return output;
+        }
+    }
+
+    /** Evenly spaced initial values for one state variable, both ends included. */
+    public static final class Axis {
+        final String name;
+        final int component;
+        final double from;
+        final double to;
+        final int points;
+
+        public Axis(String name, int component, double from, double to, int points) {
+            if (points < 1) {
+                throw new IllegalArgumentException("A sweep axis needs at least one point, got " + points);
+            }
+            this.name = name;
+            this.component = component;
+            this.from = from;
+            this.to = to;
+            this.points = points;
+        }
+
+        double value(int i) {
+            return points == 1 ? from : from + (to - from) * i / (points - 1);
+        }
+
+        /**
+         * Parses {@code name = from..to : points}, e.g. {@code x = 0..2:21}.
+         */
+        static Axis parse(String text, String[] variables) {
+            int equals = text.indexOf('=');
+            int dots = text.indexOf("..");
+            int colon = text.lastIndexOf(':');
+            if (equals < 0 || dots < equals || colon < dots) {
+                throw new IllegalArgumentException("Sweep ranges must look like x = 0..2:21, got " + text.trim());
+            }
+            String name = text.substring(0, equals).trim();
+            double from = Double.parseDouble(text.substring(equals + 1, dots).trim());
+            double to = Double.parseDouble(text.substring(dots + 2, colon).trim());
+            int points = Integer.parseInt(text.substring(colon + 1).trim());
+            return new Axis(name, indexOf(name, variables), from, to, points);
+        }
+    }
+
+    private final Supplier<ODESolver> solvers;
+    private final Supplier<ODEFunction> functions;
+    private final double t0;
+    private final double[] y0;
+    private final double stepSize;
+    private final int steps;
+    private final Axis rows;
+    private final Axis columns;
+    private final int component;
+    private final Output output;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    /**
+     * @param solvers   a new solver for every grid point; solvers are not thread-safe
+     * @param functions the derivative for every grid point, may return a shared thread-safe instance
+     * @param y0        initial state; the axes overwrite their components
+     * @param rows      first axis
+     * @param columns   second axis, or null for a one-dimensional sweep
+     * @param component state variable the output is taken from
+     */
+    public ParameterSweep(Supplier<ODESolver> solvers, Supplier<ODEFunction> functions, double t0, double[] y0,
+                          double stepSize, int steps, Axis rows, Axis columns, int component, Output output) {
+        this.solvers = solvers;
+        this.functions = functions;
+        this.t0 = t0;
+        this.y0 = y0.clone();
+        this.stepSize = stepSize;
+        this.steps = steps;
+        this.rows = rows;
+        this.columns = columns;
+        this.component = component;
+        this.output = output;
+    }
+
+    /**
+     * Parses the GUI's sweep text: one or two comma separated axes and an output, see
+     * {@link Axis#parse} and {@link Output#parse}.
+     */
+    static ParameterSweep parse(String axes, String outputText, String[] variables, Supplier<ODESolver> solvers,
+                                Supplier<ODEFunction> functions, double t0, double[] y0, double stepSize, int steps) {
+        String[] parts = axes.split(",");
+        if (axes.isBlank() || parts.length > 2) {
+            throw new IllegalArgumentException("Sweep one or two ranges, e.g. x = 0..2:21, v = -1..1:21");
+        }
+        Axis rows = Axis.parse(parts[0], variables);
+        Axis columns = parts.length == 2 ? Axis.parse(parts[1], variables) : null;
+        int[] component = new int[1];
+        Output output = Output.parse(outputText, variables, component);
+        return new ParameterSweep(solvers, functions, t0, y0, stepSize, steps, rows, columns, component[0], output);
+    }
+
+    public Axis getRows() {
+        return rows;
+    }
+
+    /** The second axis, null for a one-dimensional sweep. */
+    public Axis getColumns() {
+        return columns;
+    }
+
+    public int getPoints() {
+        return rows.points * (columns == null ? 1 : columns.points);
+    }
+
+    public int getCompletedPoints() {
+        return completed.get();
+    }
+
+    /** Stops the running integrations; their cells and the cells not started yet stay NaN. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Submits every grid point to the service.
+     *
+     * @param onPoint called on the worker after each grid point, may be null
+     * @return outputs indexed [row][column]; one column for a one-dimensional sweep
+     */
+    public CompletableFuture<double[][]> run(SolverJobService jobs, Runnable onPoint) {
+        int columnCount = columns == null ? 1 : columns.points;
+        double[][] values = new double[rows.points][columnCount];
+        List<CompletableFuture<Void>> cells = new ArrayList<>(getPoints());
+        for (int i = 0; i < rows.points; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                int row = i;
+                int column = j;
+                cells.add(jobs.submit(() -> {
+                    values[row][column] = evaluate(row, column);
+                    completed.incrementAndGet();
+                    if (onPoint != null) onPoint.run();
+                    return null;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(cells.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> values);
+    }
+
+    /** Integrates the grid point (row, column) and reduces it to the output. */
+    double evaluate(int row, int column) {
+        if (cancelled) {
+            return Double.NaN;
+        }
+        double[] start = Arrays.copyOf(y0, y0.length);
+        start[rows.component] = rows.value(row);
+        if (columns != null) {
+            start[columns.component] = columns.value(column);
+        }
+
+        double[] reduced = {output == Output.MAX ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY};
+        double[] last = solvers.get().integrate(functions.get(), t0, start, stepSize, steps,
+                (t, y) -> cancelled,
+                (t, y) -> {
+                    double value = y[component];
+                    if (output == Output.MAX) {
+                        reduced[0] = Math.max(reduced[0], value);
+                    } else if (output == Output.MIN) {
+                        reduced[0] = Math.min(reduced[0], value);
+                    }
+                });
+        if (cancelled) {
+            return Double.NaN;
+        }
+        return output == Output.FINAL ? last[component + 1] : reduced[0];
+    }
+
+    private static int indexOf(String name, String[] variables) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown variable in sweep: " + name);
+    }
+}
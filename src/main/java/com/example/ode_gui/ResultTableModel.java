@@ -0,0 +1,152 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.TrajectoryRecorder;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Shows solver output in a {@link TableView} without a String or row object per step.
+ *
+ * The rows stay in a {@link TrajectoryRecorder}; the table's items are just the row numbers,
+ * produced on demand, and a cell formats its value only when it is on screen. Memory is the
+ * primitive buffer and render time depends on the visible rows only, so a million-step run
+ * costs about as much to show as a hundred-step one.
+ *
+ * Columns can be hidden through the table's menu button; sorting is off since the rows are
+ * already ordered by time. Use it from the JavaFX application thread only.
+ */
+public class ResultTableModel {
+
+    private static final double ROW_HEIGHT = 24.0;
+
+    private final TableView<Integer> table;
+    private final RowNumbers rowNumbers = new RowNumbers();
+    private TrajectoryRecorder rows = new TrajectoryRecorder(0);
+
+    public ResultTableModel(TableView<Integer> table) {
+        this.table = table;
+        table.setItems(rowNumbers);
+        table.setTableMenuButtonVisible(true);
+        // a fixed height lets the virtual flow place rows without measuring them
+        table.setFixedCellSize(ROW_HEIGHT);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+    }
+
+    /**
+     * Empties the table and sets up one column for t and one per state variable.
+     */
+    public void reset(String[] variables) {
+        rows = new TrajectoryRecorder(variables.length);
+        rowNumbers.setSize(0);
+        table.setPlaceholder(new Label("Running..."));
+
+        table.getColumns().clear();
+        table.getColumns().add(column("t", -1));
+        for (int i = 0; i < variables.length; i++) {
+            table.getColumns().add(column(variables[i], i));
+        }
+    }
+
+    private TableColumn<Integer, String> column(String name, int component) {
+        TableColumn<Integer, String> column = new TableColumn<>(name);
+        column.setSortable(false);
+        column.setCellValueFactory(cell -> {
+            int row = cell.getValue();
+            double value = component < 0 ? rows.getTime(row) : rows.get(row, component);
+            return new ReadOnlyStringWrapper(Double.toString(value));
+        });
+        return column;
+    }
+
+    /**
+     * Adds rows in the flat layout [t, y0, y1, ...] as delivered by {@link SolverJobService}.
+     */
+    public void append(double[] flatRows) {
+        rows.appendRows(flatRows);
+        rowNumbers.setSize(rows.size());
+    }
+
+    /**
+     * Takes over a finished trajectory, dropping the copy the table built up while it ran.
+     */
+    public void adopt(TrajectoryRecorder trajectory) {
+        rows = trajectory;
+        rowNumbers.setSize(trajectory.size());
+    }
+
+    /** Replaces the rows with a message, e.g. an input error. */
+    public void showMessage(String message) {
+        rows = new TrajectoryRecorder(rows.dimension());
+        rowNumbers.setSize(0);
+        table.setPlaceholder(new Label(message));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Scrolls to and selects the row closest to t.
+     *
+     * @return the selected row, -1 if there are no rows
+     */
+    public int jumpTo(double t) {
+        int row = rows.nearestRow(t);
+        if (row >= 0) {
+            table.scrollTo(row);
+            table.getSelectionModel().clearAndSelect(row);
+        }
+        return row;
+    }
+
+    /** The items 0, 1, ..., size - 1, made up when asked for. */
+    private static final class RowNumbers extends ObservableListBase<Integer> {
+        private int size;
+
+        void setSize(int newSize) {
+            if (newSize == size) return;
+            int oldSize = size;
+            size = newSize;
+            beginChange();
+            if (newSize > oldSize) {
+                nextAdd(oldSize, newSize);
+            } else {
+                nextRemove(newSize, range(newSize, oldSize));
+            }
+            endChange();
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+            }
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private static List<Integer> range(int from, int to) {
+            return new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    return from + index;
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODESolver;
+import com.example.utilities.solvers.StepSink;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs integrations for the ODE GUIs off the JavaFX application thread.
+ *
+ * A job integrates on a worker thread into a {@link TrajectoryRecorder} and hands the new rows to
+ * a {@link Listener} in flat batches, together with the progress, at most every {@link #PUBLISH_INTERVAL_MS} ms, so the
+ * view fills while the solver runs. All listener calls happen on the UI executor (the JavaFX
+ * thread by default); once a job is cancelled from there, nothing but onCancelled follows.
+ *
+ * Solvers are not thread-safe, so every job needs its own solver instance.
+ */
+public class SolverJobService implements AutoCloseable {
+
+    static final long PUBLISH_INTERVAL_MS = 100;
+
+    /** Callbacks of a job, all called on the UI executor. */
+    public interface Listener {
+        /** New rows since the last call, in the flat layout [t, y0, y1, ..., t, y0, y1, ...]. */
+        default void onRows(double[] rows) {
+        }
+
+        default void onProgress(Progress progress) {
+        }
+
+        /** All rows, after the last onRows; the recorder is no longer touched by the worker. */
+        void onFinished(TrajectoryRecorder trajectory);
+
+        default void onFailed(Throwable error) {
+        }
+
+        default void onCancelled() {
+        }
+    }
+
+    /** Snapshot of a running job. */
+    public static final class Progress {
+        private final int steps;
+        private final int totalSteps;
+        private final double stepsPerSecond;
+
+        Progress(int steps, int totalSteps, double stepsPerSecond) {
+            this.steps = steps;
+            this.totalSteps = totalSteps;
+            this.stepsPerSecond = stepsPerSecond;
+        }
+
+        public int getSteps() {
+            return steps;
+        }
+
+        public int getTotalSteps() {
+            return totalSteps;
+        }
+
+        public double getFraction() {
+            return totalSteps == 0 ? 1.0 : Math.min(1.0, (double) steps / totalSteps);
+        }
+
+        public double getStepsPerSecond() {
+            return stepsPerSecond;
+        }
+
+        /** Seconds left at the current rate; adaptive solvers or a stop condition may finish sooner. */
+        public double getEtaSeconds() {
+            return stepsPerSecond > 0 ? Math.max(0, totalSteps - steps) / stepsPerSecond : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d / %d steps, %.0f steps/s, ETA %.1f s",
+                    steps, totalSteps, stepsPerSecond, getEtaSeconds());
+        }
+    }
+
+    /** Handle of a submitted integration. */
+    public final class Job {
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Job() {
+        }
+
+        /** Stops the integration at its next step; call it from the UI thread. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final Executor uiExecutor;
+
+    /** As many workers as processors, reporting on the JavaFX application thread. */
+    public SolverJobService() {
+        this(Runtime.getRuntime().availableProcessors(), Platform::runLater);
+    }
+
+    /**
+     * @param threads    number of worker threads
+     * @param uiExecutor runs the listener calls
+     */
+    public SolverJobService(int threads, Executor uiExecutor) {
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "solver-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // idle services (one per controller) should not keep threads around
+        this.pool.allowCoreThreadTimeOut(true);
+        this.uiExecutor = uiExecutor;
+    }
+
+    public Executor getUiExecutor() {
+        return uiExecutor;
+    }
+
+    /**
+     * Starts {@code solver.integrate(f, t0, y0, stepSize, steps, ...)} on a worker thread.
+     */
+    public Job solve(ODESolver solver, ODEFunction f, double t0, double[] y0, double stepSize, int steps,
+                     Listener listener) {
+        Job job = new Job();
+        double[] start = y0.clone();
+        pool.execute(() -> run(job, solver, f, t0, start, stepSize, steps, listener));
+        return job;
+    }
+
+    /**
+     * Runs an independent task on a worker thread, e.g. one cell of a solver comparison.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, pool);
+    }
+
+    private void run(Job job, ODESolver solver, ODEFunction f, double t0, double[] y0, double stepSize,
+                     int steps, Listener listener) {
+        TrajectoryRecorder rows = new TrajectoryRecorder(y0.length);
+        long started = System.nanoTime();
+        long interval = TimeUnit.MILLISECONDS.toNanos(PUBLISH_INTERVAL_MS);
+        long[] nextPublish = {started + interval};
+        int[] published = {0};
+
+        StepSink sink = (t, y) -> {
+            rows.accept(t, y);
+
+            long now = System.nanoTime();
+            if (now >= nextPublish[0]) {
+                publish(job, listener, rows, published, steps, started, now);
+                nextPublish[0] = now + interval;
+            }
+        };
+
+        try {
+            if (!job.cancelled) {
+                solver.integrate(f, t0, y0, stepSize, steps, (t, y) -> job.cancelled, sink);
+            }
+        } catch (RuntimeException | Error e) {
+            job.done = true;
+            onUi(job, () -> listener.onFailed(e));
+            return;
+        }
+
+        job.done = true;
+        if (job.cancelled) {
+            uiExecutor.execute(listener::onCancelled);
+            return;
+        }
+        publish(job, listener, rows, published, steps, started, System.nanoTime());
+        onUi(job, () -> listener.onFinished(rows));
+    }
+
+    private void publish(Job job, Listener listener, TrajectoryRecorder rows, int[] published, int totalSteps,
+                         long started, long now) {
+        int from = published[0];
+        double[] batch = rows.copyRows(from, rows.size());
+        published[0] = rows.size();
+        // the first row is the initial state, not a step
+        int done = Math.max(0, rows.size() - 1);
+        double seconds = (now - started) / 1e9;
+        Progress progress = new Progress(done, totalSteps, seconds > 0 ? done / seconds : 0.0);
+        onUi(job, () -> {
+            if (batch.length > 0) listener.onRows(batch);
+            listener.onProgress(progress);
+        });
+    }
+
+    private void onUi(Job job, Runnable action) {
+        uiExecutor.execute(() -> {
+            if (!job.cancelled) action.run();
+        });
+    }
+
+    /** Stops the workers; running jobs are interrupted. */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -1,35 +1,254 @@
 package com.example.ode_gui;
 
+import com.example.utilities.solvers.TrajectoryRecorder;
+import javafx.geometry.Side;
+import javafx.scene.Parent;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.List;
 
+
+/**
+ * Line charts of solver output. Every state variable gets a series, downsampled with
+ * {@link Downsampler} to about one point per pixel of the chart width, so a million-step run
+ * plots as fast as a short one. The full trajectory is kept, and every zoom resamples the visible
+ * time range from it: scroll to zoom around the cursor, double-click to show everything again.
+ */
 public class plotter {
 
+    /** Points per series if the chart has not been laid out yet. */
+    private static final int DEFAULT_WIDTH = 600;
+    private static final double ZOOM_FACTOR = 1.25;
+    private static final double HEATMAP_SIZE = 400;
+
+    // viridis, sampled at five points
+    private static final Color[] COLOR_MAP = {
+            Color.rgb(68, 1, 84), Color.rgb(59, 82, 139), Color.rgb(33, 145, 140),
+            Color.rgb(94, 201, 98), Color.rgb(253, 231, 37)};
+
     public static LineChart<Number, Number> plotSolution(
             double[][] solution,
             String solverName,
             String xAxisLabel,
             String yAxisLabel
+    ) {
+        int dim = solution.length == 0 ? 0 : solution[0].length - 1;
+        TrajectoryRecorder trajectory = new TrajectoryRecorder(dim);
+        double[] y = new double[dim];
+        for (double[] point : solution) {
+            System.arraycopy(point, 1, y, 0, dim);
+            trajectory.accept(point[0], y);
+        }
+        String[] names = new String[dim];
+        for (int i = 0; i < dim; i++) {
+            names[i] = "y" + i;
+        }
+        return plotSolution(trajectory, names, solverName, xAxisLabel, yAxisLabel);
+    }
+
+    /**
+     * @param trajectory rows [t, y0, y1, ...] with increasing t; kept for resampling on zoom
+     * @param variables  series names, one per state component
+     */
+    public static LineChart<Number, Number> plotSolution(
+            TrajectoryRecorder trajectory,
+            String[] variables,
+            String solverName,
+            String xAxisLabel,
+            String yAxisLabel
     ) {
         NumberAxis xAxis = new NumberAxis();
         xAxis.setLabel(xAxisLabel);
+        xAxis.setAutoRanging(false);
 
         NumberAxis yAxis = new NumberAxis();
         yAxis.setLabel(yAxisLabel);
+        yAxis.setForceZeroInRange(false);
 
         LineChart<Number, Number> lineChart = new LineChart<>(xAxis, yAxis);
         lineChart.setTitle("ODE Solution - " + solverName);
+        // symbols and animations cost a node and a timeline per point
+        lineChart.setCreateSymbols(false);
+        lineChart.setAnimated(false);
 
-        XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        series.setName(solverName);
+        for (int i = 0; i < trajectory.dimension(); i++) {
+            XYChart.Series<Number, Number> series = new XYChart.Series<>();
+            series.setName(trajectory.dimension() == 1 ? solverName : variables[i]);
+            lineChart.getData().add(series);
+        }
 
-        for (double[] point : solution) {
-            series.getData().add(new XYChart.Data<>(point[0], point[1]));
+        if (trajectory.size() == 0) {
+            return lineChart;
         }
+        double tStart = trajectory.getTime(0);
+        double tEnd = trajectory.getTime(trajectory.size() - 1);
+        showRange(xAxis, tStart, tEnd);
+        resample(lineChart, trajectory);
+
+        xAxis.lowerBoundProperty().addListener((obs, old, value) -> resample(lineChart, trajectory));
+        xAxis.upperBoundProperty().addListener((obs, old, value) -> resample(lineChart, trajectory));
+        lineChart.widthProperty().addListener((obs, old, value) -> resample(lineChart, trajectory));
+
+        lineChart.setOnScroll(event -> {
+            double lower = xAxis.getLowerBound();
+            double upper = xAxis.getUpperBound();
+            double x = xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX();
+            double center = xAxis.getValueForDisplay(x).doubleValue();
+            if (Double.isNaN(center) || center < lower || center > upper) {
+                center = 0.5 * (lower + upper);
+            }
+            double factor = event.getDeltaY() > 0 ? 1.0 / ZOOM_FACTOR : ZOOM_FACTOR;
+            double newLower = Math.max(tStart, center - (center - lower) * factor);
+            double newUpper = Math.min(tEnd, center + (upper - center) * factor);
+            if (newUpper > newLower) {
+                showRange(xAxis, newLower, newUpper);
+            }
+            event.consume();
+        });
+        lineChart.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2) {
+                showRange(xAxis, tStart, tEnd);
+            }
+        });
 
-        lineChart.getData().add(series);
         return lineChart;
     }
+
+    private static void showRange(NumberAxis xAxis, double lower, double upper) {
+        if (upper <= lower) {
+            upper = lower + 1.0;
+        }
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(upper);
+        xAxis.setTickUnit((upper - lower) / 10);
+    }
+
+    /** Replaces every series with the downsampled rows inside the visible time range. */
+    private static void resample(LineChart<Number, Number> lineChart, TrajectoryRecorder trajectory) {
+        NumberAxis xAxis = (NumberAxis) lineChart.getXAxis();
+        int last = trajectory.size() - 1;
+        // one row beyond each end, so the lines run to the edges of the plot
+        int from = Math.max(0, trajectory.nearestRow(xAxis.getLowerBound()) - 1);
+        int to = Math.min(last, trajectory.nearestRow(xAxis.getUpperBound()) + 1) + 1;
+        int width = lineChart.getWidth() > 0 ? (int) lineChart.getWidth() : DEFAULT_WIDTH;
+
+        for (int i = 0; i < trajectory.dimension(); i++) {
+            int[] rows = Downsampler.largestTriangleThreeBuckets(trajectory, i, from, to, width);
+            List<XYChart.Data<Number, Number>> points = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                points.add(new XYChart.Data<>(trajectory.getTime(row), trajectory.get(row, i)));
+            }
+            lineChart.getData().get(i).getData().setAll(points);
+        }
+    }
+
+    /**
+     * Plots the outputs of a parameter sweep: a line over the swept value for one axis, a heatmap
+     * with a color scale for two. NaN cells (cancelled or diverged runs) are left blank.
+     *
+     * @param values outputs indexed [row][column] as returned by {@link ParameterSweep#run}
+     */
+    public static Parent plotSweep(ParameterSweep sweep, double[][] values, String title) {
+        ParameterSweep.Axis rows = sweep.getRows();
+        ParameterSweep.Axis columns = sweep.getColumns();
+        if (columns == null) {
+            NumberAxis xAxis = new NumberAxis();
+            xAxis.setLabel(rows.name + "(0)");
+            NumberAxis yAxis = new NumberAxis();
+            yAxis.setForceZeroInRange(false);
+            LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+            chart.setTitle(title);
+            chart.setLegendVisible(false);
+            chart.setAnimated(false);
+            XYChart.Series<Number, Number> series = new XYChart.Series<>();
+            for (int i = 0; i < rows.points; i++) {
+                if (!Double.isNaN(values[i][0])) {
+                    series.getData().add(new XYChart.Data<>(rows.value(i), values[i][0]));
+                }
+            }
+            chart.getData().add(series);
+            return chart;
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] row : values) {
+            for (double value : row) {
+                if (Double.isFinite(value)) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+
+        // rows run along the y axis, upwards; columns along the x axis
+        Canvas canvas = new Canvas(HEATMAP_SIZE, HEATMAP_SIZE);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double cellWidth = HEATMAP_SIZE / columns.points;
+        double cellHeight = HEATMAP_SIZE / rows.points;
+        for (int i = 0; i < rows.points; i++) {
+            // a range may be given from high to low, the axes always increase
+            int y = rows.from <= rows.to ? i : rows.points - 1 - i;
+            for (int j = 0; j < columns.points; j++) {
+                if (!Double.isFinite(values[i][j])) continue;
+                int x = columns.from <= columns.to ? j : columns.points - 1 - j;
+                double fraction = max > min ? (values[i][j] - min) / (max - min) : 0.5;
+                g.setFill(colorAt(fraction));
+                // one pixel wider than the cell, so no seams show between cells
+                g.fillRect(x * cellWidth, HEATMAP_SIZE - (y + 1) * cellHeight, cellWidth + 1, cellHeight + 1);
+            }
+        }
+
+        NumberAxis xAxis = sweepAxis(columns, Side.BOTTOM);
+        xAxis.setPrefWidth(HEATMAP_SIZE);
+        NumberAxis yAxis = sweepAxis(rows, Side.LEFT);
+        yAxis.setPrefHeight(HEATMAP_SIZE);
+
+        Canvas scale = new Canvas(16, HEATMAP_SIZE);
+        GraphicsContext s = scale.getGraphicsContext2D();
+        for (int y = 0; y < HEATMAP_SIZE; y++) {
+            s.setFill(colorAt(1.0 - y / HEATMAP_SIZE));
+            s.fillRect(0, y, 16, 1);
+        }
+        VBox legend = new VBox(4, new Label(String.format("%.4g", max)), scale, new Label(String.format("%.4g", min)));
+
+        GridPane grid = new GridPane();
+        grid.setHgap(6);
+        grid.add(yAxis, 0, 0);
+        grid.add(canvas, 1, 0);
+        grid.add(legend, 2, 0);
+        grid.add(xAxis, 1, 1);
+        return new VBox(6, new Label(title), grid);
+    }
+
+    /**
+     * Axis along the heatmap cells, running from the outer edge of the first cell to that of the
+     * last, so every cell is centred on its sample value.
+     */
+    private static NumberAxis sweepAxis(ParameterSweep.Axis axis, Side side) {
+        double lower = Math.min(axis.from, axis.to);
+        double upper = Math.max(axis.from, axis.to);
+        double halfCell = axis.points > 1 && upper > lower ? 0.5 * (upper - lower) / (axis.points - 1) : 0.5;
+        lower -= halfCell;
+        upper += halfCell;
+        NumberAxis numberAxis = new NumberAxis(lower, upper, (upper - lower) / 5);
+        numberAxis.setSide(side);
+        numberAxis.setLabel(axis.name + "(0)");
+        return numberAxis;
+    }
+
+    private static Color colorAt(double fraction) {
+        double position = Math.max(0.0, Math.min(1.0, fraction)) * (COLOR_MAP.length - 1);
+        int i = Math.min((int) position, COLOR_MAP.length - 2);
+        return COLOR_MAP[i].interpolate(COLOR_MAP[i + 1], position - i);
+    }
 }
@@ -0,0 +1,281 @@
+package com.example.utilities;
+
+import com.example.solar_system.CelestialBody;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions and velocities of the solar system bodies stored as Chebyshev polynomials, in the
+ * spirit of the JPL ephemeris files.
+ *
+ * {@link #write} integrates the bodies once with a {@link PlanetPositionCalculator} and fits
+ * every coordinate of every body, over granules of fixed length, with the polynomial through
+ * the Chebyshev nodes of the granule. {@link #open} memory-maps the file: looking up an epoch
+ * is an index computation and one polynomial evaluation, with no integration, whatever the
+ * distance from J2000. Velocities are the derivative of the position polynomial.
+ *
+ * File layout (big-endian): magic "CHEB", version, body count, coefficients per polynomial,
+ * granule count, start (s from J2000), granule length (s), then name (UTF-8, length first) and
+ * mass (kg) per body, then the coefficients granule by granule, body by body, x, y, z.
+ *
+ * A reader only does absolute reads on the mapping, so it can be shared between threads.
+ */
+public final class ChebyshevEphemeris {
+
+    private static final int MAGIC = 0x43484542; // "CHEB"
+    private static final int VERSION = 1;
+
+    private final String[] names;
+    private final double[] masses;
+    private final int coefficients;
+    private final int granules;
+    private final double start;
+    private final double granuleLength;
+    private final ByteBuffer data;
+    private final int dataOffset;
+
+    private ChebyshevEphemeris(String[] names, double[] masses, int coefficients, int granules, double start,
+                               double granuleLength, ByteBuffer data, int dataOffset) {
+        this.names = names;
+        this.masses = masses;
+        this.coefficients = coefficients;
+        this.granules = granules;
+        this.start = start;
+        this.granuleLength = granuleLength;
+        this.data = data;
+        this.dataOffset = dataOffset;
+    }
+
+    /**
+     * Integrates the calculator's bodies over [from, to] and writes the fitted polynomials.
+     * The span is rounded up to whole granules.
+     *
+     * @param from          first epoch, seconds from J2000
+     * @param to            last epoch, seconds from J2000
+     * @param granuleLength seconds covered by one polynomial; a few days keeps the Moon and Titan
+     *                      at sub-km accuracy with about 13 coefficients
+     * @param degree        degree of the polynomials
+     */
+    public static void write(PlanetPositionCalculator calculator, double from, double to, double granuleLength,
+                             int degree, Path file) throws IOException {
+        if (!(to > from) || !(granuleLength > 0) || degree < 1) {
+            throw new IllegalArgumentException("Need from < to, a positive granule length and a degree of at least 1");
+        }
+        List<CelestialBody> bodies = calculator.getBodies();
+        int n = bodies.size();
+        int granules = (int) Math.ceil((to - from) / granuleLength - 1e-9);
+        int count = degree + 1;
+
+        // Chebyshev nodes cos(pi (j + 1/2) / count) in ascending order, in every granule
+        double[] nodes = new double[count];
+        for (int j = 0; j < count; j++) {
+            nodes[j] = Math.cos(Math.PI * (count - j - 0.5) / count);
+        }
+        double[] epochs = new double[granules * count];
+        for (int g = 0; g < granules; g++) {
+            double middle = from + (g + 0.5) * granuleLength;
+            for (int j = 0; j < count; j++) {
+                epochs[g * count + j] = middle + 0.5 * granuleLength * nodes[j];
+            }
+        }
+        double[][] states = calculator.statesAt(epochs);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(count);
+            out.writeInt(granules);
+            out.writeDouble(from);
+            out.writeDouble(granuleLength);
+            for (CelestialBody body : bodies) {
+                byte[] name = body.getName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeDouble(body.getMass());
+            }
+
+            double[] values = new double[count];
+            for (int g = 0; g < granules; g++) {
+                for (int b = 0; b < n; b++) {
+                    for (int c = 0; c < 3; c++) {
+                        for (int j = 0; j < count; j++) {
+                            values[j] = states[g * count + j][6 * b + c];
+                        }
+                        for (double coefficient : fit(nodes, values)) {
+                            out.writeDouble(coefficient);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Coefficients of the polynomial through the values at the Chebyshev nodes. */
+    private static double[] fit(double[] nodes, double[] values) {
+        int count = nodes.length;
+        double[] c = new double[count];
+        for (int k = 0; k < count; k++) {
+            double sum = 0.0;
+            for (int j = 0; j < count; j++) {
+                // T_k(cos a) = cos(k a)
+                sum += values[j] * Math.cos(k * Math.acos(nodes[j]));
+            }
+            c[k] = (k == 0 ? 1.0 : 2.0) * sum / count;
+        }
+        return c;
+    }
+
+    /** Memory-maps an ephemeris file written by {@link #write}. */
+    public static ChebyshevEphemeris open(Path file) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < 36 || data.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a Chebyshev ephemeris");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException(file + " has version " + data.getInt(4) + ", expected " + VERSION);
+        }
+        int n = data.getInt(8);
+        int coefficients = data.getInt(12);
+        int granules = data.getInt(16);
+        double start = data.getDouble(20);
+        double granuleLength = data.getDouble(28);
+
+        String[] names = new String[n];
+        double[] masses = new double[n];
+        int offset = 36;
+        for (int b = 0; b < n; b++) {
+            int length = data.getInt(offset);
+            byte[] name = new byte[length];
+            for (int k = 0; k < length; k++) {
+                name[k] = data.get(offset + 4 + k);
+            }
+            names[b] = new String(name, StandardCharsets.UTF_8);
+            masses[b] = data.getDouble(offset + 4 + length);
+            offset += 12 + length;
+        }
+        long expected = offset + (long) granules * n * 3 * coefficients * Double.BYTES;
+        if (data.limit() != expected) {
+            throw new IOException(file + " holds " + data.limit() + " bytes, expected " + expected);
+        }
+        return new ChebyshevEphemeris(names, masses, coefficients, granules, start, granuleLength, data, offset);
+    }
+
+    public int getBodyCount() {
+        return names.length;
+    }
+
+    public String getName(int body) {
+        return names[body];
+    }
+
+    /** Index of the body with that name, ignoring case, or -1. */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    /** First epoch covered, in seconds from J2000. */
+    public double getStartTime() {
+        return start;
+    }
+
+    /** Last epoch covered, in seconds from J2000. */
+    public double getEndTime() {
+        return start + granules * granuleLength;
+    }
+
+    /** Position of a body (km) at seconds from J2000, written to out[0..2]. */
+    public void position(int body, double t, double[] out) {
+        evaluate(body, t, out, null);
+    }
+
+    /** Velocity of a body (km/s) at seconds from J2000, written to out[0..2]. */
+    public void velocity(int body, double t, double[] out) {
+        evaluate(body, t, null, out);
+    }
+
+    /** All bodies at a UTC date, as new CelestialBody objects in file order. */
+    public List<CelestialBody> bodiesAt(LocalDateTime dateTimeUtc) {
+        double t = PlanetPositionCalculator.secondsFromJ2000(dateTimeUtc);
+        List<CelestialBody> bodies = new ArrayList<>(names.length);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int b = 0; b < names.length; b++) {
+            evaluate(b, t, position, velocity);
+            bodies.add(new CelestialBody(names[b], masses[b],
+                new Vector3D(position[0], position[1], position[2]),
+                new Vector3D(velocity[0], velocity[1], velocity[2])));
+        }
+        return bodies;
+    }
+
+    /** Position and/or velocity from the granule holding t; either output may be null. */
+    private void evaluate(int body, double t, double[] position, double[] velocity) {
+        double s = (t - start) / granuleLength;
+        if (!(s >= -1e-9 && s <= granules + 1e-9)) {
+            throw new IllegalArgumentException("t = " + t + " s lies outside the ephemeris ["
+                + start + ", " + getEndTime() + "]");
+        }
+        int granule = Math.min(Math.max((int) Math.floor(s), 0), granules - 1);
+        // position in the granule scaled to [-1, 1]
+        double x = 2.0 * (s - granule) - 1.0;
+        int base = dataOffset + ((granule * names.length + body) * 3) * coefficients * Double.BYTES;
+        for (int c = 0; c < 3; c++) {
+            int offset = base + c * coefficients * Double.BYTES;
+            // T_k and T_k' by their recurrences
+            double tPrevious = 1.0, tCurrent = x;
+            double dPrevious = 0.0, dCurrent = 1.0;
+            double value = data.getDouble(offset);
+            double derivative = 0.0;
+            for (int k = 1; k < coefficients; k++) {
+                double coefficient = data.getDouble(offset + k * Double.BYTES);
+                value += coefficient * tCurrent;
+                derivative += coefficient * dCurrent;
+                double tNext = 2.0 * x * tCurrent - tPrevious;
+                double dNext = 2.0 * tCurrent + 2.0 * x * dCurrent - dPrevious;
+                tPrevious = tCurrent;
+                tCurrent = tNext;
+                dPrevious = dCurrent;
+                dCurrent = dNext;
+            }
+            if (position != null) position[c] = value;
+            if (velocity != null) velocity[c] = derivative * 2.0 / granuleLength;
+        }
+    }
+
+    /**
+     * Writes an ephemeris of the bodies in IC.csv (at J2000).
+     * Arguments: output file, first year, last year (default ephemeris.bin, 2000, 2030).
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "ephemeris.bin");
+        int firstYear = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int lastYear = args.length > 2 ? Integer.parseInt(args[2]) : 2030;
+
+        List<CelestialBody> bodies = DataLoader.loadBodiesFromCSV("src/main/java/com/example/utilities/IC.csv");
+        PlanetPositionCalculator calculator = new PlanetPositionCalculator(bodies);
+        double from = PlanetPositionCalculator.secondsFromJ2000(LocalDateTime.of(firstYear, 1, 1, 0, 0));
+        double to = PlanetPositionCalculator.secondsFromJ2000(LocalDateTime.of(lastYear + 1, 1, 1, 0, 0));
+        write(calculator, from, to, 4 * 86400.0, 12, file);
+        System.out.println("Wrote " + Files.size(file) + " bytes to " + file);
+    }
+}
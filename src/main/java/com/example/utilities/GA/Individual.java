@@ -1,17 +1,20 @@
 package com.example.utilities.GA;
 
 import com.example.solar_system.CelestialBody;
+import com.example.utilities.physics_utilities.Ephemeris;
 import com.example.utilities.physics_utilities.SolarSystemFactory;
 import com.example.utilities.Vector3D;
-import com.example.utilities.physics_utilities.PhysicsEngine;
 import com.example.Constants;
-import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.AdamsBashforthMoultonSolver;
+import com.example.utilities.solvers.EventDetector;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.SolverStats;
+import com.example.utilities.solvers.StepSink;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.Vector;
-import java.util.function.BiFunction;
 
 import static com.example.utilities.physics_utilities.SolarSystemFactory.getRadiusKm;
 
@@ -20,6 +23,10 @@ public class Individual {
     private static final double EARTH_RADIUS = Constants.EARTH_RADIUS_KM;
     private static final double MAX_DV = 60.0;  // max rel‑speed km/s
     private static final double PROBE_MASS = Constants.PROBE_MASS; // kg
+    private static final int ABM_ORDER = 6;
+
+    // solver counters of every evaluation so far, individuals may be evaluated in parallel
+    private static final SolverStats SOLVER_STATS = new SolverStats();
 
 
     private static final List<CelestialBody> OBJECTS_IN_SPACE =
@@ -27,6 +34,11 @@ public class Individual {
     private static final CelestialBody EARTH = find("Earth");
     private static final CelestialBody TITAN = createTitanStub();
 
+    private static final double STEP = 3600; // s
+    private static final int STEPS = (int) Math.ceil(Constants.SIM_LEN / STEP);
+    // tabulated with the solver and step the probe uses, so the nodes fall on its steps
+    private static final Ephemeris EPHEMERIS = tabulatePlanets();
+
     private static CelestialBody find(String name) {
         return OBJECTS_IN_SPACE.stream()
                 .filter(b -> b.getName().equalsIgnoreCase(name))
@@ -46,6 +58,12 @@ public class Individual {
                 saturn.getVelocity().add(vSatTitan));
     }
 
+    private static Ephemeris tabulatePlanets() {
+        List<CelestialBody> bodies = new ArrayList<>(OBJECTS_IN_SPACE);
+        bodies.add(TITAN);
+        return Ephemeris.tabulate(bodies, new AdamsBashforthMoultonSolver(ABM_ORDER), 0.0, STEP, STEPS);
+    }
+
     private final Vector<Double> gene;     // x,y,z,vx,vy,vz,m (important to know, has to go in the readme.md)
     private double minDistanceTitanKm;
     private double fitness;
@@ -87,108 +105,95 @@ public class Individual {
     }
 
     public void evaluate() {
-        PhysicsEngine engine = new PhysicsEngine();
-        for (CelestialBody b : OBJECTS_IN_SPACE) {
-            engine.addBody(cloneBody(b));
-        }
-        CelestialBody titanClone = cloneBody(TITAN);
-        engine.addBody(titanClone);
-
-        double[] yProbe = new double[6];
-        {
-            CelestialBody probe0 = new CelestialBody(
-                    "Probe",
-                    PROBE_MASS,
-                    new Vector3D(gene.get(0), gene.get(1), gene.get(2)),
-                    new Vector3D(gene.get(3), gene.get(4), gene.get(5))
-            );
-            yProbe[0] = probe0.getPosition().getX();
-            yProbe[1] = probe0.getPosition().getY();
-            yProbe[2] = probe0.getPosition().getZ();
-            yProbe[3] = probe0.getVelocity().getX();
-            yProbe[4] = probe0.getVelocity().getY();
-            yProbe[5] = probe0.getVelocity().getZ();
-        }
-
-        final double G= Constants.G;
-        final double dt = 3600;
-        final double SIM_T = Constants.SIM_LEN;
-        double t = 0.0;
+        // the planets move the same for every individual and come from the shared table, only the probe is integrated
+        Ephemeris ephemeris = EPHEMERIS;
+        int bodyCount = ephemeris.getBodyCount();
+        int titanIndex = ephemeris.indexOf("Titan");
+        double[] y0 = {gene.get(0), gene.get(1), gene.get(2), gene.get(3), gene.get(4), gene.get(5)};
 
         minDistanceTitanKm = Double.MAX_VALUE;
-        RK4Solver rk4 = new RK4Solver();
-
-        while (t < SIM_T) {
-
-            List<Vector3D> posOld = new ArrayList<>();
-            for (CelestialBody b : engine.getBodies()) posOld.add(b.getPosition());
-
-            engine.step(dt);
-
-            List<Vector3D> posNew = new ArrayList<>();
-            for (CelestialBody b : engine.getBodies()) posNew.add(b.getPosition());
-
-
-            BiFunction<Double,double[],double[]> f = (tOffset, y) -> {
-                double[] dy = new double[6];
-                dy[0] = y[3];  dy[1] = y[4];  dy[2] = y[5];
-
-                double ax = 0, ay = 0, az = 0;
-                for (int i = 0; i < posOld.size(); i++) {
-                    Vector3D P0 = posOld.get(i), P1 = posNew.get(i);
-                    double alpha = tOffset / dt;
-                    Vector3D sysPos = P0.add(P1.subtract(P0).scale(alpha));
-
-                    double dx = sysPos.getX() - y[0];
-                    double dy1 = sysPos.getY() - y[1];
-                    double dz = sysPos.getZ() - y[2];
-                    double r2 = dx*dx + dy1*dy1 + dz*dz;
-                    double invR3 = 1.0 / (r2 * Math.sqrt(r2));
-                    double m  = engine.getBodies().get(i).getMass();
-
-                    ax += G * m * dx * invR3;
-                    ay += G * m * dy1 * invR3;
-                    az += G * m * dz * invR3;
-                }
-                dy[3] = ax;  dy[4] = ay;  dy[5] = az;
-                return dy;
-            };
-            yProbe = rk4.solveStep(f, 0.0, yProbe, dt);
-
-            Vector3D probePos = new Vector3D(yProbe[0], yProbe[1], yProbe[2]);
-            double dTitan = probePos.subtract(titanClone.getPosition()).magnitude();
+        ODEFunction f = ephemeris.probeFunction();
+        // scratch for the body states; events and polling run on the evaluating thread only
+        double[] body = new double[3];
+        double[] bodyVelocity = new double[3];
+
+        // closest approach to Titan: the relative radial velocity turns from negative to positive
+        EventDetector titanApproach = new EventDetector(
+                (t, y) -> {
+                    ephemeris.position(titanIndex, t, body);
+                    ephemeris.velocity(titanIndex, t, bodyVelocity);
+                    double rx = y[0] - body[0], ry = y[1] - body[1], rz = y[2] - body[2];
+                    double vx = y[3] - bodyVelocity[0], vy = y[4] - bodyVelocity[1], vz = y[5] - bodyVelocity[2];
+                    return rx * vx + ry * vy + rz * vz;
+                },
+                EventDetector.Direction.RISING, false, 1e-3,
+                (t, y) -> {
+                    double dTitan = distanceToBody(ephemeris, t, y, titanIndex, body);
+                    if (dTitan < minDistanceTitanKm) minDistanceTitanKm = dTitan;
+                });
+
+        // entering a body between two steps, which polling at the step ends would miss
+        List<EventDetector> collisions = new ArrayList<>();
+        double[] radii = new double[bodyCount];
+        for (int i = 0; i < bodyCount; i++) {
+            String name = ephemeris.getName(i);
+            double radius = getRadiusKm(name);
+            if ("titan".equalsIgnoreCase(name) || radius <= 0.0) continue;
+            radii[i] = radius;
+            int bodyIndex = i;
+            collisions.add(new EventDetector(
+                    (t, y) -> distanceToBody(ephemeris, t, y, bodyIndex, body) - radius,
+                    EventDetector.Direction.FALLING, true));
+        }
+        EventDetector[] events = collisions.toArray(new EventDetector[collisions.size() + 1]);
+        events[collisions.size()] = titanApproach;
+
+        // the launch state sits on Earth's surface, so polling starts after the first step
+        boolean[] crashed = new boolean[1];
+        StepSink poll = (t, y) -> {
+            if (t <= 0.0) return;
+            double dTitan = distanceToBody(ephemeris, t, y, titanIndex, body);
             if (dTitan < minDistanceTitanKm) minDistanceTitanKm = dTitan;
 
-            // @Moaaz here is the new colision detection logic
-            for (CelestialBody body : engine.getBodies()) {
-                String name = body.getName();
-                if ("probe".equalsIgnoreCase(name) || "titan".equalsIgnoreCase(name)) continue;
-
-                double dist = probePos.subtract(body.getPosition()).magnitude();
-                double radius = getRadiusKm(name);
-                if (radius > 0.0 && dist <= radius) {
-                    fitness = 0.0;
+            for (int i = 0; i < bodyCount; i++) {
+                if (radii[i] > 0.0 && distanceToBody(ephemeris, t, y, i, body) <= radii[i]) {
+                    crashed[0] = true;
                     return;
                 }
             }
-
-            t += dt;
+        };
+
+        // smooth heliocentric motion: the multistep method needs 2 force evaluations per step, RK4 needs 4
+        AdamsBashforthMoultonSolver solver = new AdamsBashforthMoultonSolver(ABM_ORDER);
+        SolverStats stats = new SolverStats();
+        solver.setStats(stats);
+        solver.integrate(f, 0.0, y0, STEP, STEPS, (t, y) -> crashed[0], poll, events);
+        SOLVER_STATS.add(stats);
+
+        for (EventDetector collision : collisions) {
+            if (collision.hasOccurred()) {
+                crashed[0] = true;
+            }
         }
-        
-        fitness = 1e6 / (minDistanceTitanKm + 1000);
+        fitness = crashed[0] ? 0.0 : 1e6 / (minDistanceTitanKm + 1000);
     }
 
 
-    private CelestialBody cloneBody(CelestialBody b) {
-        Vector3D p = b.getPosition();
-        Vector3D v = b.getVelocity();
-        return new CelestialBody(
-                b.getName(),
-                b.getMass(),
-                new Vector3D(p.getX(), p.getY(), p.getZ()),
-                new Vector3D(v.getX(), v.getY(), v.getZ()));
+    /** Distance from the probe state y to the tabulated body i at time t; scratch receives its position. */
+    private static double distanceToBody(Ephemeris ephemeris, double t, double[] y, int i, double[] scratch) {
+        ephemeris.position(i, t, scratch);
+        double dx = y[0] - scratch[0];
+        double dy = y[1] - scratch[1];
+        double dz = y[2] - scratch[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
+    /** Planets and Titan over the simulated year, shared by all evaluations. */
+    public static Ephemeris getEphemeris() { return EPHEMERIS; }
+
+    /** Solver counters summed over all evaluated individuals. */
+    public static SolverStats getSolverStats() { return SOLVER_STATS; }
+
     public double getMinDistanceKm() { return minDistanceTitanKm;}
     public double getFitness()       { return fitness;}
     public Vector<Double> genes()    { return gene;}
@@ -2,13 +2,14 @@ package com.example.utilities.HillClimb;
 
 import java.util.*;
 import java.io.IOException;
-import java.util.function.BiFunction;
 
 import com.example.utilities.GA.Individual;
 import com.example.utilities.SimulationFileWriter;
 import com.example.utilities.Vector3D;
 import com.example.Constants;
-import com.example.utilities.solvers.RKF45Solver;
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.SolverStats;
 
 public class TitanInsertionHillClimbing {
 
@@ -36,6 +37,16 @@ public class TitanInsertionHillClimbing {
     /** Weight for the continuous penalty **/
     private static final double DEVIATION_FACTOR = 1000.0;
 
+    /** Coast tolerances per state component: 1 mm for positions (km), 1 µm/s for velocities (km/s) **/
+    private static final double[] COAST_ABS_TOL = {1e-6, 1e-6, 1e-6, 1e-9, 1e-9, 1e-9};
+    private static final double[] COAST_REL_TOL = {1e-10};
+
+    /** Upper bound on accepted steps per slot, far above what a one-day coast needs **/
+    private static final int MAX_COAST_STEPS = 100000;
+
+    /** Coasting solver counters over all cost evaluations. */
+    private static final SolverStats COAST_STATS = new SolverStats();
+
 
     public static void main(String[] args) throws IOException {
         Random rand = Constants.RNG;
@@ -123,6 +134,7 @@ public class TitanInsertionHillClimbing {
             System.out.printf("  Slot %d: [%.3f, %.3f, %.3f]%n",
                               i, dv.getX(), dv.getY(), dv.getZ());
         }
+        System.out.println("\nCoasting solver statistics:\n  " + COAST_STATS);
         System.out.println("\nTitan Insertion Hill Climbing completed successfully.");
         try {
             // Use the SimulationFileWriter to write the results
@@ -163,22 +175,19 @@ public class TitanInsertionHillClimbing {
         Vector3D position = initialPosition;
         Vector3D velocity = initialVelocity;
 
-        RKF45Solver solver = new RKF45Solver();
+        DormandPrinceSolver solver = new DormandPrinceSolver(COAST_ABS_TOL, COAST_REL_TOL, Double.POSITIVE_INFINITY);
+        solver.setStats(COAST_STATS);
 
-        BiFunction<Double, double[], double[]> gravity = (t, y) -> {
+        ODEFunction gravity = (t, y, dydt) -> {
             // y[0..2]=position km, y[3..5]=velocity km/s
-            Vector3D r    = new Vector3D(y[0], y[1], y[2]);
-            double  rMag  = r.magnitude();
-            double  aMag  = -Constants.MU_TITAN / (rMag * rMag);
-            Vector3D aVec = r.normalize().scale(aMag);
-            return new double[]{
-                    y[3],        // dx/dt = vx
-                    y[4],        // dy/dt = vy
-                    y[5],        // dz/dt = vz
-                    aVec.getX(), // dvx/dt = ax
-                    aVec.getY(), // dvy/dt = ay
-                    aVec.getZ()  // dvz/dt = az
-            };
+            double rMag = Math.sqrt(y[0] * y[0] + y[1] * y[1] + y[2] * y[2]);
+            double s = -Constants.MU_TITAN / (rMag * rMag * rMag);
+            dydt[0] = y[3];     // dx/dt = vx
+            dydt[1] = y[4];     // dy/dt = vy
+            dydt[2] = y[5];     // dz/dt = vz
+            dydt[3] = s * y[0]; // dvx/dt = ax
+            dydt[4] = s * y[1]; // dvy/dt = ay
+            dydt[5] = s * y[2]; // dvz/dt = az
         };
 
         for (int i = 0; i < schedule.getNumSlots(); i++) {
@@ -193,7 +202,6 @@ public class TitanInsertionHillClimbing {
 
             double duration = schedule.getSlotDuration();
             double initialStep  = 60.0;
-            int maxSteps = (int) Math.ceil(duration / initialStep) + 1;
 
             // pack state [x,y,z,vx,vy,vz]
             double[] y0 = new double[]{
@@ -201,19 +209,10 @@ public class TitanInsertionHillClimbing {
                     velocity.getX(), velocity.getY(), velocity.getZ()
             };
 
-            double[][] traj = solver.solve(
-                    gravity,
-                    0.0,
-                    y0,
-                    initialStep,
-                    maxSteps,
-                    null
-            );
-
-            // get final row
-            double[] yEnd = traj[traj.length - 1];
-            position = new Vector3D(yEnd[0], yEnd[1], yEnd[2]);
-            velocity = new Vector3D(yEnd[3], yEnd[4], yEnd[5]);
+            // coast through the whole slot, only the final state is needed
+            double[] yEnd = solver.integrateTo(gravity, 0.0, y0, duration, initialStep, MAX_COAST_STEPS, null, null);
+            position = new Vector3D(yEnd[1], yEnd[2], yEnd[3]);
+            velocity = new Vector3D(yEnd[4], yEnd[5], yEnd[6]);
         }
         double titanOrbitalPeriod = calculateTitanOrbitalPeriod();
         double timeStep = 60.0;
@@ -2,17 +2,27 @@ package com.example.utilities;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.BiFunction;
 
 import com.example.solar_system.CelestialBody;
 import com.example.Constants;
-import com.example.utilities.solvers.RKF45Solver;
+import com.example.utilities.physics_utilities.GravityKernel;
+import com.example.utilities.solvers.BulirschStoerSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODEUtility;
+import com.example.utilities.solvers.Parareal;
+import com.example.utilities.solvers.RK4Solver;
 
 /**
- * PlanetPositionCalculator uses an RKF45 ODE solver to propagate a list of
+ * PlanetPositionCalculator uses a Bulirsch–Stoer ODE solver to propagate a list of
  * CelestialBody objects from their initial positions and velocities (at J2000)
- * to a specified UTC date/time.
+ * to a specified UTC date/time. Planetary motion is smooth, so the extrapolation method
+ * gets by with few, long steps even at tight tolerances.
+ *
+ * Long spans can be split into time slices that are integrated in parallel, see {@link Parareal}.
+ * For many epochs, integrate once with {@link #statesAt} or look them up in a
+ * {@link ChebyshevEphemeris} file.
  */
 public class PlanetPositionCalculator {
 
@@ -20,23 +30,45 @@ public class PlanetPositionCalculator {
     private static final double J2000_EPOCH_JULIAN_DATE = Constants.J2000_EPOCH_JULIAN_DATE;
     private static final double SECONDS_PER_DAY = Constants.SECONDS_PER_DAY;
 
+    // tight enough for km accuracy over a decade; extrapolation pays little for the extra digits
+    private static final double PROPAGATION_TOLERANCE = 1e-12;
+    // Parareal: half-day RK4 steps as the coarse guess, corrected until the slice boundaries
+    // agree with the fine solution to about 100 m at Saturn's distance
+    private static final double COARSE_STEP_SECONDS = 43200.0;
+    private static final double PARAREAL_TOLERANCE = 1e-10;
+
     private final List<CelestialBody> initialBodies;
-    private final double[] bodyMasses;
+    // G times the mass of every body
+    private final double[] gravitationalParameters;
     private final double[] initialStateVector;
-    private final RKF45Solver odeSolver = new RKF45Solver();
+    private final BulirschStoerSolver odeSolver =
+            new BulirschStoerSolver(PROPAGATION_TOLERANCE, PROPAGATION_TOLERANCE);
+    private final int slices;
 
     /**
      * Constructs the calculator from a list of CelestialBody objects,
      * assumed to be at the J2000 epoch.
      */
     public PlanetPositionCalculator(List<CelestialBody> bodiesAtJ2000) {
+        this(bodiesAtJ2000, 1);
+    }
+
+    /**
+     * @param bodiesAtJ2000 bodies at the J2000 epoch
+     * @param slices        time slices integrated in parallel, e.g. the number of cores; 1 integrates sequentially
+     */
+    public PlanetPositionCalculator(List<CelestialBody> bodiesAtJ2000, int slices) {
+        if (slices < 1) {
+            throw new IllegalArgumentException("Need at least one slice");
+        }
+        this.slices = slices;
         this.initialBodies = new ArrayList<>(bodiesAtJ2000);
-        this.bodyMasses = new double[initialBodies.size()];
+        this.gravitationalParameters = new double[initialBodies.size()];
         this.initialStateVector = new double[initialBodies.size() * 6];
 
         for (int bodyIndex = 0; bodyIndex < initialBodies.size(); bodyIndex++) {
             CelestialBody body = initialBodies.get(bodyIndex);
-            bodyMasses[bodyIndex] = body.getMass();
+            gravitationalParameters[bodyIndex] = GRAVITATIONAL_CONSTANT * body.getMass();
             Vector3D position = body.getPosition();
             Vector3D velocity = body.getVelocity();
             int offset = bodyIndex * 6;
@@ -54,45 +86,56 @@ public class PlanetPositionCalculator {
      * After propagation, each CelestialBody in the original list is updated in-place.
      *
      * @param targetDateTimeUtc the target date/time in UTC
+     * @throws IllegalStateException if a time slice of a parallel propagation does not reach its end
      */
     public void propagateTo(LocalDateTime targetDateTimeUtc) {
         double startTimeSeconds = 0.0;
         double targetJulianDate = convertLocalDateTimeToJulianDate(targetDateTimeUtc);
         double targetTimeOffsetSeconds = (targetJulianDate - J2000_EPOCH_JULIAN_DATE) * SECONDS_PER_DAY;
 
+        // dates before J2000 are reached by integrating the time-reversed system forward
         boolean integrateForwardInTime = targetTimeOffsetSeconds >= 0;
-        BiFunction<Double, double[], Boolean> stopCondition = (currentTimeSeconds, stateVector) ->
-            integrateForwardInTime
-                ? (currentTimeSeconds >= targetTimeOffsetSeconds)
-                : (currentTimeSeconds <= targetTimeOffsetSeconds);
+        double direction = integrateForwardInTime ? 1.0 : -1.0;
+        double targetDistanceSeconds = Math.abs(targetTimeOffsetSeconds);
 
         double initialStepSizeSeconds = 3600.0;
-        int maximumNumberOfSteps = (int) (Math.ceil(Math.abs(targetTimeOffsetSeconds) / SECONDS_PER_DAY) * 24) + 1000;
+        int maximumNumberOfSteps = (int) (Math.ceil(targetDistanceSeconds / SECONDS_PER_DAY) * 24) + 1000;
 
-        double[][] solutionMatrix = odeSolver.solve(
-            (currentTime, stateVector) -> computeStateDerivatives(currentTime, stateVector),
-            startTimeSeconds,
-            java.util.Arrays.copyOf(initialStateVector, initialStateVector.length),
-            initialStepSizeSeconds,
-            maximumNumberOfSteps,
-            stopCondition
-        );
+        double[] finalStateVector;
+        if (slices > 1 && targetDistanceSeconds > 0) {
+            finalStateVector = propagateInParallel(direction, targetDistanceSeconds, initialStepSizeSeconds);
+        } else {
+            // the last step is shortened to land exactly on the target epoch
+            finalStateVector = odeSolver.integrateTo(
+                stateDerivatives(direction),
+                startTimeSeconds,
+                initialStateVector,
+                targetDistanceSeconds,
+                initialStepSizeSeconds,
+                maximumNumberOfSteps,
+                null,
+                null
+            );
+        }
 
-        double[] finalStateVector = solutionMatrix[solutionMatrix.length - 1];
+        if (finalStateVector[0] < targetDistanceSeconds) {
+            System.err.println("Propagation did not reach " + targetDateTimeUtc + ", bodies are left unchanged.");
+            return;
+        }
 
         int numberOfBodies = initialBodies.size();
         for (int bodyIndex = 0; bodyIndex < numberOfBodies; bodyIndex++) {
             int offset = bodyIndex * 6;
             CelestialBody body = initialBodies.get(bodyIndex);
             Vector3D finalPosition = new Vector3D(
-                finalStateVector[offset],
                 finalStateVector[offset + 1],
-                finalStateVector[offset + 2]
+                finalStateVector[offset + 2],
+                finalStateVector[offset + 3]
             );
             Vector3D finalVelocity = new Vector3D(
-                finalStateVector[offset + 3],
                 finalStateVector[offset + 4],
-                finalStateVector[offset + 5]
+                finalStateVector[offset + 5],
+                finalStateVector[offset + 6]
             );
             body.setPosition(finalPosition);
             body.setVelocity(finalVelocity);
@@ -100,48 +143,91 @@ public class PlanetPositionCalculator {
     }
 
     /**
-     * Computes the derivative of the state vector at a given time.
-     * Returns [vx0,vy0,vz0,ax0,ay0,az0, ...] where acceleration is from gravity.
+     * States of all bodies at several epochs, from one pass of the integrator instead of one
+     * integration from J2000 per epoch. The bodies themselves are left unchanged.
+     *
+     * @param secondsFromJ2000 epochs in ascending order, in seconds from J2000 (negative before it)
+     * @return for every epoch the state vector [x, y, z, vx, vy, vz] per body
+     * @throws IllegalStateException if the solver does not reach an epoch
      */
-    private double[] computeStateDerivatives(double currentTimeSeconds, double[] stateVector) {
-        int numberOfBodies = bodyMasses.length;
-        double[] derivatives = new double[stateVector.length];
+    public double[][] statesAt(double[] secondsFromJ2000) {
+        double[][] states = new double[secondsFromJ2000.length][];
+        double[] state = initialStateVector;
+        double time = 0.0;
+        for (int k = 0; k < secondsFromJ2000.length; k++) {
+            if (secondsFromJ2000[k] < time && k > 0) {
+                throw new IllegalArgumentException("Epochs must be in ascending order");
+            }
+            state = advance(state, secondsFromJ2000[k] - time);
+            time = secondsFromJ2000[k];
+            states[k] = state.clone();
+        }
+        return states;
+    }
 
-        for (int bodyIndex = 0; bodyIndex < numberOfBodies; bodyIndex++) {
-            int offset = bodyIndex * 6;
-            derivatives[offset]     = stateVector[offset + 3];
-            derivatives[offset + 1] = stateVector[offset + 4];
-            derivatives[offset + 2] = stateVector[offset + 5];
+    /** Integrates a state over the given number of seconds, backwards if it is negative. */
+    private double[] advance(double[] state, double seconds) {
+        double distance = Math.abs(seconds);
+        if (distance == 0.0) {
+            return state;
+        }
+        int maximumSteps = (int) (Math.ceil(distance / SECONDS_PER_DAY) * 24) + 1000;
+        double[] row = odeSolver.integrateTo(stateDerivatives(seconds >= 0 ? 1.0 : -1.0), 0.0, state, distance,
+            Math.min(3600.0, distance), maximumSteps, null, null);
+        if (row[0] < distance) {
+            throw new IllegalStateException("Propagation stopped " + (distance - row[0]) + " s short");
         }
+        return Arrays.copyOfRange(row, 1, row.length);
+    }
 
-        for (int targetIndex = 0; targetIndex < numberOfBodies; targetIndex++) {
-            int baseOffset = targetIndex * 6;
-            double posX = stateVector[baseOffset];
-            double posY = stateVector[baseOffset + 1];
-            double posZ = stateVector[baseOffset + 2];
-            double accelerationX = 0.0;
-            double accelerationY = 0.0;
-            double accelerationZ = 0.0;
-
-            for (int otherIndex = 0; otherIndex < numberOfBodies; otherIndex++) {
-                int otherOffset = otherIndex * 6;
-                double dx = stateVector[otherOffset]     - posX;
-                double dy = stateVector[otherOffset + 1] - posY;
-                double dz = stateVector[otherOffset + 2] - posZ;
-                double distanceCubed = Math.pow(
-                    dx*dx + dy*dy + dz*dz, 1.5
-                );
-                accelerationX += GRAVITATIONAL_CONSTANT * bodyMasses[otherIndex] * dx / distanceCubed;
-                accelerationY += GRAVITATIONAL_CONSTANT * bodyMasses[otherIndex] * dy / distanceCubed;
-                accelerationZ += GRAVITATIONAL_CONSTANT * bodyMasses[otherIndex] * dz / distanceCubed;
+    /** Seconds from the J2000 epoch to a UTC date/time, negative before it. */
+    static double secondsFromJ2000(LocalDateTime dateTimeUtc) {
+        return (convertLocalDateTimeToJulianDate(dateTimeUtc) - J2000_EPOCH_JULIAN_DATE) * SECONDS_PER_DAY;
+    }
+
+    /**
+     * Parareal over the slices with RK4 as the coarse and Bulirsch–Stoer as the fine propagator.
+     * Every slice gets its own solver and derivative, they share nothing but the masses.
+     *
+     * @return the final row [t, state]
+     * @throws IllegalStateException if a slice does not reach its end
+     */
+    private double[] propagateInParallel(double direction, double targetSeconds, double initialStepSizeSeconds) {
+        Parareal.Propagator coarse = Parareal.fixedStep(stateDerivatives(direction), RK4Solver::new, COARSE_STEP_SECONDS);
+        Parareal.Propagator fine = (sliceStart, sliceState, sliceEnd) -> {
+            int maximumSteps = (int) (Math.ceil((sliceEnd - sliceStart) / SECONDS_PER_DAY) * 24) + 1000;
+            double[] row = new BulirschStoerSolver(PROPAGATION_TOLERANCE, PROPAGATION_TOLERANCE).integrateTo(
+                stateDerivatives(direction), sliceStart, sliceState, sliceEnd, initialStepSizeSeconds, maximumSteps, null, null);
+            if (row[0] < sliceEnd) {
+                throw new IllegalStateException("Slice stopped at " + row[0] + " s instead of " + sliceEnd + " s");
             }
+            return Arrays.copyOfRange(row, 1, row.length);
+        };
 
-            derivatives[baseOffset + 3] = accelerationX;
-            derivatives[baseOffset + 4] = accelerationY;
-            derivatives[baseOffset + 5] = accelerationZ;
-        }
+        Parareal parareal = new Parareal(coarse, fine, slices, PARAREAL_TOLERANCE, PARAREAL_TOLERANCE, slices);
+        return ODEUtility.mergeTimeAndState(targetSeconds, parareal.propagate(0.0, initialStateVector, targetSeconds));
+    }
 
-        return derivatives;
+    /**
+     * Derivative of the state vector, [vx0,vy0,vz0,ax0,ay0,az0, ...] where acceleration is from
+     * gravity, multiplied by direction (-1 integrates the time-reversed system).
+     * Every call returns a function with its own {@link GravityKernel}, for one thread.
+     */
+    private ODEFunction stateDerivatives(double direction) {
+        int numberOfBodies = gravitationalParameters.length;
+        GravityKernel kernel = new GravityKernel(GravityKernel.NONE);
+        return (elapsedSeconds, stateVector, derivatives) -> {
+            kernel.accelerations(stateVector, 6, gravitationalParameters, derivatives, 6, 3);
+            for (int bodyIndex = 0; bodyIndex < numberOfBodies; bodyIndex++) {
+                int offset = bodyIndex * 6;
+                derivatives[offset]     = direction * stateVector[offset + 3];
+                derivatives[offset + 1] = direction * stateVector[offset + 4];
+                derivatives[offset + 2] = direction * stateVector[offset + 5];
+                derivatives[offset + 3] *= direction;
+                derivatives[offset + 4] *= direction;
+                derivatives[offset + 5] *= direction;
+            }
+        };
     }
 
     /**
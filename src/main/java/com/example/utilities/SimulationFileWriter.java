@@ -223,9 +223,9 @@ public class SimulationFileWriter {
         };
 
         RKF45Solver solver = new RKF45Solver();
-        double simulationTime = 2.0 * titanOrbitalPeriod;
-        int steps = (int)(simulationTime / Constants.INITIAL_STEP_SIZE) + 1;
-        steps = Math.min(steps, Constants.MAX_STEPS);
+        // RKF45Solver.solve ends at its own time limit; capping the step count would stop it
+        // early, so the budget stays unbounded as it was before steps were counted
+        int steps = Integer.MAX_VALUE;
 
         double[][] result = solver.solve(f, 0, y0, Constants.INITIAL_STEP_SIZE, steps, null);
 
@@ -294,9 +294,9 @@ public class SimulationFileWriter {
 
         RKF45Solver solver = new RKF45Solver();
 
-        double simulationTime = 2.0 * titanOrbitalPeriod;
-        int steps = (int)(simulationTime / Constants.INITIAL_STEP_SIZE) + 1;
-        steps = Math.min(steps, Constants.MAX_STEPS);
+        // RKF45Solver.solve ends at its own time limit; capping the step count would stop it
+        // early, so the budget stays unbounded as it was before steps were counted
+        int steps = Integer.MAX_VALUE;
 
         double[][] result = solver.solve(f, 0, y0, Constants.INITIAL_STEP_SIZE, steps, null);
 
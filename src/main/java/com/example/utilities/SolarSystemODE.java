@@ -2,6 +2,8 @@ package com.example.utilities;
 
 import com.example.solar_system.CelestialBody;
 import com.example.Constants;
+import com.example.utilities.physics_utilities.GravityKernel;
+import com.example.utilities.solvers.ODEFunction;
 
 import java.util.List;
 import java.util.function.BiFunction;
@@ -9,7 +11,7 @@ import java.util.function.BiFunction;
 /**
  * SolarSystemODE generates the Ordinary Differential Equation (ODE) system
  * used by the RK4 solver to compute the motion of celestial bodies under mutual gravitational attraction.
- * The first body (usually the Sun) is fixed in place and does not move.
+ * Every body, the Sun included, moves under the pull of all the others.
  */
 public class SolarSystemODE {
 
@@ -18,48 +20,47 @@ public class SolarSystemODE {
     /**
      * Generates a function that computes the derivative (velocity and acceleration) for each body
      * based on their positions and masses.
-     * The first body is treated as fixed (position and velocity are zero).
+     * The bodies and masses are read once, when the function is generated; like
+     * {@link #generateODEFunction} it is meant for one thread.
      *
      * @param bodies List of celestial bodies participating in the simulation
      * @return a function (t, state) -> derivatives, suitable for numerical ODE solvers
      */
     public static BiFunction<Double, double[], double[]> generateODE(List<CelestialBody> bodies) {
+        ODEFunction f = generateODEFunction(bodies);
         return (t, state) -> {
-            int n = bodies.size();
-            double[] derivatives = new double[n * 6]; // Each body has 3 for position + 3 for velocity
+            double[] derivatives = new double[state.length]; // Each body has 3 for position + 3 for velocity
+            f.evaluate(t, state, derivatives);
+            return derivatives;
+        };
+    }
 
+    /**
+     * Primitive version of {@link #generateODE} for the allocation-free solver API
+     * (e.g. DormandPrinceSolver). Same equations, but writes straight into dydt.
+     * Uses one {@link GravityKernel}, so call it from one thread at a time.
+     *
+     * @param bodies List of celestial bodies participating in the simulation
+     * @return a function (t, state, dydt) that fills in the derivatives
+     */
+    public static ODEFunction generateODEFunction(List<CelestialBody> bodies) {
+        int n = bodies.size();
+        double[] gm = new double[n];
+        for (int j = 0; j < n; j++) {
+            gm[j] = G * bodies.get(j).getMass();
+        }
+        // 1e-9 km added to every distance keeps coincident bodies finite
+        GravityKernel kernel = new GravityKernel(GravityKernel.offset(1e-9));
+
+        return (t, state, derivatives) -> {
             for (int i = 0; i < n; i++) {
                 int idx = i * 6;
-
-                Vector3D pos_i = new Vector3D(state[idx], state[idx + 1], state[idx + 2]);
-                Vector3D vel_i = new Vector3D(state[idx + 3], state[idx + 4], state[idx + 5]);
-                Vector3D acc_i = Vector3D.zero(); // Reset acceleration
-
-                for (int j = 0; j < n; j++) {
-                    if (i == j) continue;
-
-                    int jdx = j * 6;
-                    Vector3D pos_j = new Vector3D(state[jdx], state[jdx + 1], state[jdx + 2]);
-                    double mass_j = bodies.get(j).getMass();
-
-                    Vector3D r_ij = pos_j.subtract(pos_i);
-                    double distance = r_ij.magnitude() + 1e-9;
-
-                    // Newton's law (vector form): a_i += G * m_j * (r_ij / |r_ij|^3)
-                    acc_i = acc_i.add(r_ij.scale(G * mass_j / Math.pow(distance, 3)));
-                }
-
-                // Derivatives
-                derivatives[idx] = vel_i.x;
-                derivatives[idx + 1] = vel_i.y;
-                derivatives[idx + 2] = vel_i.z;
-
-                derivatives[idx + 3] = acc_i.x;
-                derivatives[idx + 4] = acc_i.y;
-                derivatives[idx + 5] = acc_i.z;
+                derivatives[idx] = state[idx + 3];
+                derivatives[idx + 1] = state[idx + 4];
+                derivatives[idx + 2] = state[idx + 5];
             }
-
-            return derivatives;
+            // Newton's law (vector form): a_i += G * m_j * (r_ij / |r_ij|^3)
+            kernel.accelerations(state, 6, gm, derivatives, 6, 3);
         };
     }
 }
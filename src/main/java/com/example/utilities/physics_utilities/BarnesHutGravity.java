@@ -0,0 +1,335 @@
+package com.example.utilities.physics_utilities;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Barnes–Hut approximation of the accelerations, for many light bodies around a few massive ones.
+ *
+ * Bodies with G*m of at least massiveGm (the Sun, the planets and their big moons) are summed
+ * directly, and so is every body's pull on them, so both directions between a massive and a
+ * light body stay exact. Only the light bodies' pull on each other goes through an octree
+ * rebuilt on every call: a cell whose size is below openingAngle times its distance acts
+ * through its centre of mass, anything closer is opened. Cost is O(N log N) for the light
+ * bodies plus O(N M) for the M massive ones, instead of O(N^2).
+ *
+ * The tree is built and walked on the common fork-join pool once there are enough bodies to
+ * make that worthwhile. An instance keeps scratch arrays, so it must not be shared between
+ * threads.
+ */
+public final class BarnesHutGravity {
+
+    // bodies per leaf, summed directly when the leaf is opened
+    private static final int LEAF_SIZE = 8;
+    // stops splitting coincident bodies
+    private static final int MAX_DEPTH = 40;
+    // below this many bodies in a subtree, or in total, everything runs on the calling thread
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final double openingAngle;
+    private final double massiveGm;
+    private final GravityKernel.Softening softening;
+
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] z = new double[0];
+    private double[] gm = new double[0];
+    private double[] ax = new double[0];
+    private double[] ay = new double[0];
+    private double[] az = new double[0];
+    private int[] massive = new int[0];
+    // light body indices, reordered so that every node covers a contiguous range
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+    // position of every light body in order, -1 for the others
+    private int[] slot = new int[0];
+
+    /** An octree cell: centre of mass and G*m of the bodies in order[from, to). */
+    private static final class Node {
+        final double half;
+        final int from;
+        final int to;
+        double gm;
+        double comX;
+        double comY;
+        double comZ;
+        Node[] children;
+
+        Node(double half, int from, int to) {
+            this.half = half;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * @param openingAngle ratio of cell size to distance below which a cell is not opened; 0.5
+     *                     is a common choice, 0 opens everything (exact but slower than direct)
+     * @param massiveGm    G*m from which a body is summed directly
+     * @param softening    applied to every pair and every cell, as in {@link GravityKernel}
+     */
+    public BarnesHutGravity(double openingAngle, double massiveGm, GravityKernel.Softening softening) {
+        if (openingAngle < 0) {
+            throw new IllegalArgumentException("The opening angle must not be negative");
+        }
+        this.openingAngle = openingAngle;
+        this.massiveGm = massiveGm;
+        this.softening = softening;
+    }
+
+    public double getOpeningAngle() {
+        return openingAngle;
+    }
+
+    /**
+     * Accelerations of bodies stored one after the other, with the same layout as
+     * {@link GravityKernel#accelerations(double[], int, double[], double[], int, int)}.
+     */
+    public void accelerations(double[] positions, int stride, double[] gm, double[] out, int outStride, int outOffset) {
+        int n = gm.length;
+        ensure(n);
+        int massiveCount = 0;
+        int lightCount = 0;
+        for (int i = 0; i < n; i++) {
+            int k = i * stride;
+            x[i] = positions[k];
+            y[i] = positions[k + 1];
+            z[i] = positions[k + 2];
+            this.gm[i] = gm[i];
+            if (gm[i] >= massiveGm) {
+                massive[massiveCount++] = i;
+            } else if (gm[i] != 0.0) {
+                order[lightCount++] = i;
+            }
+        }
+
+        Node root = lightCount == 0 ? null : buildRoot(lightCount);
+        for (int i = 0; i < n; i++) {
+            slot[i] = -1;
+        }
+        for (int k = 0; k < lightCount; k++) {
+            slot[order[k]] = k;
+        }
+        int massiveBodies = massiveCount;
+        int lightBodies = lightCount;
+        if (n >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, n).parallel().forEach(i -> accelerate(i, root, massiveBodies, lightBodies));
+        } else {
+            for (int i = 0; i < n; i++) {
+                accelerate(i, root, massiveBodies, lightBodies);
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            int k = i * outStride + outOffset;
+            out[k] = ax[i];
+            out[k + 1] = ay[i];
+            out[k + 2] = az[i];
+        }
+    }
+
+    private void ensure(int n) {
+        if (x.length < n) {
+            x = new double[n];
+            y = new double[n];
+            z = new double[n];
+            gm = new double[n];
+            ax = new double[n];
+            ay = new double[n];
+            az = new double[n];
+            massive = new int[n];
+            order = new int[n];
+            scratch = new int[n];
+            slot = new int[n];
+        }
+    }
+
+    /** Cube around the light bodies, then the tree below it. */
+    private Node buildRoot(int count) {
+        double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            minZ = Math.min(minZ, z[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+            maxZ = Math.max(maxZ, z[i]);
+        }
+        double half = 0.5 * Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        // a little wider so that the bodies on the upper faces fall inside
+        half = half * (1 + 1e-9) + Double.MIN_NORMAL;
+        Node root = new Node(half, 0, count);
+        Build build = new Build(root, 0.5 * (minX + maxX), 0.5 * (minY + maxY), 0.5 * (minZ + maxZ), 0);
+        if (count >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(build);
+        } else {
+            build.compute();
+        }
+        return root;
+    }
+
+    /** Splits a node into octants and computes its centre of mass; big subtrees are forked. */
+    private final class Build extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Node node;
+        private final double cx;
+        private final double cy;
+        private final double cz;
+        private final int depth;
+
+        Build(Node node, double cx, double cy, double cz, int depth) {
+            this.node = node;
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int from = node.from;
+            int to = node.to;
+            if (to - from <= LEAF_SIZE || depth >= MAX_DEPTH) {
+                double sum = 0.0, sx = 0.0, sy = 0.0, sz = 0.0;
+                for (int k = from; k < to; k++) {
+                    int i = order[k];
+                    sum += gm[i];
+                    sx += gm[i] * x[i];
+                    sy += gm[i] * y[i];
+                    sz += gm[i] * z[i];
+                }
+                setMass(node, sum, sx, sy, sz);
+                return;
+            }
+
+            // counting sort of the range by octant, through the scratch range of the same span
+            int[] start = new int[9];
+            for (int k = from; k < to; k++) {
+                start[octant(order[k]) + 1]++;
+            }
+            for (int o = 0; o < 8; o++) {
+                start[o + 1] += start[o];
+            }
+            int[] fill = start.clone();
+            for (int k = from; k < to; k++) {
+                int i = order[k];
+                scratch[from + fill[octant(i)]++] = i;
+            }
+            System.arraycopy(scratch, from, order, from, to - from);
+
+            double quarter = 0.5 * node.half;
+            node.children = new Node[8];
+            Build[] builds = new Build[8];
+            int forked = 0;
+            for (int o = 0; o < 8; o++) {
+                if (start[o] == start[o + 1]) continue;
+                Node child = new Node(quarter, from + start[o], from + start[o + 1]);
+                node.children[o] = child;
+                Build build = new Build(child,
+                        cx + ((o & 1) != 0 ? quarter : -quarter),
+                        cy + ((o & 2) != 0 ? quarter : -quarter),
+                        cz + ((o & 4) != 0 ? quarter : -quarter),
+                        depth + 1);
+                if (child.to - child.from >= PARALLEL_THRESHOLD) {
+                    build.fork();
+                    builds[o] = build;
+                    forked++;
+                } else {
+                    build.compute();
+                }
+            }
+            if (forked > 0) {
+                for (Build build : builds) {
+                    if (build != null) build.join();
+                }
+            }
+
+            double sum = 0.0, sx = 0.0, sy = 0.0, sz = 0.0;
+            for (Node child : node.children) {
+                if (child == null) continue;
+                sum += child.gm;
+                sx += child.gm * child.comX;
+                sy += child.gm * child.comY;
+                sz += child.gm * child.comZ;
+            }
+            setMass(node, sum, sx, sy, sz);
+        }
+
+        private int octant(int i) {
+            return (x[i] >= cx ? 1 : 0) | (y[i] >= cy ? 2 : 0) | (z[i] >= cz ? 4 : 0);
+        }
+    }
+
+    private static void setMass(Node node, double sum, double sx, double sy, double sz) {
+        node.gm = sum;
+        if (sum > 0) {
+            node.comX = sx / sum;
+            node.comY = sy / sum;
+            node.comZ = sz / sum;
+        }
+    }
+
+    /**
+     * Acceleration of body i: the massive bodies directly, the light ones through the tree, or
+     * directly as well if i is massive itself.
+     */
+    private void accelerate(int i, Node root, int massiveCount, int lightCount) {
+        ax[i] = 0.0;
+        ay[i] = 0.0;
+        az[i] = 0.0;
+        for (int m = 0; m < massiveCount; m++) {
+            int j = massive[m];
+            if (j != i) pull(i, j);
+        }
+        if (gm[i] >= massiveGm) {
+            for (int k = 0; k < lightCount; k++) {
+                pull(i, order[k]);
+            }
+        } else if (root != null) {
+            walk(root, i);
+        }
+    }
+
+    private void walk(Node node, int i) {
+        if (node.children == null) {
+            for (int k = node.from; k < node.to; k++) {
+                int j = order[k];
+                if (j != i) pull(i, j);
+            }
+            return;
+        }
+        double dx = node.comX - x[i];
+        double dy = node.comY - y[i];
+        double dz = node.comZ - z[i];
+        double r2 = dx * dx + dy * dy + dz * dz;
+        double size = 2 * node.half;
+        // far enough away, and never a cell holding body i itself (its centre of mass could be
+        // far from i while i sits inside)
+        boolean inside = slot[i] >= node.from && slot[i] < node.to;
+        if (!inside && size * size < openingAngle * openingAngle * r2) {
+            double s = node.gm * softening.inverseCube(r2);
+            ax[i] += s * dx;
+            ay[i] += s * dy;
+            az[i] += s * dz;
+            return;
+        }
+        for (Node child : node.children) {
+            if (child != null) walk(child, i);
+        }
+    }
+
+    /** Adds the pull of body j to the acceleration of body i. */
+    private void pull(int i, int j) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double dz = z[j] - z[i];
+        double s = gm[j] * softening.inverseCube(dx * dx + dy * dy + dz * dz);
+        ax[i] += s * dx;
+        ay[i] += s * dy;
+        az[i] += s * dz;
+    }
+}
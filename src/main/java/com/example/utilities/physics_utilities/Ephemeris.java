@@ -0,0 +1,217 @@
+package com.example.utilities.physics_utilities;
+
+import com.example.Constants;
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.SolarSystemODE;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODESolver;
+import com.example.utilities.solvers.StepSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions, velocities and accelerations of a set of bodies, tabulated once at a fixed step
+ * and interpolated in between.
+ *
+ * Meant for runs that move many massless probes through the same solar system, like the GA:
+ * the planets are integrated once instead of once per probe, and a probe then costs O(N) per
+ * evaluation instead of O(N^2). Positions come from the quintic Hermite interpolant through
+ * position, velocity and acceleration at both ends of a step, velocities from the cubic one
+ * through velocity and acceleration, so both are continuous with their derivatives across the
+ * nodes.
+ *
+ * Immutable once tabulated, so one instance can be shared between threads.
+ */
+public final class Ephemeris {
+
+    // x, y, z, vx, vy, vz, ax, ay, az per body and node
+    private static final int STRIDE = 9;
+
+    private final String[] names;
+    private final double[] gm;
+    private final double t0;
+    private final double step;
+    private final int steps;
+    private final double[] table;
+
+    private Ephemeris(String[] names, double[] gm, double t0, double step, int steps, double[] table) {
+        this.names = names;
+        this.gm = gm;
+        this.t0 = t0;
+        this.step = step;
+        this.steps = steps;
+        this.table = table;
+    }
+
+    /**
+     * Integrates the bodies under their mutual gravity and stores every step.
+     *
+     * @param bodies initial states at t0
+     * @param solver fixed step solver used for the integration
+     * @param step   time between two nodes, in seconds
+     * @param steps  number of steps; the table covers [t0, t0 + steps * step]
+     */
+    public static Ephemeris tabulate(List<CelestialBody> bodies, ODESolver solver, double t0, double step, int steps) {
+        if (!(step > 0) || steps < 1) {
+            throw new IllegalArgumentException("Need a positive step and at least one step");
+        }
+        int n = bodies.size();
+        String[] names = new String[n];
+        double[] gm = new double[n];
+        double[] y0 = new double[6 * n];
+        for (int i = 0; i < n; i++) {
+            CelestialBody body = bodies.get(i);
+            names[i] = body.getName();
+            gm[i] = Constants.G * body.getMass();
+            y0[6 * i] = body.getPosition().getX();
+            y0[6 * i + 1] = body.getPosition().getY();
+            y0[6 * i + 2] = body.getPosition().getZ();
+            y0[6 * i + 3] = body.getVelocity().getX();
+            y0[6 * i + 4] = body.getVelocity().getY();
+            y0[6 * i + 5] = body.getVelocity().getZ();
+        }
+
+        ODEFunction f = SolarSystemODE.generateODEFunction(new ArrayList<>(bodies));
+        double[] table = new double[(steps + 1) * n * STRIDE];
+        double[] dydt = new double[6 * n];
+        int[] node = new int[1];
+        StepSink record = (t, y) -> {
+            // the solver's derivatives are internal, one more evaluation per node is cheap next to the steps
+            f.evaluate(t, y, dydt);
+            int base = node[0]++ * n * STRIDE;
+            for (int i = 0; i < n; i++) {
+                int k = base + i * STRIDE;
+                System.arraycopy(y, 6 * i, table, k, 6);
+                System.arraycopy(dydt, 6 * i + 3, table, k + 6, 3);
+            }
+        };
+        solver.integrate(f, t0, y0, step, steps, null, record);
+        if (node[0] != steps + 1) {
+            throw new IllegalStateException("Solver reported " + node[0] + " states instead of " + (steps + 1));
+        }
+        return new Ephemeris(names, gm, t0, step, steps, table);
+    }
+
+    public int getBodyCount() {
+        return names.length;
+    }
+
+    public String getName(int body) {
+        return names[body];
+    }
+
+    /** Index of the body with that name, ignoring case, or -1. */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    public double getStartTime() {
+        return t0;
+    }
+
+    public double getEndTime() {
+        return t0 + steps * step;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    /** Position of one body at t, written to out[0..2]. */
+    public void position(int body, double t, double[] out) {
+        int node = node(t);
+        double h = step;
+        double theta = (t - t0) / h - node;
+        int a = (node * names.length + body) * STRIDE;
+        int b = a + names.length * STRIDE;
+        quintic(theta, h, a, b, out, 0);
+    }
+
+    /** Velocity of one body at t, written to out[0..2]. */
+    public void velocity(int body, double t, double[] out) {
+        int node = node(t);
+        double h = step;
+        double theta = (t - t0) / h - node;
+        double oneMinus = 1.0 - theta;
+        double h00 = (1.0 + 2.0 * theta) * oneMinus * oneMinus;
+        double h10 = theta * oneMinus * oneMinus * h;
+        double h01 = theta * theta * (3.0 - 2.0 * theta);
+        double h11 = -theta * theta * oneMinus * h;
+        int a = (node * names.length + body) * STRIDE;
+        int b = a + names.length * STRIDE;
+        for (int c = 0; c < 3; c++) {
+            out[c] = h00 * table[a + 3 + c] + h10 * table[a + 6 + c] + h01 * table[b + 3 + c] + h11 * table[b + 6 + c];
+        }
+    }
+
+    /** Positions of all bodies at t, body i at out[3 * i]. */
+    public void positions(double t, double[] out) {
+        int node = node(t);
+        double h = step;
+        double theta = (t - t0) / h - node;
+        int stride = names.length * STRIDE;
+        for (int i = 0; i < names.length; i++) {
+            int a = node * stride + i * STRIDE;
+            quintic(theta, h, a, a + stride, out, 3 * i);
+        }
+    }
+
+    /**
+     * Right-hand side for a massless probe with state [x, y, z, vx, vy, vz], pulled by the
+     * tabulated bodies. The function keeps its own scratch array, so create one per thread.
+     */
+    public ODEFunction probeFunction() {
+        double[] positions = new double[3 * names.length];
+        return (t, y, dydt) -> {
+            positions(t, positions);
+            double ax = 0.0, ay = 0.0, az = 0.0;
+            for (int i = 0; i < names.length; i++) {
+                double dx = positions[3 * i] - y[0];
+                double dy = positions[3 * i + 1] - y[1];
+                double dz = positions[3 * i + 2] - y[2];
+                double r2 = dx * dx + dy * dy + dz * dz;
+                double s = gm[i] / (r2 * Math.sqrt(r2));
+                ax += s * dx;
+                ay += s * dy;
+                az += s * dz;
+            }
+            dydt[0] = y[3];
+            dydt[1] = y[4];
+            dydt[2] = y[5];
+            dydt[3] = ax;
+            dydt[4] = ay;
+            dydt[5] = az;
+        };
+    }
+
+    /** Start node of the step holding t; the last step also takes t a rounding error past the end. */
+    private int node(double t) {
+        double s = (t - t0) / step;
+        if (!(s >= -1e-9 && s <= steps + 1e-9)) {
+            throw new IllegalArgumentException("t = " + t + " lies outside the ephemeris [" + t0 + ", " + getEndTime() + "]");
+        }
+        return Math.min(Math.max((int) Math.floor(s), 0), steps - 1);
+    }
+
+    /** Quintic Hermite through position, velocity and acceleration at nodes a and b. */
+    private void quintic(double theta, double h, int a, int b, double[] out, int offset) {
+        double t2 = theta * theta;
+        double t3 = t2 * theta;
+        double t4 = t3 * theta;
+        double t5 = t4 * theta;
+        double p1 = 10 * t3 - 15 * t4 + 6 * t5;
+        double p0 = 1 - p1;
+        double v0 = (theta - 6 * t3 + 8 * t4 - 3 * t5) * h;
+        double v1 = (-4 * t3 + 7 * t4 - 3 * t5) * h;
+        double a0 = (0.5 * t2 - 1.5 * t3 + 1.5 * t4 - 0.5 * t5) * h * h;
+        double a1 = (0.5 * t3 - t4 + 0.5 * t5) * h * h;
+        for (int c = 0; c < 3; c++) {
+            out[offset + c] = p0 * table[a + c] + v0 * table[a + 3 + c] + a0 * table[a + 6 + c]
+                    + p1 * table[b + c] + v1 * table[b + 3 + c] + a1 * table[b + 6 + c];
+        }
+    }
+}
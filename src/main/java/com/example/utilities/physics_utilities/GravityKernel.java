@@ -0,0 +1,138 @@
+package com.example.utilities.physics_utilities;
+
+/**
+ * Newtonian point-mass accelerations a_i = sum_j G m_j (x_j - x_i) / |x_j - x_i|^3, shared by
+ * every N-body code path.
+ *
+ * The loop runs over flat x/y/z/G*m arrays and visits every pair once, applying the force to
+ * both bodies (Newton's third law), with one square root per pair. How close encounters are
+ * treated is up to the {@link Softening}.
+ *
+ * An instance keeps scratch arrays for the interleaved variant, so it must not be shared
+ * between threads; the plain array variant keeps no state.
+ */
+public final class GravityKernel {
+
+    /** 1/r^3 as a function of r^2, optionally modified at short range. */
+    @FunctionalInterface
+    public interface Softening {
+        double inverseCube(double distanceSquared);
+    }
+
+    /** Plain 1/r^3; coincident bodies give infinite or NaN accelerations. */
+    public static final Softening NONE = r2 -> 1.0 / (r2 * Math.sqrt(r2));
+
+    /** Plummer softening 1/(r^2 + epsilon^2)^(3/2), finite everywhere. */
+    public static Softening plummer(double epsilon) {
+        double epsilon2 = epsilon * epsilon;
+        return r2 -> {
+            double s = r2 + epsilon2;
+            return 1.0 / (s * Math.sqrt(s));
+        };
+    }
+
+    /** 1/(r + epsilon)^3, which only keeps coincident bodies finite. */
+    public static Softening offset(double epsilon) {
+        return r2 -> {
+            double d = Math.sqrt(r2) + epsilon;
+            return 1.0 / (d * d * d);
+        };
+    }
+
+    /** Ignores pairs closer than minDistance, plain 1/r^3 otherwise. */
+    public static Softening cutoff(double minDistance) {
+        double min2 = minDistance * minDistance;
+        return r2 -> r2 < min2 ? 0.0 : 1.0 / (r2 * Math.sqrt(r2));
+    }
+
+    private final Softening softening;
+
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] z = new double[0];
+    private double[] ax = new double[0];
+    private double[] ay = new double[0];
+    private double[] az = new double[0];
+
+    public GravityKernel(Softening softening) {
+        this.softening = softening;
+    }
+
+    public Softening getSoftening() {
+        return softening;
+    }
+
+    /**
+     * Accelerations of the first n bodies; ax, ay and az are overwritten.
+     *
+     * @param gm G times the mass of every body
+     */
+    public void accelerations(int n, double[] x, double[] y, double[] z, double[] gm,
+                              double[] ax, double[] ay, double[] az) {
+        for (int i = 0; i < n; i++) {
+            ax[i] = 0.0;
+            ay[i] = 0.0;
+            az[i] = 0.0;
+        }
+        for (int i = 0; i < n; i++) {
+            double xi = x[i];
+            double yi = y[i];
+            double zi = z[i];
+            double gmi = gm[i];
+            double axi = 0.0;
+            double ayi = 0.0;
+            double azi = 0.0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double dz = z[j] - zi;
+                double s = softening.inverseCube(dx * dx + dy * dy + dz * dz);
+                double si = gm[j] * s;
+                double sj = gmi * s;
+                axi += si * dx;
+                ayi += si * dy;
+                azi += si * dz;
+                ax[j] -= sj * dx;
+                ay[j] -= sj * dy;
+                az[j] -= sj * dz;
+            }
+            ax[i] += axi;
+            ay[i] += ayi;
+            az[i] += azi;
+        }
+    }
+
+    /**
+     * Same for positions and accelerations stored body after body, e.g. an ODE state
+     * [x, y, z, vx, vy, vz, ...] with stride 6 and its derivative at offset 3.
+     *
+     * @param positions x, y, z of body i at i * stride
+     * @param stride    distance between the positions of two bodies
+     * @param gm        G times the mass of every body, its length is the number of bodies
+     * @param out       receives ax, ay, az of body i at i * outStride + outOffset; nothing else is written
+     */
+    public void accelerations(double[] positions, int stride, double[] gm, double[] out, int outStride, int outOffset) {
+        int n = gm.length;
+        if (x.length < n) {
+            x = new double[n];
+            y = new double[n];
+            z = new double[n];
+            ax = new double[n];
+            ay = new double[n];
+            az = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            int k = i * stride;
+            x[i] = positions[k];
+            y[i] = positions[k + 1];
+            z[i] = positions[k + 2];
+        }
+        accelerations(n, x, y, z, gm, ax, ay, az);
+        for (int i = 0; i < n; i++) {
+            int k = i * outStride + outOffset;
+            out[k] = ax[i];
+            out[k + 1] = ay[i];
+            out[k + 2] = az[i];
+        }
+    }
+}
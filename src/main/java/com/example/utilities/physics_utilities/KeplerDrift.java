@@ -0,0 +1,106 @@
+package com.example.utilities.physics_utilities;
+
+/**
+ * Exact two-body propagation with universal variables (Stumpff functions), as used by the
+ * Kepler drift of the Wisdom–Holman integrator. Works for elliptic, parabolic and hyperbolic
+ * orbits alike.
+ */
+final class KeplerDrift {
+
+    private static final int MAX_ITERATIONS = 50;
+    private static final double CONVERGENCE = 1e-14;
+
+    // below this |z| the series is used, the closed forms lose digits to cancellation
+    private static final double SERIES_LIMIT = 0.1;
+
+    private KeplerDrift() {
+    }
+
+    /**
+     * Advances the relative position q and velocity v of one body (three components each,
+     * starting at offset) around a point mass by dt, in place.
+     *
+     * @param mu G times the central mass
+     */
+    static void drift(double mu, double[] q, double[] v, int offset, double dt) {
+        double rx = q[offset], ry = q[offset + 1], rz = q[offset + 2];
+        double vx = v[offset], vy = v[offset + 1], vz = v[offset + 2];
+
+        double r0 = Math.sqrt(rx * rx + ry * ry + rz * rz);
+        if (r0 == 0.0 || dt == 0.0) {
+            return;
+        }
+        double v2 = vx * vx + vy * vy + vz * vz;
+        double sqrtMu = Math.sqrt(mu);
+        double rDotV = rx * vx + ry * vy + rz * vz;
+        double sigma = rDotV / sqrtMu;
+        // reciprocal semi-major axis, negative for hyperbolic orbits
+        double alpha = 2.0 / r0 - v2 / mu;
+
+        double chi = alpha > 0 ? sqrtMu * alpha * dt : sqrtMu * dt / r0;
+        double c = 0.5, s = 1.0 / 6.0, r = r0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double chi2 = chi * chi;
+            double z = alpha * chi2;
+            c = stumpffC(z);
+            s = stumpffS(z);
+
+            double f = sigma * chi2 * c + (1.0 - alpha * r0) * chi2 * chi * s + r0 * chi - sqrtMu * dt;
+            r = sigma * chi * (1.0 - z * s) + (1.0 - alpha * r0) * chi2 * c + r0;
+            double delta = f / r;
+            chi -= delta;
+            if (Math.abs(delta) <= CONVERGENCE * Math.max(1.0, Math.abs(chi))) {
+                break;
+            }
+        }
+
+        double chi2 = chi * chi;
+        double z = alpha * chi2;
+        c = stumpffC(z);
+        s = stumpffS(z);
+
+        double fCoeff = 1.0 - chi2 / r0 * c;
+        double gCoeff = dt - chi2 * chi / sqrtMu * s;
+
+        double nx = fCoeff * rx + gCoeff * vx;
+        double ny = fCoeff * ry + gCoeff * vy;
+        double nz = fCoeff * rz + gCoeff * vz;
+        double rNew = Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+        double fDot = sqrtMu / (rNew * r0) * (z * chi * s - chi);
+        double gDot = 1.0 - chi2 / rNew * c;
+
+        q[offset] = nx;
+        q[offset + 1] = ny;
+        q[offset + 2] = nz;
+        v[offset] = fDot * rx + gDot * vx;
+        v[offset + 1] = fDot * ry + gDot * vy;
+        v[offset + 2] = fDot * rz + gDot * vz;
+    }
+
+    static double stumpffC(double z) {
+        if (z > SERIES_LIMIT) {
+            double sz = Math.sqrt(z);
+            return (1.0 - Math.cos(sz)) / z;
+        }
+        if (z < -SERIES_LIMIT) {
+            double sz = Math.sqrt(-z);
+            return (Math.cosh(sz) - 1.0) / -z;
+        }
+        return 1.0 / 2.0 - z * (1.0 / 24.0 - z * (1.0 / 720.0 - z * (1.0 / 40320.0
+                - z * (1.0 / 3628800.0 - z / 479001600.0))));
+    }
+
+    static double stumpffS(double z) {
+        if (z > SERIES_LIMIT) {
+            double sz = Math.sqrt(z);
+            return (sz - Math.sin(sz)) / (z * sz);
+        }
+        if (z < -SERIES_LIMIT) {
+            double sz = Math.sqrt(-z);
+            return (Math.sinh(sz) - sz) / (-z * sz);
+        }
+        return 1.0 / 6.0 - z * (1.0 / 120.0 - z * (1.0 / 5040.0 - z * (1.0 / 362880.0
+                - z * (1.0 / 39916800.0 - z / 6227020800.0))));
+    }
+}
@@ -3,19 +3,114 @@ package com.example.utilities.physics_utilities;
 import com.example.utilities.Vector3D;
 import com.example.solar_system.CelestialBody;
 import com.example.Constants;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.Parareal;
 import com.example.utilities.solvers.RK4Solver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.BiFunction;
 
 /**
- * Now USES RK4 instead of VERLET!
+ * Newtonian N-body engine. Uses RK4 by default; the symplectic modes keep the energy error
+ * bounded instead of drifting, so they allow much larger steps on long runs.
  */
 public class PhysicsEngine {
 
+    /**
+     * Integration scheme used by {@link #step(double)}.
+     */
+    public enum Mode {
+        /** classical Runge-Kutta, 4 force evaluations per step, energy drifts secularly */
+        RK4,
+        /** kick-drift-kick leapfrog, 2nd order, 1 force evaluation per step */
+        VELOCITY_VERLET,
+        /** Yoshida's 4th order composition of leapfrog, 3 force evaluations per step */
+        YOSHIDA4,
+        /**
+         * Wisdom–Holman map in democratic heliocentric coordinates: exact Kepler drifts around
+         * the heaviest body plus kicks from the mutual attraction of the others, 1 evaluation of
+         * those (cheaper) interactions per step. Meant for planets around a dominant star;
+         * tightly bound moons still need steps well below their orbital period.
+         */
+        WISDOM_HOLMAN
+    }
+
     private static final double G = Constants.G;
+
+    // Parareal in advance(): coarse steps are this many fine steps, and the slice boundaries are
+    // corrected until they move by less than about a metre per 1e7 km
+    private static final int COARSE_STEP_FACTOR = 16;
+    private static final double PARAREAL_TOLERANCE = 1e-10;
+
+    // with Barnes–Hut, bodies from about the mass of Ceres up are still summed directly
+    private static final double MASSIVE_BODY_MASS = 1e20;
+
+    // Yoshida 4th order coefficients (kick-drift-kick form)
+    private static final double CBRT2 = Math.cbrt(2.0);
+    private static final double W1 = 1.0 / (2.0 - CBRT2);
+    private static final double W0 = -CBRT2 / (2.0 - CBRT2);
+    private static final double[] YOSHIDA_KICK = {W1 / 2.0, (W0 + W1) / 2.0, (W0 + W1) / 2.0, W1 / 2.0};
+    private static final double[] YOSHIDA_DRIFT = {W1, W0, W1};
+
     private final List<CelestialBody> bodies = new ArrayList<>();
+    private final RK4Solver rk4 = new RK4Solver();
+    // pairs closer than 1 m are ignored in every mode
+    private final GravityKernel kernel = new GravityKernel(GravityKernel.cutoff(1e-3));
+    // null for direct summation
+    private final BarnesHutGravity barnesHut;
+    private final double openingAngle;
+    private final Mode mode;
+
+    // state of the symplectic modes: positions, velocities (x,y,z per body), G*m per body
+    private double[] x = new double[0];
+    private double[] v = new double[0];
+    private double[] gm = new double[0];
+    private double[] acc = new double[0];
+    // RK4 state [x, v], its derivative at the start of the step and the state at the end
+    private double[] rk4State = new double[0];
+    private double[] rk4FirstStage = new double[0];
+    private double[] rk4Next = new double[0];
+
+    // the accelerations at the end of a step are those at the start of the next one,
+    // as long as nobody moved the bodies in between
+    private double[] cachedPositions;
+    private double[] cachedGm;
+    private double[] cachedAcc = new double[0];
+
+    public PhysicsEngine() {
+        this(Mode.RK4);
+    }
+
+    public PhysicsEngine(Mode mode) {
+        this(mode, 0.0);
+    }
+
+    /**
+     * @param openingAngle 0 sums every pair directly; above 0 the light bodies' pull is
+     *                     approximated with a {@link BarnesHutGravity} tree of that opening
+     *                     angle (0.5 is common), while bodies of at least {@value #MASSIVE_BODY_MASS} kg
+     *                     are still summed exactly. Meant for thousands of small bodies.
+     */
+    public PhysicsEngine(Mode mode, double openingAngle) {
+        if (openingAngle < 0) {
+            throw new IllegalArgumentException("The opening angle must not be negative");
+        }
+        this.mode = mode;
+        this.openingAngle = openingAngle;
+        this.barnesHut = openingAngle > 0
+                ? new BarnesHutGravity(openingAngle, G * MASSIVE_BODY_MASS, kernel.getSoftening())
+                : null;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** 0 when every pair is summed directly. */
+    public double getOpeningAngle() {
+        return openingAngle;
+    }
 
     public void addBody(CelestialBody body) {
         bodies.add(body);
@@ -26,9 +121,40 @@ public class PhysicsEngine {
     }
 
     public void step(double dt) {
-        int n = bodies.size();
+        switch (mode) {
+            case VELOCITY_VERLET:
+                stepVelocityVerlet(dt);
+                break;
+            case YOSHIDA4:
+                stepYoshida(dt);
+                break;
+            case WISDOM_HOLMAN:
+                stepWisdomHolman(dt);
+                break;
+            default:
+                stepRK4(dt);
+        }
+    }
 
+    /**
+     * Advances by duration in steps of at most dt, as repeated {@link #step} calls would.
+     * With more than one slice the span is integrated in parallel with {@link Parareal}: the
+     * fine propagator steps a copy of the bodies in this engine's mode, the coarse one does the
+     * same with steps {@value #COARSE_STEP_FACTOR} times as large.
+     *
+     * @param slices time slices integrated in parallel, e.g. the number of cores; 1 steps sequentially
+     */
+    public void advance(double duration, double dt, int slices) {
+        if (duration <= 0) return;
+        if (slices <= 1) {
+            int steps = stepsFor(duration, dt);
+            for (int k = 0; k < steps; k++) {
+                step(duration / steps);
+            }
+            return;
+        }
 
+        int n = bodies.size();
         double[] y = new double[n * 6];
         for (int i = 0; i < n; i++) {
             CelestialBody b = bodies.get(i);
@@ -41,65 +167,345 @@ public class PhysicsEngine {
             y[idx + 5] = b.getVelocity().z;
         }
 
-        BiFunction<Double, double[], double[]> f = (t, state) -> {
-            double[] dydt = new double[n * 6];
+        Parareal parareal = new Parareal(sliceEngine(COARSE_STEP_FACTOR * dt), sliceEngine(dt), slices,
+                PARAREAL_TOLERANCE, PARAREAL_TOLERANCE, slices);
+        double[] end = parareal.propagate(0.0, y, duration);
+
+        for (int i = 0; i < n; i++) {
+            int idx = i * 6;
+            CelestialBody b = bodies.get(i);
+            b.setPosition(new Vector3D(end[idx], end[idx + 1], end[idx + 2]));
+            b.setVelocity(new Vector3D(end[idx + 3], end[idx + 4], end[idx + 5]));
+        }
+        loadState();
+        if (acc.length != x.length) acc = new double[x.length];
+        accelerations(x, gm, acc);
+        writeBodies(acc);
+    }
+
+    private static int stepsFor(double duration, double dt) {
+        return Math.max(1, (int) Math.ceil(duration / dt - 1e-9));
+    }
 
+    /** Steps a fresh engine, in this engine's mode, holding copies of the bodies. */
+    private Parareal.Propagator sliceEngine(double dt) {
+        List<CelestialBody> templates = new ArrayList<>(bodies);
+        return (t0, y0, t1) -> {
+            PhysicsEngine engine = new PhysicsEngine(mode, openingAngle);
+            for (int i = 0; i < templates.size(); i++) {
+                int idx = i * 6;
+                engine.addBody(new CelestialBody(templates.get(i).getName(), templates.get(i).getMass(),
+                        new Vector3D(y0[idx], y0[idx + 1], y0[idx + 2]),
+                        new Vector3D(y0[idx + 3], y0[idx + 4], y0[idx + 5])));
+            }
+            int steps = stepsFor(t1 - t0, dt);
+            for (int k = 0; k < steps; k++) {
+                engine.step((t1 - t0) / steps);
+            }
+            double[] y1 = new double[y0.length];
+            for (int i = 0; i < templates.size(); i++) {
+                CelestialBody b = engine.bodies.get(i);
+                int idx = i * 6;
+                y1[idx] = b.getPosition().x;
+                y1[idx + 1] = b.getPosition().y;
+                y1[idx + 2] = b.getPosition().z;
+                y1[idx + 3] = b.getVelocity().x;
+                y1[idx + 4] = b.getVelocity().y;
+                y1[idx + 5] = b.getVelocity().z;
+            }
+            return y1;
+        };
+    }
+
+    /**
+     * Classical RK4 on [x, v]. The accelerations at the end of the step are evaluated once, set
+     * on the bodies and cached, and the next step takes them as its first stage (first same as
+     * last), so a step costs 4 force evaluations instead of 4 plus one per body.
+     */
+    private void stepRK4(double dt) {
+        loadState();
+        int n = gm.length;
+        if (rk4State.length != n * 6) {
+            rk4State = new double[n * 6];
+            rk4FirstStage = new double[n * 6];
+            rk4Next = new double[n * 6];
+        }
+        startAccelerations();
+        for (int i = 0; i < n; i++) {
+            for (int c = 0; c < 3; c++) {
+                rk4State[i * 6 + c] = x[i * 3 + c];
+                rk4State[i * 6 + 3 + c] = v[i * 3 + c];
+                rk4FirstStage[i * 6 + c] = v[i * 3 + c];
+                rk4FirstStage[i * 6 + 3 + c] = acc[i * 3 + c];
+            }
+        }
+
+        double[] gmBodies = gm;
+        ODEFunction f = (t, state, dydt) -> {
             for (int i = 0; i < n; i++) {
                 int idx = i * 6;
                 dydt[idx] = state[idx + 3];
                 dydt[idx + 1] = state[idx + 4];
                 dydt[idx + 2] = state[idx + 5];
             }
+            accelerations(state, 6, gmBodies, dydt, 6, 3);
+        };
+        rk4.step(f, 0.0, rk4State, rk4FirstStage, dt, rk4Next);
 
-            for (int i = 0; i < n; i++) {
-                CelestialBody bi = bodies.get(i);
-                Vector3D pos_i = new Vector3D(state[i * 6], state[i * 6 + 1], state[i * 6 + 2]);
-                Vector3D acc = Vector3D.zero();
+        for (int i = 0; i < n; i++) {
+            for (int c = 0; c < 3; c++) {
+                x[i * 3 + c] = rk4Next[i * 6 + c];
+                v[i * 3 + c] = rk4Next[i * 6 + 3 + c];
+            }
+        }
+        // the one end-of-step evaluation, which also starts the next step
+        accelerations(x, gm, acc);
+        storeState(acc);
+    }
 
-                for (int j = 0; j < n; j++) {
-                    if (i == j) continue;
+    /**
+     * Kick-drift-kick leapfrog. The closing kick's accelerations are cached for the next step,
+     * so every step after the first costs a single force evaluation.
+     */
+    private void stepVelocityVerlet(double dt) {
+        loadState();
+        int m = x.length;
+        double halfDt = 0.5 * dt;
 
-                    CelestialBody bj = bodies.get(j);
-                    Vector3D pos_j = new Vector3D(state[j * 6], state[j * 6 + 1], state[j * 6 + 2]);
-                    Vector3D r = pos_j.subtract(pos_i);
-                    double distSq = r.magnitudeSquared();
+        startAccelerations();
+        for (int k = 0; k < m; k++) {
+            v[k] += halfDt * acc[k];
+            x[k] += dt * v[k];
+        }
+        accelerations(x, gm, acc);
+        for (int k = 0; k < m; k++) {
+            v[k] += halfDt * acc[k];
+        }
 
-                    if (distSq < 1e-6) continue;
+        storeState(acc);
+    }
 
-                    double forceMag = G * bj.getMass() / distSq;
-                    acc = acc.add(r.safeNormalize().scale(forceMag));
-                }
+    /**
+     * Yoshida's symmetric composition of three leapfrog steps with weights w1, w0, w1.
+     * Written as kick-drift-...-kick so the last kick's accelerations start the next step.
+     */
+    private void stepYoshida(double dt) {
+        loadState();
+        int m = x.length;
 
-                int idx = i * 6;
-                dydt[idx + 3] = acc.x;
-                dydt[idx + 4] = acc.y;
-                dydt[idx + 5] = acc.z;
+        startAccelerations();
+        for (int stage = 0; stage < YOSHIDA_DRIFT.length; stage++) {
+            double kick = YOSHIDA_KICK[stage] * dt;
+            double drift = YOSHIDA_DRIFT[stage] * dt;
+            for (int k = 0; k < m; k++) {
+                v[k] += kick * acc[k];
+                x[k] += drift * v[k];
             }
+            accelerations(x, gm, acc);
+        }
+        double kick = YOSHIDA_KICK[YOSHIDA_KICK.length - 1] * dt;
+        for (int k = 0; k < m; k++) {
+            v[k] += kick * acc[k];
+        }
 
-            return dydt;
-        };
+        storeState(acc);
+    }
+
+    /**
+     * Wisdom–Holman step in democratic heliocentric coordinates (heliocentric positions,
+     * barycentric velocities), split as interaction kick, Sun "jump", Kepler drift, jump, kick.
+     * The interaction accelerations at the end are cached for the next step's first kick.
+     */
+    private void stepWisdomHolman(double dt) {
+        loadState();
+        int n = gm.length;
+        if (n < 2) {
+            stepVelocityVerlet(dt);
+            return;
+        }
+        double halfDt = 0.5 * dt;
 
-        // RK4 integration
-        RK4Solver rk4 = new RK4Solver();
-        double[] newState = rk4.solveStep(f, 0, y, dt);
+        int central = 0;
+        for (int i = 1; i < n; i++) {
+            if (gm[i] > gm[central]) central = i;
+        }
+        double muCentral = gm[central];
+        double totalGm = 0;
+        for (double g : gm) totalGm += g;
 
+        // barycentre, and the heliocentric positions / barycentric velocities of the others
+        double[] cm = new double[3];
+        double[] vcm = new double[3];
         for (int i = 0; i < n; i++) {
-            int idx = i * 6;
-            Vector3D pos = new Vector3D(newState[idx], newState[idx + 1], newState[idx + 2]);
-            Vector3D vel = new Vector3D(newState[idx + 3], newState[idx + 4], newState[idx + 5]);
-            CelestialBody body = bodies.get(i);
+            for (int c = 0; c < 3; c++) {
+                cm[c] += gm[i] * x[i * 3 + c] / totalGm;
+                vcm[c] += gm[i] * v[i * 3 + c] / totalGm;
+            }
+        }
+        int cc = central * 3;
+        double[] q = new double[x.length];
+        double[] u = new double[v.length];
+        for (int i = 0; i < n; i++) {
+            if (i == central) continue;
+            for (int c = 0; c < 3; c++) {
+                q[i * 3 + c] = x[i * 3 + c] - x[cc + c];
+                u[i * 3 + c] = v[i * 3 + c] - vcm[c];
+            }
+        }
 
-            body.setPosition(pos);
-            body.setVelocity(vel);
+        // interactions only act between the non-central bodies
+        double[] gmOthers = gm.clone();
+        gmOthers[central] = 0.0;
 
-            double[] finalDerivatives = f.apply(0.0, newState);
-            Vector3D a = new Vector3D(
-                    finalDerivatives[idx + 3],
-                    finalDerivatives[idx + 4],
-                    finalDerivatives[idx + 5]
-            );
-            body.setAcceleration(a);
+        startInteractions(q, gmOthers);
+        kick(u, acc, halfDt, central);
+        jump(q, u, gmOthers, muCentral, halfDt, central);
+        for (int i = 0; i < n; i++) {
+            if (i != central) KeplerDrift.drift(muCentral, q, u, i * 3, dt);
+        }
+        jump(q, u, gmOthers, muCentral, halfDt, central);
+        accelerations(q, gmOthers, acc);
+        kick(u, acc, halfDt, central);
+
+        // back to the inertial frame; the barycentre moves uniformly
+        double[] sunPos = new double[3];
+        double[] sunVel = new double[3];
+        for (int c = 0; c < 3; c++) {
+            cm[c] += vcm[c] * dt;
+            double qSum = 0, uSum = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == central) continue;
+                qSum += gm[i] * q[i * 3 + c];
+                uSum += gm[i] * u[i * 3 + c];
+            }
+            sunPos[c] = cm[c] - qSum / totalGm;
+            sunVel[c] = vcm[c] - uSum / muCentral;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int c = 0; c < 3; c++) {
+                if (i == central) {
+                    x[i * 3 + c] = sunPos[c];
+                    v[i * 3 + c] = sunVel[c];
+                } else {
+                    x[i * 3 + c] = q[i * 3 + c] + sunPos[c];
+                    v[i * 3 + c] = u[i * 3 + c] + vcm[c];
+                }
+            }
+        }
+
+        // the interaction cache refers to heliocentric positions, so it is keyed on q
+        cachedPositions = q;
+        cachedGm = gmOthers;
+        cachedAcc = acc.clone();
+
+        // inertial accelerations for the bodies: central pull plus the cached interactions
+        double[] total = acc.clone();
+        Arrays.fill(total, cc, cc + 3, 0.0);
+        for (int i = 0; i < n; i++) {
+            if (i == central) continue;
+            int k = i * 3;
+            double r2 = q[k] * q[k] + q[k + 1] * q[k + 1] + q[k + 2] * q[k + 2];
+            double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+            for (int c = 0; c < 3; c++) {
+                total[k + c] -= muCentral * q[k + c] * invR3;
+                total[cc + c] += gm[i] * q[k + c] * invR3;
+            }
+        }
+        writeBodies(total);
+    }
 
+    private static void kick(double[] u, double[] a, double dt, int central) {
+        for (int k = 0; k < u.length; k++) {
+            if (k / 3 != central) u[k] += dt * a[k];
+        }
+    }
+
+    /** Drift of the heliocentric positions caused by the central body's barycentric momentum. */
+    private static void jump(double[] q, double[] u, double[] gmOthers, double muCentral, double dt, int central) {
+        double px = 0, py = 0, pz = 0;
+        for (int i = 0; i < gmOthers.length; i++) {
+            px += gmOthers[i] * u[i * 3];
+            py += gmOthers[i] * u[i * 3 + 1];
+            pz += gmOthers[i] * u[i * 3 + 2];
+        }
+        double scale = dt / muCentral;
+        for (int i = 0; i < gmOthers.length; i++) {
+            if (i == central) continue;
+            q[i * 3] += scale * px;
+            q[i * 3 + 1] += scale * py;
+            q[i * 3 + 2] += scale * pz;
+        }
+    }
+
+    /** Accelerations of the bodies at pos [x, y, z, ...]. */
+    private void accelerations(double[] pos, double[] gm, double[] out) {
+        accelerations(pos, 3, gm, out, 3, 0);
+    }
+
+    /** Direct summation with {@link GravityKernel}, or the Barnes–Hut tree if one is set. */
+    private void accelerations(double[] positions, int stride, double[] gm, double[] out, int outStride, int outOffset) {
+        if (barnesHut != null) {
+            barnesHut.accelerations(positions, stride, gm, out, outStride, outOffset);
+        } else {
+            kernel.accelerations(positions, stride, gm, out, outStride, outOffset);
+        }
+    }
+
+    /** Fills acc with the accelerations at the current x, reusing the cache when it is still valid. */
+    private void startAccelerations() {
+        if (acc.length != x.length) acc = new double[x.length];
+        if (Arrays.equals(cachedPositions, x) && Arrays.equals(cachedGm, gm)) {
+            System.arraycopy(cachedAcc, 0, acc, 0, acc.length);
+        } else {
+            accelerations(x, gm, acc);
+        }
+    }
+
+    private void startInteractions(double[] q, double[] gmOthers) {
+        if (acc.length != q.length) acc = new double[q.length];
+        if (Arrays.equals(cachedPositions, q) && Arrays.equals(cachedGm, gmOthers)) {
+            System.arraycopy(cachedAcc, 0, acc, 0, acc.length);
+        } else {
+            accelerations(q, gmOthers, acc);
+        }
+    }
+
+    private void loadState() {
+        int n = bodies.size();
+        if (gm.length != n) {
+            x = new double[n * 3];
+            v = new double[n * 3];
+            gm = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            CelestialBody b = bodies.get(i);
+            Vector3D p = b.getPosition();
+            Vector3D vel = b.getVelocity();
+            x[i * 3] = p.x;
+            x[i * 3 + 1] = p.y;
+            x[i * 3 + 2] = p.z;
+            v[i * 3] = vel.x;
+            v[i * 3 + 1] = vel.y;
+            v[i * 3 + 2] = vel.z;
+            gm[i] = G * b.getMass();
+        }
+    }
+
+    /** Writes x, v and the given accelerations back and remembers them for the next step. */
+    private void storeState(double[] a) {
+        cachedPositions = x.clone();
+        cachedGm = gm.clone();
+        cachedAcc = a.clone();
+        writeBodies(a);
+    }
+
+    private void writeBodies(double[] a) {
+        for (int i = 0; i < bodies.size(); i++) {
+            CelestialBody body = bodies.get(i);
+            int k = i * 3;
+            body.setPosition(new Vector3D(x[k], x[k + 1], x[k + 2]));
+            body.setVelocity(new Vector3D(v[k], v[k + 1], v[k + 2]));
+            body.setAcceleration(new Vector3D(a[k], a[k + 1], a[k + 2]));
         }
     }
 }
@@ -3,12 +3,13 @@ package com.example.utilities.physics_utilities;
 import com.example.solar_system.CelestialBody;
 import com.example.utilities.Vector3D;
 import com.example.Constants;
-import com.example.utilities.solvers.ODESolver;
-import com.example.utilities.solvers.RKF45Solver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RKF45Session;
+import com.example.utilities.solvers.SolverStats;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.BiFunction;
 
 public class PhysicsEngineRKF {
 
@@ -18,10 +19,25 @@ public class PhysicsEngineRKF {
     private static final int MAX_STEPS = Constants.MAX_STEPS;
 
     private final List<CelestialBody> bodies = new ArrayList<>();
-    private final ODESolver solver;
+    private final double maxStepSize;
+
+    // carried across step() calls so every frame continues with the step size of the last one
+    private RKF45Session session;
+    private double[] gm = new double[0];
+    // state written back to the bodies by the last step, used to notice outside changes
+    private double[] lastState;
+    // kept across sessions, a new session starts whenever the bodies change
+    private final SolverStats stats = new SolverStats();
 
     public PhysicsEngineRKF() {
-        this.solver = new RKF45Solver(); // still uses RKF
+        this(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param maxStepSize upper bound for the internal step size in seconds
+     */
+    public PhysicsEngineRKF(double maxStepSize) {
+        this.maxStepSize = maxStepSize;
     }
 
     public void addBody(CelestialBody body) {
@@ -32,71 +48,63 @@ public class PhysicsEngineRKF {
         return bodies;
     }
 
+    /** Evaluations, steps and step sizes of every step() so far. */
+    public SolverStats getSolverStats() {
+        return stats;
+    }
+
     public void step(double dt) {
         if (bodies.isEmpty()) return;
 
-        double[] state = flattenState(bodies);
-        BiFunction<Double, double[], double[]> derivative = createDerivative();
-
-        BiFunction<Double, double[], Boolean> stopCondition = (t, y) -> t >= dt;
-
-        double[][] result = solver.solve(derivative, 0.0, state, INITIAL_STEP_SIZE, MAX_STEPS, stopCondition);
+        syncSession();
 
-        if (result.length < 2) {
-            System.err.printf(" RKF solver failed — only %d step(s) returned. Skipping update.%n", result.length);
+        if (!session.advanceTo(session.getTime() + dt, MAX_STEPS)) {
+            System.err.printf(" RKF solver did not reach t + %.1f s within %d steps. Skipping update.%n  %s%n",
+                    dt, MAX_STEPS, stats.summary());
+            lastState = null; // start again from the bodies on the next call
             return;
         }
 
-        updateBodiesFromState(result[result.length - 1]);
+        lastState = session.getState();
+        updateBodiesFromState(lastState);
     }
 
-    private BiFunction<Double, double[], double[]> createDerivative() {
-        return (t, y) -> {
-            int n = bodies.size();
-            double[] dydt = new double[6 * n];
-
-            Vector3D[] positions = new Vector3D[n];
-            Vector3D[] velocities = new Vector3D[n];
-
-            for (int i = 0; i < n; i++) {
-                positions[i] = new Vector3D(y[6 * i], y[6 * i + 1], y[6 * i + 2]);
-                velocities[i] = new Vector3D(y[6 * i + 3], y[6 * i + 4], y[6 * i + 5]);
-            }
-
-            Vector3D[] accelerations = computeAccelerations(positions);
+    /**
+     * Creates the session on first use and resets it when bodies were added, moved or
+     * changed mass since the last step. The step size found so far is kept in either case.
+     */
+    private void syncSession() {
+        double[] state = flattenState(bodies);
+        boolean massesChanged = gm.length != bodies.size();
+        for (int i = 0; i < bodies.size() && !massesChanged; i++) {
+            massesChanged = gm[i] != G * bodies.get(i).getMass();
+        }
 
-            for (int i = 0; i < n; i++) {
-                dydt[6 * i]     = velocities[i].getX();
-                dydt[6 * i + 1] = velocities[i].getY();
-                dydt[6 * i + 2] = velocities[i].getZ();
-                dydt[6 * i + 3] = accelerations[i].getX();
-                dydt[6 * i + 4] = accelerations[i].getY();
-                dydt[6 * i + 5] = accelerations[i].getZ();
+        if (session == null || massesChanged) {
+            gm = new double[bodies.size()];
+            for (int i = 0; i < gm.length; i++) {
+                gm[i] = G * bodies.get(i).getMass();
             }
-
-            return dydt;
-        };
+            double stepSize = session == null ? INITIAL_STEP_SIZE : session.getStepSize();
+            session = new RKF45Session(createDerivative(gm), 0.0, state, stepSize, maxStepSize,
+                    Constants.TOLERANCE, Constants.TOLERANCE);
+            session.setStats(stats);
+        } else if (!Arrays.equals(state, lastState)) {
+            session.reset(session.getTime(), state);
+        }
     }
 
-    private Vector3D[] computeAccelerations(Vector3D[] positions) {
-        int n = bodies.size();
-        Vector3D[] accelerations = new Vector3D[n];
-        double softening2 = SOFTENING_LENGTH * SOFTENING_LENGTH;
-
-        for (int i = 0; i < n; i++) {
-            Vector3D totalForce = new Vector3D(0, 0, 0);
-            for (int j = 0; j < n; j++) {
-                if (i == j) continue;
-                Vector3D r = positions[j].subtract(positions[i]);
-                double r2 = r.dot(r);
-                double distSqr = r2 + softening2;
-                double forceMag = G * bodies.get(i).getMass() * bodies.get(j).getMass() / (distSqr * Math.sqrt(distSqr));
-                totalForce = totalForce.add(r.scale(forceMag));
+    private ODEFunction createDerivative(double[] gm) {
+        GravityKernel kernel = new GravityKernel(GravityKernel.plummer(SOFTENING_LENGTH));
+        return (t, y, dydt) -> {
+            for (int i = 0; i < gm.length; i++) {
+                int pi = 6 * i;
+                dydt[pi]     = y[pi + 3];
+                dydt[pi + 1] = y[pi + 4];
+                dydt[pi + 2] = y[pi + 5];
             }
-            accelerations[i] = totalForce.scale(1.0 / bodies.get(i).getMass());
-        }
-
-        return accelerations;
+            kernel.accelerations(y, 6, gm, dydt, 6, 3);
+        };
     }
 
     private double[] flattenState(List<CelestialBody> bodies) {
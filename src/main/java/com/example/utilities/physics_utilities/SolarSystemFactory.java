@@ -1,11 +1,13 @@
 package com.example.utilities.physics_utilities;
 
+import com.example.Constants;
 import com.example.solar_system.CelestialBody;
 import com.example.utilities.Vector3D;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Factory class to load a predefined solar system with real celestial bodies and their
@@ -147,6 +149,35 @@ public final class SolarSystemFactory {
         return new CelestialBody("Titan", 1.3452e23, titanPos, titanVel);
     }
 
+    /**
+     * Small bodies on circular orbits around the given star between 2.1 and 3.3 AU, with a few
+     * degrees of inclination, for runs with many bodies (see {@link PhysicsEngine#PhysicsEngine(PhysicsEngine.Mode, double)}).
+     * Masses are 1e15 to 1e18 kg, far below those summed exactly.
+     *
+     * @param seed the same seed gives the same belt
+     */
+    public static List<CelestialBody> asteroidBelt(CelestialBody sun, int count, long seed) {
+        double au = 1.495978707e8;
+        double mu = Constants.G * sun.getMass();
+        Random random = new Random(seed);
+        List<CelestialBody> belt = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double radius = au * (2.1 + 1.2 * random.nextDouble());
+            double angle = 2 * Math.PI * random.nextDouble();
+            double inclination = Math.toRadians(5.0 * random.nextGaussian());
+            double speed = Math.sqrt(mu / radius);
+            double cosI = Math.cos(inclination);
+            double sinI = Math.sin(inclination);
+            Vector3D position = new Vector3D(radius * Math.cos(angle), radius * Math.sin(angle) * cosI,
+                    radius * Math.sin(angle) * sinI);
+            Vector3D velocity = new Vector3D(-speed * Math.sin(angle), speed * Math.cos(angle) * cosI,
+                    speed * Math.cos(angle) * sinI);
+            belt.add(new CelestialBody("Asteroid " + i, Math.pow(10, 15 + 3 * random.nextDouble()),
+                    sun.getPosition().add(position), sun.getVelocity().add(velocity)));
+        }
+        return belt;
+    }
+
     public static double getRadiusKm(String name) {
         switch (name.toLowerCase()) {
             case "sun":      return 696_342.0;
@@ -0,0 +1,226 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Fixed step Adams–Bashforth–Moulton predictor-corrector.
+ *
+ * The Adams–Bashforth formula predicts y_{n+1} from the derivatives of the last {@code order}
+ * steps, one evaluation gives f at the prediction, and the Adams–Moulton formula corrects
+ * y_{n+1} with it. In PECE mode (the default) the corrected state is evaluated once more, so a
+ * step costs 2 evaluations; in PEC mode the derivative at the prediction is kept and a step
+ * costs 1. RK4 costs 4, so on smooth problems with an expensive right-hand side (n-body forces)
+ * this is the cheaper method at the same step size.
+ *
+ * The first order - 1 steps are taken with RK4 to fill the history; above order 4 they are
+ * split into substeps so the start-up error does not limit the order. The past derivatives live
+ * in a ring buffer, so a step moves no arrays around.
+ *
+ * Multistep methods assume the right-hand side is smooth across steps; a kink in f (a switched
+ * thrust, a piecewise interpolated ephemeris) costs accuracy for the next few steps.
+ * Not thread-safe: the buffers are reused between calls.
+ */
+public class AdamsBashforthMoultonSolver implements ODESolver {
+
+    public static final int MAX_ORDER = 8;
+
+    private final int order;
+    private final boolean reevaluate;
+
+    // beta[j] weighs f_{n-j} in the predictor; gamma[0] weighs f_{n+1}, gamma[j] f_{n+1-j}
+    private final double[] beta;
+    private final double[] gamma;
+
+    private final RK4Solver starter = new RK4Solver();
+    private final int startupSubsteps;
+    private SolverStats stats;
+
+    // history[(head - j) mod order] = f_{n-j}
+    private double[][] history = new double[0][];
+    private int head;
+
+    private double[] yPredicted = new double[0];
+    private double[] fPredicted = new double[0];
+
+    /** Order 4 in PECE mode. */
+    public AdamsBashforthMoultonSolver() {
+        this(4, true);
+    }
+
+    public AdamsBashforthMoultonSolver(int order) {
+        this(order, true);
+    }
+
+    /**
+     * @param order      1 to {@link #MAX_ORDER}; order k uses the derivatives of the last k steps
+     * @param reevaluate true for PECE (2 evaluations per step), false for PEC (1 evaluation)
+     */
+    public AdamsBashforthMoultonSolver(int order, boolean reevaluate) {
+        if (order < 1 || order > MAX_ORDER) {
+            throw new IllegalArgumentException("Order must be between 1 and " + MAX_ORDER + ", got " + order);
+        }
+        this.order = order;
+        this.reevaluate = reevaluate;
+
+        double[] bashforthNodes = new double[order];
+        double[] moultonNodes = new double[order];
+        for (int m = 0; m < order; m++) {
+            bashforthNodes[m] = -m;
+            moultonNodes[m] = 1 - m;
+        }
+        this.beta = integratedLagrangeWeights(bashforthNodes);
+        this.gamma = integratedLagrangeWeights(moultonNodes);
+        // RK4 error per step shrinks with 2^-5 per halving, one halving per order above 4
+        this.startupSubsteps = 1 << Math.max(0, order - 4);
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double stepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, stepSize, steps, stopCondition);
+    }
+
+    /**
+     * A {@link DenseStepSink} gets a cubic Hermite interpolant for every step, built from the
+     * derivatives in the history, so it costs no extra evaluations.
+     */
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double stepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        int dim = y0.length;
+        ensure(dim);
+
+        double[] y = Arrays.copyOf(y0, dim);
+        double t = t0;
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
+
+        if (sink != null) sink.accept(t, y);
+
+        head = 0;
+        f.evaluate(t, y, history[head]);
+        int known = 1;
+
+        for (int n = 0; n < steps; n++) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
+            }
+            if (dense != null) interpolator.begin(t, y, history[head]);
+
+            double tNext = t0 + (n + 1) * stepSize;
+            int next = (head + 1) % order;
+            if (known < order) {
+                // start-up: RK4 until the history holds enough derivatives
+                double h = stepSize / startupSubsteps;
+                for (int sub = 0; sub < startupSubsteps; sub++) {
+                    starter.step(f, t + sub * h, y, h, y);
+                }
+                f.evaluate(tNext, y, history[next]);
+                known++;
+            } else {
+                predictCorrect(f, tNext, y, stepSize, next);
+            }
+            head = next;
+            if (stats != null) stats.accepted(tNext - t, Double.NaN);
+            t = tNext;
+
+            if (dense != null) {
+                interpolator.end(t, y, history[head]);
+                dense.acceptStep(interpolator);
+            }
+            if (sink != null) sink.accept(t, y);
+        }
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /** One P(EC)E or PEC step from t_n to tNext, updating y in place and filling history[next]. */
+    private void predictCorrect(ODEFunction f, double tNext, double[] y, double h, int next) {
+        int dim = y.length;
+
+        for (int i = 0; i < dim; i++) {
+            double sum = 0.0;
+            for (int j = 0; j < order; j++) {
+                sum += beta[j] * history[(head - j + order) % order][i];
+            }
+            yPredicted[i] = y[i] + h * sum;
+        }
+        f.evaluate(tNext, yPredicted, fPredicted);
+
+        for (int i = 0; i < dim; i++) {
+            double sum = gamma[0] * fPredicted[i];
+            for (int j = 1; j < order; j++) {
+                sum += gamma[j] * history[(head - j + 1 + order) % order][i];
+            }
+            y[i] += h * sum;
+        }
+
+        // the slot of f_{n-order+1} is free now that the corrector has used the history
+        if (reevaluate) {
+            f.evaluate(tNext, y, history[next]);
+        } else {
+            System.arraycopy(fPredicted, 0, history[next], 0, dim);
+        }
+    }
+
+    private void ensure(int dim) {
+        if (yPredicted.length == dim && history.length == order) return;
+        history = new double[order][dim];
+        yPredicted = new double[dim];
+        fPredicted = new double[dim];
+    }
+
+    /**
+     * Integrals over [0, 1] of the Lagrange basis polynomials through the given nodes, i.e. the
+     * weights of the quadrature that integrates the interpolant of f at those nodes over one step.
+     */
+    static double[] integratedLagrangeWeights(double[] nodes) {
+        int k = nodes.length;
+        double[] weights = new double[k];
+        for (int j = 0; j < k; j++) {
+            // coefficients of prod_{m != j} (s - s_m), lowest power first
+            double[] poly = new double[k];
+            poly[0] = 1.0;
+            int degree = 0;
+            double denominator = 1.0;
+            for (int m = 0; m < k; m++) {
+                if (m == j) continue;
+                for (int p = degree + 1; p > 0; p--) {
+                    poly[p] = poly[p - 1] - nodes[m] * poly[p];
+                }
+                poly[0] = -nodes[m] * poly[0];
+                degree++;
+                denominator *= nodes[j] - nodes[m];
+            }
+            double integral = 0.0;
+            for (int p = 0; p <= degree; p++) {
+                integral += poly[p] / (p + 1);
+            }
+            weights[j] = integral / denominator;
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.utilities.solvers;
+
+import com.example.Constants;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Gragg–Bulirsch–Stoer extrapolation integrator with adaptive order and step size.
+ *
+ * A step of size H runs the modified midpoint rule with n = 2, 4, 6, ... substeps and
+ * extrapolates the results to zero substep size (Aitken–Neville in (H/n)^2). Column j of the
+ * table has order 2j + 2, and the difference of the last two columns is the error estimate.
+ * The number of columns and the step size are chosen together to minimise the work per unit
+ * time (Hairer, Norsett & Wanner, Solving ODEs I, ODEX), so smooth problems at tight tolerances
+ * end up with high orders and very large steps.
+ *
+ * Dense output is a cubic Hermite interpolant, which is coarse for the long steps this method
+ * takes; use {@link #integrateTo} to land exactly on a time of interest instead.
+ *
+ * Not thread-safe: the extrapolation table is reused between calls.
+ */
+public class BulirschStoerSolver implements ODESolver {
+
+    /** Maximum number of columns of the extrapolation table, i.e. order up to 2 * MAX_COLUMNS. */
+    private static final int MAX_COLUMNS = 9;
+
+    private static final double SAFETY_FACTOR = 0.94;
+    private static final double ERROR_TARGET = 0.65;
+    private static final double MIN_SCALE = 0.02;
+    private static final double MAX_SCALE = 4.0;
+
+    private final double absTol;
+    private final double relTol;
+    private final double maxStepSize;
+    private SolverStats stats;
+
+    // substep counts 2, 4, 6, ... and the evaluations a step accepted in column j costs
+    private final int[] substeps = new int[MAX_COLUMNS];
+    private final int[] work = new int[MAX_COLUMNS];
+
+    // table[j] holds the extrapolated column values of row j, one state each
+    private double[][][] table = new double[0][][];
+    private double[] f0 = new double[0];
+    private double[] zPrevious = new double[0];
+    private double[] zCurrent = new double[0];
+    private double[] zNext = new double[0];
+    private double[] derivative = new double[0];
+
+    private final double[] columnError = new double[MAX_COLUMNS];
+    private final double[] columnStep = new double[MAX_COLUMNS];
+
+    /**
+     * Uses {@link Constants#TOLERANCE} as absolute and relative tolerance.
+     */
+    public BulirschStoerSolver() {
+        this(Constants.TOLERANCE, Constants.TOLERANCE);
+    }
+
+    public BulirschStoerSolver(double absTol, double relTol) {
+        this(absTol, relTol, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param absTol      absolute tolerance for every component
+     * @param relTol      relative tolerance for every component
+     * @param maxStepSize upper bound for the step size, Double.POSITIVE_INFINITY for none
+     */
+    public BulirschStoerSolver(double absTol, double relTol, double maxStepSize) {
+        if (absTol < 0 || relTol < 0 || absTol + relTol <= 0) {
+            throw new IllegalArgumentException("Tolerances must be non-negative and not both zero");
+        }
+        if (maxStepSize <= 0) {
+            throw new IllegalArgumentException("Maximum step size must be positive");
+        }
+        this.absTol = absTol;
+        this.relTol = relTol;
+        this.maxStepSize = maxStepSize;
+
+        for (int j = 0; j < MAX_COLUMNS; j++) {
+            substeps[j] = 2 * (j + 1);
+            // the midpoint rule needs n - 1 evaluations on top of the shared f(t, y)
+            work[j] = (j == 0 ? 1 : work[j - 1]) + substeps[j] - 1;
+        }
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double initialStepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, initialStepSize, steps, stopCondition);
+    }
+
+    /**
+     * Integrates until the stop condition holds or {@code steps} steps have been accepted.
+     */
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double initialStepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateTo(f, t0, y0, Double.POSITIVE_INFINITY, initialStepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd; the last step is shortened to land on it.
+     *
+     * @param f               primitive derivative
+     * @param t0              start time
+     * @param y0              initial state (not modified)
+     * @param tEnd            end time, must not lie before t0
+     * @param initialStepSize step size tried first
+     * @param steps           maximum number of accepted steps
+     * @param stopCondition   checked before every step, may be null
+     * @param sink            receives the initial state and every accepted step, may be null
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        if (tEnd < t0) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + t0 + " to " + tEnd);
+        }
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        int dim = y0.length;
+        ensure(dim);
+
+        double t = t0;
+        double[] y = Arrays.copyOf(y0, dim);
+        double stepSize = Math.min(initialStepSize, maxStepSize);
+        int accepted = 0;
+
+        // initial target column from the tolerance, as in ODEX
+        double logTol = -Math.log10(relTol + 1e-40) * 0.6 + 0.5;
+        int targetColumn = Math.max(2, Math.min(MAX_COLUMNS - 2, (int) logTol));
+        boolean previousRejected = false;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
+
+        if (sink != null) sink.accept(t, y);
+        f.evaluate(t, y, f0);
+
+        while (t < tEnd && accepted < steps) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
+            }
+
+            double h = stepSize;
+            boolean lastStep = t + h >= tEnd;
+            if (lastStep) {
+                h = tEnd - t;
+            }
+
+            // build rows until one inside the window k-1..k+1 converges
+            int acceptedColumn = -1;
+            int built = 0;
+            int lastColumn = Math.min(targetColumn + 1, MAX_COLUMNS - 1);
+            for (int j = 0; j <= lastColumn; j++) {
+                midpoint(f, t, y, h, substeps[j], table[j][0]);
+                extrapolate(j, dim);
+                if (j == 0) continue;
+                built = j;
+
+                double err = errorNorm(y, table[j][j], table[j][j - 1]);
+                columnError[j] = err;
+                columnStep[j] = stepFor(h, err, j);
+                if (j >= targetColumn - 1 && err <= 1.0) {
+                    acceptedColumn = j;
+                    break;
+                }
+                if (Double.isNaN(err)) {
+                    break;
+                }
+            }
+
+            if (acceptedColumn < 0) {
+                // rejected: shrink with the estimate of the target column, or hard if it blew up
+                if (stats != null) stats.rejected(h, columnError[built]);
+                int j = Math.min(targetColumn, built);
+                double estimate = columnStep[j];
+                stepSize = Double.isNaN(columnError[built]) || Double.isNaN(estimate)
+                        ? 0.25 * h
+                        : Math.min(estimate, 0.5 * h);
+                targetColumn = Math.max(2, Math.min(targetColumn, j));
+                previousRejected = true;
+                // the step collapsed (e.g. the solution overflowed), nothing sensible left to do
+                if (stepSize <= Math.ulp(t)) {
+                    break;
+                }
+                continue;
+            }
+
+            int k = acceptedColumn;
+            double tNew = lastStep ? tEnd : t + h;
+            if (dense != null) interpolator.begin(t, y, f0);
+            System.arraycopy(table[k][k], 0, y, 0, dim);
+            t = tNew;
+            accepted++;
+            if (stats != null) stats.accepted(h, columnError[k]);
+            f.evaluate(t, y, f0);
+            if (dense != null) {
+                interpolator.end(t, y, f0);
+                dense.acceptStep(interpolator);
+            }
+            if (sink != null) sink.accept(t, y);
+
+            // choose the column with the least work per unit step for the next step
+            int nextColumn = k;
+            double nextStep = columnStep[k];
+            if (k >= 2 && work[k - 1] / columnStep[k - 1] < 0.9 * work[k] / columnStep[k]) {
+                nextColumn = k - 1;
+                nextStep = columnStep[k - 1];
+            } else if (k + 1 < MAX_COLUMNS - 1 && !previousRejected
+                    && work[k] / columnStep[k] < 0.9 * work[k - 1] / columnStep[k - 1]) {
+                nextColumn = k + 1;
+                nextStep = columnStep[k] * work[k + 1] / work[k];
+            }
+            targetColumn = Math.max(2, nextColumn);
+
+            // a step shortened to hit tEnd says nothing about the step size the problem allows
+            if (!lastStep || h >= stepSize) {
+                stepSize = previousRejected ? Math.min(nextStep, h) : nextStep;
+            }
+            stepSize = Math.min(stepSize, maxStepSize);
+            previousRejected = false;
+        }
+
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * Modified midpoint rule over [t, t + h] with n substeps, starting from f0 = f(t, y).
+     */
+    private void midpoint(ODEFunction f, double t, double[] y, double h, int n, double[] out) {
+        int dim = y.length;
+        double sub = h / n;
+        double twoSub = 2.0 * sub;
+
+        for (int i = 0; i < dim; i++) {
+            zPrevious[i] = y[i];
+            zCurrent[i] = y[i] + sub * f0[i];
+        }
+        for (int m = 1; m < n; m++) {
+            f.evaluate(t + m * sub, zCurrent, derivative);
+            for (int i = 0; i < dim; i++) {
+                zNext[i] = zPrevious[i] + twoSub * derivative[i];
+            }
+            double[] swap = zPrevious;
+            zPrevious = zCurrent;
+            zCurrent = zNext;
+            zNext = swap;
+        }
+        System.arraycopy(zCurrent, 0, out, 0, dim);
+    }
+
+    /** Fills row j of the table from its first column (Aitken–Neville in (h/n)^2). */
+    private void extrapolate(int j, int dim) {
+        double[][] row = table[j];
+        for (int l = 1; l <= j; l++) {
+            double ratio = (double) substeps[j] / substeps[j - l];
+            double factor = 1.0 / (ratio * ratio - 1.0);
+            double[] above = table[j - 1][l - 1];
+            double[] left = row[l - 1];
+            double[] out = row[l];
+            for (int i = 0; i < dim; i++) {
+                out[i] = left[i] + (left[i] - above[i]) * factor;
+            }
+        }
+    }
+
+    private double errorNorm(double[] y, double[] best, double[] previous) {
+        double sum = 0.0;
+        for (int i = 0; i < y.length; i++) {
+            double scale = absTol + relTol * Math.max(Math.abs(y[i]), Math.abs(best[i]));
+            double ratio = (best[i] - previous[i]) / scale;
+            sum += ratio * ratio;
+        }
+        return Math.sqrt(sum / y.length);
+    }
+
+    /** Step size that column j would need to just meet the tolerance. */
+    private double stepFor(double h, double err, int j) {
+        double exponent = 1.0 / (2 * j + 1);
+        double scale = err == 0.0 ? MAX_SCALE : SAFETY_FACTOR * Math.pow(ERROR_TARGET / err, exponent);
+        return h * Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    private void ensure(int dim) {
+        if (f0.length == dim) return;
+        table = new double[MAX_COLUMNS][][];
+        for (int j = 0; j < MAX_COLUMNS; j++) {
+            table[j] = new double[j + 1][dim];
+        }
+        f0 = new double[dim];
+        zPrevious = new double[dim];
+        zCurrent = new double[dim];
+        zNext = new double[dim];
+        derivative = new double[dim];
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.utilities.solvers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coefficients of an explicit Runge-Kutta method, optionally with an embedded lower order
+ * solution for error estimation.
+ *
+ * The zero coefficients are dropped once when the tableau is built, so the stage loops of
+ * {@link ExplicitRungeKuttaSolver} only touch the stages that actually contribute. A new method
+ * is just a new tableau.
+ */
+public final class ButcherTableau {
+
+    /** Explicit Euler, order 1. */
+    public static final ButcherTableau EULER = new ButcherTableau("Euler", 1,
+            new double[]{0.0},
+            new double[][]{{}},
+            new double[]{1.0},
+            null);
+
+    /** Classical Runge-Kutta, order 4. */
+    public static final ButcherTableau RK4 = new ButcherTableau("RK4", 4,
+            new double[]{0.0, 1.0 / 2.0, 1.0 / 2.0, 1.0},
+            new double[][]{
+                    {},
+                    {1.0 / 2.0},
+                    {0.0, 1.0 / 2.0},
+                    {0.0, 0.0, 1.0}},
+            new double[]{1.0 / 6.0, 1.0 / 3.0, 1.0 / 3.0, 1.0 / 6.0},
+            null);
+
+    /** Runge-Kutta-Fehlberg 4(5), propagating the 5th order solution. */
+    public static final ButcherTableau RKF45 = new ButcherTableau("RKF45", 5,
+            new double[]{0.0, 1.0 / 4.0, 3.0 / 8.0, 12.0 / 13.0, 1.0, 1.0 / 2.0},
+            new double[][]{
+                    {},
+                    {1.0 / 4.0},
+                    {3.0 / 32.0, 9.0 / 32.0},
+                    {1932.0 / 2197.0, -7200.0 / 2197.0, 7296.0 / 2197.0},
+                    {439.0 / 216.0, -8.0, 3680.0 / 513.0, -845.0 / 4104.0},
+                    {-8.0 / 27.0, 2.0, -3544.0 / 2565.0, 1859.0 / 4104.0, -11.0 / 40.0}},
+            new double[]{16.0 / 135.0, 0.0, 6656.0 / 12825.0, 28561.0 / 56430.0, -9.0 / 50.0, 2.0 / 55.0},
+            new double[]{25.0 / 216.0, 0.0, 1408.0 / 2565.0, 2197.0 / 4104.0, -1.0 / 5.0, 0.0});
+
+    /** Dormand-Prince 5(4); the last stage is f(t + h, y_new) and can be reused (FSAL). */
+    public static final ButcherTableau DOPRI5 = new ButcherTableau("DOPRI5", 5,
+            new double[]{0.0, 1.0 / 5.0, 3.0 / 10.0, 4.0 / 5.0, 8.0 / 9.0, 1.0, 1.0},
+            new double[][]{
+                    {},
+                    {1.0 / 5.0},
+                    {3.0 / 40.0, 9.0 / 40.0},
+                    {44.0 / 45.0, -56.0 / 15.0, 32.0 / 9.0},
+                    {19372.0 / 6561.0, -25360.0 / 2187.0, 64448.0 / 6561.0, -212.0 / 729.0},
+                    {9017.0 / 3168.0, -355.0 / 33.0, 46732.0 / 5247.0, 49.0 / 176.0, -5103.0 / 18656.0},
+                    {35.0 / 384.0, 0.0, 500.0 / 1113.0, 125.0 / 192.0, -2187.0 / 6784.0, 11.0 / 84.0}},
+            new double[]{35.0 / 384.0, 0.0, 500.0 / 1113.0, 125.0 / 192.0, -2187.0 / 6784.0, 11.0 / 84.0, 0.0},
+            new double[]{5179.0 / 57600.0, 0.0, 7571.0 / 16695.0, 393.0 / 640.0, -92097.0 / 339200.0,
+                    187.0 / 2100.0, 1.0 / 40.0});
+
+    /** Verner's 6(5) pair (the one in DVERK), propagating the 6th order solution. */
+    public static final ButcherTableau VERNER65 = new ButcherTableau("Verner 6(5)", 6,
+            new double[]{0.0, 1.0 / 6.0, 4.0 / 15.0, 2.0 / 3.0, 5.0 / 6.0, 1.0, 1.0 / 15.0, 1.0},
+            new double[][]{
+                    {},
+                    {1.0 / 6.0},
+                    {4.0 / 75.0, 16.0 / 75.0},
+                    {5.0 / 6.0, -8.0 / 3.0, 5.0 / 2.0},
+                    {-165.0 / 64.0, 55.0 / 6.0, -425.0 / 64.0, 85.0 / 96.0},
+                    {12.0 / 5.0, -8.0, 4015.0 / 612.0, -11.0 / 36.0, 88.0 / 255.0},
+                    {-8263.0 / 15000.0, 124.0 / 75.0, -643.0 / 680.0, -81.0 / 250.0, 2484.0 / 10625.0, 0.0},
+                    {3501.0 / 1720.0, -300.0 / 43.0, 297275.0 / 52632.0, -319.0 / 2322.0, 24068.0 / 84065.0, 0.0,
+                            3850.0 / 26703.0}},
+            new double[]{3.0 / 40.0, 0.0, 875.0 / 2244.0, 23.0 / 72.0, 264.0 / 1955.0, 0.0, 125.0 / 11592.0,
+                    43.0 / 616.0},
+            new double[]{13.0 / 160.0, 0.0, 2375.0 / 5984.0, 5.0 / 16.0, 12.0 / 85.0, 3.0 / 44.0, 0.0, 0.0});
+
+    /**
+     * Prince and Dormand's RK8(7)13M, propagating the 8th order solution. The coefficients are
+     * rational approximations from the original paper, accurate to about 1e-18.
+     */
+    public static final ButcherTableau PRINCE_DORMAND87 = new ButcherTableau("Prince-Dormand 8(7)", 8,
+            new double[]{0.0, 1.0 / 18.0, 1.0 / 12.0, 1.0 / 8.0, 5.0 / 16.0, 3.0 / 8.0, 59.0 / 400.0,
+                    93.0 / 200.0, 5490023248.0 / 9719169821.0, 13.0 / 20.0, 1201146811.0 / 1299019798.0, 1.0, 1.0},
+            new double[][]{
+                    {},
+                    {1.0 / 18.0},
+                    {1.0 / 48.0, 1.0 / 16.0},
+                    {1.0 / 32.0, 0.0, 3.0 / 32.0},
+                    {5.0 / 16.0, 0.0, -75.0 / 64.0, 75.0 / 64.0},
+                    {3.0 / 80.0, 0.0, 0.0, 3.0 / 16.0, 3.0 / 20.0},
+                    {29443841.0 / 614563906.0, 0.0, 0.0, 77736538.0 / 692538347.0, -28693883.0 / 1125000000.0,
+                            23124283.0 / 1800000000.0},
+                    {16016141.0 / 946692911.0, 0.0, 0.0, 61564180.0 / 158732637.0, 22789713.0 / 633445777.0,
+                            545815736.0 / 2771057229.0, -180193667.0 / 1043307555.0},
+                    {39632708.0 / 573591083.0, 0.0, 0.0, -433636366.0 / 683701615.0, -421739975.0 / 2616292301.0,
+                            100302831.0 / 723423059.0, 790204164.0 / 839813087.0, 800635310.0 / 3783071287.0},
+                    {246121993.0 / 1340847787.0, 0.0, 0.0, -37695042795.0 / 15268766246.0,
+                            -309121744.0 / 1061227803.0, -12992083.0 / 490766935.0, 6005943493.0 / 2108947869.0,
+                            393006217.0 / 1396673457.0, 123872331.0 / 1001029789.0},
+                    {-1028468189.0 / 846180014.0, 0.0, 0.0, 8478235783.0 / 508512852.0,
+                            1311729495.0 / 1432422823.0, -10304129995.0 / 1701304382.0,
+                            -48777925059.0 / 3047939560.0, 15336726248.0 / 1032824649.0,
+                            -45442868181.0 / 3398467696.0, 3065993473.0 / 597172653.0},
+                    {185892177.0 / 718116043.0, 0.0, 0.0, -3185094517.0 / 667107341.0,
+                            -477755414.0 / 1098053517.0, -703635378.0 / 230739211.0, 5731566787.0 / 1027545527.0,
+                            5232866602.0 / 850066563.0, -4093664535.0 / 808688257.0, 3962137247.0 / 1805957418.0,
+                            65686358.0 / 487910083.0},
+                    {403863854.0 / 491063109.0, 0.0, 0.0, -5068492393.0 / 434740067.0,
+                            -411421997.0 / 543043805.0, 652783627.0 / 914296604.0, 11173962825.0 / 925320556.0,
+                            -13158990841.0 / 6184727034.0, 3936647629.0 / 1978049680.0, -160528059.0 / 685178525.0,
+                            248638103.0 / 1413531060.0, 0.0}},
+            new double[]{14005451.0 / 335480064.0, 0.0, 0.0, 0.0, 0.0, -59238493.0 / 1068277825.0,
+                    181606767.0 / 758867731.0, 561292985.0 / 797845732.0, -1041891430.0 / 1371343529.0,
+                    760417239.0 / 1151165299.0, 118820643.0 / 751138087.0, -528747749.0 / 2220607170.0, 1.0 / 4.0},
+            new double[]{13451932.0 / 455176623.0, 0.0, 0.0, 0.0, 0.0, -808719846.0 / 976000145.0,
+                    1757004468.0 / 5645159321.0, 656045339.0 / 265891186.0, -3867574721.0 / 1518517206.0,
+                    465885868.0 / 322736535.0, 53011238.0 / 667516719.0, 2.0 / 45.0, 0.0});
+
+    private final String name;
+    private final int order;
+    private final int stages;
+    private final double[] c;
+    private final boolean fsal;
+
+    // nonzero a[s][i] of every stage s as parallel index / coefficient arrays
+    final int[][] stageIndex;
+    final double[][] stageCoefficient;
+
+    // nonzero weights of the propagated solution
+    final int[] weightIndex;
+    final double[] weightCoefficient;
+
+    // nonzero b[i] - bHat[i]; empty without an embedded solution
+    final int[] errorIndex;
+    final double[] errorCoefficient;
+
+    /**
+     * @param name  shown in toString
+     * @param order order of the propagated solution
+     * @param c     nodes, c[0] must be 0
+     * @param a     strictly lower triangular coefficients; row s holds at most s entries
+     * @param b     weights of the propagated solution
+     * @param bHat  weights of the embedded solution, null if there is none
+     */
+    public ButcherTableau(String name, int order, double[] c, double[][] a, double[] b, double[] bHat) {
+        int s = c.length;
+        if (s == 0 || a.length != s || b.length != s || (bHat != null && bHat.length != s)) {
+            throw new IllegalArgumentException("Tableau " + name + " has inconsistent stage counts");
+        }
+        if (c[0] != 0.0) {
+            throw new IllegalArgumentException("Tableau " + name + " is not explicit, c[0] must be 0");
+        }
+        for (int i = 0; i < s; i++) {
+            if (a[i].length > i) {
+                throw new IllegalArgumentException("Tableau " + name + " is not explicit in stage " + i);
+            }
+        }
+        this.name = name;
+        this.order = order;
+        this.stages = s;
+        this.c = c.clone();
+
+        stageIndex = new int[s][];
+        stageCoefficient = new double[s][];
+        for (int i = 0; i < s; i++) {
+            List<Integer> idx = new ArrayList<>();
+            for (int j = 0; j < a[i].length; j++) {
+                if (a[i][j] != 0.0) idx.add(j);
+            }
+            stageIndex[i] = toArray(idx);
+            stageCoefficient[i] = gather(a[i], stageIndex[i]);
+        }
+
+        weightIndex = nonZero(b);
+        weightCoefficient = gather(b, weightIndex);
+
+        if (bHat == null) {
+            errorIndex = new int[0];
+            errorCoefficient = new double[0];
+        } else {
+            double[] e = new double[s];
+            for (int i = 0; i < s; i++) {
+                e[i] = b[i] - bHat[i];
+            }
+            errorIndex = nonZero(e);
+            errorCoefficient = gather(e, errorIndex);
+        }
+
+        // FSAL: the last stage is evaluated at the propagated solution
+        boolean lastIsSolution = s > 1 && c[s - 1] == 1.0 && b[s - 1] == 0.0;
+        for (int j = 0; lastIsSolution && j < s - 1; j++) {
+            double aj = j < a[s - 1].length ? a[s - 1][j] : 0.0;
+            lastIsSolution = aj == b[j];
+        }
+        this.fsal = lastIsSolution;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Order of the propagated solution. */
+    public int getOrder() {
+        return order;
+    }
+
+    public int getStages() {
+        return stages;
+    }
+
+    /** True if the tableau has an embedded solution and can drive a step size controller. */
+    public boolean isEmbedded() {
+        return errorIndex.length > 0;
+    }
+
+    /** True if the last stage is f(t + h, y_new), i.e. the next step's first stage. */
+    public boolean isFsal() {
+        return fsal;
+    }
+
+    double node(int stage) {
+        return c[stage];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static int[] nonZero(double[] values) {
+        List<Integer> idx = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0.0) idx.add(i);
+        }
+        return toArray(idx);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] out = new int[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+
+    private static double[] gather(double[] values, int[] idx) {
+        double[] out = new double[idx.length];
+        for (int i = 0; i < idx.length; i++) {
+            out[i] = values[idx[i]];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.utilities.solvers;
+
+/**
+ * StepSink that also wants the continuous solution between accepted steps.
+ *
+ * Solvers that support dense output call {@link #acceptStep} after every accepted step and
+ * before {@link #accept} reports the end point of that step. Solvers without dense output
+ * only ever call {@link #accept}.
+ */
+public interface DenseStepSink extends StepSink {
+
+    void acceptStep(StepInterpolator step);
+}
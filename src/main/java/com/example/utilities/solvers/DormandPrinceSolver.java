@@ -0,0 +1,320 @@
+package com.example.utilities.solvers;
+
+import com.example.Constants;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Dormand–Prince 5(4) integrator with adaptive step size.
+ *
+ * Compared to {@link RKF45Solver}:
+ * - the last stage of an accepted step is f(t + h, y_new), which is reused as the first stage
+ *   of the next step (FSAL), so an accepted step costs 6 evaluations instead of 7
+ * - the step size is chosen by a PI controller, which damps the oscillation of a plain
+ *   I controller on smooth problems
+ * - the error is measured per component against absTol[i] + relTol[i] * |y[i]|, so positions
+ *   in km and velocities in km/s can each get their own tolerance
+ * - there is no hidden time limit or step size cap; use {@link #integrateTo} to stop at a time
+ *
+ * Not thread-safe: the stage buffers are reused between calls.
+ */
+public class DormandPrinceSolver implements ODESolver {
+
+    private static final double SAFETY_FACTOR = 0.9;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 10.0;
+
+    // PI controller exponents (Hairer, Norsett & Wanner, Solving ODEs I, DOPRI5)
+    private static final double ALPHA = 0.2 - 0.75 * 0.04;
+    private static final double BETA = 0.04;
+    private static final double MIN_ERROR = 1e-4;
+
+    // coefficients of the 4th order continuous extension (Hairer, Norsett & Wanner, DOPRI5 dense output)
+    private static final double D1 = -12715105075.0 / 11282082432.0, D3 = 87487479700.0 / 32700410799.0,
+            D4 = -10690763975.0 / 1880347072.0, D5 = 701980252875.0 / 199316789632.0,
+            D6 = -1453857185.0 / 822651844.0, D7 = 69997945.0 / 29380423.0;
+
+    // k1..k7; k7 = f(t + h, y_new) is the next step's k1
+    private final RungeKuttaKernel kernel = new RungeKuttaKernel(ButcherTableau.DOPRI5);
+
+    private double[] errorBuffer = new double[0];
+
+    private final double[] absTol;
+    private final double[] relTol;
+    private final double maxStepSize;
+    private SolverStats stats;
+
+    /**
+     * Uses {@link Constants#TOLERANCE} as absolute and relative tolerance for every component.
+     */
+    public DormandPrinceSolver() {
+        this(Constants.TOLERANCE, Constants.TOLERANCE);
+    }
+
+    /**
+     * @param absTol absolute tolerance for every component
+     * @param relTol relative tolerance for every component
+     */
+    public DormandPrinceSolver(double absTol, double relTol) {
+        this(new double[]{absTol}, new double[]{relTol}, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param absTol      absolute tolerance per component; a single value applies to all
+     * @param relTol      relative tolerance per component; a single value applies to all
+     * @param maxStepSize upper bound for the step size, Double.POSITIVE_INFINITY for none
+     */
+    public DormandPrinceSolver(double[] absTol, double[] relTol, double maxStepSize) {
+        if (absTol.length == 0 || relTol.length == 0) {
+            throw new IllegalArgumentException("Tolerances must not be empty");
+        }
+        if (absTol.length != 1 && relTol.length != 1 && absTol.length != relTol.length) {
+            throw new IllegalArgumentException("Absolute and relative tolerances have different lengths");
+        }
+        for (int i = 0; i < Math.max(absTol.length, relTol.length); i++) {
+            if (tol(absTol, i) < 0 || tol(relTol, i) < 0 || tol(absTol, i) + tol(relTol, i) <= 0) {
+                throw new IllegalArgumentException("Tolerances must be non-negative and not both zero");
+            }
+        }
+        if (maxStepSize <= 0) {
+            throw new IllegalArgumentException("Maximum step size must be positive");
+        }
+        this.absTol = absTol.clone();
+        this.relTol = relTol.clone();
+        this.maxStepSize = maxStepSize;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double initialStepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, initialStepSize, steps, stopCondition);
+    }
+
+    /**
+     * Integrates until the stop condition holds or {@code steps} steps have been accepted.
+     */
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double initialStepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateTo(f, t0, y0, Double.POSITIVE_INFINITY, initialStepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd; the last step is shortened to land on it.
+     *
+     * @param f               primitive derivative
+     * @param t0              start time
+     * @param y0              initial state (not modified)
+     * @param tEnd            end time, must not lie before t0
+     * @param initialStepSize step size tried first
+     * @param steps           maximum number of accepted steps
+     * @param stopCondition   checked before every step, may be null
+     * @param sink            receives the initial state and every accepted step, may be null
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        if (tEnd < t0) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + t0 + " to " + tEnd);
+        }
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        int dim = y0.length;
+        checkDimension(dim);
+        double[][] k = kernel.stages(dim);
+
+        double t = t0;
+        double stepSize = Math.min(initialStepSize, maxStepSize);
+        double[] y = Arrays.copyOf(y0, dim);
+        double[] yNext = new double[dim];
+        double previousError = 1.0;
+        boolean previousRejected = false;
+        int accepted = 0;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        ContinuousExtension extension = dense != null ? new ContinuousExtension(dim) : null;
+
+        if (sink != null) sink.accept(t, y);
+
+        // k1 = f(t0, y0) is the only stage evaluated outside a step, after that FSAL provides it
+        f.evaluate(t, y, k[0]);
+
+        while (t < tEnd && accepted < steps) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
+            }
+
+            double h = stepSize;
+            boolean lastStep = t + h >= tEnd;
+            if (lastStep) {
+                h = tEnd - t;
+            }
+
+            double err = stepFromFirstStage(f, t, y, h, yNext);
+
+            if (err <= 1.0) {
+                double tNew = lastStep ? tEnd : t + h;
+                if (dense != null) extension.build(t, tNew, h, y, yNext, k);
+
+                t = tNew;
+                double[] swap = y;
+                y = yNext;
+                yNext = swap;
+                // FSAL: k7 = f(t + h, y_new) is the next k1
+                double[] k1 = k[0];
+                k[0] = k[6];
+                k[6] = k1;
+                accepted++;
+                if (stats != null) stats.accepted(h, err);
+                if (dense != null) dense.acceptStep(extension);
+                if (sink != null) sink.accept(t, y);
+
+                double scale = err == 0.0
+                        ? MAX_SCALE
+                        : SAFETY_FACTOR * Math.pow(err, -ALPHA) * Math.pow(previousError, BETA);
+                scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+                if (previousRejected) {
+                    scale = Math.min(scale, 1.0);
+                }
+                // a step shortened to hit tEnd says nothing about the step size the problem allows
+                if (!lastStep || h >= stepSize) {
+                    stepSize = Math.min(h * scale, maxStepSize);
+                    previousError = Math.max(err, MIN_ERROR);
+                }
+                previousRejected = false;
+            } else {
+                if (stats != null) stats.rejected(h, err);
+                double scale = Double.isNaN(err)
+                        ? MIN_SCALE
+                        : Math.max(MIN_SCALE, SAFETY_FACTOR * Math.pow(err, -0.2));
+                stepSize = h * scale;
+                previousRejected = true;
+
+                // the step collapsed (e.g. the solution overflowed), nothing sensible left to do
+                if (stepSize <= Math.ulp(t)) {
+                    break;
+                }
+            }
+        }
+
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * Performs one Dormand–Prince step and writes the 5th order solution into yOut.
+     *
+     * @param f    primitive derivative
+     * @param t    current time
+     * @param y    current state
+     * @param h    step size
+     * @param yOut receives the new state, must not be the same array as y
+     * @return scaled RMS error norm, the step is acceptable if it is at most 1
+     */
+    public double step(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        checkDimension(y.length);
+        f.evaluate(t, y, kernel.firstStage(y.length));
+        return stepFromFirstStage(f, t, y, h, yOut);
+    }
+
+    /**
+     * Same as {@link #step} but expects k1 = f(t, y) to already be in the first stage buffer.
+     * Afterwards the last stage buffer holds f(t + h, yOut).
+     */
+    private double stepFromFirstStage(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        int dim = y.length;
+        if (errorBuffer.length != dim) errorBuffer = new double[dim];
+        kernel.stepFromFirstStage(f, t, y, h, yOut, errorBuffer);
+
+        double sum = 0.0;
+        for (int j = 0; j < dim; j++) {
+            double scale = tol(absTol, j) + tol(relTol, j) * Math.max(Math.abs(y[j]), Math.abs(yOut[j]));
+            double ratio = errorBuffer[j] / scale;
+            sum += ratio * ratio;
+        }
+        return Math.sqrt(sum / dim);
+    }
+
+    /**
+     * 4th order interpolant over the last accepted step, built from the stages that were
+     * computed anyway, so sampling inside a step costs no evaluations.
+     */
+    private static final class ContinuousExtension implements StepInterpolator {
+        private double tPrev;
+        private double tCur;
+        private double h;
+        private final double[] r1, r2, r3, r4, r5;
+
+        ContinuousExtension(int dim) {
+            r1 = new double[dim];
+            r2 = new double[dim];
+            r3 = new double[dim];
+            r4 = new double[dim];
+            r5 = new double[dim];
+        }
+
+        /** Must be called before the FSAL swap, while k[6] still holds f(t + h, yNew). */
+        void build(double t, double tNew, double h, double[] yOld, double[] yNew, double[][] k) {
+            this.tPrev = t;
+            this.tCur = tNew;
+            this.h = h;
+            double[] k1 = k[0], k3 = k[2], k4 = k[3], k5 = k[4], k6 = k[5], k7 = k[6];
+            for (int j = 0; j < yOld.length; j++) {
+                double yDiff = yNew[j] - yOld[j];
+                double bspl = h * k1[j] - yDiff;
+                r1[j] = yOld[j];
+                r2[j] = yDiff;
+                r3[j] = bspl;
+                r4[j] = yDiff - h * k7[j] - bspl;
+                r5[j] = h * (D1 * k1[j] + D3 * k3[j] + D4 * k4[j] + D5 * k5[j] + D6 * k6[j] + D7 * k7[j]);
+            }
+        }
+
+        @Override
+        public double getPreviousTime() {
+            return tPrev;
+        }
+
+        @Override
+        public double getCurrentTime() {
+            return tCur;
+        }
+
+        @Override
+        public void interpolate(double t, double[] yOut) {
+            double theta = (t - tPrev) / h;
+            double theta1 = 1.0 - theta;
+            for (int j = 0; j < yOut.length; j++) {
+                yOut[j] = r1[j] + theta * (r2[j] + theta1 * (r3[j] + theta * (r4[j] + theta1 * r5[j])));
+            }
+        }
+    }
+
+    private void checkDimension(int dim) {
+        if ((absTol.length != 1 && absTol.length != dim) || (relTol.length != 1 && relTol.length != dim)) {
+            throw new IllegalArgumentException("Tolerances do not match the state dimension " + dim);
+        }
+    }
+
+    // a single tolerance value applies to every component
+    private static double tol(double[] tolerances, int i) {
+        return tolerances.length == 1 ? tolerances[0] : tolerances[i];
+    }
+}
@@ -0,0 +1,593 @@
+package com.example.utilities.solvers;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns the equations typed into the ODE GUI into an {@link ODEFunction}.
+ *
+ * The equations use exp4j syntax with the state variables and {@code t}. They are parsed once
+ * by exp4j's shunting-yard parser, translated to Java source and compiled in memory into a
+ * class that writes dydt directly, so the solvers run them at the speed of hand-written code.
+ * Compiling takes a moment, which is why identical equations reuse the class compiled before.
+ * The same expression trees are differentiated symbolically for {@link #compileJacobian}, which
+ * the stiff solvers use instead of finite differences.
+ *
+ * Without a system Java compiler (a plain JRE) the equations are evaluated by exp4j instead,
+ * still parsed only once. Both paths agree except that the compiled code divides by zero like
+ * Java does (Infinity or NaN) where exp4j throws.
+ */
+public final class EquationCompiler {
+
+    private static final String PACKAGE = "com.example.utilities.solvers.generated";
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    // generated source -> compiled instance; instances are stateless and can be shared
+    private static final Map<String, Object> COMPILED = new ConcurrentHashMap<>();
+
+    private static final Map<String, String> CONSTANTS = Map.of(
+            "pi", "Math.PI",
+            "π", "Math.PI",
+            "e", "Math.E",
+            "φ", "1.61803398874");
+
+    private EquationCompiler() {
+    }
+
+    /**
+     * Compiles the equations, falling back to {@link #interpret} when no compiler is available.
+     *
+     * @param equations one right-hand side per state variable, dy_i/dt = equations[i]
+     * @param variables names of the state variables, in state order
+     * @throws IllegalArgumentException if an equation does not parse or the counts differ
+     */
+    public static ODEFunction compile(String[] equations, String[] variables) {
+        checkInput(equations, variables);
+        String[] javaExpressions = new String[equations.length];
+        for (int i = 0; i < equations.length; i++) {
+            javaExpressions[i] = toJava(equations[i], variables);
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < javaExpressions.length; i++) {
+            body.append("        dydt[").append(i).append("] = ").append(javaExpressions[i]).append(";\n");
+        }
+        Object compiled = compileSource(ODEFunction.class,
+                "public void evaluate(double t, double[] y, double[] dydt)", body.toString());
+        return compiled != null ? (ODEFunction) compiled : interpret(equations, variables);
+    }
+
+    /**
+     * Evaluates the equations with exp4j. Each equation is parsed once; a call only sets the
+     * variables and evaluates the stored expression. Not thread-safe.
+     */
+    public static ODEFunction interpret(String[] equations, String[] variables) {
+        checkInput(equations, variables);
+        Expression[] expressions = new Expression[equations.length];
+        for (int i = 0; i < equations.length; i++) {
+            try {
+                expressions[i] = new ExpressionBuilder(equations[i].trim())
+                        .variables(variables)
+                        .variable("t")
+                        .build();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Error in equation '" + equations[i] + "': " + e.getMessage(), e);
+            }
+        }
+        String[] names = variables.clone();
+
+        return (t, y, dydt) -> {
+            for (int i = 0; i < expressions.length; i++) {
+                Expression expression = expressions[i];
+                for (int j = 0; j < names.length; j++) {
+                    expression.setVariable(names[j], y[j]);
+                }
+                expression.setVariable("t", t);
+                dydt[i] = expression.evaluate();
+            }
+        };
+    }
+
+    private static void checkInput(String[] equations, String[] variables) {
+        if (equations == null || variables == null) {
+            throw new IllegalArgumentException("The equations or the variables have not been initialized.");
+        }
+        if (equations.length != variables.length) {
+            throw new IllegalArgumentException("There are " + equations.length + " equations for "
+                    + variables.length + " variables.");
+        }
+    }
+
+    /**
+     * Translates one exp4j expression into a fully parenthesised Java expression over t and y[].
+     */
+    static String toJava(String equation, String[] variables) {
+        return parse(equation, variables).java();
+    }
+
+    /**
+     * Parses one equation into an expression tree over t and y[].
+     */
+    static Node parse(String equation, String[] variables) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < variables.length; i++) {
+            index.put(variables[i], i);
+        }
+        Set<String> names = new HashSet<>(index.keySet());
+        names.add("t");
+        names.addAll(CONSTANTS.keySet());
+
+        Token[] rpn;
+        try {
+            rpn = ShuntingYard.convertToRPN(equation.trim(), Collections.emptyMap(), Collections.emptyMap(),
+                    names, true);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error in equation '" + equation + "': " + e.getMessage(), e);
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Token token : rpn) {
+            switch (token.getType()) {
+                case Token.TOKEN_NUMBER:
+                    stack.push(new Num(((NumberToken) token).getValue()));
+                    break;
+                case Token.TOKEN_VARIABLE:
+                    String name = ((VariableToken) token).getName();
+                    // like exp4j: t wins over a state variable of the same name, user names over constants
+                    if (name.equals("t")) {
+                        stack.push(new Sym("t", Sym.TIME));
+                    } else if (index.containsKey(name)) {
+                        stack.push(new Sym("y[" + index.get(name) + "]", index.get(name)));
+                    } else {
+                        stack.push(new Sym("(" + CONSTANTS.get(name) + ")", Sym.CONSTANT));
+                    }
+                    break;
+                case Token.TOKEN_OPERATOR:
+                    String symbol = ((OperatorToken) token).getOperator().getSymbol();
+                    if (((OperatorToken) token).getOperator().getNumOperands() == 1) {
+                        Node operand = pop(stack, equation);
+                        stack.push(symbol.equals("-") ? neg(operand) : operand);
+                    } else {
+                        Node right = pop(stack, equation);
+                        Node left = pop(stack, equation);
+                        stack.push(symbol.equals("^") ? new Pow(left, right) : new Bin(symbol.charAt(0), left, right));
+                    }
+                    break;
+                case Token.TOKEN_FUNCTION:
+                    Function function = ((FunctionToken) token).getFunction();
+                    Node[] args = new Node[function.getNumArguments()];
+                    for (int i = args.length - 1; i >= 0; i--) {
+                        args[i] = pop(stack, equation);
+                    }
+                    if (!Call.SUPPORTED.contains(function.getName())) {
+                        throw new IllegalArgumentException("Error in equation '" + equation
+                                + "': unsupported function " + function.getName());
+                    }
+                    stack.push(function.getName().equals("pow") ? new Pow(args[0], args[1])
+                            : new Call(function.getName(), args[0]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Error in equation '" + equation + "': unexpected token");
+            }
+        }
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Error in equation '" + equation + "': incomplete expression");
+        }
+        return stack.pop();
+    }
+
+    private static Node pop(Deque<Node> stack, String equation) {
+        if (stack.isEmpty()) {
+            throw new IllegalArgumentException("Error in equation '" + equation + "': missing operand");
+        }
+        return stack.pop();
+    }
+
+    /**
+     * Differentiates the equations symbolically and compiles dfdy and dfdt. Falls back to finite
+     * differences of {@link #compile} when no compiler is available.
+     *
+     * @throws IllegalArgumentException if an equation does not parse or the counts differ
+     */
+    public static Jacobian compileJacobian(String[] equations, String[] variables) {
+        checkInput(equations, variables);
+        int n = equations.length;
+        StringBuilder body = new StringBuilder();
+        StringBuilder timeBody = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            Node node = parse(equations[i], variables);
+            for (int j = 0; j < n; j++) {
+                body.append("        dfdy[").append(i).append("][").append(j).append("] = ")
+                        .append(node.derive(j).java()).append(";\n");
+            }
+            timeBody.append("            dfdt[").append(i).append("] = ")
+                    .append(node.derive(Sym.TIME).java()).append(";\n");
+        }
+        body.append("        if (dfdt != null) {\n").append(timeBody).append("        }\n");
+
+        Object compiled = compileSource(Jacobian.class,
+                "public void evaluate(double t, double[] y, double[][] dfdy, double[] dfdt)", body.toString());
+        return compiled != null ? (Jacobian) compiled : Jacobian.finiteDifferences(compile(equations, variables));
+    }
+
+    // --- expression tree ---
+
+    /** Node of an equation's expression tree; builds its Java source and its derivatives. */
+    abstract static class Node {
+        abstract String java();
+
+        /** Derivative by state component {@code variable}, or by t for {@link Sym#TIME}. */
+        abstract Node derive(int variable);
+
+        boolean is(double value) {
+            return false;
+        }
+    }
+
+    static final class Num extends Node {
+        final double value;
+
+        Num(double value) {
+            this.value = value;
+        }
+
+        @Override
+        String java() {
+            return value < 0 ? "(" + value + ")" : Double.toString(value);
+        }
+
+        @Override
+        Node derive(int variable) {
+            return ZERO;
+        }
+
+        @Override
+        boolean is(double v) {
+            return value == v;
+        }
+    }
+
+    private static final Num ZERO = new Num(0.0);
+    private static final Num ONE = new Num(1.0);
+
+    static final class Sym extends Node {
+        static final int TIME = -1;
+        static final int CONSTANT = -2;
+
+        final String code;
+        final int variable;
+
+        Sym(String code, int variable) {
+            this.code = code;
+            this.variable = variable;
+        }
+
+        @Override
+        String java() {
+            return code;
+        }
+
+        @Override
+        Node derive(int v) {
+            return variable != CONSTANT && variable == v ? ONE : ZERO;
+        }
+    }
+
+    static final class Bin extends Node {
+        final char op;
+        final Node left;
+        final Node right;
+
+        Bin(char op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        String java() {
+            return "(" + left.java() + " " + op + " " + right.java() + ")";
+        }
+
+        @Override
+        Node derive(int v) {
+            Node dl = left.derive(v);
+            Node dr = right.derive(v);
+            switch (op) {
+                case '+':
+                    return add(dl, dr);
+                case '-':
+                    return sub(dl, dr);
+                case '*':
+                    return add(mul(dl, right), mul(left, dr));
+                case '/':
+                    return sub(div(dl, right), div(mul(left, dr), mul(right, right)));
+                default:
+                    // a % b = a - b trunc(a / b), and trunc is piecewise constant
+                    return sub(dl, mul(dr, new Call("trunc", div(left, right))));
+            }
+        }
+    }
+
+    static final class Pow extends Node {
+        final Node base;
+        final Node exponent;
+
+        Pow(Node base, Node exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        String java() {
+            return "Math.pow(" + base.java() + ", " + exponent.java() + ")";
+        }
+
+        @Override
+        Node derive(int v) {
+            Node db = base.derive(v);
+            Node de = exponent.derive(v);
+            if (de.is(0.0)) {
+                // b^c with c independent of v, valid for negative b as well
+                return mul(mul(exponent, pow(base, sub(exponent, ONE))), db);
+            }
+            return mul(this, add(mul(de, new Call("log", base)), div(mul(exponent, db), base)));
+        }
+    }
+
+    static final class Call extends Node {
+        static final Set<String> SUPPORTED = Set.of("abs", "acos", "asin", "atan", "cbrt", "ceil", "cos",
+                "cosh", "cot", "exp", "expm1", "floor", "log", "log10", "log1p", "log2", "pow", "sin", "sinh",
+                "sqrt", "tan", "tanh", "signum");
+
+        final String name;
+        final Node arg;
+
+        Call(String name, Node arg) {
+            this.name = name;
+            this.arg = arg;
+        }
+
+        @Override
+        String java() {
+            String x = arg.java();
+            switch (name) {
+                case "log2":
+                    return "(Math.log(" + x + ") / Math.log(2.0))";
+                case "cot":
+                    return "(1.0 / Math.tan(" + x + "))";
+                case "trunc":
+                    return "((" + x + ") < 0 ? Math.ceil(" + x + ") : Math.floor(" + x + "))";
+                default:
+                    return "Math." + name + "(" + x + ")";
+            }
+        }
+
+        @Override
+        Node derive(int v) {
+            Node du = arg.derive(v);
+            if (du.is(0.0)) {
+                return ZERO;
+            }
+            Node u = arg;
+            switch (name) {
+                case "sin":
+                    return mul(new Call("cos", u), du);
+                case "cos":
+                    return neg(mul(new Call("sin", u), du));
+                case "tan":
+                    return div(du, pow(new Call("cos", u), new Num(2.0)));
+                case "cot":
+                    return neg(div(du, pow(new Call("sin", u), new Num(2.0))));
+                case "asin":
+                    return div(du, new Call("sqrt", sub(ONE, pow(u, new Num(2.0)))));
+                case "acos":
+                    return neg(div(du, new Call("sqrt", sub(ONE, pow(u, new Num(2.0))))));
+                case "atan":
+                    return div(du, add(ONE, pow(u, new Num(2.0))));
+                case "sinh":
+                    return mul(new Call("cosh", u), du);
+                case "cosh":
+                    return mul(new Call("sinh", u), du);
+                case "tanh":
+                    return div(du, pow(new Call("cosh", u), new Num(2.0)));
+                case "exp":
+                case "expm1":
+                    return mul(new Call("exp", u), du);
+                case "log":
+                    return div(du, u);
+                case "log10":
+                    return div(du, mul(u, new Num(Math.log(10.0))));
+                case "log2":
+                    return div(du, mul(u, new Num(Math.log(2.0))));
+                case "log1p":
+                    return div(du, add(ONE, u));
+                case "sqrt":
+                    return div(du, mul(new Num(2.0), this));
+                case "cbrt":
+                    return div(du, mul(new Num(3.0), pow(this, new Num(2.0))));
+                case "abs":
+                    return mul(new Call("signum", u), du);
+                default:
+                    // signum, ceil, floor, trunc: piecewise constant
+                    return ZERO;
+            }
+        }
+    }
+
+    // builders that fold the zeros and ones the derivative rules produce
+
+    private static Node add(Node a, Node b) {
+        if (a.is(0.0)) return b;
+        if (b.is(0.0)) return a;
+        return new Bin('+', a, b);
+    }
+
+    private static Node sub(Node a, Node b) {
+        if (b.is(0.0)) return a;
+        if (a.is(0.0)) return neg(b);
+        return new Bin('-', a, b);
+    }
+
+    private static Node mul(Node a, Node b) {
+        if (a.is(0.0) || b.is(0.0)) return ZERO;
+        if (a.is(1.0)) return b;
+        if (b.is(1.0)) return a;
+        return new Bin('*', a, b);
+    }
+
+    private static Node div(Node a, Node b) {
+        if (a.is(0.0)) return ZERO;
+        if (b.is(1.0)) return a;
+        return new Bin('/', a, b);
+    }
+
+    private static Node pow(Node a, Node b) {
+        if (b.is(1.0)) return a;
+        if (b.is(0.0)) return ONE;
+        return new Pow(a, b);
+    }
+
+    private static Node neg(Node a) {
+        if (a instanceof Num) return new Num(-((Num) a).value);
+        return new Neg(a);
+    }
+
+    static final class Neg extends Node {
+        final Node operand;
+
+        Neg(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        String java() {
+            return "(-" + operand.java() + ")";
+        }
+
+        @Override
+        Node derive(int v) {
+            Node d = operand.derive(v);
+            return d instanceof Neg ? ((Neg) d).operand : neg(d);
+        }
+    }
+
+    /** Compiles and instantiates the generated class, or returns null if that is not possible here. */
+    private static Object compileSource(Class<?> type, String signature, String body) {
+        String key = type.getName() + "\n" + body;
+        Object cached = COMPILED.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+        String simpleName = type.getSimpleName() + CLASS_COUNTER.incrementAndGet();
+        String className = PACKAGE + "." + simpleName;
+        String source = "package " + PACKAGE + ";\n\n"
+                + "public final class " + simpleName + " implements " + type.getName() + " {\n"
+                + "    @Override\n"
+                + "    " + signature + " {\n"
+                + body
+                + "    }\n"
+                + "}\n";
+
+        try {
+            StandardJavaFileManager standard = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+            MemoryFileManager files = new MemoryFileManager(standard);
+            JavaFileObject unit = new SimpleJavaFileObject(
+                    URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            List<String> options = List.of("-classpath", classPath(), "-proc:none", "-g:none", "-nowarn");
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            if (!compiler.getTask(null, files, diagnostics, options, null, List.of(unit)).call()) {
+                return null;
+            }
+
+            Class<?> generated = new DefiningClassLoader(type.getClassLoader())
+                    .define(className, files.bytes.toByteArray());
+            Object instance = generated.getDeclaredConstructor().newInstance();
+            COMPILED.put(key, instance);
+            return instance;
+        } catch (Exception | LinkageError e) {
+            // e.g. the solver classes are not on a file path the compiler can read
+            return null;
+        }
+    }
+
+    private static String classPath() throws Exception {
+        String own = Paths.get(ODEFunction.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+        String inherited = System.getProperty("java.class.path", "");
+        return inherited.isEmpty() ? own : own + File.pathSeparator + inherited;
+    }
+
+    /** Keeps the class file javac writes in memory. */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        MemoryFileManager(StandardJavaFileManager standard) {
+            super(standard);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return bytes;
+                }
+            };
+        }
+    }
+
+    private static final class DefiningClassLoader extends ClassLoader {
+        DefiningClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
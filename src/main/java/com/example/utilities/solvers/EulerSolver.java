@@ -6,6 +6,21 @@ import java.util.function.BiFunction;
 import static com.example.utilities.solvers.ODEUtility.*;
 
 public class EulerSolver implements ODESolver {
+
+    // reused between steps so a single step allocates nothing
+    private final RungeKuttaKernel kernel = new RungeKuttaKernel(ButcherTableau.EULER);
+    private SolverStats stats;
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
     public double[][] solve(
             BiFunction<Double, double[], double[]> f,
             double x,
@@ -14,25 +29,55 @@ public class EulerSolver implements ODESolver {
             int steps,
             BiFunction<Double, double[], Boolean> stopCondition
     ) {
-        int dim = y0.length;
-        double[][] values = initStorage(steps, x, y0);
+        return solve(ODEFunction.of(f), x, y0, stepSize, steps, stopCondition);
+    }
+
+    @Override
+    public double[] integrate(
+            ODEFunction f,
+            double t0,
+            double[] y0,
+            double stepSize,
+            int steps,
+            BiFunction<Double, double[], Boolean> stopCondition,
+            StepSink sink
+    ) {
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        double t = t0;
+        double[] y = Arrays.copyOf(y0, y0.length);
+        if (sink != null) sink.accept(t, y);
 
         for (int i = 0; i < steps; i++) {
-            if (stopCondition != null && stopCondition.apply(x, y0)) {
-                return Arrays.copyOf(values, i + 1);
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
             }
 
-            double[] dydx = f.apply(x, y0);
-            for (int k = 0; k < dim; k++) {
-                y0[k] += stepSize * dydx[k];
-            }
+            step(f, t, y, stepSize, y);
 
-            x = x + stepSize;
-            values[i + 1][0] = x;
-            for (int j = 0; j < dim; j++) {
-                values[i + 1][j + 1] = y0[j];
-            }
+            t = t + stepSize;
+            if (stats != null) stats.accepted(stepSize, Double.NaN);
+            if (sink != null) sink.accept(t, y);
         }
-        return values;
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * Advances the state by one explicit Euler step without allocating.
+     *
+     * @param f    primitive derivative
+     * @param t    current time
+     * @param y    current state
+     * @param h    step size
+     * @param yOut receives the new state, may be the same array as y
+     */
+    public void step(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        f.evaluate(t, y, kernel.firstStage(y.length));
+        kernel.stepFromFirstStage(f, t, y, h, yOut, null);
     }
 }
@@ -0,0 +1,179 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Watches an {@link EventFunction} during an integration and locates its zero crossings.
+ *
+ * The sign of g is compared at the ends of every accepted step; when it changes in the
+ * requested direction the crossing is located by root finding on the step's interpolant,
+ * so large steps still find the event to within the time tolerance. Two crossings inside
+ * the same step cancel out and are not seen.
+ *
+ * Pass detectors to {@link ODESolver#integrate(ODEFunction, double, double[], double, int,
+ * java.util.function.BiFunction, StepSink, EventDetector...)}. A detector keeps its results
+ * after the integration and is reset when the next integration starts.
+ */
+public class EventDetector {
+
+    public enum Direction {
+        /** g goes from negative to positive */
+        RISING,
+        /** g goes from positive to negative */
+        FALLING,
+        /** either way */
+        ANY
+    }
+
+    public static final double DEFAULT_TIME_TOLERANCE = 1e-9;
+
+    private static final int MAX_ITERATIONS = 100;
+
+    private final EventFunction function;
+    private final Direction direction;
+    private final boolean terminal;
+    private final double timeTolerance;
+    private final StepSink handler;
+
+    private double previousTime;
+    private double previousValue;
+
+    private int count;
+    private double lastTime = Double.NaN;
+    private double[] lastState;
+
+    /**
+     * @param function      switching function
+     * @param direction     which crossings count
+     * @param terminal      true to stop the integration at the first crossing
+     * @param timeTolerance width of the time bracket at which root finding stops
+     * @param handler       called with the time and state of every crossing, may be null
+     */
+    public EventDetector(EventFunction function, Direction direction, boolean terminal,
+                         double timeTolerance, StepSink handler) {
+        if (timeTolerance <= 0) {
+            throw new IllegalArgumentException("Time tolerance must be positive");
+        }
+        this.function = function;
+        this.direction = direction;
+        this.terminal = terminal;
+        this.timeTolerance = timeTolerance;
+        this.handler = handler;
+    }
+
+    public EventDetector(EventFunction function, Direction direction, boolean terminal) {
+        this(function, direction, terminal, DEFAULT_TIME_TOLERANCE, null);
+    }
+
+    /** Starts a new integration at (t, y) and forgets earlier results. */
+    void init(double t, double[] y) {
+        previousTime = t;
+        previousValue = function.g(t, y);
+        count = 0;
+        lastTime = Double.NaN;
+        lastState = null;
+    }
+
+    /**
+     * Checks the step for a crossing and moves on to its end.
+     *
+     * @param scratch buffer of the state dimension
+     * @return the time of the crossing, or NaN if there is none in this step
+     */
+    double check(StepInterpolator step, double[] scratch) {
+        double ta = previousTime;
+        double ga = previousValue;
+        double tb = step.getCurrentTime();
+        step.interpolate(tb, scratch);
+        double gb = function.g(tb, scratch);
+
+        previousTime = tb;
+        previousValue = gb;
+
+        if (!crosses(ga, gb)) {
+            return Double.NaN;
+        }
+        return locate(step, scratch, ta, ga, tb, gb);
+    }
+
+    private boolean crosses(double ga, double gb) {
+        boolean rising = ga < 0 && gb >= 0;
+        boolean falling = ga > 0 && gb <= 0;
+        switch (direction) {
+            case RISING:
+                return rising;
+            case FALLING:
+                return falling;
+            default:
+                return rising || falling;
+        }
+    }
+
+    /**
+     * Illinois variant of regula falsi on the interpolant. Returns a time on the far side of
+     * the crossing (where g already has its new sign), so the reported state is past the event.
+     */
+    private double locate(StepInterpolator step, double[] scratch, double ta, double ga, double tb, double gb) {
+        int side = 0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double width = tb - ta;
+            if (width <= timeTolerance + 4 * Math.ulp(tb) || gb == 0) {
+                break;
+            }
+
+            double tm = (ga == gb) ? ta + 0.5 * width : tb - gb * width / (gb - ga);
+            if (!(tm > ta && tm < tb)) {
+                tm = ta + 0.5 * width;
+            }
+            step.interpolate(tm, scratch);
+            double gm = function.g(tm, scratch);
+
+            if (Math.signum(gm) == Math.signum(gb) || gm == 0) {
+                tb = tm;
+                gb = gm;
+                if (side == -1) ga *= 0.5;
+                side = -1;
+            } else {
+                ta = tm;
+                ga = gm;
+                if (side == 1) gb *= 0.5;
+                side = 1;
+            }
+        }
+        return tb;
+    }
+
+    /** Records a crossing at (t, y) and notifies the handler. */
+    void fire(double t, double[] y) {
+        count++;
+        lastTime = t;
+        lastState = Arrays.copyOf(y, y.length);
+        if (handler != null) {
+            handler.accept(t, y);
+        }
+    }
+
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /** True if at least one crossing was found in the last integration. */
+    public boolean hasOccurred() {
+        return count > 0;
+    }
+
+    /** Number of crossings found in the last integration. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Time of the last crossing, NaN if there was none. */
+    public double getLastTime() {
+        return lastTime;
+    }
+
+    /** Copy of the state at the last crossing, null if there was none. */
+    public double[] getLastState() {
+        return lastState == null ? null : Arrays.copyOf(lastState, lastState.length);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.utilities.solvers;
+
+/**
+ * Switching function whose zero crossings mark an event, e.g. altitude for touchdown or
+ * the radial velocity relative to a body for periapsis.
+ */
+@FunctionalInterface
+public interface EventFunction {
+
+    double g(double t, double[] y);
+}
@@ -0,0 +1,142 @@
+package com.example.utilities.solvers;
+
+/**
+ * Sits between a solver and the caller's sink and runs the event detectors on every
+ * accepted step. Events inside a step are fired in time order; a terminal event ends the
+ * integration, and the caller's sink then sees the event state instead of the step end.
+ */
+final class EventHandlingSink implements DenseStepSink {
+
+    private final EventDetector[] detectors;
+    private final StepSink downstream;
+    private final DenseStepSink denseDownstream;
+
+    private final LinearInterpolator fallback = new LinearInterpolator();
+    private final TruncatedInterpolator truncated = new TruncatedInterpolator();
+
+    private boolean started;
+    private boolean sawDenseStep;
+    private double previousTime;
+    private double[] previousState;
+    private double[] scratch;
+    private final double[] eventTimes;
+
+    private boolean terminated;
+    private boolean terminalReported;
+    private double terminalTime;
+    private double[] terminalState;
+
+    EventHandlingSink(EventDetector[] detectors, StepSink downstream) {
+        this.detectors = detectors;
+        this.downstream = downstream;
+        this.denseDownstream = downstream instanceof DenseStepSink ? (DenseStepSink) downstream : null;
+        this.eventTimes = new double[detectors.length];
+    }
+
+    @Override
+    public void accept(double t, double[] y) {
+        if (terminalReported) {
+            return;
+        }
+        if (!started) {
+            started = true;
+            previousState = new double[y.length];
+            scratch = new double[y.length];
+            terminalState = new double[y.length];
+            for (EventDetector detector : detectors) {
+                detector.init(t, y);
+            }
+        } else if (!sawDenseStep) {
+            fallback.set(previousTime, previousState, t, y);
+            processStep(fallback);
+        }
+        sawDenseStep = false;
+        previousTime = t;
+        System.arraycopy(y, 0, previousState, 0, y.length);
+
+        if (terminated) {
+            terminalReported = true;
+            if (downstream != null) downstream.accept(terminalTime, terminalState);
+        } else if (downstream != null) {
+            downstream.accept(t, y);
+        }
+    }
+
+    @Override
+    public void acceptStep(StepInterpolator step) {
+        if (terminated) {
+            return;
+        }
+        sawDenseStep = true;
+        processStep(step);
+        if (denseDownstream != null) {
+            denseDownstream.acceptStep(terminated ? truncated.wrap(step, terminalTime) : step);
+        }
+    }
+
+    private void processStep(StepInterpolator step) {
+        for (int i = 0; i < detectors.length; i++) {
+            eventTimes[i] = detectors[i].check(step, scratch);
+        }
+
+        // fire in chronological order until a terminal event ends the step
+        while (true) {
+            int first = -1;
+            for (int i = 0; i < detectors.length; i++) {
+                if (!Double.isNaN(eventTimes[i]) && (first < 0 || eventTimes[i] < eventTimes[first])) {
+                    first = i;
+                }
+            }
+            if (first < 0) {
+                return;
+            }
+            double t = eventTimes[first];
+            eventTimes[first] = Double.NaN;
+            step.interpolate(t, scratch);
+            detectors[first].fire(t, scratch);
+
+            if (detectors[first].isTerminal()) {
+                terminated = true;
+                terminalTime = t;
+                System.arraycopy(scratch, 0, terminalState, 0, scratch.length);
+                return;
+            }
+        }
+    }
+
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    /** [t, y...] of the terminal event. */
+    double[] terminalRow() {
+        return ODEUtility.mergeTimeAndState(terminalTime, terminalState);
+    }
+
+    /** Restricts a step's interpolant to end at the terminal event. */
+    private static final class TruncatedInterpolator implements StepInterpolator {
+        private StepInterpolator step;
+        private double end;
+
+        StepInterpolator wrap(StepInterpolator step, double end) {
+            this.step = step;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public double getPreviousTime() {
+            return step.getPreviousTime();
+        }
+
+        @Override
+        public double getCurrentTime() {
+            return end;
+        }
+
+        @Override
+        public void interpolate(double t, double[] yOut) {
+            step.interpolate(t, yOut);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Explicit Runge-Kutta solver for any {@link ButcherTableau}.
+ *
+ * Without tolerances every step has the given size. With tolerances the tableau must have an
+ * embedded solution; the step size is then chosen by a PI controller on the error measured
+ * against absTol + relTol * |y| per component, like {@link DormandPrinceSolver}. FSAL tableaus
+ * reuse their last stage as the next first stage.
+ *
+ * A {@link DenseStepSink} gets a cubic Hermite interpolant for every accepted step.
+ *
+ * Not thread-safe: the stage buffers are reused between calls.
+ */
+public class ExplicitRungeKuttaSolver implements ODESolver {
+
+    private static final double SAFETY_FACTOR = 0.9;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 10.0;
+    private static final double MIN_ERROR = 1e-4;
+
+    private final RungeKuttaKernel kernel;
+    private final boolean adaptive;
+    private final double absTol;
+    private final double relTol;
+    private final double maxStepSize;
+
+    // PI controller exponents, scaled with the order as in DOPRI5 (0.17 and 0.04 at order 5)
+    private final double alpha;
+    private final double beta;
+
+    private double[] errorBuffer = new double[0];
+    private SolverStats stats;
+
+    /**
+     * Fixed step size.
+     */
+    public ExplicitRungeKuttaSolver(ButcherTableau tableau) {
+        this.kernel = new RungeKuttaKernel(tableau);
+        this.adaptive = false;
+        this.absTol = 0.0;
+        this.relTol = 0.0;
+        this.maxStepSize = Double.POSITIVE_INFINITY;
+        this.alpha = 0.0;
+        this.beta = 0.0;
+    }
+
+    /**
+     * Adaptive step size.
+     *
+     * @param tableau     must have an embedded solution
+     * @param absTol      absolute tolerance for every component
+     * @param relTol      relative tolerance for every component
+     * @param maxStepSize upper bound for the step size, Double.POSITIVE_INFINITY for none
+     */
+    public ExplicitRungeKuttaSolver(ButcherTableau tableau, double absTol, double relTol, double maxStepSize) {
+        if (!tableau.isEmbedded()) {
+            throw new IllegalArgumentException(tableau + " has no error estimate for step size control");
+        }
+        if (absTol < 0 || relTol < 0 || absTol + relTol <= 0) {
+            throw new IllegalArgumentException("Tolerances must be non-negative and not both zero");
+        }
+        if (maxStepSize <= 0) {
+            throw new IllegalArgumentException("Maximum step size must be positive");
+        }
+        this.kernel = new RungeKuttaKernel(tableau);
+        this.adaptive = true;
+        this.absTol = absTol;
+        this.relTol = relTol;
+        this.maxStepSize = maxStepSize;
+        this.beta = 0.2 / tableau.getOrder();
+        this.alpha = 1.0 / tableau.getOrder() - 0.75 * beta;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    public ButcherTableau getTableau() {
+        return kernel.getTableau();
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double stepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, stepSize, steps, stopCondition);
+    }
+
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double stepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateTo(f, t0, y0, Double.POSITIVE_INFINITY, stepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd; the last step is shortened to land on it.
+     *
+     * @param f             primitive derivative
+     * @param t0            start time
+     * @param y0            initial state (not modified)
+     * @param tEnd          end time, must not lie before t0
+     * @param stepSize      step size, or the one tried first when adaptive
+     * @param steps         maximum number of accepted steps
+     * @param stopCondition checked before every step, may be null
+     * @param sink          receives the initial state and every accepted step, may be null
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double stepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        if (tEnd < t0) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + t0 + " to " + tEnd);
+        }
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        int dim = y0.length;
+        double[][] k = kernel.stages(dim);
+        int last = k.length - 1;
+        boolean fsal = kernel.getTableau().isFsal();
+        if (errorBuffer.length != dim) errorBuffer = new double[dim];
+
+        double t = t0;
+        double h0 = adaptive ? Math.min(stepSize, maxStepSize) : stepSize;
+        double[] y = Arrays.copyOf(y0, dim);
+        double[] yNext = new double[dim];
+        double previousError = 1.0;
+        boolean previousRejected = false;
+        int accepted = 0;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
+
+        if (sink != null) sink.accept(t, y);
+
+        f.evaluate(t, y, k[0]);
+        boolean firstStageValid = true;
+
+        while (t < tEnd && accepted < steps) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
+            }
+
+            double h = h0;
+            boolean lastStep = t + h >= tEnd;
+            if (lastStep) {
+                h = tEnd - t;
+            }
+
+            if (!firstStageValid) {
+                f.evaluate(t, y, k[0]);
+                firstStageValid = true;
+            }
+            kernel.stepFromFirstStage(f, t, y, h, yNext, adaptive ? errorBuffer : null);
+            double err = adaptive ? errorNorm(y, yNext) : 0.0;
+
+            if (err <= 1.0) {
+                double tNew = lastStep ? tEnd : t + h;
+                if (dense != null) interpolator.begin(t, y, k[0]);
+
+                t = tNew;
+                double[] swap = y;
+                y = yNext;
+                yNext = swap;
+                accepted++;
+                if (stats != null) stats.accepted(h, adaptive ? err : Double.NaN);
+
+                if (fsal) {
+                    double[] k1 = k[0];
+                    k[0] = k[last];
+                    k[last] = k1;
+                } else {
+                    firstStageValid = false;
+                    if (dense != null) {
+                        // the end derivative doubles as the first stage of the next step
+                        f.evaluate(t, y, k[0]);
+                        firstStageValid = true;
+                    }
+                }
+                if (dense != null) {
+                    interpolator.end(t, y, k[0]);
+                    dense.acceptStep(interpolator);
+                }
+                if (sink != null) sink.accept(t, y);
+
+                if (adaptive) {
+                    double scale = err == 0.0
+                            ? MAX_SCALE
+                            : SAFETY_FACTOR * Math.pow(err, -alpha) * Math.pow(previousError, beta);
+                    scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+                    if (previousRejected) {
+                        scale = Math.min(scale, 1.0);
+                    }
+                    // a step shortened to hit tEnd says nothing about the step size the problem allows
+                    if (!lastStep || h >= h0) {
+                        h0 = Math.min(h * scale, maxStepSize);
+                        previousError = Math.max(err, MIN_ERROR);
+                    }
+                    previousRejected = false;
+                }
+            } else {
+                if (stats != null) stats.rejected(h, err);
+                double scale = Double.isNaN(err)
+                        ? MIN_SCALE
+                        : Math.max(MIN_SCALE, SAFETY_FACTOR * Math.pow(err, -1.0 / kernel.getTableau().getOrder()));
+                h0 = h * scale;
+                previousRejected = true;
+
+                // the step collapsed (e.g. the solution overflowed), nothing sensible left to do
+                if (h0 <= Math.ulp(t)) {
+                    break;
+                }
+            }
+        }
+
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * Performs one step and writes the propagated solution into yOut.
+     *
+     * @param yOut receives the new state, may be the same array as y
+     * @return scaled RMS error norm (acceptable if at most 1), 0 for a fixed step solver
+     */
+    public double step(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        int dim = y.length;
+        f.evaluate(t, y, kernel.firstStage(dim));
+        if (!adaptive) {
+            kernel.stepFromFirstStage(f, t, y, h, yOut, null);
+            return 0.0;
+        }
+        if (errorBuffer.length != dim) errorBuffer = new double[dim];
+        // the error scale needs the old state, so y must survive the step
+        double[] yOld = y == yOut ? y.clone() : y;
+        kernel.stepFromFirstStage(f, t, y, h, yOut, errorBuffer);
+        return errorNorm(yOld, yOut);
+    }
+
+    private double errorNorm(double[] y, double[] yNew) {
+        double sum = 0.0;
+        for (int j = 0; j < y.length; j++) {
+            double scale = absTol + relTol * Math.max(Math.abs(y[j]), Math.abs(yNew[j]));
+            double ratio = errorBuffer[j] / scale;
+            sum += ratio * ratio;
+        }
+        return Math.sqrt(sum / y.length);
+    }
+}
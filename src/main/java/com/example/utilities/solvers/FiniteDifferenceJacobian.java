@@ -0,0 +1,53 @@
+package com.example.utilities.solvers;
+
+/**
+ * Forward difference Jacobian. Each component is perturbed by sqrt(eps) relative to its size,
+ * which balances truncation and rounding error to about half the digits of a double; that is
+ * plenty for the Newton-like linear systems of a Rosenbrock step.
+ */
+final class FiniteDifferenceJacobian implements Jacobian {
+
+    private static final double SQRT_EPS = Math.sqrt(Math.ulp(1.0));
+
+    private final ODEFunction f;
+    private double[] f0 = new double[0];
+    private double[] f1 = new double[0];
+    private double[] yShifted = new double[0];
+
+    FiniteDifferenceJacobian(ODEFunction f) {
+        this.f = f;
+    }
+
+    @Override
+    public void evaluate(double t, double[] y, double[][] dfdy, double[] dfdt) {
+        int n = y.length;
+        if (f0.length != n) {
+            f0 = new double[n];
+            f1 = new double[n];
+            yShifted = new double[n];
+        }
+        f.evaluate(t, y, f0);
+        System.arraycopy(y, 0, yShifted, 0, n);
+
+        for (int j = 0; j < n; j++) {
+            double delta = SQRT_EPS * Math.max(1.0, Math.abs(y[j]));
+            yShifted[j] = y[j] + delta;
+            // the step that was actually representable
+            delta = yShifted[j] - y[j];
+            f.evaluate(t, yShifted, f1);
+            for (int i = 0; i < n; i++) {
+                dfdy[i][j] = (f1[i] - f0[i]) / delta;
+            }
+            yShifted[j] = y[j];
+        }
+
+        if (dfdt != null) {
+            double delta = SQRT_EPS * Math.max(1.0, Math.abs(t));
+            double tShifted = t + delta;
+            f.evaluate(tShifted, y, f1);
+            for (int i = 0; i < n; i++) {
+                dfdt[i] = (f1[i] - f0[i]) / (tShifted - t);
+            }
+        }
+    }
+}
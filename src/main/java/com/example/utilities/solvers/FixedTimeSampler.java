@@ -0,0 +1,99 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Samples the solution at given times, independent of the steps the solver takes.
+ *
+ * With a solver that has dense output the samples come from its interpolant, so output grids,
+ * animation frames or target epochs no longer force the solver to shorten its steps. With a
+ * fixed-step solver (no dense output) the samples are interpolated linearly between the
+ * reported steps instead.
+ *
+ * Sample times before the initial time are skipped.
+ */
+public class FixedTimeSampler implements DenseStepSink {
+
+    private final double[] times;
+    private final StepSink downstream;
+
+    private int next;
+    private boolean started;
+    private boolean sawDenseStep;
+    private double previousTime;
+    private double[] previousState;
+    private double[] sample;
+    private final LinearInterpolator fallback = new LinearInterpolator();
+
+    /**
+     * @param times      sample times in increasing order
+     * @param downstream receives one call per sample time
+     */
+    public FixedTimeSampler(double[] times, StepSink downstream) {
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("Sample times must be sorted");
+            }
+        }
+        this.times = times.clone();
+        this.downstream = downstream;
+    }
+
+    /**
+     * Samples t0, t0 + dt, ..., t0 + (count - 1) * dt.
+     */
+    public static FixedTimeSampler grid(double t0, double dt, int count, StepSink downstream) {
+        if (dt <= 0) {
+            throw new IllegalArgumentException("Grid spacing must be positive");
+        }
+        double[] times = new double[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = t0 + i * dt;
+        }
+        return new FixedTimeSampler(times, downstream);
+    }
+
+    @Override
+    public void acceptStep(StepInterpolator step) {
+        sawDenseStep = true;
+        double end = step.getCurrentTime();
+        while (next < times.length && times[next] <= end) {
+            step.interpolate(times[next], sample);
+            downstream.accept(times[next], sample);
+            next++;
+        }
+    }
+
+    @Override
+    public void accept(double t, double[] y) {
+        if (!started) {
+            started = true;
+            sample = new double[y.length];
+            previousState = new double[y.length];
+            while (next < times.length && times[next] < t) {
+                next++;
+            }
+            while (next < times.length && times[next] == t) {
+                downstream.accept(t, y);
+                next++;
+            }
+        } else if (!sawDenseStep) {
+            // no interpolant for this step, fall back to a straight line between the two states
+            fallback.set(previousTime, previousState, t, y);
+            acceptStep(fallback);
+        }
+        sawDenseStep = false;
+        previousTime = t;
+        System.arraycopy(y, 0, previousState, 0, y.length);
+    }
+
+    /** True once every sample time has been emitted; handy as a stop condition. */
+    public boolean isDone() {
+        return next >= times.length;
+    }
+
+    /** The sample times, in order. */
+    public double[] getTimes() {
+        return Arrays.copyOf(times, times.length);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.utilities.solvers;
+
+/**
+ * Cubic Hermite interpolant over one step, built from the states and derivatives at both ends.
+ *
+ * Used as dense output by solvers without a dedicated continuous extension (RKF45). The
+ * derivative at the end of a step is the first stage of the next one, so the interpolant
+ * costs no extra evaluations. It is third order accurate, which is plenty for sampling
+ * frames or target times, but the sampled values are not fed back into the integration.
+ */
+final class HermiteInterpolator implements StepInterpolator {
+
+    private double t0;
+    private double t1;
+    private double[] y0 = new double[0];
+    private double[] f0 = new double[0];
+    private double[] y1 = new double[0];
+    private double[] f1 = new double[0];
+
+    /** Stores the start of the step (copies the arrays). */
+    void begin(double t, double[] y, double[] f) {
+        if (y0.length != y.length) {
+            y0 = new double[y.length];
+            f0 = new double[y.length];
+            y1 = new double[y.length];
+            f1 = new double[y.length];
+        }
+        t0 = t;
+        System.arraycopy(y, 0, y0, 0, y.length);
+        System.arraycopy(f, 0, f0, 0, f.length);
+    }
+
+    /** Stores the end of the step (copies the arrays). */
+    void end(double t, double[] y, double[] f) {
+        t1 = t;
+        System.arraycopy(y, 0, y1, 0, y.length);
+        System.arraycopy(f, 0, f1, 0, f.length);
+    }
+
+    @Override
+    public double getPreviousTime() {
+        return t0;
+    }
+
+    @Override
+    public double getCurrentTime() {
+        return t1;
+    }
+
+    @Override
+    public void interpolate(double t, double[] yOut) {
+        double h = t1 - t0;
+        if (h == 0) {
+            System.arraycopy(y1, 0, yOut, 0, y1.length);
+            return;
+        }
+        double theta = (t - t0) / h;
+        double oneMinus = 1.0 - theta;
+        double h00 = (1.0 + 2.0 * theta) * oneMinus * oneMinus;
+        double h10 = theta * oneMinus * oneMinus * h;
+        double h01 = theta * theta * (3.0 - 2.0 * theta);
+        double h11 = -theta * theta * oneMinus * h;
+        for (int j = 0; j < yOut.length; j++) {
+            yOut[j] = h00 * y0[j] + h10 * f0[j] + h01 * y1[j] + h11 * f1[j];
+        }
+    }
+}
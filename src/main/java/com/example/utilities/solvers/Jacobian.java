@@ -0,0 +1,28 @@
+package com.example.utilities.solvers;
+
+/**
+ * Partial derivatives of an ODE right-hand side f(t, y), as needed by implicit solvers.
+ *
+ * Like {@link ODEFunction} the results are written into arrays owned by the caller.
+ */
+@FunctionalInterface
+public interface Jacobian {
+
+    /**
+     * Evaluates the derivatives at (t, y).
+     *
+     * @param t    current time
+     * @param y    current state (must not be modified)
+     * @param dfdy n x n output, dfdy[i][j] = d f_i / d y_j
+     * @param dfdt output of length n with d f_i / d t, may be null if not needed
+     */
+    void evaluate(double t, double[] y, double[][] dfdy, double[] dfdt);
+
+    /**
+     * Jacobian of f by forward differences, n + 1 evaluations of f (n + 2 with dfdt).
+     * The returned object keeps scratch buffers and is not thread-safe.
+     */
+    static Jacobian finiteDifferences(ODEFunction f) {
+        return new FiniteDifferenceJacobian(f);
+    }
+}
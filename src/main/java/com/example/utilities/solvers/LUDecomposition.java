@@ -0,0 +1,87 @@
+package com.example.utilities.solvers;
+
+/**
+ * In-place LU decomposition with partial pivoting for the small dense systems of implicit
+ * solvers. The matrix passed to {@link #decompose} is overwritten with its factors and then
+ * used by {@link #solve} for as many right-hand sides as needed.
+ */
+final class LUDecomposition {
+
+    private double[][] lu;
+    private int[] pivot = new int[0];
+
+    /**
+     * Factors a in place.
+     *
+     * @return false if a is singular to working precision; solve must not be used then
+     */
+    boolean decompose(double[][] a) {
+        int n = a.length;
+        if (pivot.length != n) pivot = new int[n];
+        lu = a;
+
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            double max = Math.abs(a[k][k]);
+            for (int i = k + 1; i < n; i++) {
+                double value = Math.abs(a[i][k]);
+                if (value > max) {
+                    max = value;
+                    p = i;
+                }
+            }
+            pivot[k] = p;
+            if (max == 0.0 || Double.isNaN(max)) {
+                return false;
+            }
+            if (p != k) {
+                double[] swap = a[p];
+                a[p] = a[k];
+                a[k] = swap;
+            }
+
+            double[] rowK = a[k];
+            double inverse = 1.0 / rowK[k];
+            for (int i = k + 1; i < n; i++) {
+                double[] rowI = a[i];
+                double factor = rowI[k] * inverse;
+                rowI[k] = factor;
+                if (factor != 0.0) {
+                    for (int j = k + 1; j < n; j++) {
+                        rowI[j] -= factor * rowK[j];
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Overwrites b with the solution x of A x = b. */
+    void solve(double[] b) {
+        int n = b.length;
+        for (int k = 0; k < n; k++) {
+            int p = pivot[k];
+            if (p != k) {
+                double swap = b[p];
+                b[p] = b[k];
+                b[k] = swap;
+            }
+        }
+        for (int i = 1; i < n; i++) {
+            double[] row = lu[i];
+            double sum = b[i];
+            for (int j = 0; j < i; j++) {
+                sum -= row[j] * b[j];
+            }
+            b[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double[] row = lu[i];
+            double sum = b[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= row[j] * b[j];
+            }
+            b[i] = sum / row[i];
+        }
+    }
+}
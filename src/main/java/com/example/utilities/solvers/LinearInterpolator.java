@@ -0,0 +1,44 @@
+package com.example.utilities.solvers;
+
+/**
+ * Straight line between the two ends of a step. Stand-in for solvers that report steps
+ * without dense output (Euler), so samplers and event detection still work there.
+ */
+final class LinearInterpolator implements StepInterpolator {
+
+    private double t0;
+    private double t1;
+    private double[] y0 = new double[0];
+    private double[] y1 = new double[0];
+
+    /** Copies both ends of the step. */
+    void set(double t0, double[] y0, double t1, double[] y1) {
+        if (this.y0.length != y0.length) {
+            this.y0 = new double[y0.length];
+            this.y1 = new double[y0.length];
+        }
+        this.t0 = t0;
+        this.t1 = t1;
+        System.arraycopy(y0, 0, this.y0, 0, y0.length);
+        System.arraycopy(y1, 0, this.y1, 0, y1.length);
+    }
+
+    @Override
+    public double getPreviousTime() {
+        return t0;
+    }
+
+    @Override
+    public double getCurrentTime() {
+        return t1;
+    }
+
+    @Override
+    public void interpolate(double t, double[] yOut) {
+        double span = t1 - t0;
+        double theta = span == 0 ? 1.0 : (t - t0) / span;
+        for (int j = 0; j < yOut.length; j++) {
+            yOut[j] = y0[j] + theta * (y1[j] - y0[j]);
+        }
+    }
+}
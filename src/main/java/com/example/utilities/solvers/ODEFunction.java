@@ -0,0 +1,49 @@
+package com.example.utilities.solvers;
+
+import java.util.function.BiFunction;
+
+/**
+ * Primitive right-hand side of an ODE system dy/dt = f(t, y).
+ *
+ * Unlike {@code BiFunction<Double, double[], double[]>} the time is passed as a plain double
+ * and the derivative is written into an array owned by the caller, so evaluating the system
+ * does not allocate anything. Solvers hand in their own preallocated stage buffers.
+ */
+@FunctionalInterface
+public interface ODEFunction {
+
+    /**
+     * Evaluates the derivative at (t, y).
+     *
+     * @param t    current time
+     * @param y    current state (must not be modified)
+     * @param dydt output array of the same length as y, overwritten with f(t, y)
+     */
+    void evaluate(double t, double[] y, double[] dydt);
+
+    /**
+     * Adapts a legacy boxed derivative to the primitive contract.
+     * The wrapped function still allocates its result array, which is copied into dydt.
+     */
+    static ODEFunction of(BiFunction<Double, double[], double[]> f) {
+        if (f instanceof ODEFunction) {
+            return (ODEFunction) f;
+        }
+        return (t, y, dydt) -> {
+            double[] result = f.apply(t, y);
+            System.arraycopy(result, 0, dydt, 0, dydt.length);
+        };
+    }
+
+    /**
+     * Returns a boxed view of this function for code that still expects a BiFunction.
+     * Every call allocates a fresh result array.
+     */
+    default BiFunction<Double, double[], double[]> toBiFunction() {
+        return (t, y) -> {
+            double[] dydt = new double[y.length];
+            evaluate(t, y, dydt);
+            return dydt;
+        };
+    }
+}
@@ -12,4 +12,95 @@ public interface ODESolver {
             int steps,
             BiFunction<Double, double[], Boolean> stopCondition
     );
+
+    /**
+     * Collects evaluation, step and timing counters of the following integrations into stats;
+     * null stops collecting. Solvers without counters (e.g. lambdas) ignore it, so their
+     * {@link #getStats} stays null.
+     */
+    default void setStats(SolverStats stats) {
+    }
+
+    /** The stats set with {@link #setStats}, or null. */
+    default SolverStats getStats() {
+        return null;
+    }
+
+    /**
+     * Same as {@link #solve(BiFunction, double, double[], double, int, BiFunction)} but takes the
+     * primitive derivative. The rows are collected by a {@link TrajectoryRecorder}, so the result
+     * only holds the steps that were actually taken.
+     */
+    default double[][] solve(
+            ODEFunction f,
+            double t0,
+            double[] y0,
+            double stepSize,
+            int steps,
+            BiFunction<Double, double[], Boolean> stopCondition
+    ) {
+        TrajectoryRecorder recorder = new TrajectoryRecorder(y0.length);
+        integrate(f, t0, y0, stepSize, steps, stopCondition, recorder);
+        return recorder.toMatrix();
+    }
+
+    /**
+     * Streams the solution into a sink instead of materializing it.
+     * Memory use does not depend on the step budget.
+     *
+     * @param f             primitive derivative
+     * @param t0            start time
+     * @param y0            initial state (not modified)
+     * @param stepSize      (initial) step size
+     * @param steps         maximum number of accepted steps
+     * @param stopCondition checked before every step, may be null
+     * @param sink          receives the initial state and every accepted step; null keeps only the final state
+     * @return the final row [t, y0, y1, ...]
+     */
+    default double[] integrate(
+            ODEFunction f,
+            double t0,
+            double[] y0,
+            double stepSize,
+            int steps,
+            BiFunction<Double, double[], Boolean> stopCondition,
+            StepSink sink
+    ) {
+        // fallback for solvers that only implement the matrix API
+        double[][] rows = solve(f.toBiFunction(), t0, y0.clone(), stepSize, steps, stopCondition);
+        if (sink != null) {
+            double[] y = new double[y0.length];
+            for (double[] row : rows) {
+                System.arraycopy(row, 1, y, 0, y.length);
+                sink.accept(row[0], y);
+            }
+        }
+        return rows[rows.length - 1].clone();
+    }
+
+    /**
+     * Same as {@link #integrate(ODEFunction, double, double[], double, int, BiFunction, StepSink)}
+     * with event detection. Crossings are located on the solver's dense output when it has one
+     * and on a straight line between the steps otherwise.
+     *
+     * @param events detectors to run; a terminal one stops the integration at its crossing
+     * @return the final row [t, y0, y1, ...], which is the state at the terminal event if one occurred
+     */
+    default double[] integrate(
+            ODEFunction f,
+            double t0,
+            double[] y0,
+            double stepSize,
+            int steps,
+            BiFunction<Double, double[], Boolean> stopCondition,
+            StepSink sink,
+            EventDetector... events
+    ) {
+        EventHandlingSink eventSink = new EventHandlingSink(events, sink);
+        BiFunction<Double, double[], Boolean> stop = (t, y) -> eventSink.isTerminated()
+                || (stopCondition != null && stopCondition.apply(t, y));
+
+        double[] last = integrate(f, t0, y0, stepSize, steps, stop, eventSink);
+        return eventSink.isTerminated() ? eventSink.terminalRow() : last;
+    }
 }
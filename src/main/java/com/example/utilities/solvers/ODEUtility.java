@@ -1,18 +1,11 @@
 package com.example.utilities.solvers;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
-
-import java.util.function.BiFunction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 
-
-import static com.example.Constants.TOLERANCE;
-
-// rewrote all methods to support nth Dimension ODE results
-// All are highly inefficient and should not be finally submitted
 public class ODEUtility {
 
     private static String[] equations;
@@ -24,97 +17,111 @@ public class ODEUtility {
     }
 
     // reference: https://www.baeldung.com/java-evaluate-math-expression-string
+    /**
+     * Compiles the equations set with {@link #setEquations} once, see {@link EquationCompiler}.
+     * The result is also an {@link ODEFunction}, so the solvers call the compiled code directly.
+     *
+     * @throws IllegalArgumentException if an equation does not parse
+     */
     public static BiFunction<Double, double[], double[]> textToFunction() {
-        return (t, state) -> {
-            if (equations == null || variables == null) {
-                System.out.println("the equations or the variables have not been initialized.");
-            }
-
-            if (state.length != variables.length) {
-                System.out.println( "the state length (" + state.length + ") does not match Variables length (" + variables.length + ")");
-            }
+        return new CompiledEquations(EquationCompiler.compile(equations, variables));
+    }
 
-            double[] results = new double[equations.length];
+    /**
+     * Jacobian of the equations set with {@link #setEquations}, differentiated symbolically and
+     * compiled, for {@link RosenbrockSolver} and {@link StiffnessSwitchingSolver}.
+     *
+     * @throws IllegalArgumentException if an equation does not parse
+     */
+    public static Jacobian textToJacobian() {
+        return EquationCompiler.compileJacobian(equations, variables);
+    }
 
-            for (int i = 0; i < equations.length; i++) {
-                try {
+    /** Lets the compiled equations go through the BiFunction based GUI code unchanged. */
+    private static final class CompiledEquations implements BiFunction<Double, double[], double[]>, ODEFunction {
+        private final ODEFunction function;
 
-                    Expression expr = new ExpressionBuilder(equations[i])
-                            .variables(variables)
-                            .variable("t")
-                            .build();
+        CompiledEquations(ODEFunction function) {
+            this.function = function;
+        }
 
-                    for (int j = 0; j < variables.length; j++) {
-                        expr.setVariable(variables[j], state[j]);
-                    }
-                    expr.setVariable("t", t);
+        @Override
+        public void evaluate(double t, double[] y, double[] dydt) {
+            function.evaluate(t, y, dydt);
+        }
 
-                    // Evaluate expression
-                    results[i] = expr.evaluate();
-                } catch (Exception e) {
-                    throw new RuntimeException("Error evaluating equation '" + equations[i] + "': " + e.getMessage(), e);
-                }
-            }
+        @Override
+        public double[] apply(Double t, double[] state) {
+            double[] results = new double[state.length];
+            function.evaluate(t, state, results);
             return results;
-        };
+        }
     }
 
+    /**
+     * State at time val, interpolated between the rows around it.
+     * Only the rows next to val are indexed, so a single query costs a binary search; for
+     * repeated queries build a {@link Trajectory} once instead.
+     *
+     * @return null if there are no rows or val lies outside them
+     */
     public static double[] getValueAt(double[][] valuePairs, double val) {
-        if (valuePairs == null) return null;
-
-        for (double[] e : valuePairs) {
-            if (Math.abs(e[0] - val) < TOLERANCE) {
-                return Arrays.copyOfRange(e, 1, e.length);
+        if (valuePairs == null || valuePairs.length == 0) return null;
+        if (val < valuePairs[0][0] || val > valuePairs[valuePairs.length - 1][0]) return null;
+
+        int low = 0;
+        int high = valuePairs.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (valuePairs[mid][0] <= val) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
         }
-        return null;
+        return neighbourhood(valuePairs, low).valueAt(val);
     }
 
+    /** Largest value of every component, see {@link Trajectory#max(int)}. */
     public static Double[] getMax(double[][] valuePairs) {
         if (valuePairs == null || valuePairs.length == 0) return null;
-
-        int n = valuePairs[0].length - 1;
-        Double[] maxValues = new Double[n];
-        Arrays.fill(maxValues, Double.NEGATIVE_INFINITY);
-
-        for (double[] e : valuePairs) {
-            for (int j = 0; j < n; j++) {
-                maxValues[j] = Math.max(maxValues[j], e[j + 1]);
-            }
-        }
-        return maxValues;
+        Trajectory trajectory = new Trajectory(valuePairs);
+        return IntStream.range(0, trajectory.dimension()).mapToObj(trajectory::max).toArray(Double[]::new);
     }
 
+    /** Smallest value of every component, see {@link Trajectory#min(int)}. */
     public static Double[] getMin(double[][] valuePairs) {
         if (valuePairs == null || valuePairs.length == 0) return null;
-
-        int n = valuePairs[0].length - 1;
-        Double[] minValues = new Double[n];
-        Arrays.fill(minValues, Double.POSITIVE_INFINITY);
-
-        for (double[] e : valuePairs) {
-            for (int j = 0; j < n; j++) {
-                minValues[j] = Math.min(minValues[j], e[j + 1]);
-            }
-        }
-        return minValues;
+        Trajectory trajectory = new Trajectory(valuePairs);
+        return IntStream.range(0, trajectory.dimension()).mapToObj(trajectory::min).toArray(Double[]::new);
     }
 
+    /**
+     * Times at which each component crosses zero, found from sign changes between rows rather
+     * than rows that happen to lie within the tolerance of zero. One pass over the rows; only
+     * the segments with a sign change are interpolated, as in {@link Trajectory#zeroCrossings}.
+     */
     public static Double[][] xIntersectInStep(double[][] valuePairs) {
         if (valuePairs == null || valuePairs.length == 0) return null;
 
         int n = valuePairs[0].length - 1;
         List<List<Double>> intersects = new ArrayList<>(n);
-
         for (int j = 0; j < n; j++) {
             intersects.add(new ArrayList<>());
         }
-
-        for (double[] e : valuePairs) {
+        for (int i = 0; i < valuePairs.length; i++) {
             for (int j = 0; j < n; j++) {
-                if (Math.abs(e[j + 1]) < TOLERANCE) {
-                    intersects.get(j).add(e[0]);
+                double y = valuePairs[i][j + 1];
+                double root = Double.NaN;
+                if (y == 0.0) {
+                    root = valuePairs[i][0];
+                } else if (i + 1 < valuePairs.length && valuePairs[i + 1][j + 1] != 0.0
+                        && (y < 0.0) != (valuePairs[i + 1][j + 1] < 0.0)) {
+                    root = rootInSegment(neighbourhood(valuePairs, i), valuePairs[i][0], valuePairs[i + 1][0], j);
                 }
+                List<Double> roots = intersects.get(j);
+                if (Double.isNaN(root) || (!roots.isEmpty() && roots.get(roots.size() - 1) == root)) continue;
+                roots.add(root);
             }
         }
 
@@ -125,10 +132,30 @@ public class ODEUtility {
         return result;
     }
 
+    /**
+     * Trajectory over row i, its successor and their neighbours, which is all the interpolant
+     * between rows i and i + 1 depends on.
+     */
+    private static Trajectory neighbourhood(double[][] valuePairs, int i) {
+        int from = Math.max(0, i - 1);
+        int to = Math.min(valuePairs.length, i + 3);
+        return new Trajectory(Arrays.copyOfRange(valuePairs, from, to));
+    }
+
+    /** The zero crossing of a component in (a, b), where it changes sign. */
+    private static double rootInSegment(Trajectory window, double a, double b, int component) {
+        for (double root : window.zeroCrossings(component)) {
+            if (root >= a && root <= b) return root;
+        }
+        return Double.NaN;
+    }
+
     public static double[] scaleVector(double[] v, double scalar) {
-        return Arrays.stream(v)
-                .map(val -> val * scalar)
-                .toArray();
+        double[] result = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            result[i] = v[i] * scalar;
+        }
+        return result;
     }
 
     public static double[] addVectors(double[] a, double[] b) {
@@ -143,6 +170,16 @@ public class ODEUtility {
         return Math.round(t * 100.0) / 100.0;
     }
 
+    /**
+     * Combines time and state into one array: [t, y0, y1, ...]
+     */
+    public static double[] mergeTimeAndState(double t, double[] y) {
+        double[] result = new double[y.length + 1];
+        result[0] = t;
+        System.arraycopy(y, 0, result, 1, y.length);
+        return result;
+    }
+
     public static double[][] initStorage(int maxSteps, double t0, double[] y0) {
         int dim = y0.length;
         double[][] result = new double[maxSteps + 1][dim + 1];
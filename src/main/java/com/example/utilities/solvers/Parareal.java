@@ -0,0 +1,186 @@
+package com.example.utilities.solvers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Parareal: parallel-in-time propagation of an initial value problem.
+ *
+ * The span is cut into slices. A cheap coarse propagator G runs through them one after the other
+ * to guess the state at every slice boundary. Then the accurate fine propagator F runs on all
+ * slices at once, each from the current guess at its start, and the guesses are corrected by
+ *
+ *     U[n+1] = G(U_new[n]) + F(U_old[n]) - G(U_old[n])
+ *
+ * until no boundary moves by more than the tolerance. After k iterations the first k slices
+ * equal the sequential fine solution exactly, so at most one iteration per slice is needed; on
+ * smooth problems a few iterations usually suffice, and with them the wall time drops to about
+ * (iterations / slices) of a sequential fine run plus the coarse sweeps.
+ *
+ * The propagators are called from several threads at once and must not share mutable state,
+ * e.g. create a new solver per call as {@link #fixedStep} does.
+ */
+public final class Parareal {
+
+    /** Propagates a state over one slice. */
+    @FunctionalInterface
+    public interface Propagator {
+        /**
+         * @param t0 start of the slice
+         * @param y0 state at t0, must not be modified
+         * @param t1 end of the slice
+         * @return state at t1
+         */
+        double[] propagate(double t0, double[] y0, double t1);
+    }
+
+    private final Propagator coarse;
+    private final Propagator fine;
+    private final int slices;
+    private final double absTol;
+    private final double relTol;
+    private final int maxIterations;
+    private final ForkJoinPool pool;
+
+    private int iterations;
+    private double[][] boundaries;
+
+    /**
+     * Runs the fine propagators on the common pool.
+     *
+     * @param coarse        cheap propagator, called sequentially
+     * @param fine          accurate propagator, called concurrently on the slices
+     * @param slices        number of time slices, typically the number of cores
+     * @param absTol        absolute tolerance on the change of the boundary states
+     * @param relTol        relative tolerance on the change of the boundary states
+     * @param maxIterations upper bound for the corrections; values above slices change nothing
+     */
+    public Parareal(Propagator coarse, Propagator fine, int slices, double absTol, double relTol, int maxIterations) {
+        this(coarse, fine, slices, absTol, relTol, maxIterations, ForkJoinPool.commonPool());
+    }
+
+    public Parareal(Propagator coarse, Propagator fine, int slices, double absTol, double relTol, int maxIterations,
+                    ForkJoinPool pool) {
+        if (slices < 1 || maxIterations < 1) {
+            throw new IllegalArgumentException("Need at least one slice and one iteration");
+        }
+        if (absTol <= 0 && relTol <= 0) {
+            throw new IllegalArgumentException("At least one tolerance must be positive");
+        }
+        this.coarse = coarse;
+        this.fine = fine;
+        this.slices = slices;
+        this.absTol = absTol;
+        this.relTol = relTol;
+        this.maxIterations = maxIterations;
+        this.pool = pool;
+    }
+
+    /**
+     * Propagator that integrates with a fixed step solver in equal steps of at most maxStepSize,
+     * so that the last one lands exactly on the end of the slice. Every call gets a new solver.
+     */
+    public static Propagator fixedStep(ODEFunction f, Supplier<? extends ODESolver> solver, double maxStepSize) {
+        return (t0, y0, t1) -> {
+            int steps = Math.max(1, (int) Math.ceil((t1 - t0) / maxStepSize - 1e-9));
+            double[] row = solver.get().integrate(f, t0, y0, (t1 - t0) / steps, steps, null, null);
+            return Arrays.copyOfRange(row, 1, row.length);
+        };
+    }
+
+    /**
+     * Propagates y0 from t0 to tEnd.
+     *
+     * @return state at tEnd
+     */
+    public double[] propagate(double t0, double[] y0, double tEnd) {
+        if (!(tEnd > t0)) {
+            throw new IllegalArgumentException("tEnd must lie after t0");
+        }
+        double[] times = new double[slices + 1];
+        for (int n = 0; n <= slices; n++) {
+            times[n] = t0 + (tEnd - t0) * n / slices;
+        }
+        times[slices] = tEnd;
+
+        double[][] u = new double[slices + 1][];
+        double[][] coarseOld = new double[slices + 1][];
+        u[0] = y0.clone();
+        for (int n = 0; n < slices; n++) {
+            coarseOld[n + 1] = coarse.propagate(times[n], u[n], times[n + 1]);
+            u[n + 1] = coarseOld[n + 1];
+        }
+
+        List<ForkJoinTask<double[]>> tasks = new ArrayList<>(Collections.nCopies(slices, null));
+        double[][] fineResults = new double[slices + 1][];
+        iterations = 0;
+        int limit = Math.min(maxIterations, slices);
+        for (int k = 1; k <= limit; k++) {
+            iterations = k;
+            // slices before k - 1 start from the exact fine state and cannot change any more
+            for (int n = k - 1; n < slices; n++) {
+                double a = times[n];
+                double b = times[n + 1];
+                double[] start = u[n];
+                tasks.set(n, pool.submit(() -> fine.propagate(a, start, b)));
+            }
+            for (int n = k - 1; n < slices; n++) {
+                fineResults[n + 1] = tasks.get(n).join();
+            }
+
+            double change = 0.0;
+            for (int n = k - 1; n < slices; n++) {
+                double[] coarseNew = coarse.propagate(times[n], u[n], times[n + 1]);
+                double[] corrected = new double[coarseNew.length];
+                for (int i = 0; i < corrected.length; i++) {
+                    corrected[i] = coarseNew[i] + fineResults[n + 1][i] - coarseOld[n + 1][i];
+                }
+                change = Math.max(change, errorNorm(u[n + 1], corrected));
+                coarseOld[n + 1] = coarseNew;
+                u[n + 1] = corrected;
+            }
+            if (change <= 1.0) {
+                break;
+            }
+        }
+        boundaries = u;
+        return u[slices].clone();
+    }
+
+    /** RMS of the change scaled by the tolerances, at most 1 when converged. */
+    private double errorNorm(double[] previous, double[] next) {
+        double sum = 0.0;
+        for (int i = 0; i < next.length; i++) {
+            double scale = absTol + relTol * Math.max(Math.abs(previous[i]), Math.abs(next[i]));
+            double e = (next[i] - previous[i]) / scale;
+            sum += e * e;
+        }
+        return Math.sqrt(sum / next.length);
+    }
+
+    /** Corrections made by the last {@link #propagate}, between 1 and the number of slices. */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** States at the slice boundaries after the last {@link #propagate}, the first being y0. */
+    public double[][] getBoundaryStates() {
+        if (boundaries == null) {
+            throw new IllegalStateException("Nothing propagated yet");
+        }
+        double[][] copy = new double[boundaries.length][];
+        for (int n = 0; n < boundaries.length; n++) {
+            copy[n] = boundaries[n].clone();
+        }
+        return copy;
+    }
+
+    public int getSlices() {
+        return slices;
+    }
+}
@@ -7,6 +7,20 @@ import static com.example.utilities.solvers.ODEUtility.*;
 
 public class RK4Solver implements ODESolver {
 
+    // stage buffers, reused between steps
+    private final RungeKuttaKernel kernel = new RungeKuttaKernel(ButcherTableau.RK4);
+    private SolverStats stats;
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
     @Override
     public double[][] solve(
             BiFunction<Double, double[], double[]> f,
@@ -16,42 +30,76 @@ public class RK4Solver implements ODESolver {
             int steps,
             BiFunction<Double, double[], Boolean> stopCondition
     ) {
-        int dim =y0.length;
-        double[][] values = initStorage(steps, t0,y0);
+        return solve(ODEFunction.of(f), t0, y0, stepSize, steps, stopCondition);
+    }
 
-        for (int i = 0; i < steps; i++) {
-            if (stopCondition != null && stopCondition.apply(t0,y0)) {
-                return Arrays.copyOf(values, i + 1);
-            }
+    /**
+     * A {@link DenseStepSink} gets a cubic Hermite interpolant for every step. Its end
+     * derivative is the first stage of the next step, so dense output costs no extra
+     * evaluations apart from one at the very end.
+     */
+    @Override
+    public double[] integrate(
+            ODEFunction f,
+            double t0,
+            double[] y0,
+            double stepSize,
+            int steps,
+            BiFunction<Double, double[], Boolean> stopCondition,
+            StepSink sink
+    ) {
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        double t = t0;
+        double[] y = Arrays.copyOf(y0, y0.length);
+        double[] k1 = kernel.firstStage(y.length);
+        boolean firstStageValid = false;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
 
-            double[] k1 = f.apply(t0,y0);
-            double[] k2 = f.apply(t0 + stepSize / 2.0, addVectors(y0, scaleVector(k1, stepSize / 2.0)));
-            double[] k3 = f.apply(t0 + stepSize / 2.0, addVectors(y0, scaleVector(k2, stepSize / 2.0)));
-            double[] k4 = f.apply(t0 + stepSize, addVectors(y0, scaleVector(k3, stepSize)));
+        if (sink != null) sink.accept(t, y);
 
-            for (int j = 0; j < dim; j++) {
-               y0[j] += (stepSize / 6.0) * (k1[j] + 2 * k2[j] + 2 * k3[j] + k4[j]);
+        for (int i = 0; i < steps; i++) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
             }
 
-            t0 = t0 + stepSize;
-            values[i + 1][0] = t0;
-            for (int j = 0; j < dim; j++) {
-                values[i + 1][j + 1] =y0[j];
+            if (!firstStageValid) {
+                f.evaluate(t, y, k1);
+            }
+            if (dense != null) interpolator.begin(t, y, k1);
+
+            kernel.stepFromFirstStage(f, t, y, stepSize, y, null);
+            firstStageValid = false;
+
+            t = t + stepSize;
+            if (stats != null) stats.accepted(stepSize, Double.NaN);
+            if (dense != null) {
+                f.evaluate(t, y, k1);
+                firstStageValid = true;
+                interpolator.end(t, y, k1);
+                dense.acceptStep(interpolator);
             }
+            if (sink != null) sink.accept(t, y);
         }
-
-        return values;
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
     }
 
     /**
-     * I got really weird Abstract Pipeline errors, so I changed the code here to do everything it need to do.
-     * THis somehow seemed to fix it!
+     * One RK4 step for a boxed derivative, kept for the older callers. Wraps f with
+     * {@link ODEFunction#of} and runs {@link #step(ODEFunction, double, double[], double, double[])}.
      *
-     * @param f
-     * @param t
-     * @param y
-     * @param h
-     * @return
+     * @param f derivative dy/dt = f(t, y)
+     * @param t current time
+     * @param y current state, not modified
+     * @param h step size
+     * @return the state at t + h, in a new array
      */
     public double[] solveStep(
             BiFunction<Double, double[], double[]> f,
@@ -59,41 +107,34 @@ public class RK4Solver implements ODESolver {
             double[] y,
             double h
     ) {
-        int dim = y.length;
-        double halfH = 0.5 * h;
-        double tPlusHalfH = t + halfH;
-        double tPlusH = t + h;
-        double inv6 = h / 6.0;
-
-        double[] yTemp = new double[dim];
-        double[] result = new double[dim];
-
-        double[] k1 = f.apply(t, y);
-
-        for (int j = 0; j < dim; j++) {
-            yTemp[j] = y[j] + halfH * k1[j];
-        }
-        double[] k2 = f.apply(tPlusHalfH, yTemp);
-
-        for (int j = 0; j < dim; j++) {
-            yTemp[j] = y[j] + halfH * k2[j];
-        }
-        double[] k3 = f.apply(tPlusHalfH, yTemp);
-
-        for (int j = 0; j < dim; j++) {
-            yTemp[j] = y[j] + h * k3[j];
-        }
-        double[] k4 = f.apply(tPlusH, yTemp);
-
-        for (int j = 0; j < dim; j++) {
-            // Combine terms to minimize operations
-            double k23 = k2[j] + k3[j];  // Calculate k2+k3 once
-            result[j] = y[j] + inv6 * (k1[j] + 2 * k23 + k4[j]);
-        }
-
+        double[] result = new double[y.length];
+        step(ODEFunction.of(f), t, y, h, result);
         return result;
     }
 
+    /**
+     * Advances the state by one classical RK4 step using the preallocated stage buffers.
+     * Allocates nothing as long as the state dimension does not change between calls.
+     *
+     * @param f    primitive derivative
+     * @param t    current time
+     * @param y    current state
+     * @param h    step size
+     * @param yOut receives the new state, may be the same array as y
+     */
+    public void step(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        f.evaluate(t, y, kernel.firstStage(y.length));
+        kernel.stepFromFirstStage(f, t, y, h, yOut, null);
+    }
 
-
+    /**
+     * Same step with the first stage k1 = f(t, y) supplied by the caller, e.g. the derivative
+     * evaluated at the end of the previous step. Costs 3 evaluations instead of 4.
+     *
+     * @param dydt f(t, y), not modified
+     */
+    public void step(ODEFunction f, double t, double[] y, double[] dydt, double h, double[] yOut) {
+        System.arraycopy(dydt, 0, kernel.firstStage(y.length), 0, y.length);
+        kernel.stepFromFirstStage(f, t, y, h, yOut, null);
+    }
 }
@@ -0,0 +1,246 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Stateful RKF45 integration that can be advanced in pieces.
+ *
+ * {@link RKF45Solver#solve} starts over from the initial step size on every call, which makes
+ * short repeated calls (one per animation frame, for example) much more expensive than one long
+ * integration. A session keeps everything that would otherwise be thrown away between calls:
+ * the integration front (time and state of the last accepted step), the last step size the
+ * controller proposed, the previous error for the PI controller and the first stage
+ * k1 = f(t, y) at the front.
+ *
+ * Target times do not constrain the steps: the session steps past the target and samples the
+ * state there from the cubic Hermite interpolant of the last step. The interpolated state is
+ * only reported, the integration itself always continues from the front.
+ *
+ * Not thread-safe.
+ */
+public class RKF45Session {
+
+    private static final double SAFETY_FACTOR = 0.9;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 5.0;
+
+    // PI controller exponents for an embedded pair with a 4th order error estimate
+    private static final double ALPHA = 0.7 / 5.0;
+    private static final double BETA = 0.4 / 5.0;
+
+    // lower bound for the remembered error, keeps the PI term from exploding after exact steps
+    private static final double MIN_ERROR = 1e-4;
+
+    private final ODEFunction f;
+    // f itself, or f wrapped to count evaluations while stats are collected
+    private ODEFunction counted;
+    private SolverStats stats;
+    private final RKF45Solver solver = new RKF45Solver();
+    private final double maxStepSize;
+    private final double absTol;
+    private final double relTol;
+
+    // integration front
+    private double t;
+    private double[] y;
+    private double[] yNext;
+    private double[] err;
+
+    // reported (possibly interpolated) time and state
+    private double tOut;
+    private double[] yOut;
+    private final HermiteInterpolator interpolator = new HermiteInterpolator();
+
+    private double stepSize;
+    private double previousError = 1.0;
+    private boolean previousRejected;
+    private boolean firstStageValid;
+
+    private long acceptedSteps;
+    private long rejectedSteps;
+
+    /**
+     * @param f               primitive derivative
+     * @param t0              start time
+     * @param y0              initial state (copied)
+     * @param initialStepSize step size tried first
+     * @param maxStepSize     upper bound for the step size, use Double.POSITIVE_INFINITY for none
+     * @param absTol          absolute tolerance per component
+     * @param relTol          relative tolerance per component
+     */
+    public RKF45Session(ODEFunction f, double t0, double[] y0, double initialStepSize,
+                        double maxStepSize, double absTol, double relTol) {
+        if (initialStepSize <= 0 || maxStepSize <= 0) {
+            throw new IllegalArgumentException("Step sizes must be positive");
+        }
+        if (absTol <= 0 && relTol <= 0) {
+            throw new IllegalArgumentException("At least one tolerance must be positive");
+        }
+        this.f = f;
+        this.counted = f;
+        this.maxStepSize = maxStepSize;
+        this.absTol = absTol;
+        this.relTol = relTol;
+        this.stepSize = Math.min(initialStepSize, maxStepSize);
+        reset(t0, y0);
+    }
+
+    /**
+     * Replaces the current state, e.g. when the modelled system was changed from outside.
+     * The step size is kept, the error history and the cached first stage are dropped.
+     */
+    public void reset(double t0, double[] y0) {
+        int dim = y0.length;
+        if (y == null || y.length != dim) {
+            y = new double[dim];
+            yNext = new double[dim];
+            err = new double[dim];
+            yOut = new double[dim];
+        }
+        System.arraycopy(y0, 0, y, 0, dim);
+        System.arraycopy(y0, 0, yOut, 0, dim);
+        t = t0;
+        tOut = t0;
+        previousError = 1.0;
+        previousRejected = false;
+        firstStageValid = false;
+    }
+
+    /**
+     * Advances the reported state to tEnd.
+     *
+     * @param tEnd     target time, must not lie before the current time
+     * @param maxSteps maximum number of attempted steps for this call
+     * @return true if tEnd was reached; false if the step budget ran out or the step size
+     *         collapsed, in which case the session reports the last accepted step
+     */
+    public boolean advanceTo(double tEnd, int maxSteps) {
+        if (tEnd < tOut) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + tOut + " to " + tEnd);
+        }
+        int dim = y.length;
+        int attempts = 0;
+        double[] k1 = solver.firstStage(dim);
+        ODEFunction f = counted;
+        long started = stats != null ? stats.started() : 0;
+
+        while (t < tEnd) {
+            if (attempts++ >= maxSteps) {
+                return stopAtFront(started);
+            }
+
+            double h = Math.min(stepSize, maxStepSize);
+
+            if (!firstStageValid) {
+                f.evaluate(t, y, k1);
+                firstStageValid = true;
+            }
+            solver.stepFromFirstStage(f, t, y, h, yNext, err);
+            double e = errorNorm();
+
+            if (e <= 1.0) {
+                interpolator.begin(t, y, k1);
+                t += h;
+                double[] swap = y;
+                y = yNext;
+                yNext = swap;
+                acceptedSteps++;
+                if (stats != null) stats.accepted(h, e);
+
+                // the end derivative of the interpolant is the next first stage
+                f.evaluate(t, y, k1);
+                interpolator.end(t, y, k1);
+
+                double scale = e == 0.0
+                        ? MAX_SCALE
+                        : SAFETY_FACTOR * Math.pow(e, -ALPHA) * Math.pow(previousError, BETA);
+                scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+                if (previousRejected) {
+                    scale = Math.min(scale, 1.0);
+                }
+                stepSize = h * scale;
+                previousError = Math.max(e, MIN_ERROR);
+                previousRejected = false;
+            } else {
+                // k1 belongs to (t, y) which did not change, so it stays valid
+                double scale = Double.isNaN(e)
+                        ? MIN_SCALE
+                        : Math.max(MIN_SCALE, SAFETY_FACTOR * Math.pow(e, -0.2));
+                stepSize = h * scale;
+                previousRejected = true;
+                rejectedSteps++;
+                if (stats != null) stats.rejected(h, e);
+
+                if (stepSize <= Math.ulp(t)) {
+                    return stopAtFront(started);
+                }
+            }
+        }
+
+        if (tEnd == t) {
+            System.arraycopy(y, 0, yOut, 0, dim);
+        } else {
+            interpolator.interpolate(tEnd, yOut);
+        }
+        tOut = tEnd;
+        if (stats != null) stats.finished(started);
+        return true;
+    }
+
+    private boolean stopAtFront(long started) {
+        if (stats != null) stats.finished(started);
+        tOut = t;
+        System.arraycopy(y, 0, yOut, 0, y.length);
+        return false;
+    }
+
+    /**
+     * RMS of the local error, each component scaled by absTol + relTol * |y|.
+     * A value of at most 1 means the step is accepted.
+     */
+    private double errorNorm() {
+        double sum = 0.0;
+        for (int j = 0; j < y.length; j++) {
+            double scale = absTol + relTol * Math.max(Math.abs(y[j]), Math.abs(yNext[j]));
+            double ratio = err[j] / scale;
+            sum += ratio * ratio;
+        }
+        return Math.sqrt(sum / y.length);
+    }
+
+    /** Time of the reported state, i.e. the last target reached. */
+    public double getTime() {
+        return tOut;
+    }
+
+    /** Copy of the reported state. */
+    public double[] getState() {
+        return Arrays.copyOf(yOut, yOut.length);
+    }
+
+    /** Step size the next step will try. */
+    public double getStepSize() {
+        return stepSize;
+    }
+
+    /**
+     * Collects counters of the following {@link #advanceTo} calls into stats, null stops;
+     * every call counts as an integration.
+     */
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+        this.counted = stats != null ? stats.count(f) : f;
+    }
+
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    public long getAcceptedSteps() {
+        return acceptedSteps;
+    }
+
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+}
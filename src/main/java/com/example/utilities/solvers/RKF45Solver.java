@@ -2,12 +2,10 @@ package com.example.utilities.solvers;
 
 import com.example.Constants;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.function.BiFunction;
 
-import static com.example.utilities.solvers.ODEUtility.*;
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
 
 /**
  * An RKF45 implementation with adaptive step sizing for improved accuracy.
@@ -24,86 +22,101 @@ public class RKF45Solver implements ODESolver {
     private static final double MIN_SCALE = 0.1;
     private static final double MAX_SCALE = 5.0;
 
-    // Maximum time to integrate (override 'steps' with reasonable t span) that according to
+    // Maximum time to integrate (caps the t span on top of 'steps') that according to
     // experiments done during development does not interfere with the orbital insertion
     private static final double MAX_TIME = 1000.0;
 
+    // Fehlberg stages, propagating the 5th order solution
+    private final RungeKuttaKernel kernel = new RungeKuttaKernel(ButcherTableau.RKF45);
+    private SolverStats stats;
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Integrates until the stop condition holds, {@code steps} steps have been accepted
+     * or MAX_TIME is reached, whichever comes first.
+     */
     @Override
     public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
-                            double initialStepSize, int unusedSteps, BiFunction<Double, double[], Boolean> stopCondition) {
+                            double initialStepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, initialStepSize, steps, stopCondition);
+    }
+
+    /**
+     * Supports dense output: a {@link DenseStepSink} gets a cubic Hermite interpolant for every
+     * accepted step. Its end derivative is the next step's first stage, so it costs no extra
+     * evaluations; the first stage is also kept across rejected steps.
+     */
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double initialStepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateUntil(f, t0, y0, MAX_TIME, initialStepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd instead of MAX_TIME; the last step is shortened to land on it.
+     *
+     * @param steps maximum number of accepted steps, the integration stops early if they run out
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        if (tEnd < t0) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + t0 + " to " + tEnd);
+        }
+        return integrateUntil(f, t0, y0, tEnd, initialStepSize, steps, stopCondition, sink);
+    }
+
+    private double[] integrateUntil(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                    int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
         int dim = y0.length;
-        List<double[]> resultList = new ArrayList<>();
 
         double t = t0;
         double stepSize = Math.min(initialStepSize, MAX_STEP_SIZE);
+        if (t + stepSize > tEnd) {
+            stepSize = tEnd - t;
+        }
         double[] y = Arrays.copyOf(y0, dim);
+        double[] yNext = new double[dim];
+        double[] diff = new double[dim];
+        double[] k1 = firstStage(dim);
+        boolean firstStageValid = false;
+        int accepted = 0;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
 
-        resultList.add(mergeTimeAndState(t, y));
+        if (sink != null) sink.accept(t, y);
 
-        while (t < MAX_TIME) {
+        while (t < tEnd && accepted < steps) {
             if (stopCondition != null && stopCondition.apply(t, y)) {
                 break;
             }
-            double[] k1 = f.apply(t, y);
-            double[] k2 = f.apply(t + 0.25 * stepSize,
-                    addVectors(y, scaleVector(k1, 0.25 * stepSize)));
-
-            double[] k3 = f.apply(t + (3.0 / 8.0) * stepSize,
-                    addVectors(y, addVectors(
-                            scaleVector(k1, (3.0 / 32.0) * stepSize),
-                            scaleVector(k2, (9.0 / 32.0) * stepSize))));
-
-            double[] k4 = f.apply(t + (12.0 / 13.0) * stepSize,
-                    addVectors(y, addVectors(
-                            addVectors(
-                                    scaleVector(k1, (1932.0 / 2197.0) * stepSize),
-                                    scaleVector(k2, (-7200.0 / 2197.0) * stepSize)),
-                            scaleVector(k3, (7296.0 / 2197.0) * stepSize))));
-
-            double[] k5 = f.apply(t + stepSize,
-                    addVectors(y, addVectors(
-                            addVectors(
-                                    addVectors(
-                                            scaleVector(k1, (439.0 / 216.0) * stepSize),
-                                            scaleVector(k2, -8.0 * stepSize)),
-                                    scaleVector(k3, (3680.0 / 513.0) * stepSize)),
-                            scaleVector(k4, (-845.0 / 4104.0) * stepSize))));
-
-            double[] k6 = f.apply(t + 0.5 * stepSize,
-                    addVectors(y, addVectors(
-                            addVectors(
-                                    addVectors(
-                                            addVectors(
-                                                    scaleVector(k1, (-8.0 / 27.0) * stepSize),
-                                                    scaleVector(k2, 2.0 * stepSize)),
-                                            scaleVector(k3, (-3544.0 / 2565.0) * stepSize)),
-                                    scaleVector(k4, (1859.0 / 4104.0) * stepSize)),
-                            scaleVector(k5, (-11.0 / 40.0) * stepSize))));
-
-            double[] yNext4 = new double[dim];
-            for (int j = 0; j < dim; j++) {
-                yNext4[j] = y[j]
-                        + stepSize * ((25.0 / 216.0) * k1[j]
-                        + (1408.0 / 2565.0) * k3[j]
-                        + (2197.0 / 4104.0) * k4[j]
-                        - (1.0 / 5.0) * k5[j]);
-            }
 
-            double[] yNext5 = new double[dim];
-            for (int j = 0; j < dim; j++) {
-                yNext5[j] = y[j]
-                        + stepSize * ((16.0 / 135.0) * k1[j]
-                        + (6656.0 / 12825.0) * k3[j]
-                        + (28561.0 / 56430.0) * k4[j]
-                        - (9.0 / 50.0) * k5[j]
-                        + (2.0 / 55.0) * k6[j]);
+            if (!firstStageValid) {
+                f.evaluate(t, y, k1);
+                firstStageValid = true;
             }
+            stepFromFirstStage(f, t, y, stepSize, yNext, diff);
 
             // -> Error estimate between 5th and 4th order
             double err = 0.0;
             for (int j = 0; j < dim; j++) {
-                double diff = yNext5[j] - yNext4[j];
-                err += diff * diff;
+                err += diff[j] * diff[j];
             }
             err = Math.sqrt(err / dim);
 
@@ -111,7 +124,9 @@ public class RKF45Solver implements ODESolver {
 
 
             double s;
-            if (err < 1e-15) {
+            if (Double.isNaN(err)) {
+                s = MIN_SCALE;
+            } else if (err < 1e-15) {
                 s = MAX_SCALE;
             } else {
                 s = SAFETY_FACTOR * Math.pow(tol / err, 0.25);
@@ -119,32 +134,44 @@ public class RKF45Solver implements ODESolver {
             }
 
             if (err <= tol) {
+                if (dense != null) interpolator.begin(t, y, k1);
 
                 t += stepSize;
-                y = Arrays.copyOf(yNext5, dim);
-                resultList.add(mergeTimeAndState(t, y));
+                double[] swap = y;
+                y = yNext;
+                yNext = swap;
+                firstStageValid = false;
+                accepted++;
+                if (stats != null) stats.accepted(stepSize, err / tol);
+
+                if (dense != null) {
+                    // the end derivative doubles as the first stage of the next step
+                    f.evaluate(t, y, k1);
+                    firstStageValid = true;
+                    interpolator.end(t, y, k1);
+                    dense.acceptStep(interpolator);
+                }
+                if (sink != null) sink.accept(t, y);
+            } else if (stats != null) {
+                stats.rejected(stepSize, err / tol);
             }
 
 
             stepSize = Math.min(stepSize * s, MAX_STEP_SIZE);
 
 
-            if (t + stepSize > MAX_TIME) {
-                stepSize = MAX_TIME - t;
+            if (t + stepSize > tEnd) {
+                stepSize = tEnd - t;
             }
-        }
 
-        return resultList.toArray(new double[0][]);
-    }
+            // the step collapsed (e.g. the solution overflowed), nothing sensible left to do
+            if (stepSize <= Math.ulp(t)) {
+                break;
+            }
+        }
 
-    /**
-     * Combines time and state into one array: [t, y0, y1, ...]
-     */
-    private double[] mergeTimeAndState(double t, double[] y) {
-        double[] result = new double[y.length + 1];
-        result[0] = t;
-        System.arraycopy(y, 0, result, 1, y.length);
-        return result;
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
     }
 
     public static double[] solveStep(
@@ -154,50 +181,51 @@ public class RKF45Solver implements ODESolver {
             double stepSize
     ) {
         double[] result = new double[y.length];
-        double[] k1 = f.apply(t, y);
-        double[] k2 = f.apply(t + 0.25 * stepSize,
-                addVectors(y, scaleVector(k1, 0.25 * stepSize)));
-
-        double[] k3 = f.apply(t + (3.0 / 8.0) * stepSize,
-                addVectors(y, addVectors(
-                        scaleVector(k1, (3.0 / 32.0) * stepSize),
-                        scaleVector(k2, (9.0 / 32.0) * stepSize))));
-
-        double[] k4 = f.apply(t + (12.0 / 13.0) * stepSize,
-                addVectors(y, addVectors(
-                        addVectors(
-                                scaleVector(k1, (1932.0 / 2197.0) * stepSize),
-                                scaleVector(k2, (-7200.0 / 2197.0) * stepSize)),
-                        scaleVector(k3, (7296.0 / 2197.0) * stepSize))));
-
-        double[] k5 = f.apply(t + stepSize,
-                addVectors(y, addVectors(
-                        addVectors(
-                                addVectors(
-                                        scaleVector(k1, (439.0 / 216.0) * stepSize),
-                                        scaleVector(k2, -8.0 * stepSize)),
-                                scaleVector(k3, (3680.0 / 513.0) * stepSize)),
-                        scaleVector(k4, (-845.0 / 4104.0) * stepSize))));
-
-        double[] k6 = f.apply(t + 0.5 * stepSize,
-                addVectors(y, addVectors(
-                        addVectors(
-                                addVectors(
-                                        addVectors(
-                                                scaleVector(k1, (-8.0 / 27.0) * stepSize),
-                                                scaleVector(k2, 2.0 * stepSize)),
-                                        scaleVector(k3, (-3544.0 / 2565.0) * stepSize)),
-                                scaleVector(k4, (1859.0 / 4104.0) * stepSize)),
-                        scaleVector(k5, (-11.0 / 40.0) * stepSize))));
-
-        for (int j = 0; j < y.length; j++) {
-            result[j] = y[j] +
-                    (16.0 / 135.0) * k1[j] * stepSize +
-                    (6656.0 / 12825.0) * k3[j] * stepSize +
-                    (28561.0 / 56430.0) * k4[j] * stepSize -
-                    (9.0 / 50.0) * k5[j] * stepSize +
-                    (2.0 / 55.0) * k6[j] * stepSize;
-        }
+        new RKF45Solver().step(ODEFunction.of(f), t, y, stepSize, result);
         return result;
     }
+
+    /**
+     * Performs one Fehlberg step with the preallocated stage buffers and writes the
+     * 5th order solution into yOut. Allocates nothing once the workspace is sized.
+     *
+     * @param f    primitive derivative
+     * @param t    current time
+     * @param y    current state
+     * @param h    step size
+     * @param yOut receives the 5th order solution, must not be the same array as y
+     * @return RMS norm of the difference between the 5th and 4th order solutions
+     */
+    public double step(ODEFunction f, double t, double[] y, double h, double[] yOut) {
+        int dim = y.length;
+        double[] k1 = firstStage(dim);
+        f.evaluate(t, y, k1);
+        double[] diff = kernel.stages(dim)[1];
+        stepFromFirstStage(f, t, y, h, yOut, diff);
+
+        double err = 0.0;
+        for (int j = 0; j < dim; j++) {
+            err += diff[j] * diff[j];
+        }
+        return Math.sqrt(err / dim);
+    }
+
+    /**
+     * Buffer that {@link #stepFromFirstStage} reads k1 = f(t, y) from. Callers that keep
+     * the first stage valid (e.g. after a rejected step) can skip re-evaluating it.
+     */
+    double[] firstStage(int dim) {
+        return kernel.firstStage(dim);
+    }
+
+    /**
+     * Fehlberg step that expects {@link #firstStage} to already hold f(t, y).
+     * The first stage buffer is left untouched, the other stage buffers are overwritten.
+     *
+     * @param errOut receives the per-component difference between the 5th and 4th order
+     *               solutions; may be the k2 buffer since k2 is not needed by the weights
+     */
+    void stepFromFirstStage(ODEFunction f, double t, double[] y, double h, double[] yOut, double[] errOut) {
+        kernel.stepFromFirstStage(f, t, y, h, yOut, errOut);
+    }
 }
@@ -0,0 +1,275 @@
+package com.example.utilities.solvers;
+
+import com.example.Constants;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Adaptive Rosenbrock-W solver for stiff systems: the L-stable order 2(3) pair of Shampine and
+ * Reichelt (MATLAB's ode23s).
+ *
+ * A step solves three linear systems with W = I - h d J instead of iterating a nonlinear one,
+ * so stiff components only cost accuracy, never stability, and the step size follows the
+ * smooth part of the solution. Being a W-method it stays consistent with an approximate
+ * Jacobian, so a finite difference one is good enough. Each step costs two evaluations of f,
+ * one Jacobian and one LU decomposition of an n x n matrix; the last evaluation is reused as
+ * the first of the next step.
+ *
+ * Not thread-safe: the matrices are reused between calls.
+ */
+public class RosenbrockSolver implements ODESolver {
+
+    private static final double D = 1.0 / (2.0 + Math.sqrt(2.0));
+    private static final double E32 = 6.0 + Math.sqrt(2.0);
+
+    private static final double SAFETY_FACTOR = 0.8;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 5.0;
+
+    private final Jacobian jacobian;
+    private final double absTol;
+    private final double relTol;
+    private final double maxStepSize;
+    private SolverStats stats;
+
+    private final LUDecomposition lu = new LUDecomposition();
+    private double[][] dfdy = new double[0][];
+    private double[][] w = new double[0][];
+    private double[] dfdt = new double[0];
+    private double[] f0 = new double[0];
+    private double[] f1 = new double[0];
+    private double[] f2 = new double[0];
+    private double[] k1 = new double[0];
+    private double[] k2 = new double[0];
+    private double[] k3 = new double[0];
+    private double[] yTemp = new double[0];
+
+    /**
+     * Finite difference Jacobian, {@link Constants#TOLERANCE} as absolute and relative tolerance.
+     */
+    public RosenbrockSolver() {
+        this(null, Constants.TOLERANCE, Constants.TOLERANCE);
+    }
+
+    public RosenbrockSolver(Jacobian jacobian, double absTol, double relTol) {
+        this(jacobian, absTol, relTol, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param jacobian    Jacobian of the f this solver will be given, or null for finite
+     *                    differences of whatever f is passed in
+     * @param absTol      absolute tolerance for every component
+     * @param relTol      relative tolerance for every component
+     * @param maxStepSize upper bound for the step size, Double.POSITIVE_INFINITY for none
+     */
+    public RosenbrockSolver(Jacobian jacobian, double absTol, double relTol, double maxStepSize) {
+        if (absTol < 0 || relTol < 0 || absTol + relTol <= 0) {
+            throw new IllegalArgumentException("Tolerances must be non-negative and not both zero");
+        }
+        if (maxStepSize <= 0) {
+            throw new IllegalArgumentException("Maximum step size must be positive");
+        }
+        this.jacobian = jacobian;
+        this.absTol = absTol;
+        this.relTol = relTol;
+        this.maxStepSize = maxStepSize;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double initialStepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, initialStepSize, steps, stopCondition);
+    }
+
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double initialStepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateTo(f, t0, y0, Double.POSITIVE_INFINITY, initialStepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd; the last step is shortened to land on it.
+     *
+     * @param f               primitive derivative
+     * @param t0              start time
+     * @param y0              initial state (not modified)
+     * @param tEnd            end time, must not lie before t0
+     * @param initialStepSize step size tried first
+     * @param steps           maximum number of accepted steps
+     * @param stopCondition   checked before every step, may be null
+     * @param sink            receives the initial state and every accepted step, may be null
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        if (tEnd < t0) {
+            throw new IllegalArgumentException("Cannot integrate backwards from " + t0 + " to " + tEnd);
+        }
+        SolverStats stats = this.stats;
+        long started = 0;
+        if (stats != null) {
+            f = stats.count(f);
+            started = stats.started();
+        }
+        int n = y0.length;
+        ensure(n);
+        // a finite difference Jacobian evaluates the counted f, so its evaluations show up too
+        Jacobian jac = jacobian != null ? jacobian : Jacobian.finiteDifferences(f);
+
+        double t = t0;
+        double[] y = Arrays.copyOf(y0, n);
+        double[] yNew = new double[n];
+        double h0 = Math.min(initialStepSize, maxStepSize);
+        int accepted = 0;
+
+        DenseStepSink dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+        HermiteInterpolator interpolator = dense != null ? new HermiteInterpolator() : null;
+
+        if (sink != null) sink.accept(t, y);
+        f.evaluate(t, y, f0);
+        boolean jacobianValid = false;
+
+        while (t < tEnd && accepted < steps) {
+            if (stopCondition != null && stopCondition.apply(t, y)) {
+                break;
+            }
+            if (!jacobianValid) {
+                jac.evaluate(t, y, dfdy, dfdt);
+                jacobianValid = true;
+            }
+
+            double h = h0;
+            boolean lastStep = t + h >= tEnd;
+            if (lastStep) {
+                h = tEnd - t;
+            }
+
+            double err = step(f, t, y, h, yNew);
+            if (err <= 1.0) {
+                double tNew = lastStep ? tEnd : t + h;
+                if (dense != null) interpolator.begin(t, y, f0);
+
+                t = tNew;
+                double[] swap = y;
+                y = yNew;
+                yNew = swap;
+                swap = f0;
+                f0 = f2;
+                f2 = swap;
+                accepted++;
+                if (stats != null) stats.accepted(h, err);
+                jacobianValid = false;
+
+                if (dense != null) {
+                    interpolator.end(t, y, f0);
+                    dense.acceptStep(interpolator);
+                }
+                if (sink != null) sink.accept(t, y);
+
+                double scale = err == 0.0 ? MAX_SCALE : SAFETY_FACTOR * Math.pow(err, -1.0 / 3.0);
+                scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+                // a step shortened to hit tEnd says nothing about the step size the problem allows
+                if (!lastStep || h >= h0) {
+                    h0 = Math.min(h * scale, maxStepSize);
+                }
+            } else {
+                if (stats != null) stats.rejected(h, err);
+                // same (t, y), so the Jacobian still holds; only W changes with h
+                double scale = Double.isNaN(err)
+                        ? MIN_SCALE
+                        : Math.max(MIN_SCALE, SAFETY_FACTOR * Math.pow(err, -1.0 / 3.0));
+                h0 = h * scale;
+
+                // the step collapsed (e.g. the solution overflowed), nothing sensible left to do
+                if (h0 <= Math.ulp(t)) {
+                    break;
+                }
+            }
+        }
+
+        if (stats != null) stats.finished(started);
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * One step from (t, y) with f0 = f(t, y) and the Jacobian at (t, y) already in place.
+     * Leaves f(t + h, yNew) in f2.
+     *
+     * @return scaled RMS error norm, acceptable if at most 1; NaN if W is singular
+     */
+    private double step(ODEFunction f, double t, double[] y, double h, double[] yNew) {
+        int n = y.length;
+        double hd = h * D;
+        for (int i = 0; i < n; i++) {
+            double[] row = w[i];
+            double[] jRow = dfdy[i];
+            for (int j = 0; j < n; j++) {
+                row[j] = -hd * jRow[j];
+            }
+            row[i] += 1.0;
+        }
+        if (!lu.decompose(w)) {
+            return Double.NaN;
+        }
+
+        for (int i = 0; i < n; i++) {
+            k1[i] = f0[i] + hd * dfdt[i];
+        }
+        lu.solve(k1);
+
+        for (int i = 0; i < n; i++) {
+            yTemp[i] = y[i] + 0.5 * h * k1[i];
+        }
+        f.evaluate(t + 0.5 * h, yTemp, f1);
+        for (int i = 0; i < n; i++) {
+            k2[i] = f1[i] - k1[i];
+        }
+        lu.solve(k2);
+        for (int i = 0; i < n; i++) {
+            k2[i] += k1[i];
+            yNew[i] = y[i] + h * k2[i];
+        }
+
+        f.evaluate(t + h, yNew, f2);
+        for (int i = 0; i < n; i++) {
+            k3[i] = f2[i] - E32 * (k2[i] - f1[i]) - 2.0 * (k1[i] - f0[i]) + hd * dfdt[i];
+        }
+        lu.solve(k3);
+
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            double err = h / 6.0 * (k1[i] - 2.0 * k2[i] + k3[i]);
+            double scale = absTol + relTol * Math.max(Math.abs(y[i]), Math.abs(yNew[i]));
+            double ratio = err / scale;
+            sum += ratio * ratio;
+        }
+        return Math.sqrt(sum / n);
+    }
+
+    private void ensure(int n) {
+        if (f0.length == n) return;
+        dfdy = new double[n][n];
+        w = new double[n][n];
+        dfdt = new double[n];
+        f0 = new double[n];
+        f1 = new double[n];
+        f2 = new double[n];
+        k1 = new double[n];
+        k2 = new double[n];
+        k3 = new double[n];
+        yTemp = new double[n];
+    }
+}
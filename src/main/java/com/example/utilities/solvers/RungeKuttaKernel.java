@@ -0,0 +1,90 @@
+package com.example.utilities.solvers;
+
+/**
+ * The stage loop shared by all explicit Runge-Kutta solvers. Each stage is one pass over the
+ * state that sums the (nonzero) tableau coefficients times the earlier stages straight into
+ * the intermediate state, and the solution and error estimate are formed in one final pass.
+ * Nothing is allocated once the workspace fits the state dimension.
+ *
+ * Not thread-safe, see {@link StageWorkspace}.
+ */
+final class RungeKuttaKernel {
+
+    private final ButcherTableau tableau;
+    private final StageWorkspace workspace;
+
+    RungeKuttaKernel(ButcherTableau tableau) {
+        this.tableau = tableau;
+        this.workspace = new StageWorkspace(tableau.getStages());
+    }
+
+    ButcherTableau getTableau() {
+        return tableau;
+    }
+
+    /** Stage buffers; k[0] is the first stage, k[stages - 1] the last. */
+    double[][] stages(int dim) {
+        workspace.ensure(dim);
+        return workspace.k;
+    }
+
+    /** Buffer that {@link #stepFromFirstStage} reads k1 = f(t, y) from. */
+    double[] firstStage(int dim) {
+        workspace.ensure(dim);
+        return workspace.k[0];
+    }
+
+    /**
+     * One step that expects the first stage buffer to already hold f(t, y). The first stage
+     * is left untouched; for an FSAL tableau the last stage afterwards holds f(t + h, yOut).
+     *
+     * @param yOut   receives the propagated solution, may be the same array as y
+     * @param errOut receives h * sum (b - bHat) k per component, may be null; it may also be a
+     *               stage buffer whose weights are all zero
+     */
+    void stepFromFirstStage(ODEFunction f, double t, double[] y, double h, double[] yOut, double[] errOut) {
+        int dim = y.length;
+        workspace.ensure(dim);
+        double[][] k = workspace.k;
+        double[] yTemp = workspace.yTemp;
+        int last = tableau.getStages() - 1;
+
+        for (int s = 1; s <= last; s++) {
+            int[] idx = tableau.stageIndex[s];
+            double[] a = tableau.stageCoefficient[s];
+            for (int j = 0; j < dim; j++) {
+                double sum = 0.0;
+                for (int m = 0; m < idx.length; m++) {
+                    sum += a[m] * k[idx[m]][j];
+                }
+                yTemp[j] = y[j] + h * sum;
+            }
+            f.evaluate(t + tableau.node(s) * h, yTemp, k[s]);
+        }
+
+        // the last stage of an FSAL tableau was evaluated at the solution itself
+        boolean fsal = tableau.isFsal();
+        int[] bIdx = tableau.weightIndex;
+        double[] b = tableau.weightCoefficient;
+        int[] eIdx = tableau.errorIndex;
+        double[] e = tableau.errorCoefficient;
+        for (int j = 0; j < dim; j++) {
+            double sum = 0.0;
+            for (int m = 0; m < eIdx.length; m++) {
+                sum += e[m] * k[eIdx[m]][j];
+            }
+            double err = h * sum;
+
+            if (fsal) {
+                yOut[j] = yTemp[j];
+            } else {
+                double weighted = 0.0;
+                for (int m = 0; m < bIdx.length; m++) {
+                    weighted += b[m] * k[bIdx[m]][j];
+                }
+                yOut[j] = y[j] + h * weighted;
+            }
+            if (errOut != null) errOut[j] = err;
+        }
+    }
+}
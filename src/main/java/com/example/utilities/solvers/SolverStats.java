@@ -0,0 +1,213 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Counters of what a solver did: derivative evaluations, accepted and rejected steps, step sizes,
+ * error norms and wall time.
+ *
+ * A solver only collects them after {@link ODESolver#setStats}; without stats it pays one null
+ * check per step. The evaluations are counted by wrapping f ({@link #count}), everything else by
+ * the solver's step loop. Error norms are scaled so that the solver accepts a step at 1 or less.
+ *
+ * Filling one instance is not thread-safe, so give every solver its own and {@link #add} them
+ * into a shared total, e.g. across the individuals of a genetic algorithm.
+ */
+public final class SolverStats {
+
+    /** Step size buckets are powers of two from 2^MIN_STEP_EXPONENT up. */
+    static final int MIN_STEP_EXPONENT = -40;
+    static final int STEP_BUCKETS = 64;
+    /** Error norm buckets are decades from 10^MIN_ERROR_DECADE up; zero goes into the first. */
+    static final int MIN_ERROR_DECADE = -12;
+    static final int ERROR_BUCKETS = 16;
+
+    private long evaluations;
+    private long accepted;
+    private long rejected;
+    private long integrations;
+    private long nanos;
+    private double minStep = Double.POSITIVE_INFINITY;
+    private double maxStep = 0.0;
+    private final long[] stepHistogram = new long[STEP_BUCKETS];
+    private final long[] errorHistogram = new long[ERROR_BUCKETS];
+    private long nonFiniteErrors;
+
+    /** Wraps f so that every evaluation is counted. */
+    public ODEFunction count(ODEFunction f) {
+        return (t, y, dydt) -> {
+            evaluations++;
+            f.evaluate(t, y, dydt);
+        };
+    }
+
+    /** Start of an integration; pass the result to {@link #finished}. */
+    public long started() {
+        integrations++;
+        return System.nanoTime();
+    }
+
+    public void finished(long startNanos) {
+        nanos += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @param h         size of the step
+     * @param errorNorm error relative to the acceptance threshold, NaN for fixed step solvers
+     */
+    public void accepted(double h, double errorNorm) {
+        accepted++;
+        minStep = Math.min(minStep, h);
+        maxStep = Math.max(maxStep, h);
+        stepHistogram[stepBucket(h)]++;
+        recordError(errorNorm);
+    }
+
+    public void rejected(double h, double errorNorm) {
+        rejected++;
+        recordError(errorNorm);
+    }
+
+    /** Adds evaluations made outside a counted f, e.g. by a finite difference Jacobian. */
+    public void addEvaluations(long count) {
+        evaluations += count;
+    }
+
+    private void recordError(double errorNorm) {
+        if (errorNorm != errorNorm) {
+            // NaN: fixed step solvers have no estimate
+            return;
+        }
+        if (Double.isInfinite(errorNorm)) {
+            nonFiniteErrors++;
+            return;
+        }
+        int bucket = errorNorm <= 0.0 ? 0 : (int) Math.floor(Math.log10(errorNorm)) - MIN_ERROR_DECADE;
+        errorHistogram[Math.max(0, Math.min(ERROR_BUCKETS - 1, bucket))]++;
+    }
+
+    static int stepBucket(double h) {
+        int bucket = Math.getExponent(h) - MIN_STEP_EXPONENT;
+        return Math.max(0, Math.min(STEP_BUCKETS - 1, bucket));
+    }
+
+    /** Adds the counters of another instance, which must not be filled at the same time. */
+    public synchronized void add(SolverStats other) {
+        evaluations += other.evaluations;
+        accepted += other.accepted;
+        rejected += other.rejected;
+        integrations += other.integrations;
+        nanos += other.nanos;
+        minStep = Math.min(minStep, other.minStep);
+        maxStep = Math.max(maxStep, other.maxStep);
+        for (int i = 0; i < STEP_BUCKETS; i++) {
+            stepHistogram[i] += other.stepHistogram[i];
+        }
+        for (int i = 0; i < ERROR_BUCKETS; i++) {
+            errorHistogram[i] += other.errorHistogram[i];
+        }
+        nonFiniteErrors += other.nonFiniteErrors;
+    }
+
+    public synchronized void reset() {
+        evaluations = accepted = rejected = integrations = nanos = nonFiniteErrors = 0;
+        minStep = Double.POSITIVE_INFINITY;
+        maxStep = 0.0;
+        Arrays.fill(stepHistogram, 0);
+        Arrays.fill(errorHistogram, 0);
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getAcceptedSteps() {
+        return accepted;
+    }
+
+    public long getRejectedSteps() {
+        return rejected;
+    }
+
+    public long getIntegrations() {
+        return integrations;
+    }
+
+    /** Accepted steps over attempted steps, 1 when nothing was attempted. */
+    public double getAcceptanceRate() {
+        long attempted = accepted + rejected;
+        return attempted == 0 ? 1.0 : (double) accepted / attempted;
+    }
+
+    public double getEvaluationsPerStep() {
+        return accepted == 0 ? 0.0 : (double) evaluations / accepted;
+    }
+
+    /** Smallest accepted step, NaN if there was none. */
+    public double getMinStepSize() {
+        return accepted == 0 ? Double.NaN : minStep;
+    }
+
+    /** Largest accepted step, NaN if there was none. */
+    public double getMaxStepSize() {
+        return accepted == 0 ? Double.NaN : maxStep;
+    }
+
+    /** Wall time of all integrations, including time spent in the sinks. */
+    public double getWallTimeSeconds() {
+        return nanos * 1e-9;
+    }
+
+    /** Wall time per accepted step in microseconds. */
+    public double getMicrosPerStep() {
+        return accepted == 0 ? 0.0 : nanos * 1e-3 / accepted;
+    }
+
+    /** Accepted steps per power of two of the step size, see {@link #getStepBucketLowerBound}. */
+    public long[] getStepHistogram() {
+        return stepHistogram.clone();
+    }
+
+    public static double getStepBucketLowerBound(int bucket) {
+        return Math.scalb(1.0, bucket + MIN_STEP_EXPONENT);
+    }
+
+    /** Attempted steps per decade of the error norm, see {@link #getErrorBucketLowerBound}. */
+    public long[] getErrorHistogram() {
+        return errorHistogram.clone();
+    }
+
+    public static double getErrorBucketLowerBound(int bucket) {
+        return Math.pow(10.0, bucket + MIN_ERROR_DECADE);
+    }
+
+    /** One line for status bars and logs. */
+    public String summary() {
+        return String.format("%d steps (%d rejected), %d evaluations, h in [%.3g, %.3g], %.2f us/step",
+                accepted, rejected, evaluations, getMinStepSize(), getMaxStepSize(), getMicrosPerStep());
+    }
+
+    /** Summary followed by the non-empty histogram buckets. */
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder(summary());
+        text.append(String.format("%n  %d integrations, %.3f s, acceptance %.1f %%, %.2f evaluations/step",
+                integrations, getWallTimeSeconds(), 100 * getAcceptanceRate(), getEvaluationsPerStep()));
+        text.append(String.format("%n  step size:"));
+        appendHistogram(text, stepHistogram, true);
+        text.append(String.format("%n  error norm:"));
+        appendHistogram(text, errorHistogram, false);
+        if (nonFiniteErrors > 0) {
+            text.append(" non-finite ").append(nonFiniteErrors);
+        }
+        return text.toString();
+    }
+
+    private static void appendHistogram(StringBuilder text, long[] histogram, boolean steps) {
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == 0) continue;
+            double lower = steps ? getStepBucketLowerBound(i) : getErrorBucketLowerBound(i);
+            text.append(String.format(" [%.0e..) %d", lower, histogram[i]));
+        }
+    }
+}
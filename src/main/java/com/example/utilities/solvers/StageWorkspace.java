@@ -0,0 +1,35 @@
+package com.example.utilities.solvers;
+
+/**
+ * Preallocated scratch buffers for the stages of a Runge-Kutta step.
+ * A solver keeps one workspace and only reallocates when the state dimension changes,
+ * so repeated steps on the same system reuse the same arrays.
+ *
+ * Not thread-safe: a solver instance (and therefore its workspace) must not be shared
+ * between threads that integrate at the same time.
+ */
+final class StageWorkspace {
+
+    private final int stages;
+    private int dim = -1;
+
+    /** Stage derivatives k[0..stages-1], each of length dim. */
+    double[][] k;
+
+    /** Intermediate state used to evaluate the next stage. */
+    double[] yTemp;
+
+    StageWorkspace(int stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * Makes sure the buffers fit a state of the given dimension.
+     */
+    void ensure(int dim) {
+        if (this.dim == dim) return;
+        this.dim = dim;
+        this.k = new double[stages][dim];
+        this.yTemp = new double[dim];
+    }
+}
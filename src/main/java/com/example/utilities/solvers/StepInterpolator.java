@@ -0,0 +1,25 @@
+package com.example.utilities.solvers;
+
+/**
+ * Continuous approximation of the solution over one accepted step, so the state can be
+ * sampled at any time inside the step without evaluating the derivative again.
+ *
+ * Only valid during the {@link DenseStepSink#acceptStep} call it was passed to;
+ * the solver reuses the instance for the next step.
+ */
+public interface StepInterpolator {
+
+    /** Start of the step. */
+    double getPreviousTime();
+
+    /** End of the step, i.e. the time of the newly accepted state. */
+    double getCurrentTime();
+
+    /**
+     * Writes the interpolated state at time t into yOut.
+     *
+     * @param t    time between {@link #getPreviousTime()} and {@link #getCurrentTime()}
+     * @param yOut receives the state, must have the state dimension
+     */
+    void interpolate(double t, double[] yOut);
+}
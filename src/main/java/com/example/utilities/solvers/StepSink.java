@@ -0,0 +1,41 @@
+package com.example.utilities.solvers;
+
+/**
+ * Receives the solution of an integration one step at a time instead of as a
+ * materialized (steps + 1) x (dim + 1) matrix.
+ *
+ * Solvers call the sink once for the initial state and then once after every accepted step
+ * (rejected trial steps of the adaptive solvers are never reported). The state array is the
+ * solver's working buffer: a sink that wants to keep values has to copy them.
+ */
+@FunctionalInterface
+public interface StepSink {
+
+    void accept(double t, double[] y);
+
+    /**
+     * Decimates a sink so that only every n-th reported step reaches it.
+     * The initial state is always forwarded.
+     *
+     * @param n          keep one step out of n, must be positive
+     * @param downstream sink that receives the kept steps
+     */
+    static StepSink everyNth(int n, StepSink downstream) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Decimation factor must be positive, got " + n);
+        }
+        if (n == 1) {
+            return downstream;
+        }
+        return new StepSink() {
+            private long count = 0;
+
+            @Override
+            public void accept(double t, double[] y) {
+                if (count++ % n == 0) {
+                    downstream.accept(t, y);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.utilities.solvers;
+
+import com.example.Constants;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static com.example.utilities.solvers.ODEUtility.mergeTimeAndState;
+
+/**
+ * Adaptive solver that runs Dormand–Prince while the problem is non-stiff and switches to
+ * {@link RosenbrockSolver} when it becomes stiff, and back again.
+ *
+ * Every {@link #CHECK_INTERVAL} accepted steps the spectral radius rho of the Jacobian is
+ * estimated by power iteration and compared with the step size in use. An explicit method whose
+ * steps sit at its stability boundary (h rho near 3.3 for Dormand–Prince) is limited by
+ * stability rather than accuracy, which is what stiffness means in practice; after
+ * {@link #CONFIRMATIONS} such checks in a row the integration continues with the Rosenbrock
+ * method. When the Rosenbrock steps become small enough that Dormand–Prince would be stable
+ * with them, the cheaper explicit method takes over again.
+ *
+ * Not thread-safe: the underlying solvers reuse their buffers.
+ */
+public class StiffnessSwitchingSolver implements ODESolver {
+
+    static final int CHECK_INTERVAL = 10;
+    static final int CONFIRMATIONS = 3;
+
+    /** Stability boundary of Dormand–Prince 5(4) on the negative real axis. */
+    private static final double STABILITY_BOUNDARY = 3.3;
+    private static final double STIFF_THRESHOLD = 0.8 * STABILITY_BOUNDARY;
+    private static final double NON_STIFF_THRESHOLD = 0.5 * STABILITY_BOUNDARY;
+
+    private static final int POWER_ITERATIONS = 12;
+
+    private final Jacobian jacobian;
+    private final ExplicitRungeKuttaSolver explicit;
+    private final RosenbrockSolver implicit;
+
+    private SolverStats stats;
+    private int switches;
+    private boolean stiff;
+
+    /**
+     * Finite difference Jacobian, {@link Constants#TOLERANCE} as absolute and relative tolerance.
+     */
+    public StiffnessSwitchingSolver() {
+        this(null, Constants.TOLERANCE, Constants.TOLERANCE);
+    }
+
+    /**
+     * @param jacobian Jacobian of the f this solver will be given, or null for finite differences
+     * @param absTol   absolute tolerance for every component
+     * @param relTol   relative tolerance for every component
+     */
+    public StiffnessSwitchingSolver(Jacobian jacobian, double absTol, double relTol) {
+        this.jacobian = jacobian;
+        this.explicit = new ExplicitRungeKuttaSolver(ButcherTableau.DOPRI5, absTol, relTol, Double.POSITIVE_INFINITY);
+        this.implicit = new RosenbrockSolver(jacobian, absTol, relTol);
+    }
+
+    /**
+     * Both methods report into stats; every segment between two switches counts as an
+     * integration there.
+     */
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+        explicit.setStats(stats);
+        implicit.setStats(stats);
+    }
+
+    @Override
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    /** Number of method switches in the last integration. */
+    public int getSwitches() {
+        return switches;
+    }
+
+    /** Whether the last integration ended with the stiff method. */
+    public boolean isStiff() {
+        return stiff;
+    }
+
+    @Override
+    public double[][] solve(BiFunction<Double, double[], double[]> f, double t0, double[] y0,
+                            double initialStepSize, int steps, BiFunction<Double, double[], Boolean> stopCondition) {
+        return solve(ODEFunction.of(f), t0, y0, initialStepSize, steps, stopCondition);
+    }
+
+    @Override
+    public double[] integrate(ODEFunction f, double t0, double[] y0, double initialStepSize, int steps,
+                              BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        return integrateTo(f, t0, y0, Double.POSITIVE_INFINITY, initialStepSize, steps, stopCondition, sink);
+    }
+
+    /**
+     * Integrates up to exactly tEnd; the last step is shortened to land on it.
+     *
+     * @param f               primitive derivative
+     * @param t0              start time
+     * @param y0              initial state (not modified)
+     * @param tEnd            end time, must not lie before t0
+     * @param initialStepSize step size tried first
+     * @param steps           maximum number of accepted steps, over both methods
+     * @param stopCondition   checked before every step, may be null
+     * @param sink            receives the initial state and every accepted step, may be null
+     * @return the final row [t, y0, y1, ...]
+     */
+    public double[] integrateTo(ODEFunction f, double t0, double[] y0, double tEnd, double initialStepSize,
+                                int steps, BiFunction<Double, double[], Boolean> stopCondition, StepSink sink) {
+        // the methods count their own evaluations, the stiffness checks' are counted here
+        Jacobian checkJacobian = jacobian != null ? jacobian
+                : Jacobian.finiteDifferences(stats != null ? stats.count(f) : f);
+        Detector detector = new Detector(checkJacobian, y0.length, sink);
+        BiFunction<Double, double[], Boolean> stop = (t, y) -> detector.switchRequested
+                || (stopCondition != null && stopCondition.apply(t, y));
+
+        double t = t0;
+        double[] y = Arrays.copyOf(y0, y0.length);
+        double h = initialStepSize;
+        switches = 0;
+        stiff = false;
+
+        while (true) {
+            detector.start(stiff, t, h);
+            double[] last = stiff
+                    ? implicit.integrateTo(f, t, y, tEnd, h, steps - detector.accepted, stop, detector)
+                    : explicit.integrateTo(f, t, y, tEnd, h, steps - detector.accepted, stop, detector);
+            t = last[0];
+            System.arraycopy(last, 1, y, 0, y.length);
+
+            if (!detector.switchRequested || t >= tEnd || detector.accepted >= steps) {
+                break;
+            }
+            stiff = !stiff;
+            switches++;
+            h = detector.lastStepSize;
+        }
+        return mergeTimeAndState(t, y);
+    }
+
+    /**
+     * Watches the accepted steps of one method, forwards them to the caller's sink and asks
+     * for a switch once the stiffness checks agree.
+     */
+    private static final class Detector implements DenseStepSink {
+        private final Jacobian jacobian;
+        private final StepSink sink;
+        private final DenseStepSink dense;
+        private final double[][] dfdy;
+        private final double[] v;
+        private final double[] jv;
+
+        int accepted;
+        boolean switchRequested;
+        double lastStepSize;
+
+        private boolean stiff;
+        private boolean first = true;
+        private boolean segmentStart;
+        private double tPrevious;
+        private int sinceCheck;
+        private double largestStep;
+        private int votes;
+
+        Detector(Jacobian jacobian, int n, StepSink sink) {
+            this.jacobian = jacobian;
+            this.sink = sink;
+            this.dense = sink instanceof DenseStepSink ? (DenseStepSink) sink : null;
+            this.dfdy = new double[n][n];
+            this.v = new double[n];
+            this.jv = new double[n];
+        }
+
+        void start(boolean stiff, double t, double h) {
+            this.stiff = stiff;
+            this.switchRequested = false;
+            this.segmentStart = true;
+            this.tPrevious = t;
+            this.lastStepSize = h;
+            this.sinceCheck = 0;
+            this.largestStep = 0.0;
+            this.votes = 0;
+        }
+
+        @Override
+        public void accept(double t, double[] y) {
+            if (segmentStart) {
+                // every method reports its start; after a switch that row was already passed on
+                segmentStart = false;
+                if (first && sink != null) sink.accept(t, y);
+                first = false;
+                return;
+            }
+            accepted++;
+            lastStepSize = t - tPrevious;
+            tPrevious = t;
+            if (sink != null) sink.accept(t, y);
+
+            // at its stability boundary the step size controller oscillates, so use the largest step
+            largestStep = Math.max(largestStep, lastStepSize);
+            if (++sinceCheck < CHECK_INTERVAL) return;
+            double stiffness = largestStep * spectralRadius(t, y);
+            sinceCheck = 0;
+            largestStep = 0.0;
+            boolean vote = stiff ? stiffness < NON_STIFF_THRESHOLD : stiffness > STIFF_THRESHOLD;
+            votes = vote ? votes + 1 : 0;
+            if (votes >= CONFIRMATIONS) {
+                switchRequested = true;
+            }
+        }
+
+        @Override
+        public void acceptStep(StepInterpolator interpolator) {
+            if (dense != null) dense.acceptStep(interpolator);
+        }
+
+        /** Power iteration on the Jacobian; the growth rate of |J^k v| tends to the spectral radius. */
+        private double spectralRadius(double t, double[] y) {
+            int n = y.length;
+            jacobian.evaluate(t, y, dfdy, null);
+            // not a multiple of an eigenvector of the usual triangular or diagonal Jacobians
+            for (int i = 0; i < n; i++) {
+                v[i] = 1.0 + 0.1 * i;
+            }
+            normalize(v);
+
+            double logGrowth = 0.0;
+            int counted = 0;
+            for (int k = 0; k < POWER_ITERATIONS; k++) {
+                for (int i = 0; i < n; i++) {
+                    double sum = 0.0;
+                    double[] row = dfdy[i];
+                    for (int j = 0; j < n; j++) {
+                        sum += row[j] * v[j];
+                    }
+                    jv[i] = sum;
+                }
+                double norm = normalize(jv);
+                if (norm == 0.0 || !Double.isFinite(norm)) {
+                    return norm == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+                }
+                System.arraycopy(jv, 0, v, 0, n);
+                // the first iterations mostly remove the other eigenvectors
+                if (k >= POWER_ITERATIONS / 2) {
+                    logGrowth += Math.log(norm);
+                    counted++;
+                }
+            }
+            return Math.exp(logGrowth / counted);
+        }
+
+        private static double normalize(double[] x) {
+            double sum = 0.0;
+            for (double value : x) {
+                sum += value * value;
+            }
+            double norm = Math.sqrt(sum);
+            if (norm > 0.0 && Double.isFinite(norm)) {
+                for (int i = 0; i < x.length; i++) {
+                    x[i] /= norm;
+                }
+            }
+            return norm;
+        }
+    }
+}
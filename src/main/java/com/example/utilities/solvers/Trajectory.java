@@ -0,0 +1,336 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Read-only index over a solution [t, y0, y1, ...] for repeated queries.
+ *
+ * Times are found by binary search and values between samples come from the cubic Hermite
+ * interpolant through the neighbouring samples, so a query at any time costs O(log n) instead of
+ * a scan that only hits when the time matches a sample. The derivatives at the samples are
+ * either evaluated with the system's f (the same interpolant the solvers use for dense output)
+ * or, without f, estimated from the neighbouring samples. Per-component segment trees answer
+ * minimum and maximum over a time range in O(log n).
+ *
+ * The times must not decrease, as when a solver reports its steps.
+ */
+public final class Trajectory {
+
+    private static final int MAX_ROOT_ITERATIONS = 60;
+
+    private final int rows;
+    private final int dim;
+    private final double[] times;
+    // column-major: values[component][row]
+    private final double[][] values;
+    private final double[][] slopes;
+    // segment trees over the rows, leaves at [rows, 2 rows)
+    private final double[][] maxTree;
+    private final double[][] minTree;
+
+    /**
+     * Samples from the rows, derivatives estimated from neighbouring samples.
+     *
+     * @param solution rows [t, y0, y1, ...], at least one
+     */
+    public Trajectory(double[][] solution) {
+        this(solution, null);
+    }
+
+    /**
+     * @param solution rows [t, y0, y1, ...], at least one
+     * @param f        the system that produced them, for exact derivatives; may be null
+     */
+    public Trajectory(double[][] solution, ODEFunction f) {
+        this(solution.length, solution.length == 0 ? 0 : solution[0].length - 1,
+                (row, component) -> component < 0 ? solution[row][0] : solution[row][component + 1], f);
+    }
+
+    public Trajectory(TrajectoryRecorder recorder) {
+        this(recorder, null);
+    }
+
+    public Trajectory(TrajectoryRecorder recorder, ODEFunction f) {
+        this(recorder.size(), recorder.dimension(),
+                (row, component) -> component < 0 ? recorder.getTime(row) : recorder.get(row, component), f);
+    }
+
+    /** Access to the source rows; component -1 is the time. */
+    private interface Source {
+        double get(int row, int component);
+    }
+
+    private Trajectory(int rows, int dim, Source source, ODEFunction f) {
+        if (rows == 0) {
+            throw new IllegalArgumentException("A trajectory needs at least one row");
+        }
+        this.rows = rows;
+        this.dim = dim;
+        this.times = new double[rows];
+        this.values = new double[dim][rows];
+        for (int i = 0; i < rows; i++) {
+            times[i] = source.get(i, -1);
+            if (i > 0 && times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("Times decrease at row " + i);
+            }
+            for (int j = 0; j < dim; j++) {
+                values[j][i] = source.get(i, j);
+            }
+        }
+
+        this.slopes = new double[dim][rows];
+        if (f != null) {
+            double[] y = new double[dim];
+            double[] dydt = new double[dim];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < dim; j++) {
+                    y[j] = values[j][i];
+                }
+                f.evaluate(times[i], y, dydt);
+                for (int j = 0; j < dim; j++) {
+                    slopes[j][i] = dydt[j];
+                }
+            }
+        } else {
+            for (int j = 0; j < dim; j++) {
+                estimateSlopes(values[j], slopes[j]);
+            }
+        }
+
+        this.maxTree = new double[dim][];
+        this.minTree = new double[dim][];
+        for (int j = 0; j < dim; j++) {
+            maxTree[j] = buildTree(values[j], true);
+            minTree[j] = buildTree(values[j], false);
+        }
+    }
+
+    /**
+     * Derivative of the parabola through each sample and its neighbours, one-sided at the ends
+     * (and next to repeated times).
+     */
+    private void estimateSlopes(double[] y, double[] slope) {
+        if (rows == 1) return;
+        for (int i = 0; i < rows; i++) {
+            double h0 = i > 0 ? times[i] - times[i - 1] : 0.0;
+            double h1 = i < rows - 1 ? times[i + 1] - times[i] : 0.0;
+            double s0 = h0 > 0 ? (y[i] - y[i - 1]) / h0 : 0.0;
+            double s1 = h1 > 0 ? (y[i + 1] - y[i]) / h1 : 0.0;
+            if (h0 > 0 && h1 > 0) {
+                slope[i] = (h1 * s0 + h0 * s1) / (h0 + h1);
+            } else {
+                slope[i] = h0 > 0 ? s0 : s1;
+            }
+        }
+    }
+
+    private double[] buildTree(double[] column, boolean max) {
+        double[] tree = new double[2 * rows];
+        System.arraycopy(column, 0, tree, rows, rows);
+        for (int i = rows - 1; i > 0; i--) {
+            tree[i] = max ? Math.max(tree[2 * i], tree[2 * i + 1]) : Math.min(tree[2 * i], tree[2 * i + 1]);
+        }
+        return tree;
+    }
+
+    /** Extreme of rows [from, to) of a tree. */
+    private double queryTree(double[] tree, int from, int to, boolean max) {
+        double result = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int l = from + rows, r = to + rows; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = max ? Math.max(result, tree[l]) : Math.min(result, tree[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                result = max ? Math.max(result, tree[r]) : Math.min(result, tree[r]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public int dimension() {
+        return dim;
+    }
+
+    public double getStartTime() {
+        return times[0];
+    }
+
+    public double getEndTime() {
+        return times[rows - 1];
+    }
+
+    public double getTime(int row) {
+        return times[row];
+    }
+
+    public double get(int row, int component) {
+        return values[component][row];
+    }
+
+    /**
+     * Last row whose time is at most t, by binary search.
+     *
+     * @return -1 if t lies before the first row
+     */
+    public int floorRow(double t) {
+        int low = 0;
+        int high = rows - 1;
+        if (t < times[0]) return -1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (times[mid] <= t) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Interpolated state at time t.
+     *
+     * @throws IllegalArgumentException if t lies outside the trajectory
+     */
+    public double[] valueAt(double t) {
+        double[] y = new double[dim];
+        valueAt(t, y);
+        return y;
+    }
+
+    /** Writes the interpolated state at time t into y. */
+    public void valueAt(double t, double[] y) {
+        int row = segment(t);
+        for (int j = 0; j < dim; j++) {
+            y[j] = interpolate(row, j, t);
+        }
+    }
+
+    /** Interpolated value of one component at time t. */
+    public double valueAt(double t, int component) {
+        return interpolate(segment(t), component, t);
+    }
+
+    /** Largest sample of a component. */
+    public double max(int component) {
+        return maxTree[component][1];
+    }
+
+    /** Smallest sample of a component. */
+    public double min(int component) {
+        return minTree[component][1];
+    }
+
+    /**
+     * Largest value of a component over [from, to]: the samples inside the range and the
+     * interpolated values at both ends.
+     */
+    public double max(int component, double from, double to) {
+        return extreme(component, from, to, true);
+    }
+
+    /** Smallest value of a component over [from, to], see {@link #max(int, double, double)}. */
+    public double min(int component, double from, double to) {
+        return extreme(component, from, to, false);
+    }
+
+    private double extreme(int component, double from, double to, boolean max) {
+        if (to < from) {
+            throw new IllegalArgumentException("Empty range [" + from + ", " + to + "]");
+        }
+        double a = valueAt(from, component);
+        double b = valueAt(to, component);
+        double result = max ? Math.max(a, b) : Math.min(a, b);
+        // rows strictly after from up to and including to
+        int first = floorRow(from) + 1;
+        int last = floorRow(to) + 1;
+        if (first < last) {
+            double inside = queryTree(max ? maxTree[component] : minTree[component], first, last, max);
+            result = max ? Math.max(result, inside) : Math.min(result, inside);
+        }
+        return result;
+    }
+
+    /**
+     * Times at which a component crosses or touches zero: samples that are exactly zero, and
+     * between samples of opposite sign the root of the interpolant.
+     */
+    public double[] zeroCrossings(int component) {
+        double[] y = values[component];
+        double[] crossings = new double[8];
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            double root = Double.NaN;
+            if (y[i] == 0.0) {
+                root = times[i];
+            } else if (i + 1 < rows && y[i + 1] != 0.0 && (y[i] < 0.0) != (y[i + 1] < 0.0)) {
+                root = findRoot(i, component);
+            }
+            if (Double.isNaN(root) || (count > 0 && crossings[count - 1] == root)) continue;
+            if (count == crossings.length) {
+                crossings = Arrays.copyOf(crossings, 2 * count);
+            }
+            crossings[count++] = root;
+        }
+        return Arrays.copyOf(crossings, count);
+    }
+
+    /** Root of the interpolant on [t_i, t_i+1] by the Illinois variant of regula falsi. */
+    private double findRoot(int i, int component) {
+        double a = times[i];
+        double b = times[i + 1];
+        double fa = values[component][i];
+        double fb = values[component][i + 1];
+        int side = 0;
+        for (int k = 0; k < MAX_ROOT_ITERATIONS && b - a > 4 * Math.ulp(b); k++) {
+            double c = (a * fb - b * fa) / (fb - fa);
+            double fc = interpolate(i, component, c);
+            if (fc == 0.0) return c;
+            if ((fc < 0.0) == (fb < 0.0)) {
+                b = c;
+                fb = fc;
+                if (side == -1) fa *= 0.5;
+                side = -1;
+            } else {
+                a = c;
+                fa = fc;
+                if (side == 1) fb *= 0.5;
+                side = 1;
+            }
+            if (Math.abs(fc) <= 1e-15 * (Math.abs(values[component][i]) + Math.abs(values[component][i + 1]))) {
+                return c;
+            }
+        }
+        return (a * fb - b * fa) / (fb - fa);
+    }
+
+    /** Row starting the segment that contains t. */
+    private int segment(double t) {
+        if (!(t >= times[0] && t <= times[rows - 1])) {
+            throw new IllegalArgumentException("Time " + t + " lies outside [" + times[0] + ", "
+                    + times[rows - 1] + "]");
+        }
+        return Math.min(floorRow(t), Math.max(0, rows - 2));
+    }
+
+    private double interpolate(int row, int component, double t) {
+        if (rows == 1) return values[component][0];
+        double t0 = times[row];
+        double h = times[row + 1] - t0;
+        double y0 = values[component][row];
+        double y1 = values[component][row + 1];
+        if (h == 0) return y1;
+        double theta = (t - t0) / h;
+        double oneMinus = 1.0 - theta;
+        return (1.0 + 2.0 * theta) * oneMinus * oneMinus * y0
+                + theta * oneMinus * oneMinus * h * slopes[component][row]
+                + theta * theta * (3.0 - 2.0 * theta) * y1
+                - theta * theta * oneMinus * h * slopes[component][row + 1];
+    }
+}
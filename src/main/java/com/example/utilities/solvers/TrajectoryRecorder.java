@@ -0,0 +1,125 @@
+package com.example.utilities.solvers;
+
+import java.util.Arrays;
+
+/**
+ * StepSink that stores the reported steps in one flat, growable primitive buffer.
+ * Memory grows with the number of steps that were actually taken, not with the
+ * step budget that was passed to the solver.
+ *
+ * Rows use the same layout as the matrix returned by {@link ODESolver#solve}: [t, y0, y1, ...].
+ */
+public class TrajectoryRecorder implements StepSink {
+
+    private static final int INITIAL_ROWS = 64;
+
+    private final int stride;
+    private double[] data;
+    private int rows;
+
+    /**
+     * @param dim dimension of the recorded state (without the time column)
+     */
+    public TrajectoryRecorder(int dim) {
+        this.stride = dim + 1;
+        this.data = new double[INITIAL_ROWS * stride];
+    }
+
+    @Override
+    public void accept(double t, double[] y) {
+        if ((rows + 1) * stride > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        int offset = rows * stride;
+        data[offset] = t;
+        System.arraycopy(y, 0, data, offset + 1, stride - 1);
+        rows++;
+    }
+
+    /**
+     * Appends rows given in the flat layout [t, y0, y1, ..., t, y0, y1, ...].
+     */
+    public void appendRows(double[] flatRows) {
+        if (flatRows.length % stride != 0) {
+            throw new IllegalArgumentException("Row data of length " + flatRows.length
+                    + " does not fit rows of " + stride + " values");
+        }
+        int needed = rows * stride + flatRows.length;
+        if (needed > data.length) {
+            data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+        }
+        System.arraycopy(flatRows, 0, data, rows * stride, flatRows.length);
+        rows += flatRows.length / stride;
+    }
+
+    /**
+     * Copies rows [from, to) in the flat layout accepted by {@link #appendRows}.
+     */
+    public double[] copyRows(int from, int to) {
+        return Arrays.copyOfRange(data, from * stride, to * stride);
+    }
+
+    /** Number of recorded rows. */
+    public int size() {
+        return rows;
+    }
+
+    /** Dimension of the recorded state, without the time column. */
+    public int dimension() {
+        return stride - 1;
+    }
+
+    /** Time of the given row. */
+    public double getTime(int row) {
+        return data[row * stride];
+    }
+
+    /** State component of the given row. */
+    public double get(int row, int component) {
+        return data[row * stride + 1 + component];
+    }
+
+    /**
+     * Row whose time is closest to t, by binary search; the recorded times must increase, as
+     * they do when a solver reports its steps.
+     *
+     * @return -1 if nothing has been recorded
+     */
+    public int nearestRow(double t) {
+        int low = 0;
+        int high = rows - 1;
+        if (high < 0) return -1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTime(mid) < t) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // low is the first row at or after t, the one before may be closer
+        if (low > 0 && Math.abs(getTime(low - 1) - t) <= Math.abs(getTime(low) - t)) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Copies the full row [t, y0, y1, ...].
+     */
+    public double[] getRow(int row) {
+        int offset = row * stride;
+        return Arrays.copyOfRange(data, offset, offset + stride);
+    }
+
+    /**
+     * Copies the recorded steps into the classic double[rows][dim + 1] layout.
+     */
+    public double[][] toMatrix() {
+        double[][] result = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            result[i] = getRow(i);
+        }
+        return result;
+    }
+}
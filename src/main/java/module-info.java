@@ -21,6 +21,7 @@ module com.example.project {
     exports com.example.utilities;
     exports com.example.utilities.physics_utilities;
     exports com.example.utilities.GA;
+    exports com.example.utilities.solvers;
     exports com.example.utilities.HillClimb;
     exports com.example.spaceMissions;
     exports com.example.lander;
@@ -0,0 +1,134 @@
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.physics_utilities.BarnesHutGravity;
+import com.example.utilities.physics_utilities.GravityKernel;
+import com.example.utilities.physics_utilities.PhysicsEngine;
+import com.example.utilities.physics_utilities.SolarSystemFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Barnes–Hut approximation against direct summation.
+ */
+class BarnesHutGravityTest {
+
+    /** A heavy body at the origin and a cloud of light ones, interleaved [x, y, z] per body. */
+    private static double[] cloud(int n, double[] gm, double heavyGm) {
+        Random random = new Random(11);
+        double[] positions = new double[3 * n];
+        for (int i = 1; i < n; i++) {
+            positions[3 * i] = 1e6 * random.nextGaussian();
+            positions[3 * i + 1] = 1e6 * random.nextGaussian();
+            positions[3 * i + 2] = 1e5 * random.nextGaussian();
+            gm[i] = 1e-3 * (1 + random.nextDouble());
+        }
+        gm[0] = heavyGm;
+        return positions;
+    }
+
+    private static double[] direct(double[] positions, double[] gm) {
+        double[] out = new double[positions.length];
+        new GravityKernel(GravityKernel.NONE).accelerations(positions, 3, gm, out, 3, 0);
+        return out;
+    }
+
+    /**
+     * Tests that opening every cell reproduces direct summation.
+     */
+    @Test
+    void testZeroOpeningAngleIsExact() {
+        int n = 500;
+        double[] gm = new double[n];
+        double[] positions = cloud(n, gm, 1e3);
+        double[] out = new double[3 * n];
+        new BarnesHutGravity(0.0, 1.0, GravityKernel.NONE).accelerations(positions, 3, gm, out, 3, 0);
+
+        double[] expected = direct(positions, gm);
+        for (int k = 0; k < out.length; k++) {
+            assertEquals(expected[k], out[k], 1e-10 * Math.abs(expected[k]) + 1e-30);
+        }
+    }
+
+    /**
+     * Tests the approximation error of the light bodies' mutual pull on the parallel path.
+     */
+    @Test
+    void testApproximationErrorOfTheLightBodies() {
+        int n = 5000;
+        double[] gm = new double[n];
+        // no heavy body, so only the tree is measured
+        double[] positions = cloud(n, gm, 1e-3);
+        double[] out = new double[3 * n];
+        new BarnesHutGravity(0.5, 1.0, GravityKernel.NONE).accelerations(positions, 3, gm, out, 3, 0);
+
+        double[] expected = direct(positions, gm);
+        double errorSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            errorSum += relativeError(out, expected, i);
+        }
+        assertTrue(errorSum / n < 1e-2, "mean relative error " + errorSum / n);
+    }
+
+    /**
+     * Tests that a massive body's pull is summed exactly and dominates the light ones'.
+     */
+    @Test
+    void testMassiveBodiesAreSummedDirectly() {
+        int n = 300;
+        double[] gm = new double[n];
+        double[] positions = cloud(n, gm, 1e6);
+        double[] out = new double[3 * n];
+        new BarnesHutGravity(1.0, 1.0, GravityKernel.NONE).accelerations(positions, 3, gm, out, 3, 0);
+
+        double[] expected = direct(positions, gm);
+        // the light bodies are dominated by the exact pull of body 0, which feels every light body directly
+        for (int i = 1; i < n; i++) {
+            assertTrue(relativeError(out, expected, i) < 1e-6, "body " + i);
+        }
+        assertTrue(relativeError(out, expected, 0) < 1e-10);
+    }
+
+    private static double relativeError(double[] out, double[] expected, int i) {
+        double dx = out[3 * i] - expected[3 * i];
+        double dy = out[3 * i + 1] - expected[3 * i + 1];
+        double dz = out[3 * i + 2] - expected[3 * i + 2];
+        double norm = Math.sqrt(expected[3 * i] * expected[3 * i] + expected[3 * i + 1] * expected[3 * i + 1]
+                + expected[3 * i + 2] * expected[3 * i + 2]);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz) / norm;
+    }
+
+    /**
+     * Tests that an engine with an asteroid belt follows the direct engine over a day.
+     */
+    @Test
+    void testEngineWithAsteroidBelt() {
+        List<CelestialBody> planets = SolarSystemFactory.loadFromTable();
+        List<CelestialBody> belt = SolarSystemFactory.asteroidBelt(planets.get(0), 400, 5);
+        PhysicsEngine direct = new PhysicsEngine(PhysicsEngine.Mode.VELOCITY_VERLET);
+        PhysicsEngine tree = new PhysicsEngine(PhysicsEngine.Mode.VELOCITY_VERLET, 0.5);
+        for (List<CelestialBody> group : List.of(planets, belt)) {
+            for (CelestialBody body : group) {
+                direct.addBody(copy(body));
+                tree.addBody(copy(body));
+            }
+        }
+        assertEquals(0.5, tree.getOpeningAngle(), 0.0);
+
+        for (int k = 0; k < 24; k++) {
+            direct.step(3600);
+            tree.step(3600);
+        }
+        for (int i = 0; i < direct.getBodies().size(); i++) {
+            double distance = direct.getBodies().get(i).getPosition()
+                    .subtract(tree.getBodies().get(i).getPosition()).magnitude();
+            assertTrue(distance < 1e-3, direct.getBodies().get(i).getName() + " is " + distance + " km off");
+        }
+    }
+
+    private static CelestialBody copy(CelestialBody body) {
+        return new CelestialBody(body.getName(), body.getMass(), body.getPosition(), body.getVelocity());
+    }
+}
@@ -0,0 +1,92 @@
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.ChebyshevEphemeris;
+import com.example.utilities.PlanetPositionCalculator;
+import com.example.utilities.physics_utilities.SolarSystemFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for writing and reading the Chebyshev ephemeris file.
+ */
+class ChebyshevEphemerisTest {
+
+    private static final double DAY = 86400.0;
+
+    @TempDir
+    Path directory;
+
+    private static List<CelestialBody> bodies() {
+        List<CelestialBody> bodies = SolarSystemFactory.loadFromTable();
+        // the ship in the table starts next to Earth, its close encounter is no test of the fit
+        bodies.removeIf(body -> body.getName().equals("Noah's ark"));
+        return bodies;
+    }
+
+    /**
+     * Tests that the polynomials reproduce the integrated states between the fitting nodes.
+     */
+    @Test
+    void testMatchesIntegration() throws IOException {
+        Path file = directory.resolve("ephemeris.bin");
+        ChebyshevEphemeris.write(new PlanetPositionCalculator(bodies()), -10 * DAY, 50 * DAY, 4 * DAY, 12, file);
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.open(file);
+        assertEquals(bodies().size(), ephemeris.getBodyCount());
+        assertEquals(-10 * DAY, ephemeris.getStartTime(), 0.0);
+        assertEquals(50 * DAY, ephemeris.getEndTime(), 1e-6);
+
+        double[] epochs = {-9.3 * DAY, -0.5 * DAY, 0.0, 13.71 * DAY, 49.99 * DAY};
+        double[][] expected = new PlanetPositionCalculator(bodies()).statesAt(epochs);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int k = 0; k < epochs.length; k++) {
+            for (int b = 0; b < ephemeris.getBodyCount(); b++) {
+                ephemeris.position(b, epochs[k], position);
+                ephemeris.velocity(b, epochs[k], velocity);
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected[k][6 * b + c], position[c], 1e-2, ephemeris.getName(b) + " at " + epochs[k]);
+                    assertEquals(expected[k][6 * b + 3 + c], velocity[c], 1e-7, ephemeris.getName(b) + " at " + epochs[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that bodies can be read back at a date, with their names and masses.
+     */
+    @Test
+    void testBodiesAtDate() throws IOException {
+        Path file = directory.resolve("ephemeris.bin");
+        ChebyshevEphemeris.write(new PlanetPositionCalculator(bodies()), 0.0, 8 * DAY, 4 * DAY, 10, file);
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.open(file);
+
+        List<CelestialBody> atJ2000 = ephemeris.bodiesAt(LocalDateTime.of(2000, 1, 1, 12, 0));
+        List<CelestialBody> initial = bodies();
+        assertEquals(initial.size(), atJ2000.size());
+        for (int b = 0; b < initial.size(); b++) {
+            assertEquals(initial.get(b).getName(), atJ2000.get(b).getName());
+            assertEquals(initial.get(b).getMass(), atJ2000.get(b).getMass(), 0.0);
+            assertTrue(initial.get(b).getPosition().subtract(atJ2000.get(b).getPosition()).magnitude() < 1e-2);
+        }
+        assertEquals(3, ephemeris.indexOf("EARTH"));
+        assertThrows(IllegalArgumentException.class,
+            () -> ephemeris.bodiesAt(LocalDateTime.of(2000, 1, 20, 12, 0)));
+    }
+
+    /**
+     * Tests that other files are rejected.
+     */
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("not-an-ephemeris.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> ChebyshevEphemeris.open(file));
+    }
+}
@@ -0,0 +1,110 @@
+import com.example.solar_system.CelestialBody;
+import com.example.utilities.SolarSystemODE;
+import com.example.utilities.Vector3D;
+import com.example.utilities.physics_utilities.Ephemeris;
+import com.example.utilities.physics_utilities.SolarSystemFactory;
+import com.example.utilities.solvers.AdamsBashforthMoultonSolver;
+import com.example.utilities.solvers.RK4Solver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the tabulated planetary ephemeris.
+ */
+class EphemerisTest {
+
+    private static final double STEP = 3600;
+    private static final int STEPS = 240;
+
+    private final List<CelestialBody> bodies = SolarSystemFactory.loadFromTable();
+
+    EphemerisTest() {
+        // the ship in the table starts next to Earth, its close encounter says nothing about the interpolation
+        bodies.removeIf(body -> body.getName().equals("Noah's ark"));
+    }
+
+    /**
+     * Tests that the interpolated states between the nodes agree with a table of half the step.
+     */
+    @Test
+    void testInterpolationBetweenNodes() {
+        Ephemeris coarse = Ephemeris.tabulate(bodies, new RK4Solver(), 0.0, STEP, STEPS);
+        Ephemeris fine = Ephemeris.tabulate(bodies, new RK4Solver(), 0.0, STEP / 2, 2 * STEPS);
+        assertEquals(bodies.size(), coarse.getBodyCount());
+        assertEquals(STEPS * STEP, coarse.getEndTime(), 0.0);
+
+        double[] expected = new double[3];
+        double[] actual = new double[3];
+        for (int k = 0; k < STEPS; k += 7) {
+            double t = (k + 0.5) * STEP;
+            for (int i = 0; i < bodies.size(); i++) {
+                fine.position(i, t, expected);
+                coarse.position(i, t, actual);
+                // includes the difference between RK4 at both steps, about 1e-3 km for Titan
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected[c], actual[c], 1e-2, coarse.getName(i) + " position at " + t);
+                }
+                fine.velocity(i, t, expected);
+                coarse.velocity(i, t, actual);
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected[c], actual[c], 1e-7, coarse.getName(i) + " velocity at " + t);
+                }
+            }
+        }
+
+        double[] all = new double[3 * bodies.size()];
+        coarse.positions(1000.0, all);
+        coarse.position(3, 1000.0, actual);
+        assertArrayEquals(actual, Arrays.copyOfRange(all, 9, 12), 0.0);
+    }
+
+    /**
+     * Tests that a probe integrated against the table follows the same probe in the full n-body system.
+     */
+    @Test
+    void testProbeMatchesFullIntegration() {
+        CelestialBody earth = bodies.get(3);
+        Vector3D position = earth.getPosition().add(new Vector3D(2e6, 0, 0));
+        Vector3D velocity = earth.getVelocity().add(new Vector3D(0, 12, 3));
+
+        List<CelestialBody> withProbe = new ArrayList<>(bodies);
+        withProbe.add(new CelestialBody("Probe", 0.0, position, velocity));
+        double[] y0 = new double[6 * withProbe.size()];
+        for (int i = 0; i < withProbe.size(); i++) {
+            CelestialBody body = withProbe.get(i);
+            double[] state = {body.getPosition().getX(), body.getPosition().getY(), body.getPosition().getZ(),
+                    body.getVelocity().getX(), body.getVelocity().getY(), body.getVelocity().getZ()};
+            System.arraycopy(state, 0, y0, 6 * i, 6);
+        }
+        double[] full = new AdamsBashforthMoultonSolver(6)
+                .integrate(SolarSystemODE.generateODEFunction(withProbe), 0.0, y0, STEP, STEPS, null, null);
+
+        Ephemeris ephemeris = Ephemeris.tabulate(bodies, new AdamsBashforthMoultonSolver(6), 0.0, STEP, STEPS);
+        double[] probe = new AdamsBashforthMoultonSolver(6).integrate(ephemeris.probeFunction(), 0.0,
+                Arrays.copyOfRange(y0, y0.length - 6, y0.length), STEP, STEPS, null, null);
+
+        for (int c = 0; c < 6; c++) {
+            // both rows start with the time
+            assertEquals(full[full.length - 6 + c], probe[1 + c], c < 3 ? 1e-2 : 1e-8);
+        }
+    }
+
+    /**
+     * Tests that times outside the table are rejected instead of extrapolated.
+     */
+    @Test
+    void testOutsideTheTableThrows() {
+        Ephemeris ephemeris = Ephemeris.tabulate(bodies, new RK4Solver(), 0.0, STEP, 10);
+        double[] out = new double[3];
+        ephemeris.position(0, 10 * STEP, out);
+        assertThrows(IllegalArgumentException.class, () -> ephemeris.position(0, 11 * STEP, out));
+        assertThrows(IllegalArgumentException.class, () -> ephemeris.velocity(0, -1.0, out));
+        assertEquals(-1, ephemeris.indexOf("Pluto"));
+        assertEquals(3, ephemeris.indexOf("earth"));
+    }
+}
@@ -0,0 +1,120 @@
+import com.example.utilities.physics_utilities.GravityKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the shared pairwise gravity kernel.
+ */
+class GravityKernelTest {
+
+    private static final int N = 20;
+
+    private final double[] x = new double[N];
+    private final double[] y = new double[N];
+    private final double[] z = new double[N];
+    private final double[] gm = new double[N];
+
+    GravityKernelTest() {
+        Random random = new Random(3);
+        for (int i = 0; i < N; i++) {
+            x[i] = 1e6 * random.nextGaussian();
+            y[i] = 1e6 * random.nextGaussian();
+            z[i] = 1e5 * random.nextGaussian();
+            gm[i] = 1e3 * (1 + random.nextDouble());
+        }
+    }
+
+    /**
+     * Tests that visiting every pair once gives the same sum as the direct double loop.
+     */
+    @Test
+    void testMatchesDirectSummation() {
+        double[] ax = new double[N];
+        double[] ay = new double[N];
+        double[] az = new double[N];
+        new GravityKernel(GravityKernel.NONE).accelerations(N, x, y, z, gm, ax, ay, az);
+
+        for (int i = 0; i < N; i++) {
+            double ex = 0, ey = 0, ez = 0;
+            for (int j = 0; j < N; j++) {
+                if (i == j) continue;
+                double dx = x[j] - x[i], dy = y[j] - y[i], dz = z[j] - z[i];
+                double r = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                ex += gm[j] * dx / Math.pow(r, 3);
+                ey += gm[j] * dy / Math.pow(r, 3);
+                ez += gm[j] * dz / Math.pow(r, 3);
+            }
+            assertEquals(ex, ax[i], 1e-12 * Math.abs(ex) + 1e-30);
+            assertEquals(ey, ay[i], 1e-12 * Math.abs(ey) + 1e-30);
+            assertEquals(ez, az[i], 1e-12 * Math.abs(ez) + 1e-30);
+        }
+    }
+
+    /**
+     * Tests that the forces cancel in pairs, so the total momentum does not change.
+     */
+    @Test
+    void testTotalForceVanishes() {
+        double[] ax = new double[N];
+        double[] ay = new double[N];
+        double[] az = new double[N];
+        new GravityKernel(GravityKernel.plummer(10.0)).accelerations(N, x, y, z, gm, ax, ay, az);
+
+        double fx = 0, fy = 0, fz = 0, scale = 0;
+        for (int i = 0; i < N; i++) {
+            // m_i a_i, with G cancelling out
+            fx += gm[i] * ax[i];
+            fy += gm[i] * ay[i];
+            fz += gm[i] * az[i];
+            scale += gm[i] * Math.abs(ax[i]);
+        }
+        assertEquals(0.0, fx, 1e-13 * scale);
+        assertEquals(0.0, fy, 1e-13 * scale);
+        assertEquals(0.0, fz, 1e-13 * scale);
+    }
+
+    /**
+     * Tests the interleaved layout of an ODE state and that only the acceleration slots are written.
+     */
+    @Test
+    void testInterleavedStateLayout() {
+        double[] state = new double[6 * N];
+        for (int i = 0; i < N; i++) {
+            state[6 * i] = x[i];
+            state[6 * i + 1] = y[i];
+            state[6 * i + 2] = z[i];
+        }
+        double[] dydt = new double[6 * N];
+        Arrays.fill(dydt, 7.0);
+        new GravityKernel(GravityKernel.NONE).accelerations(state, 6, gm, dydt, 6, 3);
+
+        double[] ax = new double[N];
+        double[] ay = new double[N];
+        double[] az = new double[N];
+        new GravityKernel(GravityKernel.NONE).accelerations(N, x, y, z, gm, ax, ay, az);
+        for (int i = 0; i < N; i++) {
+            assertEquals(7.0, dydt[6 * i], 0.0);
+            assertEquals(7.0, dydt[6 * i + 2], 0.0);
+            assertEquals(ax[i], dydt[6 * i + 3], 0.0);
+            assertEquals(ay[i], dydt[6 * i + 4], 0.0);
+            assertEquals(az[i], dydt[6 * i + 5], 0.0);
+        }
+    }
+
+    /**
+     * Tests how the softenings treat close and coincident bodies.
+     */
+    @Test
+    void testSoftenings() {
+        assertEquals(1.0 / 8.0, GravityKernel.NONE.inverseCube(4.0), 0.0);
+        assertEquals(0.0, GravityKernel.cutoff(1.0).inverseCube(0.5), 0.0);
+        assertEquals(1.0 / 8.0, GravityKernel.cutoff(1.0).inverseCube(4.0), 0.0);
+        assertEquals(1.0, GravityKernel.plummer(1.0).inverseCube(0.0), 0.0);
+        assertEquals(1.0 / 27.0, GravityKernel.offset(1.0).inverseCube(4.0), 1e-15);
+        assertTrue(Double.isFinite(GravityKernel.offset(1e-9).inverseCube(0.0)));
+    }
+}
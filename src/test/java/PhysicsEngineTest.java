@@ -1,10 +1,14 @@
 import com.example.solar_system.CelestialBody;
 import com.example.utilities.Vector3D;
+import com.example.utilities.SolarSystemODE;
 import com.example.utilities.physics_utilities.PhysicsEngine;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
 import com.example.Constants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -168,4 +172,131 @@ class PhysicsEngineTest {
         assertEquals(posA.x, -posB.x, 1e-3, "Positions should be symmetric on X-axis.");
         assertEquals(posA.y, -posB.y, 1e-3, "Positions should be symmetric on Y-axis.");
     }
+
+    /**
+     * Runs Earth-Moon for about ten lunar months with one-hour steps and returns the
+     * largest relative energy error seen along the way.
+     */
+    private static double maxRelativeEnergyError(PhysicsEngine.Mode mode) {
+        PhysicsEngine e = new PhysicsEngine(mode);
+        CelestialBody a = new CelestialBody("Earth", 5.972e24,
+                new Vector3D(0, 0, 0), new Vector3D(0, 0, 0));
+        CelestialBody b = new CelestialBody("Moon", 7.348e22,
+                new Vector3D(384400, 0, 0), new Vector3D(0, 1.022, 0));
+        e.addBody(a);
+        e.addBody(b);
+
+        double e0 = energy(a, b);
+        double worst = 0;
+        for (int i = 0; i < 24 * 273; i++) {
+            e.step(3600);
+            worst = Math.max(worst, Math.abs((energy(a, b) - e0) / e0));
+        }
+        return worst;
+    }
+
+    private static double energy(CelestialBody a, CelestialBody b) {
+        double kinetic = 0.5 * a.getMass() * a.getVelocity().magnitudeSquared()
+                + 0.5 * b.getMass() * b.getVelocity().magnitudeSquared();
+        double distance = a.getPosition().subtract(b.getPosition()).magnitude();
+        return kinetic - G * a.getMass() * b.getMass() / distance;
+    }
+
+    /**
+     * The symplectic modes keep the energy error bounded over many orbits; Wisdom-Holman is
+     * exact for a pure two-body problem up to the Kepler solver tolerance.
+     */
+    @Test
+    void testSymplecticModesConserveEnergy() {
+        double verlet = maxRelativeEnergyError(PhysicsEngine.Mode.VELOCITY_VERLET);
+        double yoshida = maxRelativeEnergyError(PhysicsEngine.Mode.YOSHIDA4);
+        double wisdomHolman = maxRelativeEnergyError(PhysicsEngine.Mode.WISDOM_HOLMAN);
+
+        assertTrue(verlet < 1e-4, "Verlet energy error " + verlet);
+        assertTrue(yoshida < verlet, "Yoshida should beat Verlet: " + yoshida + " vs " + verlet);
+        assertTrue(wisdomHolman < 1e-8, "Wisdom-Holman energy error " + wisdomHolman);
+    }
+
+    /**
+     * Over a short run every mode follows the same trajectory as RK4.
+     */
+    @Test
+    void testModesAgreeWithRK4() {
+        for (PhysicsEngine.Mode mode : PhysicsEngine.Mode.values()) {
+            PhysicsEngine e = new PhysicsEngine(mode);
+            CelestialBody a = new CelestialBody("Earth", 5.972e24,
+                    new Vector3D(0, 0, 0), new Vector3D(0, 0, 0));
+            CelestialBody b = new CelestialBody("Moon", 7.348e22,
+                    new Vector3D(384400, 0, 0), new Vector3D(0, 1.022, 0));
+            e.addBody(a);
+            e.addBody(b);
+            for (int i = 0; i < 24; i++) {
+                e.step(3600);
+            }
+
+            PhysicsEngine reference = new PhysicsEngine();
+            CelestialBody ra = new CelestialBody("Earth", 5.972e24,
+                    new Vector3D(0, 0, 0), new Vector3D(0, 0, 0));
+            CelestialBody rb = new CelestialBody("Moon", 7.348e22,
+                    new Vector3D(384400, 0, 0), new Vector3D(0, 1.022, 0));
+            reference.addBody(ra);
+            reference.addBody(rb);
+            for (int i = 0; i < 24; i++) {
+                reference.step(3600);
+            }
+            // one-hour Verlet steps are about a kilometre off after a day
+            assertEquals(mode, e.getMode());
+            assertTrue(b.getPosition().subtract(rb.getPosition()).magnitude() < 5.0,
+                    mode + " drifted from RK4");
+            assertTrue(b.getAcceleration().subtract(rb.getAcceleration()).magnitude() < 1e-9,
+                    mode + " acceleration differs from RK4");
+        }
+    }
+
+    /**
+     * Advancing in parallel time slices lands where stepping through the whole span does.
+     */
+    @Test
+    void testParallelAdvanceMatchesSequentialAdvance() {
+        PhysicsEngine sequential = new PhysicsEngine(PhysicsEngine.Mode.YOSHIDA4);
+        CelestialBody a = new CelestialBody("Earth", 5.972e24,
+                new Vector3D(0, 0, 0), new Vector3D(0, 0, 0));
+        CelestialBody b = new CelestialBody("Moon", 7.348e22,
+                new Vector3D(384400, 0, 0), new Vector3D(0, 1.022, 0));
+        sequential.addBody(a);
+        sequential.addBody(b);
+        sequential.advance(10 * 86400, 600, 1);
+
+        PhysicsEngine parallel = new PhysicsEngine(PhysicsEngine.Mode.YOSHIDA4);
+        parallel.addBody(earth);
+        parallel.addBody(moon);
+        parallel.advance(10 * 86400, 600, 8);
+
+        // the slices step in 600 s exactly, so both runs take the same steps
+        assertTrue(moon.getPosition().subtract(b.getPosition()).magnitude() < 1e-3,
+                "Parallel advance ended " + moon.getPosition().subtract(b.getPosition()).magnitude() + " km away");
+        assertTrue(moon.getVelocity().subtract(b.getVelocity()).magnitude() < 1e-8);
+        assertTrue(moon.getAcceleration().subtract(b.getAcceleration()).magnitude() < 1e-12);
+    }
+
+    /**
+     * Reusing the end-of-step accelerations as the next first stage does not change the steps.
+     */
+    @Test
+    void testRK4StepsMatchTheSolver() {
+        double[] y = {0, 0, 0, 0, 0, 0, 384400, 0, 0, 0, 1.022, 0};
+        ODEFunction f = SolarSystemODE.generateODEFunction(List.of(earth, moon));
+        double[] expected = new RK4Solver().integrate(f, 0.0, y, 3600, 24, null, null);
+
+        for (int i = 0; i < 24; i++) {
+            engine.step(3600);
+        }
+        assertEquals(expected[7], moon.getPosition().x, 1e-6);
+        assertEquals(expected[8], moon.getPosition().y, 1e-6);
+        assertEquals(expected[10], moon.getVelocity().x, 1e-12);
+        assertEquals(expected[11], moon.getVelocity().y, 1e-12);
+        double[] dydt = new double[12];
+        f.evaluate(0.0, Arrays.copyOfRange(expected, 1, 13), dydt);
+        assertEquals(dydt[9], moon.getAcceleration().x, 1e-15);
+    }
 }
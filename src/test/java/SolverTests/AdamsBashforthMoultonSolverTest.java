@@ -0,0 +1,67 @@
+package SolverTests;
+
+import com.example.utilities.solvers.AdamsBashforthMoultonSolver;
+import com.example.utilities.solvers.ODEFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Adams–Bashforth–Moulton predictor-corrector.
+ */
+class AdamsBashforthMoultonSolverTest {
+
+    private int evaluations;
+
+    // y0' = y0 cos t and y1' = -t y1^2, exact solution y0 = exp(sin t), y1 = 1 / (1 + t^2 / 2)
+    private final ODEFunction f = (t, y, dydt) -> {
+        evaluations++;
+        dydt[0] = y[0] * Math.cos(t);
+        dydt[1] = -t * y[1] * y[1];
+    };
+
+    private double errorAtTwo(int order, int steps) {
+        double[] last = new AdamsBashforthMoultonSolver(order)
+                .integrate(f, 0.0, new double[]{1.0, 1.0}, 2.0 / steps, steps, null, null);
+        assertEquals(2.0, last[0], 1e-12);
+        return Math.abs(last[1] - Math.exp(Math.sin(2.0))) + Math.abs(last[2] - 1.0 / 3.0);
+    }
+
+    @Test
+    void testConvergenceOrder() {
+        for (int order = 1; order <= 4; order++) {
+            double observed = Math.log(errorAtTwo(order, 80) / errorAtTwo(order, 160)) / Math.log(2.0);
+            assertEquals(order, observed, 0.5, "order " + order + " converges with " + observed);
+        }
+    }
+
+    @Test
+    void testEvaluationsPerStep() {
+        int steps = 100;
+        int order = 4;
+        // start-up: f(t0) plus 3 RK4 steps with 4 stages and the derivative at their end
+        int startup = 1 + (order - 1) * 5;
+
+        evaluations = 0;
+        new AdamsBashforthMoultonSolver(order, true).integrate(f, 0.0, new double[]{1.0, 1.0}, 0.01, steps, null, null);
+        assertEquals(startup + 2 * (steps - order + 1), evaluations);
+
+        evaluations = 0;
+        new AdamsBashforthMoultonSolver(order, false).integrate(f, 0.0, new double[]{1.0, 1.0}, 0.01, steps, null, null);
+        assertEquals(startup + (steps - order + 1), evaluations);
+    }
+
+    @Test
+    void testStopConditionEndsIntegration() {
+        double[] last = new AdamsBashforthMoultonSolver().integrate(f, 0.0, new double[]{1.0, 1.0}, 0.1, 1000,
+                (t, y) -> t >= 1.0 - 1e-9, null);
+        assertEquals(1.0, last[0], 1e-9);
+    }
+
+    @Test
+    void testRejectsInvalidOrder() {
+        assertThrows(IllegalArgumentException.class, () -> new AdamsBashforthMoultonSolver(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdamsBashforthMoultonSolver(AdamsBashforthMoultonSolver.MAX_ORDER + 1));
+    }
+}
@@ -0,0 +1,67 @@
+package SolverTests;
+
+import com.example.utilities.solvers.BulirschStoerSolver;
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Bulirsch–Stoer extrapolation integrator.
+ */
+class BulirschStoerSolverTest {
+
+    // Kepler problem with mu = 1, eccentricity 0.5, period 2 pi
+    private static final double E = 0.5;
+    private static final double[] Y0 = {1 - E, 0, 0, Math.sqrt((1 + E) / (1 - E))};
+
+    private final ODEFunction kepler = (t, y, dydt) -> {
+        double r = Math.sqrt(y[0] * y[0] + y[1] * y[1]);
+        double r3 = r * r * r;
+        dydt[0] = y[2];
+        dydt[1] = y[3];
+        dydt[2] = -y[0] / r3;
+        dydt[3] = -y[1] / r3;
+    };
+
+    @Test
+    void testReturnsToPericentreAfterTenOrbits() {
+        double end = 20 * Math.PI;
+        double[] last = new BulirschStoerSolver(1e-12, 1e-12)
+                .integrateTo(kepler, 0.0, Y0, end, 0.01, 100000, null, null);
+
+        assertEquals(end, last[0], 0.0);
+        assertEquals(Y0[0], last[1], 1e-8);
+        assertEquals(Y0[1], last[2], 1e-8);
+        assertEquals(Y0[3], last[4], 1e-8);
+    }
+
+    /**
+     * At tight tolerances the high orders pay off: far fewer, far longer steps than DOPRI5.
+     */
+    @Test
+    void testTakesFewerStepsThanDormandPrince() {
+        double end = 20 * Math.PI;
+        TrajectoryRecorder bs = new TrajectoryRecorder(4);
+        TrajectoryRecorder dp = new TrajectoryRecorder(4);
+        new BulirschStoerSolver(1e-12, 1e-12).integrateTo(kepler, 0.0, Y0, end, 0.01, 100000, null, bs);
+        new DormandPrinceSolver(1e-12, 1e-12).integrateTo(kepler, 0.0, Y0, end, 0.01, 100000, null, dp);
+
+        assertTrue(bs.size() * 5 < dp.size(), bs.size() + " steps vs " + dp.size());
+    }
+
+    @Test
+    void testStopConditionAndStepBudget() {
+        TrajectoryRecorder rows = new TrajectoryRecorder(4);
+        new BulirschStoerSolver(1e-9, 1e-9).integrate(kepler, 0.0, Y0, 0.01, 5, null, rows);
+        assertEquals(6, rows.size());
+    }
+
+    @Test
+    void testRejectsInvalidTolerances() {
+        assertThrows(IllegalArgumentException.class, () -> new BulirschStoerSolver(0.0, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new BulirschStoerSolver(1e-9, 1e-9, 0.0));
+    }
+}
@@ -0,0 +1,101 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RKF45Session;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DormandPrinceSolver class.
+ * Verifies accuracy on known ODEs, exact landing on the end time and the FSAL evaluation count.
+ */
+class DormandPrinceSolverTest {
+
+    // two-body problem with mu = 1, circular orbit of radius 1 has period 2*pi
+    private static final ODEFunction KEPLER = (t, y, dydt) -> {
+        double r = Math.sqrt(y[0] * y[0] + y[1] * y[1]);
+        double s = -1.0 / (r * r * r);
+        dydt[0] = y[2];
+        dydt[1] = y[3];
+        dydt[2] = s * y[0];
+        dydt[3] = s * y[1];
+    };
+
+    /**
+     * ODE: dy/dt = y, y(0) = 1 → exact solution y(t) = e^t
+     */
+    @Test
+    void testExponentialGrowth() {
+        BiFunction<Double, double[], double[]> f = (t, y) -> new double[]{y[0]};
+        DormandPrinceSolver solver = new DormandPrinceSolver(1e-12, 1e-12);
+
+        double[][] result = solver.solve(f, 0.0, new double[]{1.0}, 0.1, 1000,
+                (t, y) -> t >= 1.0);
+
+        for (double[] row : result) {
+            assertEquals(Math.exp(row[0]), row[1], 1e-9 * Math.exp(row[0]), "y(t) should equal e^t");
+        }
+    }
+
+    @Test
+    void testCircularOrbitReturnsAfterOnePeriod() {
+        DormandPrinceSolver solver = new DormandPrinceSolver(1e-12, 1e-12);
+        double period = 2 * Math.PI;
+
+        double[] end = solver.integrateTo(KEPLER, 0.0, new double[]{1, 0, 0, 1}, period, 0.01, 100000, null, null);
+
+        assertEquals(period, end[0], 0.0, "The last step should land exactly on tEnd");
+        assertEquals(1.0, end[1], 1e-9);
+        assertEquals(0.0, end[2], 1e-9);
+        assertEquals(0.0, end[3], 1e-9);
+        assertEquals(1.0, end[4], 1e-9);
+    }
+
+    /**
+     * With FSAL every attempted step costs 6 evaluations plus 1 for the very first stage,
+     * which must be fewer than RKF45 needs for the same tolerance.
+     */
+    @Test
+    void testFewerEvaluationsThanRKF45() {
+        double[] y0 = {1, 0, 0, 1};
+        double tEnd = 10 * Math.PI;
+        long[] dopriCalls = {0};
+        long[] rkfCalls = {0};
+
+        DormandPrinceSolver solver = new DormandPrinceSolver(1e-10, 1e-10);
+        TrajectoryRecorder recorder = new TrajectoryRecorder(4);
+        double[] dopri = solver.integrateTo((t, y, dydt) -> {
+            dopriCalls[0]++;
+            KEPLER.evaluate(t, y, dydt);
+        }, 0.0, y0, tEnd, 0.01, 100000, null, recorder);
+
+        RKF45Session session = new RKF45Session((t, y, dydt) -> {
+            rkfCalls[0]++;
+            KEPLER.evaluate(t, y, dydt);
+        }, 0.0, y0, 0.01, Double.POSITIVE_INFINITY, 1e-10, 1e-10);
+        assertTrue(session.advanceTo(tEnd, 100000));
+
+        int accepted = recorder.size() - 1;
+        assertEquals(1, dopriCalls[0] % 6, "Every step should cost 6 evaluations after the first stage");
+        assertTrue(dopriCalls[0] >= 6L * accepted + 1);
+        assertTrue(dopriCalls[0] < rkfCalls[0],
+                "DOPRI5 used " + dopriCalls[0] + " evaluations, RKF45 used " + rkfCalls[0]);
+
+        // both end up on the starting point of the circle after 5 periods
+        assertEquals(1.0, dopri[1], 1e-7);
+        assertEquals(1.0, session.getState()[0], 1e-7);
+    }
+
+    @Test
+    void testPerComponentToleranceLengthIsChecked() {
+        DormandPrinceSolver solver = new DormandPrinceSolver(new double[]{1e-6, 1e-6}, new double[]{1e-9}, 1.0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> solver.integrateTo(KEPLER, 0.0, new double[]{1, 0, 0, 1}, 1.0, 0.1, 100, null, null));
+    }
+}
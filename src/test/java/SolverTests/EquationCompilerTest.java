@@ -0,0 +1,124 @@
+package SolverTests;
+
+import com.example.utilities.solvers.EquationCompiler;
+import com.example.utilities.solvers.Jacobian;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODEUtility;
+import com.example.utilities.solvers.RK4Solver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for compiling GUI equations, checked against exp4j evaluating the same text.
+ */
+class EquationCompilerTest {
+
+    private static final String[] VARIABLES = {"x", "v"};
+    private static final double[][] STATES = {{1.0, 0.0}, {-0.3, 2.5}, {4.0, -1.25}};
+    private static final double[] TIMES = {0.0, 0.7, 3.0};
+
+    private void assertMatchesExp4j(String... equations) {
+        String[] variables = new String[equations.length];
+        System.arraycopy(VARIABLES, 0, variables, 0, equations.length);
+        ODEFunction compiled = EquationCompiler.compile(equations, variables);
+        ODEFunction interpreted = EquationCompiler.interpret(equations, variables);
+
+        for (double t : TIMES) {
+            for (double[] state : STATES) {
+                double[] y = Arrays.copyOf(state, equations.length);
+                double[] expected = new double[equations.length];
+                double[] actual = new double[equations.length];
+                interpreted.evaluate(t, y, expected);
+                compiled.evaluate(t, y, actual);
+                assertArrayEquals(expected, actual, 1e-12, String.join("; ", equations));
+            }
+        }
+    }
+
+    @Test
+    void testArithmeticAndPrecedence() {
+        assertMatchesExp4j("v", "-x - 0.5 * v + 2 / (1 + t)");
+        assertMatchesExp4j("-x^2", "2^3^0.5 * v % 3");
+        assertMatchesExp4j("3x + 2(v - 1)", "-(x - v) * -t");
+    }
+
+    @Test
+    void testFunctionsAndConstants() {
+        assertMatchesExp4j("sin(x) * cos(t) + exp(-abs(v))", "pow(x, 2) + sqrt(abs(v)) - log2(1 + x^2)");
+        assertMatchesExp4j("pi * e * φ + π", "tanh(v) + cbrt(x) + log10(2 + t) + signum(x) + cot(1 + x^2)");
+    }
+
+    @Test
+    void testStateVariablesShadowConstants() {
+        String[] equations = {"e", "-e"};
+        ODEFunction f = EquationCompiler.compile(equations, new String[]{"e", "f"});
+        double[] dydt = new double[2];
+        f.evaluate(0.0, new double[]{3.0, 0.0}, dydt);
+        assertArrayEquals(new double[]{3.0, -3.0}, dydt, 0.0);
+    }
+
+    @Test
+    void testHarmonicOscillatorThroughODEUtility() {
+        ODEUtility.setEquations(new String[]{"v", "-x"}, VARIABLES);
+        BiFunction<Double, double[], double[]> f = ODEUtility.textToFunction();
+        assertInstanceOf(ODEFunction.class, f);
+        assertArrayEquals(new double[]{2.0, -1.0}, f.apply(0.0, new double[]{1.0, 2.0}), 0.0);
+
+        double[][] result = new RK4Solver().solve(f, 0.0, new double[]{1.0, 0.0}, 0.01, 628, null);
+        double[] last = result[result.length - 1];
+        assertEquals(Math.cos(last[0]), last[1], 1e-8);
+        assertEquals(-Math.sin(last[0]), last[2], 1e-8);
+    }
+
+    @Test
+    void testInvalidEquationsAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new String[]{"x + unknown", "v"}, VARIABLES));
+        assertTrue(e.getMessage().contains("x + unknown"));
+        assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new String[]{"(x + v", "v"}, VARIABLES));
+        assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new String[]{"v"}, VARIABLES));
+    }
+
+    @Test
+    void testJacobianMatchesFiniteDifferences() {
+        String[] equations = {
+                "v * exp(-x^2) + sin(x * v) / (2 + cos(t)) - x % 3",
+                "x^3 - tan(v / 4) + pow(2, v) * log(1 + x^2) + atan(t * x) + sqrt(1 + v^2) - (1 - x)(v + t)"};
+        Jacobian exact = EquationCompiler.compileJacobian(equations, VARIABLES);
+        Jacobian approximate = Jacobian.finiteDifferences(EquationCompiler.compile(equations, VARIABLES));
+
+        for (double t : TIMES) {
+            for (double[] y : STATES) {
+                double[][] expected = new double[2][2];
+                double[][] actual = new double[2][2];
+                double[] expectedTime = new double[2];
+                double[] actualTime = new double[2];
+                approximate.evaluate(t, y, expected, expectedTime);
+                exact.evaluate(t, y, actual, actualTime);
+                for (int i = 0; i < 2; i++) {
+                    assertArrayEquals(expected[i], actual[i], 1e-5 * (1 + Math.abs(expected[i][0])));
+                }
+                assertArrayEquals(expectedTime, actualTime, 1e-5);
+            }
+        }
+    }
+
+    @Test
+    void testJacobianOfLinearSystemIsExact() {
+        Jacobian jacobian = EquationCompiler.compileJacobian(new String[]{"v", "-4x - 0.5v + t"}, VARIABLES);
+        double[][] dfdy = new double[2][2];
+        double[] dfdt = new double[2];
+        jacobian.evaluate(1.0, new double[]{2.0, 3.0}, dfdy, dfdt);
+        assertArrayEquals(new double[]{0.0, 1.0}, dfdy[0], 0.0);
+        assertArrayEquals(new double[]{-4.0, -0.5}, dfdy[1], 0.0);
+        assertArrayEquals(new double[]{0.0, 1.0}, dfdt, 0.0);
+        // dfdt is optional
+        jacobian.evaluate(1.0, new double[]{2.0, 3.0}, dfdy, null);
+    }
+}
@@ -0,0 +1,96 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.EulerSolver;
+import com.example.utilities.solvers.EventDetector;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for event detection in the ODESolver API.
+ * Events must be located to tolerance even when the steps are much larger.
+ */
+class EventDetectorTest {
+
+    // free fall from 100 m with g = 10, hits the ground at t = sqrt(20)
+    private final ODEFunction freeFall = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -10.0;
+    };
+
+    @Test
+    void testTerminalEventStopsAtTouchdown() {
+        EventDetector ground = new EventDetector((t, y) -> y[0], EventDetector.Direction.FALLING, true);
+        TrajectoryRecorder recorder = new TrajectoryRecorder(2);
+
+        double[] end = new RK4Solver().integrate(freeFall, 0.0, new double[]{100.0, 0.0}, 1.0, 100,
+                null, recorder, ground);
+
+        double expected = Math.sqrt(20.0);
+        assertTrue(ground.hasOccurred());
+        assertEquals(expected, ground.getLastTime(), 1e-8);
+        assertEquals(expected, end[0], 1e-8, "Integration should end at the event");
+        assertEquals(0.0, end[1], 1e-6);
+        assertEquals(end[0], recorder.getTime(recorder.size() - 1), 0.0,
+                "The sink should see the event state as the last row");
+        assertEquals(6, recorder.size(), "Initial state, 4 full steps and the touchdown");
+    }
+
+    @Test
+    void testDirectionIsRespected() {
+        EventDetector rising = new EventDetector((t, y) -> y[0], EventDetector.Direction.RISING, true);
+
+        double[] end = new RK4Solver().integrate(freeFall, 0.0, new double[]{100.0, 0.0}, 1.0, 10,
+                null, null, rising);
+
+        assertFalse(rising.hasOccurred());
+        assertEquals(10.0, end[0], 1e-12);
+    }
+
+    /**
+     * Periapsis of an eccentric orbit (mu = 1, a = 1, period 2*pi) found with large steps:
+     * non-terminal, counted once per revolution.
+     */
+    @Test
+    void testNonTerminalPeriapsisEvents() {
+        ODEFunction kepler = (t, y, dydt) -> {
+            double r = Math.sqrt(y[0] * y[0] + y[1] * y[1]);
+            double s = -1.0 / (r * r * r);
+            dydt[0] = y[2];
+            dydt[1] = y[3];
+            dydt[2] = s * y[0];
+            dydt[3] = s * y[1];
+        };
+        // start at apoapsis r = 1.5 of an orbit with e = 0.5, periapsis r = 0.5 at t = pi
+        double[] y0 = {1.5, 0.0, 0.0, Math.sqrt(0.5 / 1.5)};
+        double[] periapsisRadius = {Double.NaN};
+        EventDetector periapsis = new EventDetector(
+                (t, y) -> y[0] * y[2] + y[1] * y[3], EventDetector.Direction.RISING, false, 1e-10,
+                (t, y) -> periapsisRadius[0] = Math.hypot(y[0], y[1]));
+
+        new DormandPrinceSolver(1e-10, 1e-10).integrate(kepler, 0.0, y0, 0.5, 100000,
+                (t, y) -> t >= 3 * 2 * Math.PI, null, periapsis);
+
+        assertEquals(3, periapsis.getCount());
+        assertEquals(5 * Math.PI, periapsis.getLastTime(), 1e-6);
+        assertEquals(0.5, periapsisRadius[0], 1e-8);
+    }
+
+    /**
+     * Euler has no dense output, the crossing is then located on a straight line between steps.
+     */
+    @Test
+    void testEventWithoutDenseOutput() {
+        ODEFunction line = (t, y, dydt) -> dydt[0] = -1.0;
+        EventDetector zero = new EventDetector((t, y) -> y[0], EventDetector.Direction.ANY, true);
+
+        double[] end = new EulerSolver().integrate(line, 0.0, new double[]{2.5}, 1.0, 10, null, null, zero);
+
+        assertEquals(2.5, end[0], 1e-8);
+        assertEquals(0.0, end[1], 1e-8);
+    }
+}
@@ -0,0 +1,82 @@
+package SolverTests;
+
+import com.example.utilities.solvers.ButcherTableau;
+import com.example.utilities.solvers.ExplicitRungeKuttaSolver;
+import com.example.utilities.solvers.FixedTimeSampler;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the tableau driven Runge-Kutta solver.
+ * Every tableau must show its nominal order of convergence, which catches a mistyped coefficient.
+ */
+class ExplicitRungeKuttaSolverTest {
+
+    // y0' = y0 cos t and y1' = -t y1^2, exact solution y0 = exp(sin t), y1 = 1 / (1 + t^2 / 2)
+    private final ODEFunction f = (t, y, dydt) -> {
+        dydt[0] = y[0] * Math.cos(t);
+        dydt[1] = -t * y[1] * y[1];
+    };
+
+    private double errorAtTwo(ButcherTableau tableau, int steps) {
+        ExplicitRungeKuttaSolver solver = new ExplicitRungeKuttaSolver(tableau);
+        double[] last = solver.integrate(f, 0.0, new double[]{1.0, 1.0}, 2.0 / steps, steps, null, null);
+        assertEquals(2.0, last[0], 1e-12);
+        return Math.abs(last[1] - Math.exp(Math.sin(2.0))) + Math.abs(last[2] - 1.0 / 3.0);
+    }
+
+    @Test
+    void testConvergenceOrder() {
+        ButcherTableau[] tableaus = {ButcherTableau.EULER, ButcherTableau.RK4, ButcherTableau.RKF45,
+                ButcherTableau.DOPRI5, ButcherTableau.VERNER65, ButcherTableau.PRINCE_DORMAND87};
+        for (ButcherTableau tableau : tableaus) {
+            // coarse enough that the 8th order method is not yet at round-off
+            double coarse = errorAtTwo(tableau, 8);
+            double fine = errorAtTwo(tableau, 16);
+            double observed = Math.log(coarse / fine) / Math.log(2.0);
+            assertEquals(tableau.getOrder(), observed, 0.6, tableau + " converges with order " + observed);
+        }
+    }
+
+    @Test
+    void testRK4TableauMatchesRK4Solver() {
+        ODEFunction oscillator = (t, y, dydt) -> {
+            dydt[0] = y[1];
+            dydt[1] = -y[0];
+        };
+        double[] expected = new RK4Solver().integrate(oscillator, 0.0, new double[]{1.0, 0.0}, 0.1, 50, null, null);
+        double[] actual = new ExplicitRungeKuttaSolver(ButcherTableau.RK4)
+                .integrate(oscillator, 0.0, new double[]{1.0, 0.0}, 0.1, 50, null, null);
+        assertArrayEquals(expected, actual, 1e-14);
+    }
+
+    @Test
+    void testAdaptiveVernerHitsEndTimeAccurately() {
+        ExplicitRungeKuttaSolver solver = new ExplicitRungeKuttaSolver(ButcherTableau.VERNER65, 1e-12, 1e-12,
+                Double.POSITIVE_INFINITY);
+        TrajectoryRecorder samples = new TrajectoryRecorder(2);
+        FixedTimeSampler sampler = new FixedTimeSampler(new double[]{0.5, 1.5}, samples);
+
+        double[] last = solver.integrateTo(f, 0.0, new double[]{1.0, 1.0}, 2.0, 0.01, 10000, null, sampler);
+
+        assertEquals(2.0, last[0], 0.0);
+        assertEquals(Math.exp(Math.sin(2.0)), last[1], 1e-10);
+        assertEquals(1.0 / 3.0, last[2], 1e-10);
+        assertEquals(2, samples.size());
+        assertEquals(Math.exp(Math.sin(0.5)), samples.get(0, 0), 1e-5);
+    }
+
+    @Test
+    void testFlags() {
+        assertTrue(ButcherTableau.DOPRI5.isFsal());
+        assertFalse(ButcherTableau.RKF45.isFsal());
+        assertFalse(ButcherTableau.RK4.isEmbedded());
+        assertTrue(ButcherTableau.PRINCE_DORMAND87.isEmbedded());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExplicitRungeKuttaSolver(ButcherTableau.RK4, 1e-9, 1e-9, 1.0));
+    }
+}
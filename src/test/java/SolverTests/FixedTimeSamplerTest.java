@@ -0,0 +1,74 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.EulerSolver;
+import com.example.utilities.solvers.FixedTimeSampler;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RKF45Solver;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for dense output through FixedTimeSampler.
+ * The samples must land on the requested times whatever steps the solver takes.
+ */
+class FixedTimeSamplerTest {
+
+    // harmonic oscillator, exact solution y = (cos t, -sin t)
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    @Test
+    void testDormandPrinceDenseOutput() {
+        DormandPrinceSolver solver = new DormandPrinceSolver(1e-10, 1e-10);
+        TrajectoryRecorder samples = new TrajectoryRecorder(2);
+        FixedTimeSampler sampler = FixedTimeSampler.grid(0.0, 0.05, 101, samples);
+
+        solver.integrate(oscillator, 0.0, new double[]{1.0, 0.0}, 0.1, 100000,
+                (t, y) -> sampler.isDone(), sampler);
+
+        assertEquals(101, samples.size());
+        for (int row = 0; row < samples.size(); row++) {
+            double t = samples.getTime(row);
+            assertEquals(row * 0.05, t, 1e-12);
+            assertEquals(Math.cos(t), samples.get(row, 0), 1e-8, "x at t=" + t);
+            assertEquals(-Math.sin(t), samples.get(row, 1), 1e-8, "v at t=" + t);
+        }
+    }
+
+    @Test
+    void testRKF45HermiteOutput() {
+        RKF45Solver solver = new RKF45Solver();
+        TrajectoryRecorder samples = new TrajectoryRecorder(2);
+        FixedTimeSampler sampler = new FixedTimeSampler(new double[]{0.0, 0.333, 1.7, 2.0}, samples);
+
+        solver.integrate(oscillator, 0.0, new double[]{1.0, 0.0}, 0.1, 100000,
+                (t, y) -> sampler.isDone(), sampler);
+
+        assertEquals(4, samples.size());
+        for (int row = 0; row < samples.size(); row++) {
+            double t = samples.getTime(row);
+            assertEquals(Math.cos(t), samples.get(row, 0), 1e-7, "x at t=" + t);
+        }
+    }
+
+    /**
+     * Euler has no interpolant; the sampler falls back to linear interpolation.
+     */
+    @Test
+    void testLinearFallbackWithoutDenseOutput() {
+        ODEFunction line = (t, y, dydt) -> dydt[0] = 2.0;
+        TrajectoryRecorder samples = new TrajectoryRecorder(1);
+        FixedTimeSampler sampler = new FixedTimeSampler(new double[]{0.25, 0.55}, samples);
+
+        new EulerSolver().integrate(line, 0.0, new double[]{0.0}, 0.1, 10, null, sampler);
+
+        assertEquals(2, samples.size());
+        assertEquals(0.5, samples.get(0, 0), 1e-12);
+        assertEquals(1.1, samples.get(1, 0), 1e-12);
+    }
+}
@@ -0,0 +1,98 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.Parareal;
+import com.example.utilities.solvers.RK4Solver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Parareal: it has to reproduce the sequential fine solution slice by slice.
+ */
+class PararealTest {
+
+    // two-body problem with mu = 1, circular orbit of radius 1 has period 2*pi
+    private static final ODEFunction KEPLER = (t, y, dydt) -> {
+        double r = Math.sqrt(y[0] * y[0] + y[1] * y[1]);
+        double s = -1.0 / (r * r * r);
+        dydt[0] = y[2];
+        dydt[1] = y[3];
+        dydt[2] = s * y[0];
+        dydt[3] = s * y[1];
+    };
+
+    private static final double[] ORBIT = {1.0, 0.0, 0.0, 1.1};
+
+    private final Parareal.Propagator coarse = Parareal.fixedStep(KEPLER, RK4Solver::new, 0.2);
+    private final Parareal.Propagator fine = (t0, y0, t1) -> {
+        double[] row = new DormandPrinceSolver(1e-12, 1e-12).integrateTo(KEPLER, t0, y0, t1, 0.01, 1000000, null, null);
+        return Arrays.copyOfRange(row, 1, row.length);
+    };
+
+    /** The fine propagator run over the same slices one after the other. */
+    private double[] sequential(double t0, double[] y0, double tEnd, int slices) {
+        double[] y = y0;
+        for (int n = 0; n < slices; n++) {
+            y = fine.propagate(t0 + (tEnd - t0) * n / slices, y, t0 + (tEnd - t0) * (n + 1) / slices);
+        }
+        return y;
+    }
+
+    @Test
+    void testConvergesToTheSequentialFineSolution() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Parareal parareal = new Parareal(coarse, fine, 16, 1e-10, 1e-10, 16, pool);
+            double[] end = parareal.propagate(0.0, ORBIT, 20 * Math.PI);
+            double[] expected = sequential(0.0, ORBIT, 20 * Math.PI, 16);
+
+            assertArrayEquals(expected, end, 1e-8);
+            assertTrue(parareal.getIterations() < 16, "took " + parareal.getIterations() + " iterations");
+            double[][] boundaries = parareal.getBoundaryStates();
+            assertEquals(17, boundaries.length);
+            assertArrayEquals(ORBIT, boundaries[0], 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testOneIterationPerSliceIsExact() {
+        // a tolerance that is never met runs every iteration
+        Parareal parareal = new Parareal(coarse, fine, 5, 1e-300, 0.0, 100);
+        double[] end = parareal.propagate(0.0, ORBIT, 10.0);
+
+        assertEquals(5, parareal.getIterations());
+        assertArrayEquals(sequential(0.0, ORBIT, 10.0, 5), end, 1e-12);
+    }
+
+    @Test
+    void testSingleSliceIsTheFinePropagator() {
+        Parareal parareal = new Parareal(coarse, fine, 1, 1e-10, 1e-10, 10);
+        assertArrayEquals(fine.propagate(0.0, ORBIT, 3.0), parareal.propagate(0.0, ORBIT, 3.0), 1e-14);
+        assertEquals(1, parareal.getIterations());
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Parareal(coarse, fine, 0, 1e-8, 1e-8, 5));
+        assertThrows(IllegalArgumentException.class, () -> new Parareal(coarse, fine, 4, 0.0, 0.0, 5));
+        Parareal parareal = new Parareal(coarse, fine, 4, 1e-8, 1e-8, 5);
+        assertThrows(IllegalArgumentException.class, () -> parareal.propagate(1.0, ORBIT, 1.0));
+        assertThrows(IllegalStateException.class, parareal::getBoundaryStates);
+    }
+
+    @Test
+    void testFailingSliceIsRethrown() {
+        Parareal.Propagator failing = (t0, y0, t1) -> {
+            throw new IllegalStateException("slice did not reach " + t1);
+        };
+        Parareal parareal = new Parareal(coarse, failing, 4, 1e-8, 1e-8, 5);
+        assertThrows(IllegalStateException.class, () -> parareal.propagate(0.0, ORBIT, 1.0));
+    }
+}
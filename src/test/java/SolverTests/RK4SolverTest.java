@@ -1,6 +1,9 @@
 package SolverTests;
 
+import com.example.utilities.solvers.ODEFunction;
 import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.StepSink;
+import com.example.utilities.solvers.TrajectoryRecorder;
 import org.junit.jupiter.api.Test;
 
 import java.util.function.BiFunction;
@@ -114,4 +117,76 @@ class RK4SolverTest {
 
         assertEquals(3.0, result[0], 1e-9, "With constant rate 5, y(h) = y0 + 5*h");
     }
+
+    /**
+     * The primitive in-place step must give the same result as the boxed solveStep,
+     * also when the output array is the input state itself.
+     */
+    @Test
+    void testPrimitiveStepMatchesSolveStep() {
+        BiFunction<Double, double[], double[]> boxed = (t, y) -> new double[]{y[1], -y[0]};
+        ODEFunction primitive = (t, y, dydt) -> {
+            dydt[0] = y[1];
+            dydt[1] = -y[0];
+        };
+        double h = 0.05;
+        double[] expected = {1.0, 0.0};
+        double[] y = {1.0, 0.0};
+
+        for (int i = 0; i < 20; i++) {
+            expected = solver.solveStep(boxed, i * h, expected, h);
+            solver.step(primitive, i * h, y, h, y);
+        }
+
+        assertArrayEquals(expected, y, 1e-15, "In-place primitive step should match solveStep");
+    }
+
+    /**
+     * Streaming every 4th step into a recorder must keep exactly the matching rows of the
+     * full solution, and the final-state-only run must return the last row.
+     */
+    @Test
+    void testStreamingSinkMatchesSolve() {
+        ODEFunction f = (t, y, dydt) -> dydt[0] = y[0];
+        double[] y0 = {1.0};
+        double h = 0.1;
+        int steps = 20;
+
+        double[][] full = solver.solve(f, 0.0, y0, h, steps, null);
+        TrajectoryRecorder recorder = new TrajectoryRecorder(1);
+        solver.integrate(f, 0.0, y0, h, steps, null, StepSink.everyNth(4, recorder));
+        double[] last = solver.integrate(f, 0.0, y0, h, steps, null, null);
+
+        assertEquals(steps + 1, full.length);
+        assertEquals(6, recorder.size(), "Rows 0, 4, 8, 12, 16 and 20 should be kept");
+        for (int row = 0; row < recorder.size(); row++) {
+            assertArrayEquals(full[row * 4], recorder.getRow(row), 1e-15);
+        }
+        assertArrayEquals(full[steps], last, 1e-15);
+        assertEquals(1.0, y0[0], "The initial state must not be modified");
+    }
+
+    /**
+     * A step given its first stage takes the same step with one evaluation less.
+     */
+    @Test
+    void testStepWithSuppliedFirstStage() {
+        int[] evaluations = {0};
+        ODEFunction oscillator = (t, y, dydt) -> {
+            evaluations[0]++;
+            dydt[0] = y[1];
+            dydt[1] = -y[0];
+        };
+        double[] y = {1.0, 0.5};
+        double[] full = new double[2];
+        solver.step(oscillator, 0.0, y, 0.1, full);
+        assertEquals(4, evaluations[0]);
+
+        double[] dydt = {0.5, -1.0};
+        double[] reused = new double[2];
+        solver.step(oscillator, 0.0, y, dydt, 0.1, reused);
+        assertEquals(7, evaluations[0]);
+        assertArrayEquals(full, reused, 0.0);
+        assertArrayEquals(new double[]{0.5, -1.0}, dydt, 0.0, "The first stage must not be modified");
+    }
 }
@@ -0,0 +1,70 @@
+package SolverTests;
+
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RKF45Session;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RKF45Session.
+ * Checks that advancing in many short pieces behaves like one long integration.
+ */
+class RKF45SessionTest {
+
+    // harmonic oscillator, exact solution y = (cos t, -sin t)
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    @Test
+    void testLandsExactlyOnTargetTime() {
+        RKF45Session session = new RKF45Session(oscillator, 0.0, new double[]{1.0, 0.0},
+                0.1, Double.POSITIVE_INFINITY, 1e-10, 1e-10);
+
+        assertTrue(session.advanceTo(2.5, 10_000));
+        assertEquals(2.5, session.getTime(), 0.0);
+        assertEquals(Math.cos(2.5), session.getState()[0], 1e-8);
+        assertEquals(-Math.sin(2.5), session.getState()[1], 1e-8);
+    }
+
+    /**
+     * Splitting the interval into short pieces must not cost more than one call: the step
+     * size is carried over and the targets are interpolated instead of stepped to.
+     */
+    @Test
+    void testRepeatedCallsKeepStepSize() {
+        RKF45Session whole = new RKF45Session(oscillator, 0.0, new double[]{1.0, 0.0},
+                0.01, Double.POSITIVE_INFINITY, 1e-10, 1e-10);
+        RKF45Session pieces = new RKF45Session(oscillator, 0.0, new double[]{1.0, 0.0},
+                0.01, Double.POSITIVE_INFINITY, 1e-10, 1e-10);
+
+        assertTrue(whole.advanceTo(10.0, 100_000));
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(pieces.advanceTo(i * 0.1, 100_000));
+        }
+
+        assertEquals(10.0, pieces.getTime(), 1e-12);
+        assertArrayEquals(whole.getState(), pieces.getState(), 1e-7);
+        assertEquals(whole.getAcceptedSteps(), pieces.getAcceptedSteps(),
+                "The output times should not change the steps that are taken");
+    }
+
+    @Test
+    void testStepBudgetIsReported() {
+        RKF45Session session = new RKF45Session(oscillator, 0.0, new double[]{1.0, 0.0},
+                0.01, 0.01, 1e-10, 1e-10);
+
+        assertFalse(session.advanceTo(1.0, 10));
+        assertTrue(session.getTime() < 1.0);
+    }
+
+    @Test
+    void testRejectsBackwardIntegration() {
+        RKF45Session session = new RKF45Session(oscillator, 1.0, new double[]{1.0, 0.0},
+                0.1, 1.0, 1e-8, 1e-8);
+
+        assertThrows(IllegalArgumentException.class, () -> session.advanceTo(0.5, 100));
+    }
+}
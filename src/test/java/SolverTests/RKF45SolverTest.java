@@ -1,5 +1,6 @@
 package SolverTests;
 
+import com.example.utilities.solvers.ODEFunction;
 import com.example.utilities.solvers.RKF45Solver;
 import org.junit.jupiter.api.Test;
 
@@ -174,4 +175,21 @@ public class RKF45SolverTest {
             assertEquals(t, result[i][1], 1e-9, "y(t) should equal t for dy/dt = 1");
         }
     }
+
+    /**
+     * Tests that integrateTo lands exactly on the end time, also past the MAX_TIME of integrate
+     */
+    @Test
+    void testIntegrateToLandsOnTheEndTime() {
+        ODEFunction f = (t, y, dydt) -> dydt[0] = -y[0];
+        double[] end = solver.integrateTo(f, 0.0, new double[]{1.0}, 1.0, 0.3, Integer.MAX_VALUE, null, null);
+        assertEquals(1.0, end[0], 0.0);
+        assertEquals(Math.exp(-1.0), end[1], 1e-6);
+
+        ODEFunction constant = (t, y, dydt) -> dydt[0] = 1.0;
+        double[] late = solver.integrateTo(constant, 0.0, new double[]{0.0}, 1500.0, 1.0, Integer.MAX_VALUE, null, null);
+        assertEquals(1500.0, late[0], 1e-9);
+        assertThrows(IllegalArgumentException.class,
+                () -> solver.integrateTo(constant, 1.0, new double[]{0.0}, 0.0, 0.1, 10, null, null));
+    }
 }
@@ -0,0 +1,112 @@
+package SolverTests;
+
+import com.example.utilities.solvers.ButcherTableau;
+import com.example.utilities.solvers.ExplicitRungeKuttaSolver;
+import com.example.utilities.solvers.Jacobian;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RosenbrockSolver;
+import com.example.utilities.solvers.StiffnessSwitchingSolver;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Rosenbrock-W solver and the automatic stiffness switching.
+ */
+class RosenbrockSolverTest {
+
+    // Prothero-Robinson: y' = lambda (y - sin t) + cos t, solution sin t, stiff for large |lambda|
+    private static final double LAMBDA = -1e6;
+
+    private final ODEFunction protheroRobinson = (t, y, dydt) -> dydt[0] = LAMBDA * (y[0] - Math.sin(t)) + Math.cos(t);
+
+    // Robertson's chemical kinetics, the classic stiff test problem
+    private final ODEFunction robertson = (t, y, dydt) -> {
+        dydt[0] = -0.04 * y[0] + 1e4 * y[1] * y[2];
+        dydt[1] = 0.04 * y[0] - 1e4 * y[1] * y[2] - 3e7 * y[1] * y[1];
+        dydt[2] = 3e7 * y[1] * y[1];
+    };
+
+    private final Jacobian robertsonJacobian = (t, y, dfdy, dfdt) -> {
+        dfdy[0][0] = -0.04;
+        dfdy[0][1] = 1e4 * y[2];
+        dfdy[0][2] = 1e4 * y[1];
+        dfdy[1][0] = 0.04;
+        dfdy[1][1] = -1e4 * y[2] - 6e7 * y[1];
+        dfdy[1][2] = -1e4 * y[1];
+        dfdy[2][0] = 0.0;
+        dfdy[2][1] = 6e7 * y[1];
+        dfdy[2][2] = 0.0;
+        if (dfdt != null) {
+            dfdt[0] = dfdt[1] = dfdt[2] = 0.0;
+        }
+    };
+
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    @Test
+    void testFollowsTheSmoothSolutionOfAStiffProblem() {
+        TrajectoryRecorder rows = new TrajectoryRecorder(1);
+        double[] last = new RosenbrockSolver(null, 1e-6, 1e-6)
+                .integrateTo(protheroRobinson, 0.0, new double[]{0.0}, 10.0, 1e-3, 100000, null, rows);
+
+        assertEquals(10.0, last[0], 0.0);
+        assertEquals(Math.sin(10.0), last[1], 1e-6);
+        // an explicit method would need |lambda| * 10 / 3 steps just to stay stable
+        assertTrue(rows.size() < 5000, "steps: " + rows.size());
+    }
+
+    @Test
+    void testRobertsonWithAnalyticAndFiniteDifferenceJacobians() {
+        double[] y0 = {1.0, 0.0, 0.0};
+        TrajectoryRecorder rows = new TrajectoryRecorder(3);
+        double[] exact = new RosenbrockSolver(robertsonJacobian, 1e-8, 1e-6)
+                .integrateTo(robertson, 0.0, y0, 40.0, 1e-6, 100000, null, rows);
+        double[] approximate = new RosenbrockSolver(null, 1e-8, 1e-6)
+                .integrateTo(robertson, 0.0, y0, 40.0, 1e-6, 100000, null, null);
+
+        // reference values at t = 40 (Hairer & Wanner)
+        assertEquals(0.7158271, exact[1], 1e-4);
+        assertEquals(9.185535e-6, exact[2], 1e-8);
+        assertEquals(1.0, exact[1] + exact[2] + exact[3], 1e-10);
+        assertArrayEquals(exact, approximate, 1e-5);
+        assertTrue(rows.size() < 2000, "steps: " + rows.size());
+    }
+
+    @Test
+    void testSwitchesToTheStiffMethodAndTakesFewerSteps() {
+        double[] y0 = {1.0, 0.0, 0.0};
+        StiffnessSwitchingSolver switching = new StiffnessSwitchingSolver(robertsonJacobian, 1e-8, 1e-6);
+        TrajectoryRecorder rows = new TrajectoryRecorder(3);
+        double[] last = switching.integrateTo(robertson, 0.0, y0, 40.0, 1e-6, 100000, null, rows);
+
+        assertTrue(switching.getSwitches() >= 1);
+        assertTrue(switching.isStiff());
+        assertEquals(0.7158271, last[1], 1e-4);
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(rows.getTime(i) > rows.getTime(i - 1), "duplicate row at " + rows.getTime(i));
+        }
+
+        TrajectoryRecorder explicitRows = new TrajectoryRecorder(3);
+        new ExplicitRungeKuttaSolver(ButcherTableau.DOPRI5, 1e-8, 1e-6, Double.POSITIVE_INFINITY)
+                .integrateTo(robertson, 0.0, y0, 40.0, 1e-6, 1000000, null, explicitRows);
+        assertTrue(rows.size() * 10 < explicitRows.size(),
+                rows.size() + " steps against " + explicitRows.size());
+    }
+
+    @Test
+    void testStaysExplicitOnANonStiffProblem() {
+        StiffnessSwitchingSolver switching = new StiffnessSwitchingSolver();
+        double end = 4 * Math.PI;
+        double[] last = switching.integrateTo(oscillator, 0.0, new double[]{1.0, 0.0}, end, 0.01, 100000, null, null);
+
+        assertEquals(0, switching.getSwitches());
+        assertFalse(switching.isStiff());
+        assertEquals(1.0, last[1], 1e-4);
+        assertEquals(0.0, last[2], 1e-4);
+    }
+}
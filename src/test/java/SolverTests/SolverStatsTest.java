@@ -0,0 +1,110 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODESolver;
+import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.RKF45Session;
+import com.example.utilities.solvers.SolverStats;
+import com.example.utilities.solvers.StiffnessSwitchingSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the counters the solvers fill after setStats.
+ */
+class SolverStatsTest {
+
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    @Test
+    void testRK4CountsFourEvaluationsPerStep() {
+        RK4Solver solver = new RK4Solver();
+        SolverStats stats = new SolverStats();
+        solver.setStats(stats);
+        solver.integrate(oscillator, 0.0, new double[]{1.0, 0.0}, 0.01, 100, null, null);
+
+        assertSame(stats, solver.getStats());
+        assertEquals(100, stats.getAcceptedSteps());
+        assertEquals(0, stats.getRejectedSteps());
+        assertEquals(400, stats.getEvaluations());
+        assertEquals(4.0, stats.getEvaluationsPerStep(), 0.0);
+        assertEquals(1, stats.getIntegrations());
+        assertEquals(0.01, stats.getMinStepSize(), 1e-15);
+        // fixed step solvers have no error estimate
+        assertEquals(0, Arrays.stream(stats.getErrorHistogram()).sum());
+    }
+
+    @Test
+    void testAdaptiveSolverFillsTheHistograms() {
+        DormandPrinceSolver solver = new DormandPrinceSolver(1e-10, 1e-10);
+        SolverStats stats = new SolverStats();
+        solver.setStats(stats);
+        // a first step far too large for the tolerance has to be rejected
+        solver.integrateTo(oscillator, 0.0, new double[]{1.0, 0.0}, 10.0, 5.0, 100000, null, null);
+
+        assertTrue(stats.getAcceptedSteps() > 0);
+        assertTrue(stats.getRejectedSteps() > 0);
+        assertTrue(stats.getAcceptanceRate() < 1.0);
+        assertEquals(stats.getAcceptedSteps(), Arrays.stream(stats.getStepHistogram()).sum());
+        assertEquals(stats.getAcceptedSteps() + stats.getRejectedSteps(),
+                Arrays.stream(stats.getErrorHistogram()).sum());
+        assertTrue(stats.getMinStepSize() <= stats.getMaxStepSize());
+        assertTrue(stats.getEvaluations() >= 6 * (stats.getAcceptedSteps() + stats.getRejectedSteps()));
+    }
+
+    @Test
+    void testSwitchingSolverAndSessionReportToTheirStats() {
+        StiffnessSwitchingSolver switching = new StiffnessSwitchingSolver();
+        SolverStats stats = new SolverStats();
+        switching.setStats(stats);
+        switching.integrateTo(oscillator, 0.0, new double[]{1.0, 0.0}, 1.0, 0.1, 10000, null, null);
+        assertTrue(stats.getAcceptedSteps() > 0);
+        assertTrue(stats.getEvaluations() > stats.getAcceptedSteps());
+
+        RKF45Session session = new RKF45Session(oscillator, 0.0, new double[]{1.0, 0.0}, 0.1,
+                Double.POSITIVE_INFINITY, 1e-8, 1e-8);
+        SolverStats sessionStats = new SolverStats();
+        session.setStats(sessionStats);
+        assertTrue(session.advanceTo(1.0, 10000));
+        assertEquals(session.getAcceptedSteps(), sessionStats.getAcceptedSteps());
+        assertEquals(session.getRejectedSteps(), sessionStats.getRejectedSteps());
+    }
+
+    @Test
+    void testAddMergesCounters() {
+        SolverStats first = new SolverStats();
+        SolverStats second = new SolverStats();
+        first.accepted(0.5, 0.1);
+        second.accepted(0.001, 0.9);
+        second.rejected(0.01, 3.0);
+        second.addEvaluations(7);
+
+        SolverStats total = new SolverStats();
+        total.add(first);
+        total.add(second);
+        assertEquals(2, total.getAcceptedSteps());
+        assertEquals(1, total.getRejectedSteps());
+        assertEquals(7, total.getEvaluations());
+        assertEquals(0.001, total.getMinStepSize(), 0.0);
+        assertEquals(0.5, total.getMaxStepSize(), 0.0);
+        assertEquals(3, Arrays.stream(total.getErrorHistogram()).sum());
+
+        total.reset();
+        assertEquals(0, total.getAcceptedSteps());
+        assertTrue(Double.isNaN(total.getMinStepSize()));
+    }
+
+    @Test
+    void testSolversWithoutCountersIgnoreStats() {
+        ODESolver lambda = (f, t0, y0, h, steps, stop) -> new double[0][];
+        lambda.setStats(new SolverStats());
+        assertNull(lambda.getStats());
+    }
+}
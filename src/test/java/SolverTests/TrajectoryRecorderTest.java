@@ -0,0 +1,45 @@
+package SolverTests;
+
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the flat trajectory buffer.
+ */
+class TrajectoryRecorderTest {
+
+    private static TrajectoryRecorder recorded(int rows) {
+        TrajectoryRecorder recorder = new TrajectoryRecorder(2);
+        for (int i = 0; i < rows; i++) {
+            recorder.accept(0.1 * i, new double[]{i, -i});
+        }
+        return recorder;
+    }
+
+    @Test
+    void testCopiedRowsAppendToTheSameTrajectory() {
+        TrajectoryRecorder source = recorded(1000);
+        TrajectoryRecorder copy = new TrajectoryRecorder(2);
+        copy.appendRows(source.copyRows(0, 10));
+        copy.appendRows(source.copyRows(10, 1000));
+
+        assertEquals(1000, copy.size());
+        assertArrayEquals(source.copyRows(0, 1000), copy.copyRows(0, 1000), 0.0);
+        assertArrayEquals(new double[]{99.9, 999, -999}, copy.getRow(999), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> copy.appendRows(new double[4]));
+    }
+
+    @Test
+    void testNearestRow() {
+        TrajectoryRecorder recorder = recorded(100);
+
+        assertEquals(42, recorder.nearestRow(4.2));
+        assertEquals(42, recorder.nearestRow(4.24));
+        assertEquals(43, recorder.nearestRow(4.26));
+        assertEquals(0, recorder.nearestRow(-5.0));
+        assertEquals(99, recorder.nearestRow(50.0));
+        assertEquals(-1, new TrajectoryRecorder(2).nearestRow(1.0));
+    }
+}
@@ -0,0 +1,116 @@
+package SolverTests;
+
+import com.example.utilities.solvers.DormandPrinceSolver;
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.ODEUtility;
+import com.example.utilities.solvers.Trajectory;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for time lookup, interpolation, range extremes and zero crossings of a solution.
+ */
+class TrajectoryTest {
+
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    /** cos t and -sin t on an adaptive grid, so sample times are irregular. */
+    private TrajectoryRecorder adaptiveOscillator() {
+        TrajectoryRecorder rows = new TrajectoryRecorder(2);
+        new DormandPrinceSolver(1e-8, 1e-8).integrateTo(oscillator, 0.0, new double[]{1.0, 0.0}, 10.0, 0.1,
+                100000, null, rows);
+        return rows;
+    }
+
+    @Test
+    void testInterpolatesBetweenAdaptiveSamples() {
+        TrajectoryRecorder rows = adaptiveOscillator();
+        Trajectory exact = new Trajectory(rows, oscillator);
+        Trajectory estimated = new Trajectory(rows);
+
+        for (double t = 0.0; t <= 10.0; t += 0.37) {
+            assertEquals(Math.cos(t), exact.valueAt(t, 0), 1e-5, "t = " + t);
+            assertEquals(-Math.sin(t), exact.valueAt(t)[1], 1e-5, "t = " + t);
+            assertEquals(Math.cos(t), estimated.valueAt(t, 0), 1e-3, "t = " + t);
+        }
+        assertThrows(IllegalArgumentException.class, () -> exact.valueAt(10.5));
+    }
+
+    @Test
+    void testFloorRow() {
+        Trajectory trajectory = new Trajectory(new double[][]{{0.0, 1.0}, {0.5, 2.0}, {2.0, 3.0}});
+        assertEquals(-1, trajectory.floorRow(-0.1));
+        assertEquals(0, trajectory.floorRow(0.0));
+        assertEquals(0, trajectory.floorRow(0.49));
+        assertEquals(1, trajectory.floorRow(0.5));
+        assertEquals(2, trajectory.floorRow(7.0));
+    }
+
+    @Test
+    void testRangeExtremesMatchAScan() {
+        double[][] matrix = adaptiveOscillator().toMatrix();
+        Trajectory trajectory = new Trajectory(matrix, oscillator);
+
+        double[][] ranges = {{0.0, 10.0}, {0.3, 0.4}, {1.0, 4.0}, {2.5, 9.1}, {5.0, 5.0}};
+        for (double[] range : ranges) {
+            double max = Math.max(trajectory.valueAt(range[0], 0), trajectory.valueAt(range[1], 0));
+            double min = Math.min(trajectory.valueAt(range[0], 0), trajectory.valueAt(range[1], 0));
+            for (double[] row : matrix) {
+                if (row[0] > range[0] && row[0] <= range[1]) {
+                    max = Math.max(max, row[1]);
+                    min = Math.min(min, row[1]);
+                }
+            }
+            assertEquals(max, trajectory.max(0, range[0], range[1]), 0.0);
+            assertEquals(min, trajectory.min(0, range[0], range[1]), 0.0);
+        }
+        assertEquals(1.0, trajectory.max(0), 0.0);
+        // samples only, the one closest to t = pi is not exactly there
+        assertEquals(-1.0, trajectory.min(0), 1e-3);
+    }
+
+    @Test
+    void testZeroCrossingsOfCosine() {
+        Trajectory trajectory = new Trajectory(adaptiveOscillator(), oscillator);
+        double[] crossings = trajectory.zeroCrossings(0);
+
+        // cos t vanishes at pi/2 + k pi
+        assertEquals(3, crossings.length);
+        for (int k = 0; k < crossings.length; k++) {
+            assertEquals(Math.PI / 2 + k * Math.PI, crossings[k], 1e-7);
+        }
+        // -sin t starts at exactly zero
+        assertEquals(0.0, trajectory.zeroCrossings(1)[0], 0.0);
+    }
+
+    @Test
+    void testODEUtilityFindsTimesBetweenRows() {
+        double[][] matrix = adaptiveOscillator().toMatrix();
+
+        double[] value = ODEUtility.getValueAt(matrix, 1.2345);
+        assertNotNull(value);
+        assertEquals(Math.cos(1.2345), value[0], 1e-3);
+        assertNull(ODEUtility.getValueAt(matrix, 11.0));
+
+        // the one-shot helpers give the same numbers as a trajectory over all rows
+        Trajectory trajectory = new Trajectory(matrix);
+        assertArrayEquals(trajectory.valueAt(1.2345), value, 0.0);
+        Double[][] crossings = ODEUtility.xIntersectInStep(matrix);
+        for (int j = 0; j < 2; j++) {
+            double[] expected = trajectory.zeroCrossings(j);
+            assertEquals(expected.length, crossings[j].length);
+            for (int k = 0; k < expected.length; k++) {
+                assertEquals(expected[k], crossings[j][k], 0.0);
+            }
+        }
+        assertEquals(3, crossings[0].length);
+        assertEquals(Math.PI / 2, crossings[0][0], 1e-3);
+        assertEquals(trajectory.max(0), ODEUtility.getMax(matrix)[0], 0.0);
+        assertEquals(trajectory.min(1), ODEUtility.getMin(matrix)[1], 0.0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LTTB downsampling.
+ */
+class DownsamplerTest {
+
+    private static TrajectoryRecorder sineWithSpike(int rows, int spikeRow) {
+        TrajectoryRecorder trajectory = new TrajectoryRecorder(1);
+        for (int i = 0; i < rows; i++) {
+            double t = 0.001 * i;
+            trajectory.accept(t, new double[]{i == spikeRow ? 10.0 : Math.sin(t)});
+        }
+        return trajectory;
+    }
+
+    @Test
+    void testKeepsEndsAndOrderWithinTheThreshold() {
+        TrajectoryRecorder trajectory = sineWithSpike(100_000, -1);
+        int[] rows = Downsampler.largestTriangleThreeBuckets(trajectory, 0, 0, trajectory.size(), 600);
+
+        assertEquals(600, rows.length);
+        assertEquals(0, rows[0]);
+        assertEquals(99_999, rows[599]);
+        for (int i = 1; i < rows.length; i++) {
+            assertTrue(rows[i] > rows[i - 1]);
+        }
+    }
+
+    @Test
+    void testKeepsASingleRowPeak() {
+        TrajectoryRecorder trajectory = sineWithSpike(100_000, 31_415);
+        int[] rows = Downsampler.largestTriangleThreeBuckets(trajectory, 0, 0, trajectory.size(), 300);
+
+        boolean found = false;
+        for (int row : rows) {
+            found |= row == 31_415;
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    void testSubrangeAndSmallInputs() {
+        TrajectoryRecorder trajectory = sineWithSpike(1000, -1);
+
+        int[] rows = Downsampler.largestTriangleThreeBuckets(trajectory, 0, 200, 800, 50);
+        assertEquals(50, rows.length);
+        assertEquals(200, rows[0]);
+        assertEquals(799, rows[49]);
+
+        assertArrayEquals(new int[]{10, 11, 12}, Downsampler.largestTriangleThreeBuckets(trajectory, 0, 10, 13, 50));
+        assertEquals(0, Downsampler.largestTriangleThreeBuckets(trajectory, 0, 5, 5, 50).length);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for parameter sweeps; the grid points run on two workers.
+ */
+class ParameterSweepTest {
+
+    private static final String[] VARIABLES = {"y", "k"};
+
+    private final SolverJobService service = new SolverJobService(2, Runnable::run);
+
+    // y' = -k y with the constant k as a state variable whose equation is 0
+    private final ODEFunction decay = (t, y, dydt) -> {
+        dydt[0] = -y[1] * y[0];
+        dydt[1] = 0.0;
+    };
+
+    private final ODEFunction oscillator = (t, y, dydt) -> {
+        dydt[0] = y[1];
+        dydt[1] = -y[0];
+    };
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testTwoDimensionalSweepOfInitialValueAndConstant() {
+        ParameterSweep sweep = ParameterSweep.parse("y = 1..3:3, k = 0..2:5", "final(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[]{0.0, 0.0}, 0.01, 100);
+        double[][] values = sweep.run(service, null).join();
+
+        assertEquals(15, sweep.getPoints());
+        assertEquals(15, sweep.getCompletedPoints());
+        assertEquals(3, values.length);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(5, values[i].length);
+            for (int j = 0; j < 5; j++) {
+                double y0 = 1 + i;
+                double k = 0.5 * j;
+                assertEquals(y0 * Math.exp(-k), values[i][j], 1e-8, "y0 = " + y0 + ", k = " + k);
+            }
+        }
+    }
+
+    @Test
+    void testMaximumAndMinimumOverTheRun() {
+        ParameterSweep max = ParameterSweep.parse("v = 0..2:5", "max(x)", new String[]{"x", "v"},
+                RK4Solver::new, () -> oscillator, 0.0, new double[]{0.0, 0.0}, 0.01, 700);
+        ParameterSweep min = ParameterSweep.parse("v = 0..2:5", "min(x)", new String[]{"x", "v"},
+                RK4Solver::new, () -> oscillator, 0.0, new double[]{0.0, 0.0}, 0.01, 700);
+        double[][] maxima = max.run(service, null).join();
+        double[][] minima = min.run(service, null).join();
+
+        assertNull(max.getColumns());
+        for (int i = 0; i < 5; i++) {
+            // x = v0 sin t, amplitude v0
+            double amplitude = 0.5 * i;
+            assertEquals(amplitude, maxima[i][0], 1e-4);
+            assertEquals(-amplitude, minima[i][0], 1e-4);
+        }
+    }
+
+    @Test
+    void testCancelledSweepLeavesNaN() {
+        ParameterSweep sweep = ParameterSweep.parse("y = 1..3:3", "final(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[]{0.0, 1.0}, 0.01, 100);
+        sweep.cancel();
+        double[][] values = sweep.run(service, null).join();
+
+        assertTrue(sweep.isCancelled());
+        for (double[] row : values) {
+            assertTrue(Double.isNaN(row[0]));
+        }
+    }
+
+    @Test
+    void testInvalidSweepsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ParameterSweep.parse("z = 0..1:3", "final(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[2], 0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> ParameterSweep.parse("y = 0..1", "final(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[2], 0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> ParameterSweep.parse("y = 0..1:3", "mean(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[2], 0.1, 10));
+        assertThrows(IllegalArgumentException.class, () -> ParameterSweep.parse("y = 0..1:0", "max(y)", VARIABLES,
+                RK4Solver::new, () -> decay, 0.0, new double[2], 0.1, 10));
+    }
+}
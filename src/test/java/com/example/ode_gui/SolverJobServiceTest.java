@@ -0,0 +1,139 @@
+package com.example.ode_gui;
+
+import com.example.utilities.solvers.ODEFunction;
+import com.example.utilities.solvers.RK4Solver;
+import com.example.utilities.solvers.TrajectoryRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for background solving; listener calls run on the worker here instead of the JavaFX thread.
+ */
+class SolverJobServiceTest {
+
+    private final SolverJobService service = new SolverJobService(2, Runnable::run);
+
+    private final ODEFunction decay = (t, y, dydt) -> dydt[0] = -y[0];
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testStreamsAllRowsBeforeFinishing() throws InterruptedException {
+        TrajectoryRecorder streamed = new TrajectoryRecorder(1);
+        AtomicReference<TrajectoryRecorder> finished = new AtomicReference<>();
+        AtomicReference<SolverJobService.Progress> lastProgress = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        service.solve(new RK4Solver(), decay, 0.0, new double[]{1.0}, 0.001, 1000, new SolverJobService.Listener() {
+            @Override
+            public void onRows(double[] rows) {
+                streamed.appendRows(rows);
+            }
+
+            @Override
+            public void onProgress(SolverJobService.Progress progress) {
+                lastProgress.set(progress);
+            }
+
+            @Override
+            public void onFinished(TrajectoryRecorder trajectory) {
+                finished.set(trajectory);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        TrajectoryRecorder rows = finished.get();
+        assertEquals(1001, rows.size());
+        assertEquals(rows.size(), streamed.size());
+        assertArrayEquals(rows.copyRows(0, rows.size()), streamed.copyRows(0, streamed.size()), 0.0);
+        assertEquals(1.0, rows.get(0, 0), 0.0);
+        assertEquals(Math.exp(-1.0), rows.get(1000, 0), 1e-10);
+        assertEquals(1000, lastProgress.get().getSteps());
+        assertEquals(1.0, lastProgress.get().getFraction(), 0.0);
+    }
+
+    @Test
+    void testCancelStopsTheSolver() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        ODEFunction slow = (t, y, dydt) -> {
+            started.countDown();
+            dydt[0] = -y[0];
+        };
+
+        SolverJobService.Job job = service.solve(new RK4Solver(), slow, 0.0, new double[]{1.0}, 1e-9,
+                Integer.MAX_VALUE, new SolverJobService.Listener() {
+                    @Override
+                    public void onFinished(TrajectoryRecorder trajectory) {
+                        finished.set(true);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        cancelled.countDown();
+                    }
+                });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.cancel();
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        assertTrue(job.isDone());
+        assertFalse(finished.get());
+    }
+
+    @Test
+    void testFailureIsReported() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        ODEFunction broken = (t, y, dydt) -> {
+            throw new ArithmeticException("Division by zero!");
+        };
+
+        service.solve(new RK4Solver(), broken, 0.0, new double[]{1.0}, 0.1, 10, new SolverJobService.Listener() {
+            @Override
+            public void onFinished(TrajectoryRecorder trajectory) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailed(Throwable error) {
+                failure.set(error);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertInstanceOf(ArithmeticException.class, failure.get());
+    }
+
+    @Test
+    void testSubmitRunsIndependentTasks() {
+        List<CompletableFuture<Double>> cells = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            double h = 0.1 / i;
+            cells.add(service.submit(() -> {
+                double[] last = new RK4Solver().integrate(decay, 0.0, new double[]{1.0}, h, (int) Math.round(1 / h),
+                        null, null);
+                return Math.abs(last[1] - Math.exp(-1.0));
+            }));
+        }
+        for (int i = 1; i < cells.size(); i++) {
+            assertTrue(cells.get(i).join() < cells.get(i - 1).join());
+        }
+    }
+}